@@ -12,7 +12,7 @@ package jaxrs.examples.async;
 
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -21,9 +21,12 @@ import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.container.AsyncExecutor;
 import jakarta.ws.rs.container.AsyncResponse;
 import jakarta.ws.rs.container.CompletionCallback;
 import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
 
 /**
@@ -37,10 +40,13 @@ import jakarta.ws.rs.core.MediaType;
 public class AsyncEventResource implements CompletionCallback {
     private static final BlockingQueue<String> messages = new ArrayBlockingQueue<String>(5);
 
+    @Context
+    private AsyncExecutor executor;
+
     @GET
     public void readMessage(@Suspended final AsyncResponse ar) {
         ar.register(AsyncEventResource.class);
-        Executors.newSingleThreadExecutor().submit(new Runnable() {
+        execute(ar, new Runnable() {
 
             @Override
             public void run() {
@@ -56,7 +62,7 @@ public class AsyncEventResource implements CompletionCallback {
 
     @POST
     public void postMessage(final String message, @Suspended final AsyncResponse asyncResponse) {
-        Executors.newSingleThreadExecutor().submit(new Runnable() {
+        execute(asyncResponse, new Runnable() {
 
             @Override
             public void run() {
@@ -79,4 +85,16 @@ public class AsyncEventResource implements CompletionCallback {
             System.out.println("Completed with an unmapped exception.");
         }
     }
+
+    /**
+     * Run a task on the executor of the resource and resume the request with {@code 503 Service Unavailable} if the
+     * executor is full.
+     */
+    private void execute(AsyncResponse ar, Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            ar.resume(new ServiceUnavailableException(e.getMessage(), false));
+        }
+    }
 }
@@ -11,7 +11,7 @@
 package jaxrs.examples.async;
 
 import java.util.Random;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -21,8 +21,12 @@ import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.container.AsyncExecutor;
 import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Bulkhead;
 import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
 
 /**
  * Long-running asynchronous processing examples.
@@ -31,8 +35,12 @@ import jakarta.ws.rs.container.Suspended;
  */
 @Path("/async/longRunning")
 @Produces("text/plain")
+@Bulkhead(maxConcurrency = 16, maxQueueLength = 64)
 public class LongRunningAsyncOperationResource {
 
+    @Context
+    private AsyncExecutor executor;
+
     @GET
     @Path("sync")
     public String basicSyncExample() {
@@ -49,7 +57,7 @@ public class LongRunningAsyncOperationResource {
     public void asyncExample(
             @Suspended final AsyncResponse ar) {
         ar.setTimeout(15, SECONDS);
-        Executors.newSingleThreadExecutor().submit(new Runnable() {
+        execute(ar, new Runnable() {
             @Override
             public void run() {
                 try {
@@ -69,7 +77,7 @@ public class LongRunningAsyncOperationResource {
             // process simple queries synchronously
             ar.resume("Simple result for " + query);
         } else {
-            Executors.newSingleThreadExecutor().submit(new Runnable() {
+            execute(ar, new Runnable() {
 
                 @Override
                 public void run() {
@@ -99,7 +107,7 @@ public class LongRunningAsyncOperationResource {
             ar.setTimeout(15, SECONDS);
         }
 
-        Executors.newSingleThreadExecutor().submit(new Runnable() {
+        execute(ar, new Runnable() {
 
             @Override
             public void run() {
@@ -118,7 +126,7 @@ public class LongRunningAsyncOperationResource {
     @Path("asyncHandleUsage")
     public void suspendHandleUsageExample(@Suspended final AsyncResponse ar) {
         ar.setTimeout(15, SECONDS);
-        Executors.newSingleThreadExecutor().submit(new Runnable() {
+        execute(ar, new Runnable() {
 
             @Override
             public void run() {
@@ -132,7 +140,7 @@ public class LongRunningAsyncOperationResource {
             }
         });
 
-        Executors.newSingleThreadExecutor().submit(new Runnable() {
+        execute(ar, new Runnable() {
 
             @Override
             public void run() {
@@ -143,4 +151,16 @@ public class LongRunningAsyncOperationResource {
             }
         });
     }
+
+    /**
+     * Run a task on the executor of the resource and resume the request with {@code 503 Service Unavailable} if the
+     * executor is full.
+     */
+    private void execute(AsyncResponse ar, Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            ar.resume(new ServiceUnavailableException(e.getMessage(), false));
+        }
+    }
 }
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.async.executor;
+
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.ws.rs.container.AsyncExecutor;
+import jakarta.ws.rs.container.Bulkhead;
+import jakarta.ws.rs.container.ResourceInfo;
+
+/**
+ * Example container-side registry of the {@link AsyncExecutor async executors} injected into resources.
+ * <p>
+ * All executors share one carrier: a virtual thread per task executor where the Java platform provides one and virtual
+ * threads are requested, a pool of daemon platform threads otherwise. Because every executor bounds its own
+ * concurrency, the carrier itself does not need a bound. The executor of a resource method is created from its
+ * {@link Bulkhead} annotation or the annotation of its resource class on first use and reused afterwards; resources
+ * without a bulkhead share the default executor. A runtime backs {@code @Context AsyncExecutor} injection with
+ * {@link #get(ResourceInfo)}.
+ * </p>
+ */
+public final class AsyncExecutors implements AutoCloseable {
+
+    private final ExecutorService carrier;
+    private final boolean virtual;
+    private final AsyncExecutor defaultExecutor;
+    private final Map<AnnotatedElement, AsyncExecutor> bulkheads = new ConcurrentHashMap<AnnotatedElement, AsyncExecutor>();
+
+    /**
+     * Create a new registry.
+     *
+     * @param defaultMaxConcurrency maximum concurrency of the default executor.
+     * @param defaultMaxQueueLength maximum queue length of the default executor.
+     * @param virtualThreads {@code true} to run the tasks on virtual threads if the platform supports them.
+     */
+    public AsyncExecutors(int defaultMaxConcurrency, int defaultMaxQueueLength, boolean virtualThreads) {
+        final ExecutorService virtualCarrier = virtualThreads ? newVirtualThreadPerTaskExecutor() : null;
+        this.virtual = virtualCarrier != null;
+        this.carrier = virtual ? virtualCarrier : Executors.newCachedThreadPool(new DaemonThreadFactory());
+        this.defaultExecutor = new BulkheadExecutor(carrier, defaultMaxConcurrency, defaultMaxQueueLength);
+    }
+
+    /**
+     * Check whether the tasks run on virtual threads.
+     *
+     * @return {@code true} if virtual threads are used.
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Get the executor shared by the resources without a bulkhead.
+     *
+     * @return default executor.
+     */
+    public AsyncExecutor getDefault() {
+        return defaultExecutor;
+    }
+
+    /**
+     * Get the executor of a resource method.
+     *
+     * @param resourceInfo matched resource class and method.
+     * @return executor of the method bulkhead, the class bulkhead or the default executor.
+     */
+    public AsyncExecutor get(ResourceInfo resourceInfo) {
+        final Method method = resourceInfo.getResourceMethod();
+        if (method != null && method.isAnnotationPresent(Bulkhead.class)) {
+            return bulkhead(method);
+        }
+        final Class<?> resourceClass = resourceInfo.getResourceClass();
+        if (resourceClass != null && resourceClass.isAnnotationPresent(Bulkhead.class)) {
+            return bulkhead(resourceClass);
+        }
+        return defaultExecutor;
+    }
+
+    /**
+     * Shut the carrier down. Running tasks are completed, queued tasks are not started any more.
+     */
+    @Override
+    public void close() {
+        carrier.shutdown();
+    }
+
+    private AsyncExecutor bulkhead(AnnotatedElement annotated) {
+        AsyncExecutor executor = bulkheads.get(annotated);
+        if (executor == null) {
+            final Bulkhead bulkhead = annotated.getAnnotation(Bulkhead.class);
+            executor = new BulkheadExecutor(carrier, bulkhead.maxConcurrency(), bulkhead.maxQueueLength());
+            final AsyncExecutor existing = bulkheads.putIfAbsent(annotated, executor);
+            if (existing != null) {
+                executor = existing;
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Create a virtual thread per task executor using reflection, so that the example compiles and runs on Java
+     * versions without virtual threads.
+     *
+     * @return new executor or {@code null} if the platform does not support virtual threads.
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, "async-executor-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.async.executor;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.ws.rs.container.AsyncExecutor;
+
+/**
+ * Example {@link AsyncExecutor} limiting the concurrency and the queue length of the tasks it passes to a shared
+ * carrier executor.
+ * <p>
+ * A task is passed to the carrier if fewer than the maximum concurrency tasks are running, otherwise it is queued. A
+ * carrier thread finishing a task runs the next queued task of the same bulkhead before it returns, so queued tasks do
+ * not need a new carrier dispatch. Tasks which do not fit into the queue are rejected. If the carrier rejects a task
+ * queued by another caller, which cannot be told about it, the task is queued again and runs once a slot becomes free.
+ * </p>
+ */
+public final class BulkheadExecutor implements AsyncExecutor {
+
+    private final Executor carrier;
+    private final int maxConcurrency;
+    private final int maxQueueLength;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<Runnable>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Create a new executor.
+     *
+     * @param carrier executor running the tasks.
+     * @param maxConcurrency maximum number of tasks running at the same time.
+     * @param maxQueueLength maximum number of tasks waiting for execution.
+     */
+    public BulkheadExecutor(Executor carrier, int maxConcurrency, int maxQueueLength) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("Maximum concurrency must be positive: " + maxConcurrency);
+        }
+        if (maxQueueLength < 0) {
+            throw new IllegalArgumentException("Maximum queue length must not be negative: " + maxQueueLength);
+        }
+        this.carrier = carrier;
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueueLength = maxQueueLength;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (command == null) {
+            throw new NullPointerException("Task must not be null.");
+        }
+        if (tryAcquire()) {
+            dispatch(command);
+            return;
+        }
+        if (queued.incrementAndGet() > maxQueueLength) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            throw new RejectedExecutionException("Bulkhead of " + maxConcurrency + " running and " + maxQueueLength
+                    + " queued tasks is full.");
+        }
+        queue.offer(command);
+        // all running tasks may have finished in the meantime
+        if (tryAcquire()) {
+            final Runnable next = poll();
+            if (next == null) {
+                release();
+            } else if (next == command) {
+                dispatch(next);
+            } else {
+                dispatchQueued(next);
+            }
+        }
+    }
+
+    @Override
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public int getMaxQueueLength() {
+        return maxQueueLength;
+    }
+
+    @Override
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    @Override
+    public int getQueueLength() {
+        return queued.get();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    @Override
+    public String toString() {
+        return "BulkheadExecutor[active=" + active.get() + "/" + maxConcurrency + ", queued=" + queued.get() + "/"
+                + maxQueueLength + ", rejected=" + rejected.get() + "]";
+    }
+
+    /**
+     * Pass a task of the calling thread to the carrier, the caller holds a slot.
+     */
+    private void dispatch(Runnable first) {
+        try {
+            carry(first);
+        } catch (RuntimeException e) {
+            release();
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Pass a task queued by another caller to the carrier, the caller holds a slot. A carrier failure must not be
+     * reported to the calling thread, and the task must not get lost, so the task is queued again.
+     */
+    private void dispatchQueued(Runnable task) {
+        try {
+            carry(task);
+        } catch (RuntimeException e) {
+            release();
+            queued.incrementAndGet();
+            queue.offer(task);
+        }
+    }
+
+    private void carry(final Runnable first) {
+        carrier.execute(new Runnable() {
+            @Override
+            public void run() {
+                runAll(first);
+            }
+        });
+    }
+
+    private void runAll(Runnable first) {
+        Runnable task = first;
+        try {
+            while (task != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    final Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+                task = next();
+            }
+        } finally {
+            if (task != null) {
+                // an error escaped the task; free the slot and hand the queued tasks to another carrier thread
+                release();
+                if (!queue.isEmpty() && tryAcquire()) {
+                    final Runnable next = poll();
+                    if (next == null) {
+                        release();
+                    } else {
+                        dispatchQueued(next);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Take the next queued task for a carrier thread holding a slot.
+     *
+     * @return next task, {@code null} if there is none and the slot has been released.
+     */
+    private Runnable next() {
+        Runnable task = poll();
+        if (task == null) {
+            release();
+            // a task may have been queued after the poll, before the release
+            if (!queue.isEmpty() && tryAcquire()) {
+                task = poll();
+                if (task == null) {
+                    release();
+                }
+            }
+        }
+        return task;
+    }
+
+    private Runnable poll() {
+        final Runnable task = queue.poll();
+        if (task != null) {
+            queued.decrementAndGet();
+        }
+        return task;
+    }
+
+    private boolean tryAcquire() {
+        while (true) {
+            final int current = active.get();
+            if (current >= maxConcurrency) {
+                return false;
+            }
+            if (active.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void release() {
+        active.decrementAndGet();
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.async.timer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.CompletionCallback;
+import jakarta.ws.rs.container.TimeoutHandler;
+
+/**
+ * Timer for the timeouts of suspended responses backed by a hashed hierarchical timing wheel.
+ * <p>
+ * Time is divided into ticks of a fixed duration. The wheel consists of {@value #LEVELS} levels of {@code wheelSize}
+ * buckets each; a bucket of the first level holds the timeouts expiring in one tick, a bucket of every further level
+ * spans a whole rotation of the level below. Scheduling a timeout links it into the bucket of its deadline, cancelling
+ * unlinks it, both in constant time and without the heap reordering of a {@link java.util.concurrent.DelayQueue}. When
+ * a level completes a rotation, the next bucket of the level above is redistributed to the lower levels.
+ * </p>
+ * <p>
+ * The buckets are owned by a single timer thread. Other threads hand scheduled and cancelled timeouts over through
+ * lock-free queues, which the timer thread drains once per tick. All timeouts expiring in a tick are handed to the
+ * handler executor as one batch. An expired timeout invokes its {@link TimeoutHandler}, or resumes the response with a
+ * {@link ServiceUnavailableException} like the default timeout behaviour of {@link AsyncResponse}, unless the response
+ * is no longer suspended. Timeouts fire up to one tick late, never early.
+ * </p>
+ * <pre>
+ * &#64;GET
+ * public void readMessage(&#64;Suspended AsyncResponse ar) {
+ *     timer.schedule(ar, 30, TimeUnit.SECONDS, null);
+ *     waiting.add(ar);
+ * }
+ * </pre>
+ */
+public final class TimingWheel implements AutoCloseable {
+
+    /**
+     * Number of levels of the wheel.
+     */
+    public static final int LEVELS = 4;
+
+    private static final Logger LOGGER = Logger.getLogger(TimingWheel.class.getName());
+    private static final AtomicIntegerFieldUpdater<Timeout> STATE = AtomicIntegerFieldUpdater.newUpdater(Timeout.class,
+            "state");
+
+    private final long tickNanos;
+    private final int bits;
+    private final int mask;
+    private final Timeout[][] buckets;
+    private final Executor handlerExecutor;
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<Timeout>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<Timeout>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final long startNanos;
+    private final Thread thread;
+    private volatile boolean closed;
+    // ticks processed so far, written by the timer thread only
+    private long currentTick;
+
+    /**
+     * Create a wheel of 10 ms ticks and 512 buckets per level running the timeout handlers on the timer thread.
+     */
+    public TimingWheel() {
+        this(10, TimeUnit.MILLISECONDS, 512, null);
+    }
+
+    /**
+     * Create a new wheel and start its timer thread.
+     *
+     * @param tickDuration duration of a tick.
+     * @param unit unit of the tick duration.
+     * @param wheelSize number of buckets per level, rounded up to a power of two.
+     * @param handlerExecutor executor running the timeout handlers of a tick as one task, {@code null} to run them on
+     *        the timer thread.
+     */
+    public TimingWheel(long tickDuration, TimeUnit unit, int wheelSize, Executor handlerExecutor) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive: " + tickDuration);
+        }
+        if (wheelSize < 2 || wheelSize > 1 << 15) {
+            throw new IllegalArgumentException("Wheel size must be between 2 and 32768: " + wheelSize);
+        }
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.bits = 32 - Integer.numberOfLeadingZeros(wheelSize - 1);
+        this.mask = (1 << bits) - 1;
+        this.buckets = new Timeout[LEVELS][1 << bits];
+        this.handlerExecutor = handlerExecutor;
+        this.startNanos = System.nanoTime();
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runTimer();
+            }
+        }, "timing-wheel");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Schedule the timeout of a suspended response. The timeout is cancelled automatically when the response
+     * completes.
+     *
+     * @param response suspended response.
+     * @param timeout timeout value, a non-positive value times the response out in the next tick.
+     * @param unit unit of the timeout value.
+     * @param handler handler invoked on timeout, {@code null} for the default timeout behaviour.
+     * @return handle of the scheduled timeout.
+     * @throws IllegalStateException if the wheel has been closed.
+     */
+    public Timeout schedule(AsyncResponse response, long timeout, TimeUnit unit, TimeoutHandler handler) {
+        if (closed) {
+            throw new IllegalStateException("Timing wheel has been closed.");
+        }
+        final long deadlineNanos = System.nanoTime() - startNanos + unit.toNanos(Math.max(timeout, 0));
+        final Timeout t = new Timeout(response, handler, (deadlineNanos + tickNanos - 1) / tickNanos);
+        pending.incrementAndGet();
+        scheduled.offer(t);
+        response.register(t);
+        return t;
+    }
+
+    /**
+     * Get the number of scheduled timeouts which have neither expired nor been cancelled.
+     *
+     * @return number of pending timeouts.
+     */
+    public int getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Stop the timer thread. Pending timeouts do not expire any more.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+    }
+
+    private void runTimer() {
+        final List<Timeout> expired = new ArrayList<Timeout>();
+        while (!closed) {
+            final long nextTickNanos = startNanos + (currentTick + 1) * tickNanos;
+            final long sleepNanos = nextTickNanos - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    continue;
+                }
+            }
+            final long nowTick = (System.nanoTime() - startNanos) / tickNanos;
+            drainCancelled();
+            drainScheduled(expired);
+            while (currentTick < nowTick) {
+                currentTick++;
+                advance(expired);
+            }
+            if (!expired.isEmpty()) {
+                fire(new ArrayList<Timeout>(expired));
+                expired.clear();
+            }
+        }
+    }
+
+    private void drainScheduled(List<Timeout> expired) {
+        Timeout t;
+        while ((t = scheduled.poll()) != null) {
+            if (t.state == Timeout.PENDING) {
+                insert(t, expired);
+            }
+        }
+    }
+
+    private void drainCancelled() {
+        Timeout t;
+        while ((t = cancelled.poll()) != null) {
+            if (t.level >= 0) {
+                unlink(t);
+            }
+        }
+    }
+
+    /**
+     * Process the current tick: redistribute the higher level buckets starting a new rotation and expire the timeouts of
+     * the current first level bucket.
+     */
+    private void advance(List<Timeout> expired) {
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (bits * level)) - 1)) == 0) {
+                final int index = (int) (currentTick >>> (bits * level)) & mask;
+                Timeout t = buckets[level][index];
+                buckets[level][index] = null;
+                while (t != null) {
+                    final Timeout next = t.next;
+                    t.level = -1;
+                    t.prev = null;
+                    t.next = null;
+                    insert(t, expired);
+                    t = next;
+                }
+            }
+        }
+        final int index = (int) currentTick & mask;
+        Timeout t = buckets[0][index];
+        buckets[0][index] = null;
+        while (t != null) {
+            final Timeout next = t.next;
+            t.level = -1;
+            t.prev = null;
+            t.next = null;
+            expired.add(t);
+            t = next;
+        }
+    }
+
+    private void insert(Timeout t, List<Timeout> expired) {
+        final long delta = t.deadlineTick - currentTick;
+        if (delta <= 0) {
+            expired.add(t);
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (bits * (level + 1))) {
+            level++;
+        }
+        // beyond the range of the wheel, park in the last bucket reached and redistribute from there
+        final long tick = delta >= 1L << (bits * LEVELS) ? currentTick + (1L << (bits * LEVELS)) - 1 : t.deadlineTick;
+        final int index = (int) (tick >>> (bits * level)) & mask;
+        t.level = level;
+        t.index = index;
+        t.next = buckets[level][index];
+        if (t.next != null) {
+            t.next.prev = t;
+        }
+        buckets[level][index] = t;
+    }
+
+    private void unlink(Timeout t) {
+        if (t.prev != null) {
+            t.prev.next = t.next;
+        } else {
+            buckets[t.level][t.index] = t.next;
+        }
+        if (t.next != null) {
+            t.next.prev = t.prev;
+        }
+        t.level = -1;
+        t.prev = null;
+        t.next = null;
+    }
+
+    private void fire(final List<Timeout> batch) {
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                for (Timeout t : batch) {
+                    t.expire();
+                }
+            }
+        };
+        if (handlerExecutor == null) {
+            task.run();
+        } else {
+            handlerExecutor.execute(task);
+        }
+    }
+
+    /**
+     * Handle of a scheduled timeout.
+     */
+    public final class Timeout implements CompletionCallback {
+
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final AsyncResponse response;
+        private final TimeoutHandler handler;
+        private final long deadlineTick;
+        // not private, the field updater must be able to access it
+        volatile int state;
+
+        // bucket links, accessed by the timer thread only
+        private int level = -1;
+        private int index;
+        private Timeout prev;
+        private Timeout next;
+
+        private Timeout(AsyncResponse response, TimeoutHandler handler, long deadlineTick) {
+            this.response = response;
+            this.handler = handler;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Get the response the timeout is scheduled for.
+         *
+         * @return suspended response.
+         */
+        public AsyncResponse getResponse() {
+            return response;
+        }
+
+        /**
+         * Cancel the timeout.
+         *
+         * @return {@code true} if the timeout has been cancelled, {@code false} if it has already expired or been
+         *         cancelled.
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            pending.decrementAndGet();
+            cancelled.offer(this);
+            return true;
+        }
+
+        /**
+         * Check whether the timeout has been cancelled.
+         *
+         * @return {@code true} if cancelled.
+         */
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        /**
+         * Check whether the timeout has expired.
+         *
+         * @return {@code true} if expired.
+         */
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        @Override
+        public void onComplete(Throwable throwable) {
+            cancel();
+        }
+
+        private void expire() {
+            if (!STATE.compareAndSet(this, PENDING, EXPIRED)) {
+                return;
+            }
+            pending.decrementAndGet();
+            if (!response.isSuspended()) {
+                return;
+            }
+            try {
+                if (handler != null) {
+                    handler.handleTimeout(response);
+                } else {
+                    response.resume(new ServiceUnavailableException());
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Timeout handler failed.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.async.timer;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.TimeoutHandler;
+
+/**
+ * Compares the {@link TimingWheel} with a {@link ScheduledThreadPoolExecutor} for the timeouts of long-polling
+ * requests.
+ * <p>
+ * The benchmark suspends {@code n} requests (500 000 by default) with a timeout of 30 to 60 seconds, resumes 90% of
+ * them before their timeout, as messages arrive for them, and lets the rest time out after 1 to 2 seconds. It reports
+ * the cost of scheduling and cancelling a timeout and how long after the last deadline all timeouts have fired.
+ * </p>
+ * <pre>
+ * java -cp ... jaxrs.examples.async.timer.TimingWheelBenchmark 500000
+ * </pre>
+ */
+public final class TimingWheelBenchmark {
+
+    private TimingWheelBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        final int n = args.length > 0 ? Integer.parseInt(args[0]) : 500000;
+        for (int round = 0; round < 3; round++) {
+            System.out.println("round " + round);
+            runWheel(n);
+            runExecutor(n);
+        }
+    }
+
+    private static void runWheel(int n) throws InterruptedException {
+        final AtomicInteger fired = new AtomicInteger();
+        final TimeoutHandler handler = new CountingHandler(fired);
+        final Random random = new Random(42);
+        final TimingWheel wheel = new TimingWheel();
+        try {
+            final TimingWheel.Timeout[] timeouts = new TimingWheel.Timeout[n];
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                timeouts[i] = wheel.schedule(new SuspendedResponse(), timeout(random, i), TimeUnit.MILLISECONDS, handler);
+            }
+            final long scheduleNanos = System.nanoTime() - start;
+            final long lastDeadline = System.currentTimeMillis() + 2000;
+            start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                if (resumed(i)) {
+                    timeouts[i].cancel();
+                }
+            }
+            final long cancelNanos = System.nanoTime() - start;
+            final long lateMillis = awaitFired(fired, expiring(n), lastDeadline);
+            report("timing wheel", n, scheduleNanos, cancelNanos, lateMillis);
+        } finally {
+            wheel.close();
+        }
+    }
+
+    private static void runExecutor(int n) throws InterruptedException {
+        final AtomicInteger fired = new AtomicInteger();
+        final Random random = new Random(42);
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        try {
+            final ScheduledFuture<?>[] timeouts = new ScheduledFuture<?>[n];
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                timeouts[i] = executor.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        fired.incrementAndGet();
+                    }
+                }, timeout(random, i), TimeUnit.MILLISECONDS);
+            }
+            final long scheduleNanos = System.nanoTime() - start;
+            final long lastDeadline = System.currentTimeMillis() + 2000;
+            start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                if (resumed(i)) {
+                    timeouts[i].cancel(false);
+                }
+            }
+            final long cancelNanos = System.nanoTime() - start;
+            final long lateMillis = awaitFired(fired, expiring(n), lastDeadline);
+            report("scheduled executor", n, scheduleNanos, cancelNanos, lateMillis);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long timeout(Random random, int i) {
+        return resumed(i) ? 30000 + random.nextInt(30000) : 1000 + random.nextInt(1000);
+    }
+
+    private static boolean resumed(int i) {
+        return i % 10 != 0;
+    }
+
+    private static int expiring(int n) {
+        return (n + 9) / 10;
+    }
+
+    /**
+     * Wait until the expected number of timeouts have fired.
+     *
+     * @return milliseconds between the last deadline and the last timeout firing.
+     */
+    private static long awaitFired(AtomicInteger fired, int expected, long lastDeadline) throws InterruptedException {
+        while (fired.get() < expected) {
+            Thread.sleep(1);
+        }
+        return System.currentTimeMillis() - lastDeadline;
+    }
+
+    private static void report(String name, int n, long scheduleNanos, long cancelNanos, long lateMillis) {
+        System.out.printf("  %-20s schedule %6.0f ns/op, cancel %6.0f ns/op, last timeout %5d ms after deadline%n", name,
+                (double) scheduleNanos / n, (double) cancelNanos / (n - expiring(n)), lateMillis);
+    }
+
+    private static final class CountingHandler implements TimeoutHandler {
+
+        private final AtomicInteger fired;
+
+        private CountingHandler(AtomicInteger fired) {
+            this.fired = fired;
+        }
+
+        @Override
+        public void handleTimeout(AsyncResponse asyncResponse) {
+            fired.incrementAndGet();
+        }
+    }
+
+    /**
+     * Minimal suspended response standing in for the runtime implementation.
+     */
+    private static final class SuspendedResponse implements AsyncResponse {
+
+        @Override
+        public boolean resume(Object response) {
+            return true;
+        }
+
+        @Override
+        public boolean resume(Throwable response) {
+            return true;
+        }
+
+        @Override
+        public boolean cancel() {
+            return true;
+        }
+
+        @Override
+        public boolean cancel(int retryAfter) {
+            return true;
+        }
+
+        @Override
+        public boolean cancel(Date retryAfter) {
+            return true;
+        }
+
+        @Override
+        public boolean isSuspended() {
+            return true;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return false;
+        }
+
+        @Override
+        public boolean setTimeout(long time, TimeUnit unit) {
+            return true;
+        }
+
+        @Override
+        public void setTimeoutHandler(TimeoutHandler handler) {
+        }
+
+        @Override
+        public Collection<Class<?>> register(Class<?> callback) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Map<Class<?>, Collection<Class<?>>> register(Class<?> callback, Class<?>... callbacks) {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Collection<Class<?>> register(Object callback) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Map<Class<?>, Collection<Class<?>>> register(Object callback, Object... callbacks) {
+            return Collections.emptyMap();
+        }
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.buffer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.ws.rs.ext.BufferPool;
+
+/**
+ * Growable in-memory byte store kept as a chain of fixed-size chunks acquired from a {@link BufferPool}.
+ * <p>
+ * Unlike a {@link java.io.ByteArrayOutputStream}, growing the chain never copies the data written so far. The content
+ * can be read any number of times using independent {@link #newInputStream() input streams}. Once the chain is
+ * {@link #close() closed}, all chunks are returned to the pool and the chain must not be used any more.
+ * </p>
+ */
+public final class BufferChain implements Closeable {
+
+    private final BufferPool pool;
+    private final List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+    private long size;
+    private boolean closed;
+
+    /**
+     * Create a new empty buffer chain.
+     *
+     * @param pool pool to acquire chunks from.
+     */
+    public BufferChain(BufferPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Read the supplied stream until its end and append all the bytes read to the chain.
+     * <p>
+     * The stream is read directly into the chunk memory whenever the chunks are backed by an accessible array.
+     * </p>
+     *
+     * @param in stream to be read. The stream is not closed.
+     * @return number of bytes appended.
+     * @throws IOException in case of an I/O error while reading the stream.
+     */
+    public long readFrom(InputStream in) throws IOException {
+        checkOpen();
+        byte[] transfer = null;
+        long total = 0;
+        while (true) {
+            final ByteBuffer tail = writableTail();
+            final int read;
+            if (tail.hasArray()) {
+                read = in.read(tail.array(), tail.arrayOffset() + tail.position(), tail.remaining());
+                if (read > 0) {
+                    ((Buffer) tail).position(tail.position() + read);
+                }
+            } else {
+                if (transfer == null) {
+                    transfer = new byte[Math.min(tail.capacity(), 8192)];
+                }
+                read = in.read(transfer, 0, Math.min(transfer.length, tail.remaining()));
+                if (read > 0) {
+                    tail.put(transfer, 0, read);
+                }
+            }
+            if (read < 0) {
+                return total;
+            }
+            total += read;
+            size += read;
+        }
+    }
+
+    /**
+     * Append a single byte to the chain.
+     *
+     * @param b byte to be appended.
+     */
+    public void write(int b) {
+        checkOpen();
+        writableTail().put((byte) b);
+        size++;
+    }
+
+    /**
+     * Append a range of bytes to the chain.
+     *
+     * @param b source bytes.
+     * @param off offset of the first byte to append.
+     * @param len number of bytes to append.
+     */
+    public void write(byte[] b, int off, int len) {
+        checkOpen();
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        while (len > 0) {
+            final ByteBuffer tail = writableTail();
+            final int n = Math.min(len, tail.remaining());
+            tail.put(b, off, n);
+            off += n;
+            len -= n;
+            size += n;
+        }
+    }
+
+    /**
+     * Get an output stream that appends the bytes written to it to this chain. Closing the returned stream has no effect
+     * on the chain.
+     *
+     * @return output stream appending to this chain.
+     */
+    public OutputStream getOutputStream() {
+        return new OutputStream() {
+            @Override
+            public void write(int b) {
+                BufferChain.this.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                BufferChain.this.write(b, off, len);
+            }
+        };
+    }
+
+    /**
+     * Get the number of bytes stored in the chain.
+     *
+     * @return number of bytes stored.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Create a new input stream reading the current content of the chain from the beginning. Any number of streams may
+     * be read independently of each other.
+     *
+     * @return new input stream over the chain content.
+     */
+    public InputStream newInputStream() {
+        checkOpen();
+        return new ChainInputStream();
+    }
+
+    /**
+     * Write the whole content of the chain to the supplied stream.
+     *
+     * @param out stream to write to. The stream is not closed.
+     * @throws IOException in case of an I/O error while writing.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        checkOpen();
+        byte[] transfer = null;
+        for (ByteBuffer chunk : chunks) {
+            final ByteBuffer view = readableView(chunk);
+            if (view.hasArray()) {
+                out.write(view.array(), view.arrayOffset(), view.remaining());
+            } else {
+                if (transfer == null) {
+                    transfer = new byte[Math.min(view.capacity(), 8192)];
+                }
+                while (view.hasRemaining()) {
+                    final int n = Math.min(transfer.length, view.remaining());
+                    view.get(transfer, 0, n);
+                    out.write(transfer, 0, n);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copy the content of the chain into a new array of the exact size.
+     *
+     * @return copy of the chain content.
+     */
+    public byte[] toByteArray() {
+        checkOpen();
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Buffered content too large for an array: " + size);
+        }
+        final byte[] result = new byte[(int) size];
+        int offset = 0;
+        for (ByteBuffer chunk : chunks) {
+            final ByteBuffer view = readableView(chunk);
+            final int n = view.remaining();
+            view.get(result, offset, n);
+            offset += n;
+        }
+        return result;
+    }
+
+    /**
+     * Return all chunks to the pool. Subsequent invocations have no effect.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (ByteBuffer chunk : chunks) {
+            pool.release(chunk);
+        }
+        chunks.clear();
+        size = 0;
+    }
+
+    private ByteBuffer writableTail() {
+        if (!chunks.isEmpty()) {
+            final ByteBuffer tail = chunks.get(chunks.size() - 1);
+            if (tail.hasRemaining()) {
+                return tail;
+            }
+        }
+        final ByteBuffer chunk = pool.acquire();
+        chunks.add(chunk);
+        return chunk;
+    }
+
+    private static ByteBuffer readableView(ByteBuffer chunk) {
+        final ByteBuffer view = chunk.duplicate();
+        ((Buffer) view).flip();
+        return view;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Buffer chain has been closed.");
+        }
+    }
+
+    private final class ChainInputStream extends InputStream {
+
+        private int index;
+        private ByteBuffer current;
+        private long remaining = size;
+
+        @Override
+        public int read() {
+            final ByteBuffer view = current();
+            if (view == null) {
+                return -1;
+            }
+            remaining--;
+            return view.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (off < 0 || len < 0 || len > b.length - off) {
+                throw new IndexOutOfBoundsException();
+            }
+            if (len == 0) {
+                return 0;
+            }
+            int total = 0;
+            while (len > 0) {
+                final ByteBuffer view = current();
+                if (view == null) {
+                    break;
+                }
+                final int n = Math.min(len, view.remaining());
+                view.get(b, off, n);
+                off += n;
+                len -= n;
+                total += n;
+            }
+            remaining -= total;
+            return total == 0 ? -1 : total;
+        }
+
+        @Override
+        public long skip(long n) {
+            long skipped = 0;
+            while (skipped < n) {
+                final ByteBuffer view = current();
+                if (view == null) {
+                    break;
+                }
+                final int step = (int) Math.min(n - skipped, view.remaining());
+                ((Buffer) view).position(view.position() + step);
+                skipped += step;
+            }
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, remaining);
+        }
+
+        private ByteBuffer current() {
+            checkOpen();
+            while (current == null || !current.hasRemaining()) {
+                if (index >= chunks.size()) {
+                    return null;
+                }
+                current = readableView(chunks.get(index++));
+            }
+            return current;
+        }
+    }
+}
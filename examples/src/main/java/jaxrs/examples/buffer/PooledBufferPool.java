@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.buffer;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.ws.rs.ext.BufferPool;
+
+/**
+ * Example buffer pool keeping a small per-thread cache of free buffers in front of a bounded global free list.
+ * <p>
+ * Buffers are acquired from the calling thread's cache first, then from the global free list and only allocated when
+ * both are empty. Released buffers go back to the releasing thread's cache until it is full, and to the global free
+ * list afterwards. Once the global free list holds {@code maxPooled} buffers, further released buffers are left to the
+ * garbage collector.
+ * </p>
+ */
+public class PooledBufferPool implements BufferPool {
+
+    /**
+     * Default size of the pooled buffers.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /**
+     * Default maximum number of buffers kept in the global free list.
+     */
+    public static final int DEFAULT_MAX_POOLED = 256;
+
+    private static final int THREAD_CACHE_SIZE = 4;
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final boolean direct;
+
+    private final Queue<ByteBuffer> freeList = new ConcurrentLinkedQueue<ByteBuffer>();
+    private final AtomicInteger freeCount = new AtomicInteger();
+    private final ThreadLocal<ArrayDeque<ByteBuffer>> threadCache = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * Create a pool of {@value #DEFAULT_BUFFER_SIZE} bytes large heap buffers.
+     */
+    public PooledBufferPool() {
+        this(DEFAULT_BUFFER_SIZE, DEFAULT_MAX_POOLED, false);
+    }
+
+    /**
+     * Create a new buffer pool.
+     *
+     * @param bufferSize size of the pooled buffers in bytes.
+     * @param maxPooled maximum number of buffers kept in the global free list.
+     * @param direct {@code true} to pool direct buffers, {@code false} to pool heap buffers.
+     */
+    public PooledBufferPool(int bufferSize, int maxPooled, boolean direct) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        if (maxPooled < 0) {
+            throw new IllegalArgumentException("Maximum number of pooled buffers must not be negative: " + maxPooled);
+        }
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+        this.direct = direct;
+    }
+
+    /**
+     * Get the pool used by the example providers when the runtime does not inject a {@link BufferPool} into them, e.g.
+     * when they are instantiated outside of a JAX-RS runtime. All such providers share this single pool.
+     *
+     * @return shared pool of {@value #DEFAULT_BUFFER_SIZE} bytes large heap buffers.
+     */
+    public static BufferPool getDefault() {
+        return DefaultPoolHolder.INSTANCE;
+    }
+
+    @Override
+    public ByteBuffer acquire() {
+        ByteBuffer buffer = threadCache.get().pollFirst();
+        if (buffer == null) {
+            buffer = freeList.poll();
+            if (buffer != null) {
+                freeCount.decrementAndGet();
+            } else {
+                return direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+            }
+        }
+        ((Buffer) buffer).clear();
+        return buffer;
+    }
+
+    @Override
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || buffer.capacity() != bufferSize || buffer.isDirect() != direct || buffer.isReadOnly()) {
+            return;
+        }
+
+        final ArrayDeque<ByteBuffer> cache = threadCache.get();
+        if (cache.size() < THREAD_CACHE_SIZE) {
+            cache.addFirst(buffer);
+        } else if (freeCount.incrementAndGet() <= maxPooled) {
+            freeList.offer(buffer);
+        } else {
+            freeCount.decrementAndGet();
+        }
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public boolean isDirect() {
+        return direct;
+    }
+
+    private static final class DefaultPoolHolder {
+
+        private static final PooledBufferPool INSTANCE = new PooledBufferPool();
+    }
+}
@@ -0,0 +1,366 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import jakarta.ws.rs.ext.BufferPool;
+
+/**
+ * Output stream keeping the written bytes in a {@link BufferChain} of pooled chunks up to a threshold and in a
+ * temporary file beyond it.
+ * <p>
+ * Once more than the threshold has been written, the bytes in memory are moved to a new temporary file, their chunks
+ * are returned to the pool and all further bytes are appended to the file. The content can be read any number of times
+ * using independent {@link #newInputStream() input streams}. The buffer must be {@link #close() closed} when it is no
+ * longer needed, which returns the chunks to the pool and deletes the file.
+ * </p>
+ * <p>
+ * Readers of a spilled buffer either read the file with positional reads into the caller's array, or, if the buffer
+ * was created with {@code mapped} set, copy from {@link FileChannel#map(FileChannel.MapMode, long, long) memory-mapped}
+ * regions of the file, which saves a system call per read at the cost of address space. Mapped regions are released by
+ * the garbage collector, so on platforms that do not allow deleting a mapped file the file may only be deleted on exit.
+ * Streams created before the content is moved to the file must not be used after further writes.
+ * </p>
+ */
+public final class SpillingBuffer extends OutputStream {
+
+    private static final int FILE_BUFFER_SIZE = 8192;
+    private static final long REGION_SIZE = 64 * 1024 * 1024;
+
+    private final BufferPool pool;
+    private final long threshold;
+    private final Path directory;
+    private final boolean mapped;
+    private final byte[] single = new byte[1];
+    private BufferChain memory;
+    private Path file;
+    private FileChannel channel;
+    private ByteBuffer pending;
+    private long size;
+    private boolean closed;
+
+    /**
+     * Create a new buffer.
+     *
+     * @param pool pool to acquire memory chunks from.
+     * @param threshold maximum number of bytes kept in memory.
+     * @param directory directory of the temporary file, {@code null} for the default temporary directory.
+     */
+    public SpillingBuffer(BufferPool pool, long threshold, Path directory) {
+        this(pool, threshold, directory, false);
+    }
+
+    /**
+     * Create a new buffer.
+     *
+     * @param pool pool to acquire memory chunks from.
+     * @param threshold maximum number of bytes kept in memory.
+     * @param directory directory of the temporary file, {@code null} for the default temporary directory.
+     * @param mapped whether readers of the temporary file map it to memory.
+     */
+    public SpillingBuffer(BufferPool pool, long threshold, Path directory, boolean mapped) {
+        this.pool = pool;
+        this.threshold = threshold;
+        this.directory = directory;
+        this.mapped = mapped;
+        this.memory = new BufferChain(pool);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        single[0] = (byte) b;
+        write(single, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkOpen();
+        if (memory != null) {
+            if (size + len <= threshold) {
+                memory.write(b, off, len);
+                size += len;
+                return;
+            }
+            spill();
+        }
+        if (len >= pending.capacity()) {
+            flushPending();
+            writeFully(ByteBuffer.wrap(b, off, len));
+        } else {
+            if (len > pending.remaining()) {
+                flushPending();
+            }
+            pending.put(b, off, len);
+        }
+        size += len;
+    }
+
+    /**
+     * Read a stream to its end and append all bytes read.
+     *
+     * @param in stream to be read, it is not closed.
+     * @return number of bytes appended.
+     * @throws IOException in case of an I/O error.
+     */
+    public long readFrom(InputStream in) throws IOException {
+        final byte[] transfer = new byte[FILE_BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while ((read = in.read(transfer)) >= 0) {
+            write(transfer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * Get the number of bytes written.
+     *
+     * @return content size in bytes.
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Check whether the content has been moved to a temporary file.
+     *
+     * @return {@code true} if the content is kept in a file.
+     */
+    public boolean isSpilled() {
+        return file != null;
+    }
+
+    /**
+     * Get the temporary file holding the content, e.g. to transfer it without copying.
+     *
+     * @return file or {@code null} if the content is kept in memory.
+     * @throws IOException if pending bytes cannot be written to the file.
+     */
+    public Path getFile() throws IOException {
+        if (file != null) {
+            flushPending();
+        }
+        return file;
+    }
+
+    /**
+     * Create a new input stream reading the current content from the beginning. Any number of streams may be read
+     * independently of each other and of further writes.
+     *
+     * @return new input stream.
+     * @throws IOException if pending bytes cannot be written to the file.
+     */
+    public InputStream newInputStream() throws IOException {
+        checkOpen();
+        if (memory != null) {
+            return memory.newInputStream();
+        }
+        flushPending();
+        return mapped ? new MappedInputStream(channel, size) : new FileInputStream(channel, size);
+    }
+
+    /**
+     * Return the memory chunks to the pool and delete the temporary file. Subsequent invocations have no effect.
+     *
+     * @throws IOException if the file cannot be deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (memory != null) {
+            memory.close();
+            memory = null;
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } finally {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private void spill() throws IOException {
+        file = directory == null ? Files.createTempFile("spill", ".tmp") : Files.createTempFile(directory, "spill",
+                ".tmp");
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        pending = ByteBuffer.allocate(FILE_BUFFER_SIZE);
+        final InputStream in = memory.newInputStream();
+        final byte[] transfer = new byte[FILE_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(transfer)) >= 0) {
+            writeFully(ByteBuffer.wrap(transfer, 0, read));
+        }
+        memory.close();
+        memory = null;
+    }
+
+    private void flushPending() throws IOException {
+        pending.flip();
+        writeFully(pending);
+        pending.clear();
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Buffer has been closed.");
+        }
+    }
+
+    /**
+     * Stream reading a file using positional reads, so that several streams share one channel.
+     */
+    private static final class FileInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private final long end;
+        private final ByteBuffer single = ByteBuffer.allocate(1);
+        private long position;
+
+        private FileInputStream(FileChannel channel, long end) {
+            this.channel = channel;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            while (position < end) {
+                single.clear();
+                final int read = channel.read(single, position);
+                if (read < 0) {
+                    return -1;
+                }
+                if (read > 0) {
+                    position++;
+                    return single.get(0) & 0xFF;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+            final ByteBuffer target = ByteBuffer.wrap(b, off, (int) Math.min(len, end - position));
+            final int read = channel.read(target, position);
+            if (read < 0) {
+                return -1;
+            }
+            position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(long n) {
+            final long skipped = Math.max(0, Math.min(n, end - position));
+            position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+    }
+
+    /**
+     * Stream reading a file through memory-mapped regions, mapping the next region when the previous one has been read.
+     */
+    private static final class MappedInputStream extends InputStream {
+
+        private final FileChannel channel;
+        private final long end;
+        private long regionStart;
+        private ByteBuffer region = ByteBuffer.allocate(0);
+
+        private MappedInputStream(FileChannel channel, long end) {
+            this.channel = channel;
+            this.end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return nextRegion() ? region.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!nextRegion()) {
+                return -1;
+            }
+            final int n = Math.min(len, region.remaining());
+            region.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            final long skipped = Math.max(0, Math.min(n, end - position()));
+            final long target = position() + skipped;
+            if (target < regionStart + region.limit()) {
+                ((Buffer) region).position((int) (target - regionStart));
+            } else {
+                regionStart = target;
+                region = ByteBuffer.allocate(0);
+            }
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position());
+        }
+
+        private long position() {
+            return regionStart + region.position();
+        }
+
+        private boolean nextRegion() throws IOException {
+            if (region.hasRemaining()) {
+                return true;
+            }
+            final long position = position();
+            if (position >= end) {
+                return false;
+            }
+            regionStart = position;
+            region = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(REGION_SIZE, end - position));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.buffer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import jakarta.ws.rs.ext.BufferPool;
+
+/**
+ * Output stream writing to an underlying stream while copying the written bytes into a {@link BufferChain} until a
+ * size limit is exceeded.
+ * <p>
+ * Writer interceptors use the stream to keep the serialized form of an entity while it is sent. Once more than the
+ * limit has been written, the copy is discarded and its chunks are returned to the pool, so large entities never stay
+ * in memory. The copy must be {@link #release() released} when it is no longer needed.
+ * </p>
+ */
+public final class TeeOutputStream extends OutputStream {
+
+    private final OutputStream out;
+    private final long limit;
+    private BufferChain copy;
+
+    /**
+     * Create a new stream.
+     *
+     * @param out stream to write to.
+     * @param pool pool to acquire the copy chunks from.
+     * @param limit maximum number of bytes to copy.
+     */
+    public TeeOutputStream(OutputStream out, BufferPool pool, long limit) {
+        this.out = out;
+        this.copy = new BufferChain(pool);
+        this.limit = limit;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out.write(b);
+        if (copy != null && fits(1)) {
+            copy.write(b);
+        }
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        if (copy != null && fits(len)) {
+            copy.write(b, off, len);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Get a copy of the bytes written so far.
+     *
+     * @return new array with all bytes written, {@code null} if the limit has been exceeded or the copy released.
+     */
+    public byte[] toByteArray() {
+        return copy == null ? null : copy.toByteArray();
+    }
+
+    /**
+     * Discard the copy and return its chunks to the pool. Subsequent writes are not copied any more.
+     */
+    public void release() {
+        if (copy != null) {
+            copy.close();
+            copy = null;
+        }
+    }
+
+    private boolean fits(int len) {
+        if (copy.size() + len <= limit) {
+            return true;
+        }
+        release();
+        return false;
+    }
+}
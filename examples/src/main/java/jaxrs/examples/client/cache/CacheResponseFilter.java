@@ -11,7 +11,6 @@
 package jaxrs.examples.client.cache;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Map;
@@ -20,6 +19,9 @@ import jakarta.ws.rs.client.ClientRequestContext;
 import jakarta.ws.rs.client.ClientResponseContext;
 import jakarta.ws.rs.client.ClientResponseFilter;
 import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.ext.BufferPool;
+
+import jaxrs.examples.buffer.BufferChain;
 
 /**
  * @author Bill Burke
@@ -29,9 +31,11 @@ import jakarta.ws.rs.core.MultivaluedHashMap;
 public class CacheResponseFilter implements ClientResponseFilter {
 
     private Map<String, CacheEntry> cacheStore;
+    private BufferPool bufferPool;
 
-    public CacheResponseFilter(Map<String, CacheEntry> store) {
+    public CacheResponseFilter(Map<String, CacheEntry> store, BufferPool bufferPool) {
         this.cacheStore = store;
+        this.bufferPool = bufferPool;
     }
 
     @Override
@@ -42,7 +46,7 @@ public class CacheResponseFilter implements ClientResponseFilter {
     private void store(ClientRequestContext request, ClientResponseContext response) {
         if (request.getMethod().equalsIgnoreCase("GET")) {
 
-            final byte[] body = readFromStream(1024, response.getEntityStream());
+            final byte[] body = readFromStream(bufferPool, response.getEntityStream());
 
             CacheEntry cacheEntry = new CacheEntry(
                     response.getStatus(),
@@ -54,21 +58,13 @@ public class CacheResponseFilter implements ClientResponseFilter {
         }
     }
 
-    private static byte[] readFromStream(int bufferSize, InputStream entityStream) {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
-        byte[] buffer = new byte[bufferSize];
-        int wasRead = 0;
-        do {
-            try {
-                wasRead = entityStream.read(buffer);
-            } catch (IOException e) {
-                throw new RuntimeException(e);
-            }
-            if (wasRead > 0) {
-                baos.write(buffer, 0, wasRead);
-            }
-        } while (wasRead > -1);
-        return baos.toByteArray();
+    private static byte[] readFromStream(BufferPool bufferPool, InputStream entityStream) {
+        // pooled chunks avoid re-allocating and copying a growing array; only the final copy is kept in the cache
+        try (BufferChain chain = new BufferChain(bufferPool)) {
+            chain.readFrom(entityStream);
+            return chain.toByteArray();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
     }
 }
@@ -15,6 +15,9 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import jakarta.ws.rs.core.Feature;
 import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.ext.BufferPool;
+
+import jaxrs.examples.buffer.PooledBufferPool;
 
 /**
  * Example caching feature.
@@ -26,8 +29,21 @@ public class CachingFeature implements Feature {
     @Override
     public boolean configure(FeatureContext context) {
         final Map<String, CacheEntry> cacheStore = new ConcurrentHashMap<String, CacheEntry>();
-        context.register(new CacheEntryLocator(cacheStore)).register(new CacheResponseFilter(cacheStore));
+        final BufferPool bufferPool = bufferPool(context);
+        context.register(new CacheEntryLocator(cacheStore)).register(new CacheResponseFilter(cacheStore, bufferPool));
 
         return true;
     }
+
+    private static BufferPool bufferPool(FeatureContext context) {
+        for (Object instance : context.getConfiguration().getInstances()) {
+            if (instance instanceof BufferPool) {
+                return (BufferPool) instance;
+            }
+        }
+        // share the pool with the runtime so that buffered entities use it as well
+        final BufferPool bufferPool = new PooledBufferPool();
+        context.register(bufferPool);
+        return bufferPool;
+    }
 }
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.client.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Registry of client call metrics kept per target host and URI template.
+ * <p>
+ * The number of distinct targets is bounded; once the limit is reached, calls to new targets are accounted to a single
+ * {@link #OVERFLOW_HOST overflow} target shared by all hosts so that the memory used by the registry stays constant
+ * regardless of the number of distinct hosts and URIs being called.
+ * </p>
+ */
+public final class ClientMetrics {
+
+    /**
+     * Host reported for calls that did not fit into the bounded registry.
+     */
+    public static final String OVERFLOW_HOST = "*";
+
+    /**
+     * URI template reported for calls that did not fit into the bounded registry.
+     */
+    public static final String OVERFLOW_TEMPLATE = "*";
+
+    private static final TargetKey OVERFLOW_KEY = new TargetKey(OVERFLOW_HOST, OVERFLOW_TEMPLATE);
+
+    private final int maxTargets;
+    private final ConcurrentMap<TargetKey, TargetMetrics> targets = new ConcurrentHashMap<TargetKey, TargetMetrics>();
+
+    /**
+     * Create a new registry.
+     *
+     * @param maxTargets maximum number of distinct host and URI template pairs tracked individually, not counting the
+     *                   overflow target.
+     */
+    public ClientMetrics(int maxTargets) {
+        this.maxTargets = maxTargets;
+    }
+
+    /**
+     * Get the metrics of the target identified by the host and URI template.
+     *
+     * @param host target host.
+     * @param uriTemplate target URI template.
+     * @return target metrics, never {@code null}.
+     */
+    public TargetMetrics target(String host, String uriTemplate) {
+        TargetKey key = new TargetKey(host, uriTemplate);
+        TargetMetrics metrics = targets.get(key);
+        if (metrics == null) {
+            if (targets.size() >= maxTargets) {
+                key = OVERFLOW_KEY;
+            }
+            metrics = targets.computeIfAbsent(key, TargetMetrics::new);
+        }
+        return metrics;
+    }
+
+    /**
+     * Take a snapshot of all the tracked targets for export.
+     *
+     * @return snapshots of the tracked targets.
+     */
+    public List<TargetSnapshot> snapshot() {
+        final List<TargetSnapshot> result = new ArrayList<TargetSnapshot>(targets.size());
+        for (TargetMetrics metrics : targets.values()) {
+            result.add(metrics.snapshot());
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Latency histograms and status family counters of a single target.
+     */
+    public static final class TargetMetrics {
+
+        private final TargetKey key;
+        private final LatencyHistogram connect = new LatencyHistogram();
+        private final LatencyHistogram timeToFirstByte = new LatencyHistogram();
+        private final LatencyHistogram total = new LatencyHistogram();
+        private final LongAdder[] statusFamilies = new LongAdder[Response.Status.Family.values().length];
+
+        private TargetMetrics(TargetKey key) {
+            this.key = key;
+            for (int i = 0; i < statusFamilies.length; i++) {
+                statusFamilies[i] = new LongAdder();
+            }
+        }
+
+        void recordConnect(long nanos) {
+            connect.record(nanos);
+        }
+
+        void recordTimeToFirstByte(long nanos) {
+            timeToFirstByte.record(nanos);
+        }
+
+        void recordTotal(long nanos) {
+            total.record(nanos);
+        }
+
+        void recordStatus(int status) {
+            statusFamilies[Response.Status.Family.familyOf(status).ordinal()].increment();
+        }
+
+        private TargetSnapshot snapshot() {
+            final Map<Response.Status.Family, Long> families =
+                    new EnumMap<Response.Status.Family, Long>(Response.Status.Family.class);
+            for (Response.Status.Family family : Response.Status.Family.values()) {
+                families.put(family, statusFamilies[family.ordinal()].sum());
+            }
+            return new TargetSnapshot(key.host, key.uriTemplate,
+                    connect.snapshot(), timeToFirstByte.snapshot(), total.snapshot(), families);
+        }
+    }
+
+    /**
+     * Point-in-time view of the metrics of a single target.
+     */
+    public static final class TargetSnapshot {
+
+        private final String host;
+        private final String uriTemplate;
+        private final LatencyHistogram.Snapshot connect;
+        private final LatencyHistogram.Snapshot timeToFirstByte;
+        private final LatencyHistogram.Snapshot total;
+        private final Map<Response.Status.Family, Long> statusFamilies;
+
+        private TargetSnapshot(String host, String uriTemplate,
+                LatencyHistogram.Snapshot connect,
+                LatencyHistogram.Snapshot timeToFirstByte,
+                LatencyHistogram.Snapshot total,
+                Map<Response.Status.Family, Long> statusFamilies) {
+            this.host = host;
+            this.uriTemplate = uriTemplate;
+            this.connect = connect;
+            this.timeToFirstByte = timeToFirstByte;
+            this.total = total;
+            this.statusFamilies = Collections.unmodifiableMap(statusFamilies);
+        }
+
+        /**
+         * Get the target host, or {@link ClientMetrics#OVERFLOW_HOST} for the overflow target.
+         *
+         * @return target host.
+         */
+        public String getHost() {
+            return host;
+        }
+
+        /**
+         * Get the target URI template, or {@link ClientMetrics#OVERFLOW_TEMPLATE} for the overflow target.
+         *
+         * @return target URI template.
+         */
+        public String getUriTemplate() {
+            return uriTemplate;
+        }
+
+        /**
+         * Get the connection establishment latency. Only recorded for calls whose connector reported the connect time
+         * in the {@link ClientMetricsFeature#CONNECT_NANOS_PROPERTY} request property.
+         *
+         * @return connect latency snapshot.
+         */
+        public LatencyHistogram.Snapshot getConnect() {
+            return connect;
+        }
+
+        /**
+         * Get the latency between sending the request and receiving the response headers.
+         *
+         * @return time-to-first-byte latency snapshot.
+         */
+        public LatencyHistogram.Snapshot getTimeToFirstByte() {
+            return timeToFirstByte;
+        }
+
+        /**
+         * Get the latency between sending the request and consuming or closing the response entity.
+         *
+         * @return total latency snapshot.
+         */
+        public LatencyHistogram.Snapshot getTotal() {
+            return total;
+        }
+
+        /**
+         * Get the number of responses received per status family.
+         *
+         * @return unmodifiable map of response counts, containing an entry for every status family.
+         */
+        public Map<Response.Status.Family, Long> getStatusFamilies() {
+            return statusFamilies;
+        }
+
+        @Override
+        public String toString() {
+            return host + " " + uriTemplate + ": ttfb[" + timeToFirstByte + "], total[" + total + "], status" + statusFamilies;
+        }
+    }
+
+    private static final class TargetKey {
+
+        private final String host;
+        private final String uriTemplate;
+        private final int hash;
+
+        private TargetKey(String host, String uriTemplate) {
+            this.host = host;
+            this.uriTemplate = uriTemplate;
+            this.hash = 31 * host.hashCode() + uriTemplate.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TargetKey)) {
+                return false;
+            }
+            final TargetKey other = (TargetKey) o;
+            return hash == other.hash && host.equals(other.host) && uriTemplate.equals(other.uriTemplate);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
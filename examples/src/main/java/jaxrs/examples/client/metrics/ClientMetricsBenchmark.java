@@ -0,0 +1,398 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.client.metrics;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.Cookie;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Link;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.NewCookie;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Measures the per-call cost of the {@link ClientMetricsFeature} filter pair and the memory retained by the tracked
+ * targets.
+ * <p>
+ * Every call runs the request filter and the response filter against stub contexts, i.e. the start time property is
+ * set and read, the target is looked up by its URI template property or, for half of the calls, by its request path,
+ * the status is classified and, for responses with an entity, the entity stream is wrapped and closed. Calls are
+ * spread over more targets than the registry tracks, so both the per-target and the overflow paths are exercised, and
+ * over the status families 2xx, 4xx and 5xx. The stub contexts keep their properties in a {@link HashMap}, which is
+ * what a client runtime typically does, so the reported cost is close to the cost in a real client, excluding the
+ * network.
+ * </p>
+ * <pre>
+ * java -cp ... jaxrs.examples.client.metrics.ClientMetricsBenchmark 10000000
+ * </pre>
+ */
+public final class ClientMetricsBenchmark {
+
+    private static final int[] STATUSES = {200, 200, 200, 201, 204, 404, 503};
+
+    private ClientMetricsBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        final int n = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+        final int maxTargets = ClientMetricsFeature.DEFAULT_MAX_TARGETS;
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final StubRequest[] requests = new StubRequest[maxTargets * 2];
+        for (int i = 0; i < requests.length; i++) {
+            final String template = "/resource" + i + "/{id}";
+            requests[i] = new StubRequest(URI.create("http://example.com/resource" + i + "/" + random.nextInt(1000)),
+                    i % 2 == 0 ? template : null);
+        }
+        final StubResponse[] responses = new StubResponse[STATUSES.length * 2];
+        for (int i = 0; i < responses.length; i++) {
+            responses[i] = new StubResponse(STATUSES[i % STATUSES.length], i >= STATUSES.length);
+        }
+
+        final Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        final long usedBefore = runtime.totalMemory() - runtime.freeMemory();
+        final ClientMetrics metrics = new ClientMetrics(maxTargets);
+        final ClientMetricsFeature.MetricsFilter filter = new ClientMetricsFeature.MetricsFilter(metrics);
+
+        for (int round = 0; round < 3; round++) {
+            final long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                final StubRequest request = requests[i % requests.length];
+                final StubResponse response = responses[i % responses.length];
+                filter.filter(request);
+                filter.filter(request, response);
+                if (response.entity) {
+                    // the application reads the entity, which closes the stream and records the total latency
+                    response.getEntityStream().close();
+                    response.entityStream = null;
+                }
+            }
+            final long elapsed = System.nanoTime() - start;
+            System.out.printf("round %d: %6.1f ns/call%n", round, (double) elapsed / n);
+        }
+
+        System.gc();
+        final long usedAfter = runtime.totalMemory() - runtime.freeMemory();
+        System.out.printf("%d targets retain about %d KB%n", metrics.snapshot().size(),
+                Math.max(0, usedAfter - usedBefore) / 1024);
+    }
+
+    /**
+     * Request context supporting the operations of the metrics filter.
+     */
+    private static final class StubRequest implements ClientRequestContext {
+
+        private final Map<String, Object> properties = new HashMap<String, Object>();
+        private final URI uri;
+
+        private StubRequest(URI uri, String template) {
+            this.uri = uri;
+            if (template != null) {
+                properties.put(ClientMetricsFeature.URI_TEMPLATE_PROPERTY, template);
+            }
+        }
+
+        @Override
+        public Object getProperty(String name) {
+            return properties.get(name);
+        }
+
+        @Override
+        public Collection<String> getPropertyNames() {
+            return properties.keySet();
+        }
+
+        @Override
+        public void setProperty(String name, Object object) {
+            properties.put(name, object);
+        }
+
+        @Override
+        public void removeProperty(String name) {
+            properties.remove(name);
+        }
+
+        @Override
+        public URI getUri() {
+            return uri;
+        }
+
+        @Override
+        public void setUri(URI uri) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getMethod() {
+            return "GET";
+        }
+
+        @Override
+        public void setMethod(String method) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MultivaluedMap<String, Object> getHeaders() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MultivaluedMap<String, String> getStringHeaders() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getHeaderString(String name) {
+            return null;
+        }
+
+        @Override
+        public Date getDate() {
+            return null;
+        }
+
+        @Override
+        public Locale getLanguage() {
+            return null;
+        }
+
+        @Override
+        public MediaType getMediaType() {
+            return null;
+        }
+
+        @Override
+        public List<MediaType> getAcceptableMediaTypes() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<Locale> getAcceptableLanguages() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, Cookie> getCookies() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasEntity() {
+            return false;
+        }
+
+        @Override
+        public Object getEntity() {
+            return null;
+        }
+
+        @Override
+        public Class<?> getEntityClass() {
+            return null;
+        }
+
+        @Override
+        public Type getEntityType() {
+            return null;
+        }
+
+        @Override
+        public void setEntity(Object entity) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setEntity(Object entity, Annotation[] annotations, MediaType mediaType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Annotation[] getEntityAnnotations() {
+            return new Annotation[0];
+        }
+
+        @Override
+        public OutputStream getEntityStream() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void setEntityStream(OutputStream outputStream) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Client getClient() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Configuration getConfiguration() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void abortWith(Response response) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Response context supporting the operations of the metrics filter.
+     */
+    private static final class StubResponse implements ClientResponseContext {
+
+        private static final byte[] EMPTY = new byte[0];
+
+        private final int status;
+        private final boolean entity;
+        private InputStream entityStream;
+
+        private StubResponse(int status, boolean entity) {
+            this.status = status;
+            this.entity = entity;
+        }
+
+        @Override
+        public int getStatus() {
+            return status;
+        }
+
+        @Override
+        public void setStatus(int code) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Response.StatusType getStatusInfo() {
+            return Response.Status.fromStatusCode(status);
+        }
+
+        @Override
+        public void setStatusInfo(Response.StatusType statusInfo) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public MultivaluedMap<String, String> getHeaders() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getHeaderString(String name) {
+            return null;
+        }
+
+        @Override
+        public Set<String> getAllowedMethods() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Date getDate() {
+            return null;
+        }
+
+        @Override
+        public Locale getLanguage() {
+            return null;
+        }
+
+        @Override
+        public int getLength() {
+            return -1;
+        }
+
+        @Override
+        public MediaType getMediaType() {
+            return null;
+        }
+
+        @Override
+        public Map<String, NewCookie> getCookies() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public EntityTag getEntityTag() {
+            return null;
+        }
+
+        @Override
+        public Date getLastModified() {
+            return null;
+        }
+
+        @Override
+        public URI getLocation() {
+            return null;
+        }
+
+        @Override
+        public Set<Link> getLinks() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasLink(String relation) {
+            return false;
+        }
+
+        @Override
+        public Link getLink(String relation) {
+            return null;
+        }
+
+        @Override
+        public Link.Builder getLinkBuilder(String relation) {
+            return null;
+        }
+
+        @Override
+        public boolean hasEntity() {
+            return entity;
+        }
+
+        @Override
+        public InputStream getEntityStream() {
+            if (entityStream == null) {
+                entityStream = new ByteArrayInputStream(EMPTY);
+            }
+            return entityStream;
+        }
+
+        @Override
+        public void setEntityStream(InputStream input) {
+            entityStream = input;
+        }
+    }
+}
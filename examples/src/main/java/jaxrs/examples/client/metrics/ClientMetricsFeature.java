@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.client.metrics;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.client.ClientResponseContext;
+import jakarta.ws.rs.client.ClientResponseFilter;
+import jakarta.ws.rs.core.Feature;
+import jakarta.ws.rs.core.FeatureContext;
+
+/**
+ * Client feature recording per-target call latencies and response status families.
+ * <p>
+ * Calls are grouped by the target host and the URI template set in the {@link #URI_TEMPLATE_PROPERTY} invocation
+ * property, e.g.:
+ * </p>
+ * <pre>
+ * ClientMetricsFeature metrics = new ClientMetricsFeature();
+ * Client client = ClientBuilder.newClient().register(metrics);
+ *
+ * client.target("http://example.com/orders/{id}").resolveTemplate("id", 42)
+ *         .request().property(ClientMetricsFeature.URI_TEMPLATE_PROPERTY, "/orders/{id}").get();
+ *
+ * for (ClientMetrics.TargetSnapshot target : metrics.getMetrics().snapshot()) {
+ *     System.out.println(target);
+ * }
+ * </pre>
+ * <p>
+ * Calls without the template property are grouped by their request URI path. Connect latency is recorded only if the
+ * client connector reports it in the {@link #CONNECT_NANOS_PROPERTY} request property. The per-call bookkeeping is
+ * limited to two {@link System#nanoTime()} readings, a property lookup, a hash lookup and a few atomic increments.
+ * </p>
+ */
+public class ClientMetricsFeature implements Feature {
+
+    /**
+     * Invocation property holding the URI template used to group the call metrics.
+     */
+    public static final String URI_TEMPLATE_PROPERTY = "jaxrs.examples.client.metrics.uriTemplate";
+
+    /**
+     * Request property in which a connector may report the connection establishment time in nanoseconds as a
+     * {@link Long}.
+     */
+    public static final String CONNECT_NANOS_PROPERTY = "jaxrs.examples.client.metrics.connectNanos";
+
+    /**
+     * Default maximum number of individually tracked targets. Every target keeps three latency histograms of a few
+     * kilobytes each, so the default bounds the registry to a few megabytes.
+     */
+    public static final int DEFAULT_MAX_TARGETS = 256;
+
+    private static final String START_NANOS_PROPERTY = ClientMetricsFeature.class.getName() + ".startNanos";
+
+    private final ClientMetrics metrics;
+
+    /**
+     * Create a feature tracking up to {@value #DEFAULT_MAX_TARGETS} targets individually.
+     */
+    public ClientMetricsFeature() {
+        this(new ClientMetrics(DEFAULT_MAX_TARGETS));
+    }
+
+    /**
+     * Create a feature recording into the supplied registry, which allows sharing a registry among multiple clients.
+     *
+     * @param metrics registry to record the metrics into.
+     */
+    public ClientMetricsFeature(ClientMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Get the registry the feature records into.
+     *
+     * @return metrics registry.
+     */
+    public ClientMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public boolean configure(FeatureContext context) {
+        // the request filter runs last and the response filter first to measure as close to the wire as possible
+        context.register(new MetricsFilter(metrics), Integer.MAX_VALUE);
+        return true;
+    }
+
+    /**
+     * Filter pair measuring the calls, package-private for {@link ClientMetricsBenchmark}.
+     */
+    static final class MetricsFilter implements ClientRequestFilter, ClientResponseFilter {
+
+        private final ClientMetrics metrics;
+
+        MetricsFilter(ClientMetrics metrics) {
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void filter(ClientRequestContext requestContext) throws IOException {
+            requestContext.setProperty(START_NANOS_PROPERTY, System.nanoTime());
+        }
+
+        @Override
+        public void filter(ClientRequestContext requestContext, ClientResponseContext responseContext) throws IOException {
+            final long now = System.nanoTime();
+            final Object start = requestContext.getProperty(START_NANOS_PROPERTY);
+            if (!(start instanceof Long)) {
+                // request aborted before reaching the metrics filter
+                return;
+            }
+            final long startNanos = (Long) start;
+
+            final ClientMetrics.TargetMetrics target = metrics.target(host(requestContext.getUri()), uriTemplate(requestContext));
+            target.recordTimeToFirstByte(now - startNanos);
+            target.recordStatus(responseContext.getStatus());
+
+            final Object connect = requestContext.getProperty(CONNECT_NANOS_PROPERTY);
+            if (connect instanceof Long) {
+                target.recordConnect((Long) connect);
+            }
+
+            if (responseContext.hasEntity()) {
+                responseContext.setEntityStream(new CompletionRecordingStream(responseContext.getEntityStream(), target, startNanos));
+            } else {
+                target.recordTotal(now - startNanos);
+            }
+        }
+
+        private static String host(URI uri) {
+            final String host = uri.getHost();
+            return host == null ? "" : host;
+        }
+
+        private static String uriTemplate(ClientRequestContext requestContext) {
+            final Object template = requestContext.getProperty(URI_TEMPLATE_PROPERTY);
+            if (template != null) {
+                return template.toString();
+            }
+            final String path = requestContext.getUri().getRawPath();
+            return path == null ? "" : path;
+        }
+    }
+
+    /**
+     * Entity stream recording the total call latency once the entity has been fully read or closed.
+     */
+    private static final class CompletionRecordingStream extends FilterInputStream {
+
+        private final ClientMetrics.TargetMetrics target;
+        private final long startNanos;
+        private boolean recorded;
+
+        private CompletionRecordingStream(InputStream in, ClientMetrics.TargetMetrics target, long startNanos) {
+            super(in);
+            this.target = target;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = super.read();
+            if (b < 0) {
+                complete();
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            final int n = super.read(b, off, len);
+            if (n < 0) {
+                complete();
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                complete();
+            }
+        }
+
+        private void complete() {
+            if (!recorded) {
+                recorded = true;
+                target.recordTotal(System.nanoTime() - startNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.client.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with log-linear buckets and bounded memory footprint.
+ * <p>
+ * Values below {@code 64} nanoseconds are counted exactly, larger values are counted in buckets that split every power
+ * of two range into {@code 32} linear sub-buckets, which keeps the relative error of reported values below about 3%.
+ * Values larger than {@link #MAX_TRACKABLE_NANOS} are counted as {@code MAX_TRACKABLE_NANOS}. Recording a value is a
+ * single atomic increment of the bucket counter plus a few uncontended updates of the summary counters.
+ * </p>
+ * <p>
+ * The buckets of a power of two range are allocated when the first value in that range is recorded, so a histogram
+ * whose values span a few orders of magnitude takes a few kilobytes rather than the about 10 kilobytes needed to cover
+ * the whole trackable range.
+ * </p>
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Largest latency that can be told apart from larger ones; about 73 minutes.
+     */
+    public static final long MAX_TRACKABLE_NANOS = (1L << 42) - 1;
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;
+    private static final int LINEAR_MAGNITUDE = SUB_BUCKET_BITS + 1;
+    private static final int BUCKET_COUNT = indexOf(MAX_TRACKABLE_NANOS) + 1;
+
+    private static final int CHUNK_COUNT = chunkOf(BUCKET_COUNT - 1) + 1;
+
+    private final AtomicReferenceArray<AtomicLongArray> chunks = new AtomicReferenceArray<AtomicLongArray>(CHUNK_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Record a single latency value.
+     *
+     * @param nanos latency in nanoseconds. Negative values are recorded as zero.
+     */
+    public void record(long nanos) {
+        final long value = nanos < 0 ? 0 : Math.min(nanos, MAX_TRACKABLE_NANOS);
+        final int index = indexOf(value);
+        chunk(chunkOf(index)).incrementAndGet(offsetOf(index));
+        totalCount.increment();
+        totalNanos.add(value);
+
+        long max = maxNanos.get();
+        while (value > max && !maxNanos.compareAndSet(max, value)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * Take a point-in-time snapshot of the histogram.
+     * <p>
+     * Recording may continue concurrently with taking the snapshot, so the snapshot is not guaranteed to be an atomic
+     * view across all buckets; each bucket count is however read atomically.
+     * </p>
+     *
+     * @return histogram snapshot.
+     */
+    public Snapshot snapshot() {
+        final long[] copy = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int c = 0; c < CHUNK_COUNT; c++) {
+            final AtomicLongArray chunk = chunks.get(c);
+            if (chunk == null) {
+                continue;
+            }
+            final int first = c == 0 ? 0 : LINEAR_LIMIT + (c - 1) * SUB_BUCKET_COUNT;
+            for (int i = 0; i < chunk.length(); i++) {
+                copy[first + i] = chunk.get(i);
+                count += copy[first + i];
+            }
+        }
+        return new Snapshot(copy, count, totalNanos.sum(), maxNanos.get());
+    }
+
+    private AtomicLongArray chunk(int index) {
+        AtomicLongArray chunk = chunks.get(index);
+        if (chunk == null) {
+            final AtomicLongArray created = new AtomicLongArray(index == 0 ? LINEAR_LIMIT : SUB_BUCKET_COUNT);
+            chunk = chunks.compareAndSet(index, null, created) ? created : chunks.get(index);
+        }
+        return chunk;
+    }
+
+    private static int chunkOf(int index) {
+        return index < LINEAR_LIMIT ? 0 : 1 + (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT;
+    }
+
+    private static int offsetOf(int index) {
+        return index < LINEAR_LIMIT ? index : (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT;
+    }
+
+    static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = magnitude - SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) - SUB_BUCKET_COUNT;
+        return LINEAR_LIMIT + (magnitude - LINEAR_MAGNITUDE) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    static long highestValueAt(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        final int offset = index - LINEAR_LIMIT;
+        final int magnitude = offset / SUB_BUCKET_COUNT + LINEAR_MAGNITUDE;
+        final long top = SUB_BUCKET_COUNT + offset % SUB_BUCKET_COUNT;
+        final int shift = magnitude - SUB_BUCKET_BITS;
+        return ((top + 1) << shift) - 1;
+    }
+
+    /**
+     * Immutable snapshot of a {@link LatencyHistogram}.
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        private Snapshot(long[] counts, long count, long totalNanos, long maxNanos) {
+            this.counts = counts;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        /**
+         * Get the number of recorded values.
+         *
+         * @return number of recorded values.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Get the largest recorded value.
+         *
+         * @param unit time unit of the returned value.
+         * @return largest recorded value.
+         */
+        public long getMax(TimeUnit unit) {
+            return unit.convert(maxNanos, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * Get the arithmetic mean of the recorded values.
+         *
+         * @param unit time unit of the returned value.
+         * @return mean value or {@code 0} if no values were recorded.
+         */
+        public double getMean(TimeUnit unit) {
+            if (count == 0) {
+                return 0;
+            }
+            return (double) totalNanos / count / TimeUnit.NANOSECONDS.convert(1, unit);
+        }
+
+        /**
+         * Get the value at the given percentile. The returned value is the upper bound of the bucket the percentile falls
+         * into, capped by the largest recorded value.
+         *
+         * @param percentile percentile in range {@code [0, 100]}.
+         * @param unit time unit of the returned value.
+         * @return value at the percentile or {@code 0} if no values were recorded.
+         */
+        public long getValueAtPercentile(double percentile, TimeUnit unit) {
+            if (percentile < 0 || percentile > 100) {
+                throw new IllegalArgumentException("Percentile out of range: " + percentile);
+            }
+            if (count == 0) {
+                return 0;
+            }
+            final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return unit.convert(Math.min(highestValueAt(i), maxNanos), TimeUnit.NANOSECONDS);
+                }
+            }
+            return getMax(unit);
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count
+                    + ", mean=" + getMean(TimeUnit.MICROSECONDS) + "us"
+                    + ", p50=" + getValueAtPercentile(50, TimeUnit.MICROSECONDS) + "us"
+                    + ", p99=" + getValueAtPercentile(99, TimeUnit.MICROSECONDS) + "us"
+                    + ", max=" + getMax(TimeUnit.MICROSECONDS) + "us";
+        }
+    }
+}
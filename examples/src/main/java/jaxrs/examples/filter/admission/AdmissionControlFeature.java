@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.admission;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import jakarta.ws.rs.core.Feature;
+import jakarta.ws.rs.core.FeatureContext;
+
+/**
+ * Feature enabling admission control, see {@link AdmissionControlFilter}.
+ * <pre>
+ * AdmissionController controller = new AdmissionController(50, 500, TimeUnit.MILLISECONDS, 200);
+ * register(new AdmissionControlFeature(controller)
+ *         .classify("health", null, Criticality.CRITICAL)
+ *         .classify("orders", HttpMethod.POST, Criticality.CRITICAL)
+ *         .classify("recommendations", null, Criticality.SHEDDABLE));
+ * </pre>
+ */
+public class AdmissionControlFeature implements Feature {
+
+    private final AdmissionController controller;
+    private final List<Rule> rules = new ArrayList<Rule>();
+    private boolean serviceTimeFallback;
+
+    /**
+     * Create a new feature.
+     *
+     * @param controller admission controller.
+     */
+    public AdmissionControlFeature(AdmissionController controller) {
+        this.controller = controller;
+    }
+
+    /**
+     * Assign a priority class to the requests of an endpoint.
+     *
+     * @param pathPrefix prefix of the request path relative to the application path, without a leading slash. The
+     * prefix matches whole path segments, e.g. {@code health} matches {@code health} and {@code health/live} but not
+     * {@code healthcare}.
+     * @param method HTTP method of the requests or {@code null} for any method.
+     * @param criticality priority class of the requests.
+     * @return this feature.
+     */
+    public AdmissionControlFeature classify(String pathPrefix, String method, Criticality criticality) {
+        rules.add(new Rule(pathPrefix.startsWith("/") ? pathPrefix.substring(1) : pathPrefix, method, criticality));
+        return this;
+    }
+
+    /**
+     * Feed the processing time of requests without the {@value AdmissionControlFilter#REQUEST_START_HEADER} header to
+     * the controller as their queueing delay. Disabled by default.
+     * <p>
+     * The processing time includes the time the request spends in the application, not only the time it waits for a
+     * thread, so the target delay has to be set well above the normal processing time of the slowest endpoint,
+     * otherwise slow but healthy endpoints make the controller shed load. The signal reacts later than a real queueing
+     * delay but also detects a server whose queues are hidden in the container. Only enable it if no front proxy sets
+     * the header.
+     * </p>
+     *
+     * @param enabled {@code true} to use the processing time when the queueing delay is not known.
+     * @return this feature.
+     */
+    public AdmissionControlFeature serviceTimeFallback(boolean enabled) {
+        this.serviceTimeFallback = enabled;
+        return this;
+    }
+
+    @Override
+    public boolean configure(FeatureContext context) {
+        final List<Rule> sorted = new ArrayList<Rule>(rules);
+        // stable sort, longest prefix first, rules with a method before rules for any method
+        Collections.sort(sorted, new Comparator<Rule>() {
+            @Override
+            public int compare(Rule a, Rule b) {
+                final int byLength = Integer.compare(b.pathPrefix.length(), a.pathPrefix.length());
+                return byLength != 0 ? byLength : Boolean.compare(a.method == null, b.method == null);
+            }
+        });
+        context.register(new AdmissionControlFilter(controller, Collections.unmodifiableList(sorted),
+                serviceTimeFallback));
+        return true;
+    }
+
+    static final class Rule {
+
+        final String pathPrefix;
+        final String method;
+        final Criticality criticality;
+
+        private Rule(String pathPrefix, String method, Criticality criticality) {
+            this.pathPrefix = pathPrefix;
+            this.method = method;
+            this.criticality = criticality;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.admission;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.PreMatching;
+
+import javax.annotation.Priority;
+
+/**
+ * Pre-matching filter rejecting requests with {@code 503 Service Unavailable} and a {@code Retry-After} header while an
+ * {@link AdmissionController} sheds load.
+ * <p>
+ * The filter runs before authentication and before the request is matched, so a rejected request costs as little as
+ * possible. The queueing delay of a request is taken from the {@value #REQUEST_START_HEADER} header set by a front
+ * proxy, e.g. {@code t=1556745600123456} in microseconds or milliseconds since the epoch. Requests without the header
+ * are not observed, unless the {@link AdmissionControlFeature#serviceTimeFallback(boolean) service time fallback} is
+ * enabled. The priority class of a request is the one of the longest matching
+ * {@link AdmissionControlFeature#classify(String, String, Criticality) rule}, {@link Criticality#DEFAULT} if no rule
+ * matches.
+ * </p>
+ * <p>
+ * The admission {@link AdmissionController.Permit permit} is released by the response filter. Filters have no hook
+ * which is guaranteed to run when a request completes, so permits of requests which end without a filtered response,
+ * e.g. with an unmapped exception or a dropped connection, are reclaimed by the controller after its maximum lease
+ * time.
+ * </p>
+ */
+@PreMatching
+@Priority(Priorities.AUTHENTICATION - 100)
+public class AdmissionControlFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    /**
+     * Name of the request header holding the time the request has been received by the front proxy.
+     */
+    public static final String REQUEST_START_HEADER = "X-Request-Start";
+
+    private static final String ADMISSION_PROPERTY = AdmissionControlFilter.class.getName() + ".admission";
+
+    private final AdmissionController controller;
+    private final List<AdmissionControlFeature.Rule> rules;
+    private final boolean serviceTimeFallback;
+
+    AdmissionControlFilter(AdmissionController controller, List<AdmissionControlFeature.Rule> rules,
+            boolean serviceTimeFallback) {
+        this.controller = controller;
+        this.rules = rules;
+        this.serviceTimeFallback = serviceTimeFallback;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        final long now = System.nanoTime();
+        final long delayNanos = queueingDelay(requestContext.getHeaderString(REQUEST_START_HEADER));
+        if (delayNanos >= 0) {
+            controller.observe(delayNanos, now);
+        }
+        final AdmissionController.Permit permit = controller.tryAdmit(classify(requestContext), now);
+        if (permit == null) {
+            throw new ServiceUnavailableException("Server overloaded.", controller.getRetryAfterSeconds());
+        }
+        requestContext.setProperty(ADMISSION_PROPERTY,
+                new Admission(permit, now, delayNanos < 0 && serviceTimeFallback));
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext)
+            throws IOException {
+        final Admission admission = (Admission) requestContext.getProperty(ADMISSION_PROPERTY);
+        if (admission == null) {
+            return;
+        }
+        requestContext.removeProperty(ADMISSION_PROPERTY);
+        admission.permit.release();
+        if (admission.measureLatency) {
+            final long now = System.nanoTime();
+            controller.observe(now - admission.startNanos, now);
+        }
+    }
+
+    private Criticality classify(ContainerRequestContext requestContext) {
+        if (rules.isEmpty()) {
+            return Criticality.DEFAULT;
+        }
+        String path = requestContext.getUriInfo().getPath();
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        final String method = requestContext.getMethod();
+        // rules are sorted by descending prefix length
+        for (AdmissionControlFeature.Rule rule : rules) {
+            if (matches(path, rule.pathPrefix) && (rule.method == null || rule.method.equalsIgnoreCase(method))) {
+                return rule.criticality;
+            }
+        }
+        return Criticality.DEFAULT;
+    }
+
+    /**
+     * Check whether a path starts with a prefix of whole path segments.
+     */
+    private static boolean matches(String path, String prefix) {
+        if (!path.startsWith(prefix)) {
+            return false;
+        }
+        return prefix.isEmpty() || path.length() == prefix.length() || prefix.endsWith("/")
+                || path.charAt(prefix.length()) == '/';
+    }
+
+    /**
+     * Parse the request start header.
+     *
+     * @return queueing delay in nanoseconds, {@code -1} if the header is missing or malformed.
+     */
+    private static long queueingDelay(String requestStart) {
+        if (requestStart == null) {
+            return -1;
+        }
+        final String value = requestStart.startsWith("t=") ? requestStart.substring(2).trim() : requestStart.trim();
+        final long nowMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+        final long startMicros;
+        try {
+            if (value.indexOf('.') >= 0) {
+                // seconds with fraction, e.g. nginx $msec
+                startMicros = (long) (Double.parseDouble(value) * 1000000);
+            } else {
+                final long start = Long.parseLong(value);
+                startMicros = value.length() > 13 ? start : TimeUnit.MILLISECONDS.toMicros(start);
+            }
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return TimeUnit.MICROSECONDS.toNanos(Math.max(0, nowMicros - startMicros));
+    }
+
+    private static final class Admission {
+
+        private final AdmissionController.Permit permit;
+        private final long startNanos;
+        private final boolean measureLatency;
+
+        private Admission(AdmissionController.Permit permit, long startNanos, boolean measureLatency) {
+            this.permit = permit;
+            this.startNanos = startNanos;
+            this.measureLatency = measureLatency;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.admission;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission decisions based on the CoDel (controlled delay) algorithm.
+ * <p>
+ * The controller is fed with the queueing delay of requests. As long as the delay drops below the target delay at least
+ * once per interval, queues are considered to be absorbing bursts and everything is admitted. Once the delay has stayed
+ * above the target for a whole interval, the server has a standing queue and the controller enters the dropping state:
+ * {@link Criticality#SHEDDABLE sheddable} requests are rejected, and {@link Criticality#DEFAULT default} requests are
+ * rejected at intervals shrinking with the inverse square root of the number of rejections, until the delay falls below
+ * the target again. {@link Criticality#CRITICAL Critical} requests are always admitted. Independently of the delay, at
+ * most {@code maxInFlight} non-critical requests are processed at the same time; critical requests are counted
+ * separately and do not take slots from them.
+ * </p>
+ * <p>
+ * Every admitted request holds a {@link Permit} which has to be released when the request completes. A permit that is
+ * not released within the maximum lease time, e.g. because the request ended with an unmapped exception or a dropped
+ * connection before the code releasing it ran, is reclaimed by the controller, so a lost release cannot lower the
+ * capacity for good.
+ * </p>
+ */
+public final class AdmissionController {
+
+    /**
+     * Default maximum time in seconds an admitted request may hold its permit before it is reclaimed.
+     */
+    public static final long DEFAULT_MAX_LEASE_SECONDS = 300;
+
+    private static final long MAX_RETRY_AFTER_SECONDS = 30;
+
+    private final long targetNanos;
+    private final long intervalNanos;
+    private final int maxInFlight;
+    private final long maxLeaseNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger criticalInFlight = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong reclaimed = new AtomicLong();
+    private final Set<Permit> permits = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextReclaimNanos = new AtomicLong(System.nanoTime());
+
+    // CoDel state, guarded by this
+    private long firstAboveTime;
+    private boolean dropping;
+    private long dropNext;
+    private int count;
+    private long standingDelay;
+
+    /**
+     * Create a controller with a target delay of 50 ms, an interval of 500 ms and no in-flight limit, which reclaims
+     * permits after {@value #DEFAULT_MAX_LEASE_SECONDS} seconds.
+     */
+    public AdmissionController() {
+        this(50, 500, TimeUnit.MILLISECONDS, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Create a controller which reclaims permits after {@value #DEFAULT_MAX_LEASE_SECONDS} seconds.
+     *
+     * @param target acceptable standing queueing delay.
+     * @param interval time the delay may stay above the target before requests are shed, in the order of a worst case
+     *        request latency.
+     * @param unit unit of the target and interval.
+     * @param maxInFlight maximum number of non-critical requests processed at the same time.
+     */
+    public AdmissionController(long target, long interval, TimeUnit unit, int maxInFlight) {
+        this(target, interval, unit, maxInFlight, unit.convert(DEFAULT_MAX_LEASE_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Create a new controller.
+     *
+     * @param target acceptable standing queueing delay.
+     * @param interval time the delay may stay above the target before requests are shed, in the order of a worst case
+     *        request latency.
+     * @param unit unit of the target, interval and maximum lease time.
+     * @param maxInFlight maximum number of non-critical requests processed at the same time.
+     * @param maxLease time after which the permit of an admitted request is reclaimed if it has not been released,
+     *        longer than any request is expected to take.
+     */
+    public AdmissionController(long target, long interval, TimeUnit unit, int maxInFlight, long maxLease) {
+        if (target <= 0 || interval <= 0 || maxLease <= 0) {
+            throw new IllegalArgumentException("Target, interval and maximum lease time must be positive.");
+        }
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Maximum number of in-flight requests must be positive: " + maxInFlight);
+        }
+        this.targetNanos = unit.toNanos(target);
+        this.intervalNanos = unit.toNanos(interval);
+        this.maxInFlight = maxInFlight;
+        this.maxLeaseNanos = unit.toNanos(maxLease);
+    }
+
+    /**
+     * Record the queueing delay of a request.
+     *
+     * @param delayNanos time the request has waited before processing started.
+     * @param now current {@link System#nanoTime()} value.
+     */
+    public synchronized void observe(long delayNanos, long now) {
+        if (delayNanos < targetNanos) {
+            firstAboveTime = 0;
+            dropping = false;
+            standingDelay = 0;
+            return;
+        }
+        standingDelay = delayNanos;
+        if (firstAboveTime == 0) {
+            firstAboveTime = now + intervalNanos;
+        } else if (!dropping && now - firstAboveTime >= 0) {
+            dropping = true;
+            // resume close to the previous drop rate if the last dropping state ended recently
+            count = count > 2 && now - dropNext < 16 * intervalNanos ? count - 2 : 1;
+            dropNext = now;
+        }
+    }
+
+    /**
+     * Decide whether to admit a request.
+     *
+     * @param criticality priority class of the request.
+     * @param now current {@link System#nanoTime()} value.
+     * @return permit to be {@link Permit#release() released} when the request completes, {@code null} if the request
+     *         has been rejected.
+     */
+    public Permit tryAdmit(Criticality criticality, long now) {
+        if (now - nextReclaimNanos.get() >= 0) {
+            reclaim(now);
+        }
+        final AtomicInteger counter;
+        if (criticality == Criticality.CRITICAL) {
+            counter = criticalInFlight;
+            counter.incrementAndGet();
+        } else {
+            if (shed(criticality, now)) {
+                rejected.incrementAndGet();
+                return null;
+            }
+            counter = inFlight;
+            if (counter.incrementAndGet() > maxInFlight) {
+                counter.decrementAndGet();
+                rejected.incrementAndGet();
+                return null;
+            }
+        }
+        final Permit permit = new Permit(counter, now);
+        permits.add(permit);
+        return permit;
+    }
+
+    /**
+     * Get the number of admitted non-critical requests in progress.
+     *
+     * @return number of in-flight requests, at most {@code maxInFlight}.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Get the number of admitted critical requests in progress.
+     *
+     * @return number of in-flight critical requests.
+     */
+    public int getCriticalInFlight() {
+        return criticalInFlight.get();
+    }
+
+    /**
+     * Get the number of permits reclaimed because they had not been released within the maximum lease time.
+     *
+     * @return number of reclaimed permits.
+     */
+    public long getReclaimedCount() {
+        return reclaimed.get();
+    }
+
+    /**
+     * Get the number of rejected requests.
+     *
+     * @return number of rejected requests.
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Check whether the controller is shedding load.
+     *
+     * @return {@code true} in the dropping state.
+     */
+    public synchronized boolean isOverloaded() {
+        return dropping;
+    }
+
+    /**
+     * Compute the delay after which a rejected client should retry, twice the standing queueing delay with jitter so
+     * that rejected clients do not come back at the same time.
+     *
+     * @return delay in seconds, at least {@code 1} and at most {@code 30}.
+     */
+    public long getRetryAfterSeconds() {
+        final long delay;
+        synchronized (this) {
+            delay = standingDelay;
+        }
+        final long seconds = Math.max(1, Math.min(MAX_RETRY_AFTER_SECONDS, (2 * delay + 999999999L) / 1000000000L));
+        // the jitter must not push the delay past the cap
+        return Math.min(MAX_RETRY_AFTER_SECONDS, seconds + ThreadLocalRandom.current().nextLong(seconds / 2 + 1));
+    }
+
+    private void reclaim(long now) {
+        final long next = nextReclaimNanos.get();
+        // one thread sweeps at a time, a few times per lease period
+        if (!nextReclaimNanos.compareAndSet(next, now + Math.max(1, maxLeaseNanos / 8))) {
+            return;
+        }
+        for (Permit permit : permits) {
+            if (now - permit.admittedNanos > maxLeaseNanos && permit.release()) {
+                reclaimed.incrementAndGet();
+            }
+        }
+    }
+
+    private synchronized boolean shed(Criticality criticality, long now) {
+        if (!dropping) {
+            return false;
+        }
+        if (criticality == Criticality.SHEDDABLE) {
+            return true;
+        }
+        if (now - dropNext < 0) {
+            return false;
+        }
+        count++;
+        dropNext = now + (long) (intervalNanos / Math.sqrt(count));
+        return true;
+    }
+
+    /**
+     * Slot held by an admitted request.
+     */
+    public final class Permit {
+
+        private final AtomicInteger counter;
+        private final long admittedNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(AtomicInteger counter, long admittedNanos) {
+            this.counter = counter;
+            this.admittedNanos = admittedNanos;
+        }
+
+        /**
+         * Return the slot to the controller. Only the first invocation has an effect, so it is safe to release a permit
+         * from every code path completing the request.
+         *
+         * @return {@code true} if this invocation released the permit.
+         */
+        public boolean release() {
+            if (!released.compareAndSet(false, true)) {
+                return false;
+            }
+            permits.remove(this);
+            counter.decrementAndGet();
+            return true;
+        }
+    }
+}
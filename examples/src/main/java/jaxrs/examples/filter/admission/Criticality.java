@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.admission;
+
+/**
+ * Priority class of a request deciding how early it is shed under overload.
+ */
+public enum Criticality {
+
+    /**
+     * Requests which are never shed, e.g. health checks and critical writes.
+     */
+    CRITICAL,
+
+    /**
+     * Requests shed at the pace of the CoDel control law once the queueing delay stays above its target.
+     */
+    DEFAULT,
+
+    /**
+     * Requests shed as soon as the server is overloaded, e.g. prefetching or batch reads.
+     */
+    SHEDDABLE
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.caching;
+
+import java.util.Set;
+
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/**
+ * Serialized response stored in a {@link ResponseCache}.
+ */
+public final class CachedResponse {
+
+    private final String key;
+    private final String uri;
+    private final int status;
+    private final MultivaluedMap<String, Object> headers;
+    private final byte[] body;
+    private final Set<String> tags;
+    private final long storedNanos;
+    private final long expiresNanos;
+
+    // set on every hit, cleared by the eviction clock
+    volatile boolean referenced;
+
+    CachedResponse(String key, String uri, int status, MultivaluedMap<String, Object> headers, byte[] body, Set<String> tags,
+            long storedNanos, long expiresNanos) {
+        this.key = key;
+        this.uri = uri;
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+        this.tags = tags;
+        this.storedNanos = storedNanos;
+        this.expiresNanos = expiresNanos;
+    }
+
+    /**
+     * Get the cache key, i.e. the request URI and the values of the request headers the response varies on.
+     *
+     * @return cache key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Get the absolute request URI.
+     *
+     * @return request URI.
+     */
+    public String getUri() {
+        return uri;
+    }
+
+    /**
+     * Get the response status code.
+     *
+     * @return status code.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Get the response headers. The map must not be modified.
+     *
+     * @return response headers without the content coding and length headers.
+     */
+    public MultivaluedMap<String, Object> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Get the serialized response entity. The array must not be modified.
+     *
+     * @return entity bytes before any content coding.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Get the tags the response can be invalidated by.
+     *
+     * @return read-only set of tags.
+     */
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    /**
+     * Get the time the response was stored.
+     *
+     * @return {@link System#nanoTime()} value at the time the response was stored.
+     */
+    public long getStoredNanos() {
+        return storedNanos;
+    }
+
+    /**
+     * Get the time the response expires.
+     *
+     * @return {@link System#nanoTime()} value at which the response stops being fresh.
+     */
+    public long getExpiresNanos() {
+        return expiresNanos;
+    }
+}
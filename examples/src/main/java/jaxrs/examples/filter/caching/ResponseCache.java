@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.caching;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/**
+ * Store of serialized responses bounded by the total number of cached bytes.
+ * <p>
+ * Lookups are lock-free. When the byte bound is exceeded, entries are evicted in insertion order, except that entries
+ * read since they were last examined get a second chance and are moved to the end of the queue (the CLOCK
+ * approximation of least-recently-used eviction). Entries can be invalidated explicitly by request URI, URI prefix or
+ * tag. A response whose computation started before an invalidation of its URI is not stored, so that an invalidation
+ * cannot be undone by a request that was in flight while it happened. Invalidations are tracked in a fixed number of
+ * generation counters selected by the hash of the request URI, so invalidating one URI only discards the in-flight
+ * responses of the few URIs sharing its counter.
+ * </p>
+ */
+public final class ResponseCache {
+
+    // rough per-entry bookkeeping overhead added to the entity and header sizes
+    private static final int ENTRY_OVERHEAD = 128;
+    // number of invalidation generation counters, a power of two
+    private static final int GENERATIONS = 256;
+
+    private final long maxBytes;
+    private final Map<String, CachedResponse> entries = new ConcurrentHashMap<String, CachedResponse>();
+    private final Map<String, List<String>> varyByUri = new ConcurrentHashMap<String, List<String>>();
+    private final ConcurrentHashMap<String, Set<String>> keysByUri = new ConcurrentHashMap<String, Set<String>>();
+    private final ConcurrentHashMap<String, Set<String>> keysByTag = new ConcurrentHashMap<String, Set<String>>();
+    private final Queue<CachedResponse> clock = new ConcurrentLinkedQueue<CachedResponse>();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATIONS);
+    // number of replaced or removed entries still referenced by the clock queue
+    private final AtomicInteger stale = new AtomicInteger();
+
+    /**
+     * Create a new cache.
+     *
+     * @param maxBytes maximum number of bytes of all cached responses.
+     */
+    public ResponseCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Get the maximum number of bytes of all cached responses.
+     *
+     * @return cache size bound in bytes.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Get the approximate number of bytes of all cached responses.
+     *
+     * @return cache size in bytes.
+     */
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * Get the number of cached responses.
+     *
+     * @return number of entries.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the names of the request headers the cached responses of a request URI vary on.
+     *
+     * @param uri request URI.
+     * @return lower case header names, {@code null} if no response of the URI has been cached.
+     */
+    List<String> getVary(String uri) {
+        return varyByUri.get(uri);
+    }
+
+    /**
+     * Get the current invalidation generation of a request URI. A {@link #put} only succeeds if the generation has not
+     * changed since the response computation started.
+     *
+     * @param uri request URI.
+     * @return invalidation generation.
+     */
+    long getGeneration(String uri) {
+        return generations.get(generationIndex(uri));
+    }
+
+    /**
+     * Look up a fresh cached response.
+     *
+     * @param key cache key.
+     * @param now current {@link System#nanoTime()} value.
+     * @return cached response or {@code null} if there is none or it has expired.
+     */
+    CachedResponse get(String key, long now) {
+        final CachedResponse entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (now - entry.getExpiresNanos() >= 0) {
+            remove(entry);
+            return null;
+        }
+        entry.referenced = true;
+        return entry;
+    }
+
+    /**
+     * Store a response unless the cache has been invalidated since the response computation started.
+     *
+     * @param entry response to store.
+     * @param vary lower case names of the request headers the response varies on.
+     * @param startGeneration {@link #getGeneration(String) generation} of the response URI at the start of the response
+     *        computation.
+     */
+    void put(CachedResponse entry, List<String> vary, long startGeneration) {
+        final long size = size(entry);
+        if (size > maxBytes || getGeneration(entry.getUri()) != startGeneration) {
+            return;
+        }
+        final CachedResponse previous = entries.put(entry.getKey(), entry);
+        if (previous != null) {
+            unindex(previous);
+            bytes.addAndGet(-size(previous));
+            stale.incrementAndGet();
+        }
+        index(keysByUri, entry.getUri(), entry.getKey());
+        for (String tag : entry.getTags()) {
+            index(keysByTag, tag, entry.getKey());
+        }
+        // published after the entry is indexed, so that removing the last other entry of the URI cannot drop it
+        varyByUri.put(entry.getUri(), vary);
+        clock.offer(entry);
+        if (bytes.addAndGet(size) > maxBytes) {
+            evict();
+        }
+        if (stale.get() > entries.size() + 64) {
+            stale.set(0);
+            clock.removeIf(queued -> entries.get(queued.getKey()) != queued);
+        }
+    }
+
+    /**
+     * Invalidate all cached responses of a request URI.
+     *
+     * @param uri absolute request URI.
+     * @return number of invalidated responses.
+     */
+    public int invalidateUri(String uri) {
+        generations.incrementAndGet(generationIndex(uri));
+        varyByUri.remove(uri);
+        return removeAll(keysByUri.get(uri));
+    }
+
+    /**
+     * Invalidate all cached responses of request URIs starting with a prefix.
+     *
+     * @param uriPrefix absolute request URI prefix, e.g. {@code http://example.com/api/orders/}.
+     * @return number of invalidated responses.
+     */
+    public int invalidate(String uriPrefix) {
+        // the URIs of the in-flight responses are not known, discard all of them
+        nextGenerations();
+        int count = 0;
+        for (Iterator<String> uris = keysByUri.keySet().iterator(); uris.hasNext();) {
+            final String uri = uris.next();
+            if (uri.startsWith(uriPrefix)) {
+                varyByUri.remove(uri);
+                count += removeAll(keysByUri.get(uri));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Invalidate all cached responses carrying a tag.
+     *
+     * @param tag cache tag, see {@link ServerCachingFilter#CACHE_TAG_HEADER}.
+     * @return number of invalidated responses.
+     */
+    public int invalidateTag(String tag) {
+        nextGenerations();
+        return removeAll(keysByTag.get(tag));
+    }
+
+    /**
+     * Invalidate all cached responses.
+     */
+    public void invalidateAll() {
+        nextGenerations();
+        for (CachedResponse entry : entries.values()) {
+            remove(entry);
+        }
+        varyByUri.clear();
+    }
+
+    private int removeAll(Set<String> keys) {
+        if (keys == null) {
+            return 0;
+        }
+        int count = 0;
+        for (String key : keys) {
+            final CachedResponse entry = entries.get(key);
+            if (entry != null && remove(entry)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void evict() {
+        // every entry gets at most one second chance per eviction run
+        int budget = 2 * entries.size() + 1;
+        while (bytes.get() > maxBytes && budget-- > 0) {
+            final CachedResponse candidate = clock.poll();
+            if (candidate == null) {
+                return;
+            }
+            if (entries.get(candidate.getKey()) != candidate) {
+                // already replaced or removed
+                stale.decrementAndGet();
+            } else if (candidate.referenced) {
+                candidate.referenced = false;
+                clock.offer(candidate);
+            } else if (remove(candidate)) {
+                // polled from the queue already
+                stale.decrementAndGet();
+            }
+        }
+    }
+
+    private boolean remove(CachedResponse entry) {
+        if (!entries.remove(entry.getKey(), entry)) {
+            return false;
+        }
+        unindex(entry);
+        bytes.addAndGet(-size(entry));
+        stale.incrementAndGet();
+        return true;
+    }
+
+    private void unindex(CachedResponse entry) {
+        if (unindex(keysByUri, entry.getUri(), entry.getKey())) {
+            // the last response of the URI has left the cache
+            varyByUri.remove(entry.getUri());
+        }
+        for (String tag : entry.getTags()) {
+            unindex(keysByTag, tag, entry.getKey());
+        }
+    }
+
+    private void nextGenerations() {
+        for (int i = 0; i < GENERATIONS; i++) {
+            generations.incrementAndGet(i);
+        }
+    }
+
+    private static int generationIndex(String uri) {
+        final int hash = uri.hashCode();
+        return (hash ^ (hash >>> 16)) & (GENERATIONS - 1);
+    }
+
+    private static void index(ConcurrentHashMap<String, Set<String>> index, String name, String key) {
+        Set<String> keys = index.get(name);
+        if (keys == null) {
+            keys = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+            final Set<String> existing = index.putIfAbsent(name, keys);
+            if (existing != null) {
+                keys = existing;
+            }
+        }
+        keys.add(key);
+    }
+
+    /**
+     * Remove a key from an index.
+     *
+     * @return {@code true} if the key was the last one indexed under the name.
+     */
+    private static boolean unindex(ConcurrentHashMap<String, Set<String>> index, String name, String key) {
+        final Set<String> keys = index.get(name);
+        return keys != null && keys.remove(key) && keys.isEmpty() && index.remove(name, keys);
+    }
+
+    private static long size(CachedResponse entry) {
+        long size = ENTRY_OVERHEAD + entry.getBody().length + 2L * entry.getKey().length();
+        final MultivaluedMap<String, Object> headers = entry.getHeaders();
+        for (Map.Entry<String, List<Object>> header : headers.entrySet()) {
+            for (Object value : header.getValue()) {
+                size += 2L * (header.getKey().length() + value.toString().length());
+            }
+        }
+        return size;
+    }
+}
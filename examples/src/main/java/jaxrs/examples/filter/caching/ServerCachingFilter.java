@@ -11,36 +11,401 @@
 package jaxrs.examples.filter.caching;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import jakarta.ws.rs.HttpMethod;
 import jakarta.ws.rs.Priorities;
-import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.container.ContainerRequestContext;
 import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.BufferPool;
 import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
 
 import javax.annotation.Priority;
 
+import jaxrs.examples.buffer.PooledBufferPool;
+import jaxrs.examples.buffer.TeeOutputStream;
+
 /**
- * ServerCachingFilter class.
+ * Example of a server-side response cache.
+ * <p>
+ * The request filter serves {@code GET} and {@code HEAD} requests from the {@link ResponseCache} by aborting the
+ * request with the cached response, so neither the resource method nor the entity provider is invoked. On a miss, the
+ * response filter decides whether the response may be stored: it must be a {@code 200} response with an entity and
+ * without cookies, its {@code Cache-Control} header must not contain {@code no-store}, {@code no-cache} or
+ * {@code private}, and it must have a positive {@code s-maxage} or {@code max-age}, or the filter must be configured
+ * with a default max-age. Responses to requests with an {@code Authorization} header are only stored if they are
+ * explicitly {@code public} or have an {@code s-maxage}. A {@code Vary: *} response is never stored, other
+ * {@code Vary} headers make the values of the named request headers part of the cache key.
+ * </p>
+ * <p>
+ * The writer interceptor copies the serialized entity of a storable response while it is written. It runs with
+ * {@link Priorities#USER user} priority, i.e. inside any {@link Priorities#ENTITY_CODER entity coder}, so the cache
+ * keeps the entity before content coding and a hit is encoded again according to the {@code Accept-Encoding} header of
+ * the request it is served to. Entities larger than the configured maximum are not stored. The entity is copied into
+ * buffers of the {@link BufferPool} in effect.
+ * </p>
+ * <p>
+ * Successful {@code POST}, {@code PUT}, {@code DELETE} and {@code PATCH} requests invalidate the cached responses of
+ * their request URI. The application can invalidate further responses by URI prefix or by tag using
+ * {@link #getCache()}; tags are assigned by setting the {@value #CACHE_TAG_HEADER} response header, which is removed
+ * before the response is sent.
+ * </p>
  *
  * @author Santiago Pericas-Geertsen
  */
 @Provider
 @Priority(Priorities.USER)
-public class ServerCachingFilter implements ContainerRequestFilter {
+public class ServerCachingFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    /**
+     * Name of the response header holding the comma separated tags of a response. The header is not sent to the
+     * client.
+     */
+    public static final String CACHE_TAG_HEADER = "Cache-Tag";
+
+    private static final String LOOKUP_PROPERTY = ServerCachingFilter.class.getName() + ".lookup";
+    private static final String CAPTURE_PROPERTY = ServerCachingFilter.class.getName() + ".capture";
+
+    private static final Set<String> UNSAFE_METHODS = Collections.unmodifiableSet(new HashSet<String>(
+            Arrays.asList(HttpMethod.POST, HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.PATCH)));
+
+    // headers which are recomputed for every response and never stored
+    private static final Set<String> EXCLUDED_HEADERS = Collections.unmodifiableSet(new HashSet<String>(
+            Arrays.asList("content-encoding", "content-length", "transfer-encoding", "set-cookie", "date",
+                    "age", CACHE_TAG_HEADER.toLowerCase(Locale.ROOT))));
+
+    private final ResponseCache cache;
+    private final int defaultMaxAge;
+    private final int maxEntryBytes;
+
+    @Context
+    private BufferPool bufferPool;
+
+    /**
+     * Create a filter with a 64 MiB cache, which stores responses of at most 1 MiB that carry an explicit max-age.
+     */
+    public ServerCachingFilter() {
+        this(new ResponseCache(64L * 1024 * 1024), 0, 1024 * 1024);
+    }
+
+    /**
+     * Create a new filter.
+     *
+     * @param cache response cache.
+     * @param defaultMaxAge max-age in seconds of responses without an explicit max-age, {@code 0} to not store such
+     *        responses.
+     * @param maxEntryBytes maximum size of a stored entity in bytes.
+     */
+    public ServerCachingFilter(ResponseCache cache, int defaultMaxAge, int maxEntryBytes) {
+        if (defaultMaxAge < 0) {
+            throw new IllegalArgumentException("Default max-age must not be negative: " + defaultMaxAge);
+        }
+        if (maxEntryBytes <= 0) {
+            throw new IllegalArgumentException("Maximum entry size must be positive: " + maxEntryBytes);
+        }
+        this.cache = cache;
+        this.defaultMaxAge = defaultMaxAge;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    /**
+     * Get the response cache, e.g. to invalidate cached responses.
+     *
+     * @return response cache.
+     */
+    public ResponseCache getCache() {
+        return cache;
+    }
 
     @Override
     public void filter(ContainerRequestContext requestContext) throws IOException {
-        Response.ResponseBuilder res = getCachedResponse(requestContext);
-        if (res != null) {
-            // stop the filter chain
-            throw new WebApplicationException(res.build());
+        final String method = requestContext.getMethod();
+        if (!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method)) {
+            return;
+        }
+        final Map<String, String> directives = directives(requestContext.getHeaderString(HttpHeaders.CACHE_CONTROL));
+        if (directives.containsKey("no-store")) {
+            return;
+        }
+        final String uri = requestContext.getUriInfo().getRequestUri().toString();
+        final long generation = cache.getGeneration(uri);
+        if (!directives.containsKey("no-cache") && !"0".equals(directives.get("max-age"))) {
+            Response.ResponseBuilder res = getCachedResponse(requestContext, uri);
+            if (res != null) {
+                // stop the filter chain
+                requestContext.abortWith(res.build());
+                return;
+            }
+        }
+        if (HttpMethod.GET.equals(method)) {
+            requestContext.setProperty(LOOKUP_PROPERTY, new Lookup(uri, generation,
+                    requestContext.getHeaderString(HttpHeaders.AUTHORIZATION) != null));
+        }
+    }
+
+    private Response.ResponseBuilder getCachedResponse(ContainerRequestContext requestContext, String uri) {
+        final List<String> vary = cache.getVary(uri);
+        if (vary == null) {
+            return null;
+        }
+        final long now = System.nanoTime();
+        final CachedResponse entry = cache.get(key(uri, vary, requestContext), now);
+        if (entry == null) {
+            return null;
         }
+        final Response.ResponseBuilder res = Response.status(entry.getStatus()).entity(entry.getBody());
+        for (Map.Entry<String, List<Object>> header : entry.getHeaders().entrySet()) {
+            for (Object value : header.getValue()) {
+                res.header(header.getKey(), value);
+            }
+        }
+        return res.header("Age", TimeUnit.NANOSECONDS.toSeconds(now - entry.getStoredNanos()));
     }
 
-    private Response.ResponseBuilder getCachedResponse(ContainerRequestContext requestContext) {
-        // implemetation goes here
-        return null;
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext)
+            throws IOException {
+        final Set<String> tags = removeTags(responseContext.getHeaders());
+        final int status = responseContext.getStatus();
+        if (UNSAFE_METHODS.contains(requestContext.getMethod())) {
+            if (status >= 200 && status < 400) {
+                cache.invalidateUri(requestContext.getUriInfo().getRequestUri().toString());
+            }
+            return;
+        }
+        final Lookup lookup = (Lookup) requestContext.getProperty(LOOKUP_PROPERTY);
+        if (lookup == null || status != 200 || !responseContext.hasEntity()
+                || responseContext.getHeaders().containsKey(HttpHeaders.SET_COOKIE)) {
+            return;
+        }
+        final int maxAge = maxAge(responseContext.getHeaders().getFirst(HttpHeaders.CACHE_CONTROL), lookup.authorized);
+        if (maxAge <= 0) {
+            return;
+        }
+        final List<String> vary = vary(responseContext.getHeaders().get(HttpHeaders.VARY));
+        if (vary == null) {
+            return;
+        }
+        requestContext.setProperty(CAPTURE_PROPERTY,
+                new Capture(lookup, key(lookup.uri, vary, requestContext), vary, tags, status, maxAge));
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext ctx) throws IOException {
+        final Capture capture = (Capture) ctx.getProperty(CAPTURE_PROPERTY);
+        if (capture == null) {
+            ctx.proceed();
+            return;
+        }
+        ctx.removeProperty(CAPTURE_PROPERTY);
+
+        final OutputStream old = ctx.getOutputStream();
+        final TeeOutputStream tee = new TeeOutputStream(old, bufferPool(), maxEntryBytes);
+        ctx.setOutputStream(tee);
+        final byte[] body;
+        try {
+            ctx.proceed();
+            body = tee.toByteArray();
+        } finally {
+            tee.release();
+            ctx.setOutputStream(old);
+        }
+        if (body == null) {
+            return;
+        }
+
+        final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<String, Object>();
+        for (Map.Entry<String, List<Object>> header : ctx.getHeaders().entrySet()) {
+            if (!EXCLUDED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                headers.put(header.getKey(), new ArrayList<Object>(header.getValue()));
+            }
+        }
+        final long now = System.nanoTime();
+        cache.put(new CachedResponse(capture.key, capture.lookup.uri, capture.status, headers, body, capture.tags, now,
+                now + TimeUnit.SECONDS.toNanos(capture.maxAge)), capture.vary, capture.lookup.generation);
+    }
+
+    private BufferPool bufferPool() {
+        return bufferPool != null ? bufferPool : PooledBufferPool.getDefault();
+    }
+
+    /**
+     * Compute the max-age of a response.
+     *
+     * @return max-age in seconds, {@code 0} if the response must not be stored.
+     */
+    private int maxAge(Object cacheControl, boolean authorized) {
+        if (cacheControl == null) {
+            return authorized ? 0 : defaultMaxAge;
+        }
+        final boolean isPublic;
+        final int sMaxAge;
+        final int maxAge;
+        if (cacheControl instanceof CacheControl) {
+            final CacheControl cc = (CacheControl) cacheControl;
+            if (cc.isNoStore() || cc.isNoCache() || cc.isPrivate()) {
+                return 0;
+            }
+            isPublic = cc.getCacheExtension().containsKey("public");
+            sMaxAge = cc.getSMaxAge();
+            maxAge = cc.getMaxAge();
+        } else {
+            final Map<String, String> directives = directives(cacheControl.toString());
+            if (directives.containsKey("no-store") || directives.containsKey("no-cache")
+                    || directives.containsKey("private")) {
+                return 0;
+            }
+            isPublic = directives.containsKey("public");
+            sMaxAge = seconds(directives.get("s-maxage"));
+            maxAge = seconds(directives.get("max-age"));
+        }
+        if (authorized && !isPublic && sMaxAge < 0) {
+            return 0;
+        }
+        if (sMaxAge >= 0) {
+            return sMaxAge;
+        }
+        return maxAge >= 0 ? maxAge : defaultMaxAge;
+    }
+
+    /**
+     * Parse the names of the request headers a response varies on.
+     *
+     * @return sorted lower case header names, {@code null} if the response varies on everything.
+     */
+    private static List<String> vary(List<Object> values) {
+        if (values == null) {
+            return Collections.emptyList();
+        }
+        final List<String> vary = new ArrayList<String>();
+        for (Object value : values) {
+            for (String field : value.toString().split(",")) {
+                final String name = field.trim().toLowerCase(Locale.ROOT);
+                if ("*".equals(name)) {
+                    return null;
+                }
+                if (!name.isEmpty() && !vary.contains(name)) {
+                    vary.add(name);
+                }
+            }
+        }
+        Collections.sort(vary);
+        return vary;
+    }
+
+    private static String key(String uri, List<String> vary, ContainerRequestContext requestContext) {
+        if (vary.isEmpty()) {
+            return uri;
+        }
+        final StringBuilder key = new StringBuilder(uri);
+        for (String name : vary) {
+            final String value = requestContext.getHeaderString(name);
+            key.append('\n').append(name).append(':').append(value == null ? "" : value);
+        }
+        return key.toString();
+    }
+
+    private static Set<String> removeTags(MultivaluedMap<String, Object> headers) {
+        final List<Object> values = headers.remove(CACHE_TAG_HEADER);
+        if (values == null) {
+            return Collections.emptySet();
+        }
+        final Set<String> tags = new HashSet<String>();
+        for (Object value : values) {
+            for (String tag : value.toString().split(",")) {
+                if (!tag.trim().isEmpty()) {
+                    tags.add(tag.trim());
+                }
+            }
+        }
+        return Collections.unmodifiableSet(tags);
+    }
+
+    /**
+     * Parse the directives of a {@code Cache-Control} header.
+     *
+     * @return directive values by lower case directive names, {@code null} values for directives without a value.
+     */
+    private static Map<String, String> directives(String cacheControl) {
+        if (cacheControl == null || cacheControl.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final Map<String, String> directives = new HashMap<String, String>();
+        for (String directive : cacheControl.split(",")) {
+            final int eq = directive.indexOf('=');
+            if (eq < 0) {
+                directives.put(directive.trim().toLowerCase(Locale.ROOT), null);
+            } else {
+                String value = directive.substring(eq + 1).trim();
+                if (value.length() >= 2 && value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"') {
+                    value = value.substring(1, value.length() - 1);
+                }
+                directives.put(directive.substring(0, eq).trim().toLowerCase(Locale.ROOT), value);
+            }
+        }
+        return directives;
+    }
+
+    private static int seconds(String value) {
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class Lookup {
+
+        private final String uri;
+        private final long generation;
+        private final boolean authorized;
+
+        private Lookup(String uri, long generation, boolean authorized) {
+            this.uri = uri;
+            this.generation = generation;
+            this.authorized = authorized;
+        }
+    }
+
+    private static final class Capture {
+
+        private final Lookup lookup;
+        private final String key;
+        private final List<String> vary;
+        private final Set<String> tags;
+        private final int status;
+        private final int maxAge;
+
+        private Capture(Lookup lookup, String key, List<String> vary, Set<String> tags, int status, int maxAge) {
+            this.lookup = lookup;
+            this.key = key;
+            this.vary = vary;
+            this.tags = tags;
+            this.status = status;
+            this.maxAge = maxAge;
+        }
     }
 }
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.chain;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Predicate;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.InvocationChain;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.ext.ReaderInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptor;
+
+/**
+ * Immutable invocation chain of a resource method created by an {@link InvocationChainCompiler}.
+ * <p>
+ * The filters and interceptors are kept in arrays sorted at compile time. Request processing iterates over the arrays by
+ * index, so no sorting, name binding checks or iterator allocations happen per request. Entity interceptor chains are
+ * driven by the {@code proceed()} method of the runtime interceptor context, which is expected to keep the index of the
+ * next interceptor and call {@link #getReaderInterceptor(int)} or {@link #getWriterInterceptor(int)}.
+ * </p>
+ */
+public final class CompiledInvocationChain implements InvocationChain {
+
+    private final ResourceInfo resourceInfo;
+    private final ContainerRequestFilter[] requestFilters;
+    private final ReaderInterceptor[] readerInterceptors;
+    private final WriterInterceptor[] writerInterceptors;
+    private final ContainerResponseFilter[] responseFilters;
+
+    private final List<ContainerRequestFilter> requestFilterList;
+    private final List<ReaderInterceptor> readerInterceptorList;
+    private final List<WriterInterceptor> writerInterceptorList;
+    private final List<ContainerResponseFilter> responseFilterList;
+
+    CompiledInvocationChain(ResourceInfo resourceInfo, ContainerRequestFilter[] requestFilters,
+            ReaderInterceptor[] readerInterceptors, WriterInterceptor[] writerInterceptors,
+            ContainerResponseFilter[] responseFilters) {
+        this.resourceInfo = resourceInfo;
+        this.requestFilters = requestFilters;
+        this.readerInterceptors = readerInterceptors;
+        this.writerInterceptors = writerInterceptors;
+        this.responseFilters = responseFilters;
+        this.requestFilterList = Collections.unmodifiableList(Arrays.asList(requestFilters));
+        this.readerInterceptorList = Collections.unmodifiableList(Arrays.asList(readerInterceptors));
+        this.writerInterceptorList = Collections.unmodifiableList(Arrays.asList(writerInterceptors));
+        this.responseFilterList = Collections.unmodifiableList(Arrays.asList(responseFilters));
+    }
+
+    @Override
+    public ResourceInfo getResourceInfo() {
+        return resourceInfo;
+    }
+
+    @Override
+    public List<ContainerRequestFilter> getRequestFilters() {
+        return requestFilterList;
+    }
+
+    @Override
+    public List<ReaderInterceptor> getReaderInterceptors() {
+        return readerInterceptorList;
+    }
+
+    @Override
+    public List<WriterInterceptor> getWriterInterceptors() {
+        return writerInterceptorList;
+    }
+
+    @Override
+    public List<ContainerResponseFilter> getResponseFilters() {
+        return responseFilterList;
+    }
+
+    /**
+     * Get the number of reader interceptors.
+     *
+     * @return number of reader interceptors.
+     */
+    public int getReaderInterceptorCount() {
+        return readerInterceptors.length;
+    }
+
+    /**
+     * Get a reader interceptor by its position in the chain.
+     *
+     * @param index position of the interceptor, {@code 0} for the first interceptor to invoke.
+     * @return reader interceptor.
+     */
+    public ReaderInterceptor getReaderInterceptor(int index) {
+        return readerInterceptors[index];
+    }
+
+    /**
+     * Get the number of writer interceptors.
+     *
+     * @return number of writer interceptors.
+     */
+    public int getWriterInterceptorCount() {
+        return writerInterceptors.length;
+    }
+
+    /**
+     * Get a writer interceptor by its position in the chain.
+     *
+     * @param index position of the interceptor, {@code 0} for the first interceptor to invoke.
+     * @return writer interceptor.
+     */
+    public WriterInterceptor getWriterInterceptor(int index) {
+        return writerInterceptors[index];
+    }
+
+    /**
+     * Invoke the request filters in order until a filter aborts the request.
+     *
+     * @param requestContext request context.
+     * @param aborted runtime check whether a filter has aborted the request.
+     * @return {@code true} if all filters have been invoked, {@code false} if the request has been aborted.
+     * @throws IOException if a filter throws an I/O exception.
+     */
+    public boolean filterRequest(ContainerRequestContext requestContext, Predicate<ContainerRequestContext> aborted)
+            throws IOException {
+        for (int i = 0; i < requestFilters.length; i++) {
+            requestFilters[i].filter(requestContext);
+            if (aborted.test(requestContext)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Invoke the response filters in order.
+     *
+     * @param requestContext request context.
+     * @param responseContext response context.
+     * @throws IOException if a filter throws an I/O exception.
+     */
+    public void filterResponse(ContainerRequestContext requestContext, ContainerResponseContext responseContext)
+            throws IOException {
+        for (int i = 0; i < responseFilters.length; i++) {
+            responseFilters[i].filter(requestContext, responseContext);
+        }
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(resourceInfo.getResourceClass() == null ? "?" : resourceInfo.getResourceClass().getName()).append('#')
+                .append(resourceInfo.getResourceMethod() == null ? "?" : resourceInfo.getResourceMethod().getName());
+        append(sb, "request filters", requestFilters);
+        append(sb, "reader interceptors", readerInterceptors);
+        append(sb, "writer interceptors", writerInterceptors);
+        append(sb, "response filters", responseFilters);
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, String name, Object[] providers) {
+        sb.append("\n  ").append(name).append(':');
+        for (Object provider : providers) {
+            sb.append(' ').append(provider.getClass().getName());
+        }
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.chain;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.ws.rs.NameBinding;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.DynamicFeature;
+import jakarta.ws.rs.container.PreMatching;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Configuration;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.ext.ReaderInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptor;
+
+import javax.annotation.Priority;
+
+/**
+ * Computes the {@link CompiledInvocationChain invocation chains} of resource methods at deployment time.
+ * <p>
+ * Filters and interceptors are registered once with the compiler. A provider annotated with {@link NameBinding name
+ * binding} annotations is bound to the resource methods that carry all of its name binding annotations on the method
+ * or the resource class, other providers are global. For every resource method the compiler additionally invokes the
+ * registered {@link DynamicFeature dynamic features}, whose registrations apply to that method only. The resulting
+ * providers are sorted by priority, either given explicitly at registration or taken from the {@link Priority}
+ * annotation of the provider class, defaulting to {@link Priorities#USER}; providers with equal priority keep their
+ * registration order. Pre-matching request filters are ignored.
+ * </p>
+ * <pre>
+ * InvocationChainCompiler compiler = new InvocationChainCompiler(configuration);
+ * compiler.register(new LoggingFilter());
+ * compiler.register(new GzipEntityInterceptor());
+ * compiler.register(new CacheControlDynamicFeature());
+ * for (Route route : router.getRoutes()) {
+ *     chains.put(route.getMethod(), compiler.compile(route.getResourceClass(), route.getMethod()));
+ * }
+ * </pre>
+ * <p>
+ * Chains are cached per resource method, so {@link #compile(Class, Method)} returns the same instance for the same
+ * resource method. The compiler is thread-safe once all providers have been registered.
+ * </p>
+ */
+public final class InvocationChainCompiler {
+
+    private static final List<Class<?>> CONTRACTS = Collections.unmodifiableList(Arrays.<Class<?>>asList(
+            ContainerRequestFilter.class, ReaderInterceptor.class, WriterInterceptor.class, ContainerResponseFilter.class));
+
+    private final Configuration configuration;
+    private final List<Registration> registrations = new ArrayList<Registration>();
+    private final List<DynamicFeature> dynamicFeatures = new ArrayList<DynamicFeature>();
+    private final Map<Method, CompiledInvocationChain> chains = new ConcurrentHashMap<Method, CompiledInvocationChain>();
+
+    /**
+     * Create a new compiler.
+     *
+     * @param configuration application configuration exposed to the dynamic features, may be {@code null}.
+     */
+    public InvocationChainCompiler(Configuration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Register a filter, an entity interceptor or a dynamic feature.
+     *
+     * @param provider provider instance.
+     * @return this compiler.
+     */
+    public InvocationChainCompiler register(Object provider) {
+        if (provider instanceof DynamicFeature) {
+            dynamicFeatures.add((DynamicFeature) provider);
+        }
+        add(registrations, provider, null, nameBindings(provider.getClass()));
+        return this;
+    }
+
+    /**
+     * Register a filter or an entity interceptor with an explicit priority.
+     *
+     * @param provider provider instance.
+     * @param priority priority overriding the {@link Priority} annotation of the provider class.
+     * @return this compiler.
+     */
+    public InvocationChainCompiler register(Object provider, int priority) {
+        add(registrations, provider, contracts(provider.getClass(), priority), nameBindings(provider.getClass()));
+        return this;
+    }
+
+    /**
+     * Get the invocation chain of a resource method, computing it on the first invocation.
+     *
+     * @param resourceClass resource class.
+     * @param resourceMethod resource method.
+     * @return immutable invocation chain.
+     */
+    public CompiledInvocationChain compile(final Class<?> resourceClass, final Method resourceMethod) {
+        CompiledInvocationChain chain = chains.get(resourceMethod);
+        if (chain == null) {
+            chain = doCompile(resourceClass, resourceMethod);
+            final CompiledInvocationChain existing = chains.putIfAbsent(resourceMethod, chain);
+            if (existing != null) {
+                chain = existing;
+            }
+        }
+        return chain;
+    }
+
+    private CompiledInvocationChain doCompile(final Class<?> resourceClass, final Method resourceMethod) {
+        final ResourceInfo resourceInfo = new ResourceInfo() {
+            @Override
+            public Method getResourceMethod() {
+                return resourceMethod;
+            }
+
+            @Override
+            public Class<?> getResourceClass() {
+                return resourceClass;
+            }
+        };
+
+        final Set<Class<? extends Annotation>> methodBindings = new HashSet<Class<? extends Annotation>>();
+        methodBindings.addAll(nameBindings(resourceClass));
+        methodBindings.addAll(nameBindings(resourceMethod.getAnnotations()));
+
+        final List<Registration> bound = new ArrayList<Registration>();
+        for (Registration registration : registrations) {
+            if (methodBindings.containsAll(registration.nameBindings)) {
+                bound.add(registration);
+            }
+        }
+        if (!dynamicFeatures.isEmpty()) {
+            final MethodFeatureContext context = new MethodFeatureContext(bound);
+            for (DynamicFeature feature : dynamicFeatures) {
+                feature.configure(resourceInfo, context);
+            }
+        }
+
+        return new CompiledInvocationChain(resourceInfo,
+                sorted(bound, ContainerRequestFilter.class, false).toArray(new ContainerRequestFilter[0]),
+                sorted(bound, ReaderInterceptor.class, false).toArray(new ReaderInterceptor[0]),
+                sorted(bound, WriterInterceptor.class, false).toArray(new WriterInterceptor[0]),
+                sorted(bound, ContainerResponseFilter.class, true).toArray(new ContainerResponseFilter[0]));
+    }
+
+    private static <T> List<T> sorted(List<Registration> registrations, final Class<T> contract, boolean descending) {
+        final List<Registration> matching = new ArrayList<Registration>();
+        for (Registration registration : registrations) {
+            if (registration.contracts.containsKey(contract)) {
+                matching.add(registration);
+            }
+        }
+        // stable sort, equal priorities keep the registration order
+        final Comparator<Registration> ascending = new Comparator<Registration>() {
+            @Override
+            public int compare(Registration a, Registration b) {
+                return Integer.compare(a.contracts.get(contract), b.contracts.get(contract));
+            }
+        };
+        Collections.sort(matching, descending ? Collections.reverseOrder(ascending) : ascending);
+        final List<T> providers = new ArrayList<T>(matching.size());
+        for (Registration registration : matching) {
+            providers.add(contract.cast(registration.provider));
+        }
+        return providers;
+    }
+
+    /**
+     * Add a registration for the supported contracts of a provider.
+     *
+     * @param contracts contracts with priorities or {@code null} to use all supported contracts the provider implements.
+     */
+    private static void add(List<Registration> registrations, Object provider, Map<Class<?>, Integer> contracts,
+            Set<Class<? extends Annotation>> nameBindings) {
+        final Class<?> providerClass = provider.getClass();
+        if (providerClass.isAnnotationPresent(PreMatching.class)) {
+            return;
+        }
+        final Map<Class<?>, Integer> supported = new LinkedHashMap<Class<?>, Integer>();
+        final Map<Class<?>, Integer> requested = contracts == null ? contracts(providerClass, priority(providerClass)) : contracts;
+        for (Map.Entry<Class<?>, Integer> contract : requested.entrySet()) {
+            if (CONTRACTS.contains(contract.getKey()) && contract.getKey().isInstance(provider)) {
+                supported.put(contract.getKey(), contract.getValue());
+            }
+        }
+        if (!supported.isEmpty()) {
+            registrations.add(new Registration(provider, supported, nameBindings));
+        }
+    }
+
+    private static Map<Class<?>, Integer> contracts(Class<?> providerClass, int priority) {
+        final Map<Class<?>, Integer> contracts = new LinkedHashMap<Class<?>, Integer>();
+        for (Class<?> contract : CONTRACTS) {
+            if (contract.isAssignableFrom(providerClass)) {
+                contracts.put(contract, priority);
+            }
+        }
+        return contracts;
+    }
+
+    private static int priority(Class<?> providerClass) {
+        final Priority priority = providerClass.getAnnotation(Priority.class);
+        return priority == null ? Priorities.USER : priority.value();
+    }
+
+    private static Set<Class<? extends Annotation>> nameBindings(Class<?> annotated) {
+        return nameBindings(annotated.getAnnotations());
+    }
+
+    private static Set<Class<? extends Annotation>> nameBindings(Annotation[] annotations) {
+        Set<Class<? extends Annotation>> bindings = Collections.emptySet();
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType().isAnnotationPresent(NameBinding.class)) {
+                if (bindings.isEmpty()) {
+                    bindings = new HashSet<Class<? extends Annotation>>();
+                }
+                bindings.add(annotation.annotationType());
+            }
+        }
+        return bindings;
+    }
+
+    private static final class Registration {
+
+        private final Object provider;
+        private final Map<Class<?>, Integer> contracts;
+        private final Set<Class<? extends Annotation>> nameBindings;
+
+        private Registration(Object provider, Map<Class<?>, Integer> contracts, Set<Class<? extends Annotation>> nameBindings) {
+            this.provider = provider;
+            this.contracts = contracts;
+            this.nameBindings = nameBindings;
+        }
+    }
+
+    /**
+     * Feature context collecting the providers a dynamic feature registers for a single resource method.
+     */
+    private final class MethodFeatureContext implements FeatureContext {
+
+        private final List<Registration> registrations;
+
+        private MethodFeatureContext(List<Registration> registrations) {
+            this.registrations = registrations;
+        }
+
+        @Override
+        public Configuration getConfiguration() {
+            return configuration;
+        }
+
+        @Override
+        public FeatureContext property(String name, Object value) {
+            throw new IllegalStateException("Properties cannot be set by a dynamic feature.");
+        }
+
+        @Override
+        public FeatureContext register(Class<?> componentClass) {
+            return register(instantiate(componentClass));
+        }
+
+        @Override
+        public FeatureContext register(Class<?> componentClass, int priority) {
+            return register(instantiate(componentClass), priority);
+        }
+
+        @Override
+        public FeatureContext register(Class<?> componentClass, Class<?>... contracts) {
+            return register(instantiate(componentClass), contracts);
+        }
+
+        @Override
+        public FeatureContext register(Class<?> componentClass, Map<Class<?>, Integer> contracts) {
+            return register(instantiate(componentClass), contracts);
+        }
+
+        @Override
+        public FeatureContext register(Object component) {
+            add(registrations, component, null, Collections.<Class<? extends Annotation>>emptySet());
+            return this;
+        }
+
+        @Override
+        public FeatureContext register(Object component, int priority) {
+            add(registrations, component, contracts(component.getClass(), priority),
+                    Collections.<Class<? extends Annotation>>emptySet());
+            return this;
+        }
+
+        @Override
+        public FeatureContext register(Object component, Class<?>... contracts) {
+            final Map<Class<?>, Integer> priorities = new LinkedHashMap<Class<?>, Integer>();
+            for (Class<?> contract : contracts) {
+                priorities.put(contract, priority(component.getClass()));
+            }
+            add(registrations, component, priorities, Collections.<Class<? extends Annotation>>emptySet());
+            return this;
+        }
+
+        @Override
+        public FeatureContext register(Object component, Map<Class<?>, Integer> contracts) {
+            add(registrations, component, contracts, Collections.<Class<? extends Annotation>>emptySet());
+            return this;
+        }
+
+        private Object instantiate(Class<?> componentClass) {
+            try {
+                return componentClass.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Unable to instantiate " + componentClass.getName(), e);
+            }
+        }
+    }
+}
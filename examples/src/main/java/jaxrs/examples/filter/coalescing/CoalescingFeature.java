@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.coalescing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.Feature;
+import jakarta.ws.rs.core.FeatureContext;
+import jakarta.ws.rs.ext.WriterInterceptor;
+
+/**
+ * Feature enabling request coalescing for the resource methods annotated with {@link Coalesced}.
+ * <p>
+ * The resources must compute their results using the same {@link RequestCoalescer} the feature has been created with.
+ * </p>
+ */
+public class CoalescingFeature implements Feature {
+
+    private final RequestCoalescer coalescer;
+
+    /**
+     * Create a new feature.
+     *
+     * @param coalescer coalescer shared with the resources.
+     */
+    public CoalescingFeature(RequestCoalescer coalescer) {
+        this.coalescer = coalescer;
+    }
+
+    @Override
+    public boolean configure(FeatureContext context) {
+        final Map<Class<?>, Integer> priorities = new HashMap<Class<?>, Integer>();
+        priorities.put(ContainerResponseFilter.class, CoalescingFilter.RESPONSE_FILTER_PRIORITY);
+        priorities.put(WriterInterceptor.class, Priorities.USER);
+        context.register(new CoalescingFilter(coalescer), priorities);
+        return true;
+    }
+}
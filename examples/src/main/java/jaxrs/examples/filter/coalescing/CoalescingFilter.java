@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.coalescing;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.BufferPool;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+import javax.annotation.Priority;
+
+import jaxrs.examples.buffer.PooledBufferPool;
+import jaxrs.examples.buffer.TeeOutputStream;
+
+/**
+ * Captures the serialized response of the leader of coalesced requests and resumes the waiting requests with it.
+ * <p>
+ * The response filter recognizes the leader's response by its entity being the result of the {@link RequestCoalescer}
+ * computation and marks the leader's request with a request property. {@link CoalescingFeature} registers the
+ * response filter to run {@link #RESPONSE_FILTER_PRIORITY before} any other response filter, so the check sees the
+ * entity before another filter, e.g. one computing entity tags, replaces it with a serialized form. The writer
+ * interceptor then copies the entity bytes of the marked request while they are written, into buffers of the
+ * {@link BufferPool} in effect. It runs with {@link Priorities#USER user} priority, i.e. inside any
+ * {@link Priorities#ENTITY_CODER entity coder}, so the copy is taken before content coding and every waiting request is
+ * encoded according to its own {@code Accept-Encoding} header.
+ * </p>
+ */
+@Coalesced
+@Priority(Priorities.USER)
+public class CoalescingFilter implements ContainerResponseFilter, WriterInterceptor {
+
+    /**
+     * Priority of the response filter; response filters with higher priority values run first.
+     */
+    public static final int RESPONSE_FILTER_PRIORITY = Integer.MAX_VALUE;
+
+    private static final String CAPTURE_PROPERTY = CoalescingFilter.class.getName() + ".capture";
+
+    // headers which are computed for every response or must not be shared
+    private static final Set<String> EXCLUDED_HEADERS = Collections.unmodifiableSet(new HashSet<String>(
+            Arrays.asList("content-encoding", "content-length", "transfer-encoding", "set-cookie", "date")));
+
+    private final RequestCoalescer coalescer;
+
+    @Context
+    private BufferPool bufferPool;
+
+    /**
+     * Create a new filter.
+     *
+     * @param coalescer coalescer used by the resources.
+     */
+    public CoalescingFilter(RequestCoalescer coalescer) {
+        this.coalescer = coalescer;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext)
+            throws IOException {
+        final RequestCoalescer.Flight flight = coalescer.flight(RequestCoalescer.key(
+                requestContext.getUriInfo().getRequestUri(), requestContext.getHeaderString(HttpHeaders.ACCEPT),
+                requestContext.getHeaderString(HttpHeaders.ACCEPT_LANGUAGE),
+                requestContext.getHeaderString("Accept-Charset")));
+        if (flight == null || !flight.isResult(responseContext.getEntity())) {
+            return;
+        }
+        if (HttpMethod.HEAD.equals(requestContext.getMethod())) {
+            // the entity is not going to be written
+            flight.fallback();
+        } else {
+            requestContext.setProperty(CAPTURE_PROPERTY, new Capture(flight, responseContext.getStatus()));
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext ctx) throws IOException {
+        final Capture capture = (Capture) ctx.getProperty(CAPTURE_PROPERTY);
+        if (capture == null) {
+            ctx.proceed();
+            return;
+        }
+        ctx.removeProperty(CAPTURE_PROPERTY);
+
+        final OutputStream old = ctx.getOutputStream();
+        final TeeOutputStream tee = new TeeOutputStream(old, bufferPool(), coalescer.getMaxEntryBytes());
+        ctx.setOutputStream(tee);
+        byte[] body = null;
+        try {
+            ctx.proceed();
+            body = tee.toByteArray();
+        } finally {
+            tee.release();
+            ctx.setOutputStream(old);
+            if (body == null) {
+                capture.flight.fallback();
+            }
+        }
+        if (body == null) {
+            return;
+        }
+
+        final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<String, Object>();
+        for (Map.Entry<String, List<Object>> header : ctx.getHeaders().entrySet()) {
+            if (!EXCLUDED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                headers.put(header.getKey(), new ArrayList<Object>(header.getValue()));
+            }
+        }
+        capture.flight.complete(capture.status, headers, body);
+    }
+
+    private BufferPool bufferPool() {
+        return bufferPool != null ? bufferPool : PooledBufferPool.getDefault();
+    }
+
+    private static final class Capture {
+
+        private final RequestCoalescer.Flight flight;
+        private final int status;
+
+        private Capture(RequestCoalescer.Flight flight, int status) {
+            this.flight = flight;
+            this.status = status;
+        }
+    }
+}
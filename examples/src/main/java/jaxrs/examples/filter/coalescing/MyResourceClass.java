@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.coalescing;
+
+import java.util.concurrent.CompletableFuture;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.UriInfo;
+
+/**
+ * Example of a resource coalescing identical concurrent requests. The application registers
+ * {@code new CoalescingFeature(MyResourceClass.COALESCER)}.
+ */
+@Path("report")
+public class MyResourceClass {
+
+    /**
+     * Coalescer shared by all instances of the resource.
+     */
+    public static final RequestCoalescer COALESCER = new RequestCoalescer();
+
+    @Coalesced
+    @GET
+    @Produces("application/json")
+    public void report(@QueryParam("year") final int year, @Context UriInfo uriInfo, @Context HttpHeaders headers,
+            @Suspended AsyncResponse ar) {
+        COALESCER.coalesceAsync(ar, uriInfo, headers, () -> CompletableFuture.supplyAsync(() -> expensiveReport(year)));
+    }
+
+    private static String expensiveReport(int year) {
+        return "{\"year\":" + year + ",\"total\":42}";
+    }
+}
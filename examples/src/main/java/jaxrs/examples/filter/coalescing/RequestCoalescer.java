@@ -0,0 +1,394 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.coalescing;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.CompletionCallback;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+
+/**
+ * Shares the result of one computation between identical concurrent requests.
+ * <p>
+ * Requests are identical if they have the same request URI, including the query, and the same {@code Accept},
+ * {@code Accept-Language} and {@code Accept-Charset} headers, i.e. if they negotiate the same variant. The first of
+ * them becomes the leader and runs the computation, the others are suspended until the leader's result has been
+ * serialized and are then resumed with a copy of the leader's response, so the computation and the serialization run
+ * once per burst of requests. Content coding is applied separately to every response.
+ * </p>
+ * <pre>
+ * &#64;GET
+ * &#64;Coalesced
+ * public void report(&#64;Context UriInfo uriInfo, &#64;Context HttpHeaders headers, &#64;Suspended AsyncResponse ar) {
+ *     coalescer.coalesceAsync(ar, uriInfo, headers, () -&gt; reports.computeAsync());
+ * }
+ * </pre>
+ * <p>
+ * Capturing the serialized result requires the {@link CoalescingFilter} to be bound to the resource method, see
+ * {@link CoalescingFeature}. If the leader's response cannot be captured, e.g. because it is a {@code HEAD} response,
+ * its serialized form is larger than {@link #getMaxEntryBytes()}, writing it fails, the filter is not bound or the
+ * leader has been cancelled, the waiting requests are resumed with the leader's result and serialize it themselves.
+ * An entity that can only be written once, i.e. an {@link InputStream}, a {@link Reader} or a {@link StreamingOutput},
+ * is not handed to the waiting requests then; every waiting request runs its own computation instead. The shared
+ * computation ends with the processing of the leader's request at the latest, and the waiting requests time out after
+ * {@link #getMaxWait(TimeUnit) the maximum wait time} if the computation does not complete. If the computation fails,
+ * all requests are resumed with the failure.
+ * </p>
+ */
+public final class RequestCoalescer {
+
+    /**
+     * Default maximum size of a shared serialized result.
+     */
+    public static final int DEFAULT_MAX_ENTRY_BYTES = 1024 * 1024;
+
+    /**
+     * Default maximum time in seconds a request waits for the result of an identical request.
+     */
+    public static final int DEFAULT_MAX_WAIT_SECONDS = 30;
+
+    private final Map<String, Flight> flights = new ConcurrentHashMap<String, Flight>();
+    private final int maxEntryBytes;
+    private final long maxWaitNanos;
+
+    /**
+     * Create a coalescer sharing serialized results of up to {@value #DEFAULT_MAX_ENTRY_BYTES} bytes, which lets requests
+     * wait for up to {@value #DEFAULT_MAX_WAIT_SECONDS} seconds.
+     */
+    public RequestCoalescer() {
+        this(DEFAULT_MAX_ENTRY_BYTES);
+    }
+
+    /**
+     * Create a coalescer which lets requests wait for up to {@value #DEFAULT_MAX_WAIT_SECONDS} seconds.
+     *
+     * @param maxEntryBytes maximum size of a shared serialized result in bytes.
+     */
+    public RequestCoalescer(int maxEntryBytes) {
+        this(maxEntryBytes, DEFAULT_MAX_WAIT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Create a new coalescer.
+     *
+     * @param maxEntryBytes maximum size of a shared serialized result in bytes.
+     * @param maxWait maximum time a request waits for the result of an identical request. A request that waits longer
+     *        is resumed with a {@code 503 Service Unavailable} response by the runtime.
+     * @param unit time unit of the maximum wait time.
+     */
+    public RequestCoalescer(int maxEntryBytes, long maxWait, TimeUnit unit) {
+        if (maxEntryBytes <= 0) {
+            throw new IllegalArgumentException("Maximum entry size must be positive: " + maxEntryBytes);
+        }
+        if (maxWait <= 0) {
+            throw new IllegalArgumentException("Maximum wait time must be positive: " + maxWait);
+        }
+        this.maxEntryBytes = maxEntryBytes;
+        this.maxWaitNanos = unit.toNanos(maxWait);
+    }
+
+    /**
+     * Get the maximum size of a shared serialized result.
+     *
+     * @return maximum size in bytes.
+     */
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    /**
+     * Get the maximum time a request waits for the result of an identical request.
+     *
+     * @param unit time unit of the returned value.
+     * @return maximum wait time.
+     */
+    public long getMaxWait(TimeUnit unit) {
+        return unit.convert(maxWaitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Get the number of computations currently shared.
+     *
+     * @return number of distinct requests in flight.
+     */
+    public int getInFlight() {
+        return flights.size();
+    }
+
+    /**
+     * Resume a suspended request with the result of a synchronous computation, which is only invoked if no identical
+     * request is in flight. The computation runs in the calling thread.
+     *
+     * @param response suspended response of the request.
+     * @param uriInfo URI information of the request.
+     * @param headers headers of the request.
+     * @param computation computation of the response entity or {@link Response}.
+     */
+    public void coalesce(AsyncResponse response, UriInfo uriInfo, HttpHeaders headers, final Callable<?> computation) {
+        coalesceAsync(response, uriInfo, headers, new Supplier<CompletionStage<?>>() {
+            @Override
+            public CompletionStage<?> get() {
+                final CompletableFuture<Object> result = new CompletableFuture<Object>();
+                try {
+                    result.complete(computation.call());
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+                return result;
+            }
+        });
+    }
+
+    /**
+     * Resume a suspended request with the result of an asynchronous computation, which is only started if no identical
+     * request is in flight.
+     *
+     * @param response suspended response of the request.
+     * @param uriInfo URI information of the request.
+     * @param headers headers of the request.
+     * @param computation computation of the response entity or {@link Response}.
+     */
+    public void coalesceAsync(AsyncResponse response, UriInfo uriInfo, HttpHeaders headers,
+            Supplier<? extends CompletionStage<?>> computation) {
+        final String key = key(uriInfo.getRequestUri(), headers.getHeaderString(HttpHeaders.ACCEPT),
+                headers.getHeaderString(HttpHeaders.ACCEPT_LANGUAGE), headers.getHeaderString("Accept-Charset"));
+        while (true) {
+            Flight flight = flights.get(key);
+            if (flight == null) {
+                flight = new Flight(key);
+                final Flight existing = flights.putIfAbsent(key, flight);
+                if (existing == null) {
+                    flight.lead(response, computation);
+                    return;
+                }
+                flight = existing;
+            }
+            if (flight.join(response, computation)) {
+                return;
+            }
+            // the flight has just been closed, start a new one
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Get the flight of identical requests in progress.
+     *
+     * @param key request key.
+     * @return flight or {@code null} if there is none.
+     */
+    Flight flight(String key) {
+        return flights.get(key);
+    }
+
+    private static boolean isWrittenOnce(Object entity) {
+        return entity instanceof InputStream || entity instanceof Reader || entity instanceof StreamingOutput;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    static String key(URI requestUri, String accept, String acceptLanguage, String acceptCharset) {
+        return requestUri.toString() + '\n' + (accept == null ? "" : accept) + '\n'
+                + (acceptLanguage == null ? "" : acceptLanguage) + '\n' + (acceptCharset == null ? "" : acceptCharset);
+    }
+
+    /**
+     * Identical requests waiting for one computation.
+     */
+    final class Flight {
+
+        private final String key;
+        private List<Follower> followers = new ArrayList<Follower>();
+        private volatile boolean computed;
+        private volatile Object result;
+        private volatile Response.ResponseBuilder resultResponse;
+        private volatile Object entity;
+
+        private Flight(String key) {
+            this.key = key;
+        }
+
+        /**
+         * Check whether a response entity is the leader's result.
+         *
+         * @param responseEntity response entity.
+         * @return {@code true} if the entity is the result of the computation.
+         */
+        boolean isResult(Object responseEntity) {
+            return responseEntity != null && responseEntity == entity;
+        }
+
+        /**
+         * Resume the followers with a copy of the serialized leader's response.
+         *
+         * @param status response status code.
+         * @param headers response headers without content coding headers.
+         * @param body serialized response entity.
+         */
+        void complete(int status, MultivaluedMap<String, Object> headers, byte[] body) {
+            for (Follower follower : close()) {
+                final Response.ResponseBuilder res = Response.status(status).entity(body);
+                for (Map.Entry<String, List<Object>> header : headers.entrySet()) {
+                    for (Object value : header.getValue()) {
+                        res.header(header.getKey(), value);
+                    }
+                }
+                follower.response.resume(res.build());
+            }
+        }
+
+        /**
+         * Resume the followers with the leader's result to be serialized by every follower, or let every follower run
+         * its own computation if the result entity can only be written once.
+         */
+        void fallback() {
+            final boolean shareable = !isWrittenOnce(entity);
+            for (Follower follower : close()) {
+                if (shareable) {
+                    // a response instance must not be shared between requests
+                    follower.response.resume(resultResponse != null ? resultResponse.clone().build() : result);
+                } else {
+                    follower.computeAlone();
+                }
+            }
+        }
+
+        private void lead(AsyncResponse leader, Supplier<? extends CompletionStage<?>> computation) {
+            // covers leaders whose response is not captured because writing it fails or the filter is not bound
+            leader.register(new CompletionCallback() {
+                @Override
+                public void onComplete(Throwable throwable) {
+                    leaderCompleted();
+                }
+            });
+            final CompletionStage<?> stage;
+            try {
+                stage = computation.get();
+            } catch (RuntimeException e) {
+                computed(leader, null, e);
+                return;
+            }
+            stage.whenComplete((value, error) -> computed(leader, value, error));
+        }
+
+        private void computed(AsyncResponse leader, Object value, Throwable error) {
+            if (error != null) {
+                final Throwable cause = unwrap(error);
+                for (Follower follower : close()) {
+                    follower.response.resume(cause);
+                }
+                leader.resume(cause);
+                return;
+            }
+            result = value;
+            if (value instanceof Response) {
+                resultResponse = Response.fromResponse((Response) value);
+                entity = ((Response) value).getEntity();
+            } else {
+                entity = value;
+            }
+            computed = true;
+            // the leader is resumed in any case, there is no captured entity to resume the followers with if it is null
+            final boolean resumed = leader.resume(value);
+            if (entity == null || !resumed) {
+                fallback();
+            }
+        }
+
+        private void leaderCompleted() {
+            if (computed) {
+                // no-op if the followers have already been resumed with the captured response
+                fallback();
+            } else {
+                // the leader has been cancelled or has timed out; the followers are still resumed once the computation
+                // completes, new requests start a new computation
+                flights.remove(key, this);
+            }
+        }
+
+        private synchronized boolean join(AsyncResponse response, Supplier<? extends CompletionStage<?>> computation) {
+            if (followers == null) {
+                return false;
+            }
+            response.setTimeout(maxWaitNanos, TimeUnit.NANOSECONDS);
+            followers.add(new Follower(response, computation));
+            return true;
+        }
+
+        private List<Follower> close() {
+            final List<Follower> closed;
+            synchronized (this) {
+                if (followers == null) {
+                    return Collections.emptyList();
+                }
+                closed = followers;
+                followers = null;
+            }
+            flights.remove(key, this);
+            return closed;
+        }
+    }
+
+    /**
+     * Request waiting for the result of an identical request.
+     */
+    private static final class Follower {
+
+        private final AsyncResponse response;
+        private final Supplier<? extends CompletionStage<?>> computation;
+
+        private Follower(AsyncResponse response, Supplier<? extends CompletionStage<?>> computation) {
+            this.response = response;
+            this.computation = computation;
+        }
+
+        /**
+         * Resume the request with the result of its own computation, which runs in the calling thread if it is
+         * synchronous.
+         */
+        private void computeAlone() {
+            final CompletionStage<?> stage;
+            try {
+                stage = computation.get();
+            } catch (RuntimeException e) {
+                response.resume(e);
+                return;
+            }
+            stage.whenComplete((value, error) -> {
+                if (error != null) {
+                    response.resume(unwrap(error));
+                } else {
+                    response.resume(value);
+                }
+            });
+        }
+    }
+}
@@ -10,13 +10,20 @@
 
 package jaxrs.examples.filter.compression;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Deflater;
 
 import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
 import jakarta.ws.rs.ext.Provider;
 import jakarta.ws.rs.ext.ReaderInterceptor;
 import jakarta.ws.rs.ext.ReaderInterceptorContext;
@@ -27,6 +34,15 @@ import javax.annotation.Priority;
 
 /**
  * Example of GZIP entity interceptor.
+ * <p>
+ * Request entities with {@code gzip} content encoding are decompressed. Response entities are compressed only if the
+ * client accepts the {@code gzip} content coding (honoring the Accept-Encoding quality values), the entity is at least
+ * {@link #getThreshold() threshold} bytes large and its media type is not an already compressed format. The native zlib
+ * state is taken from a {@link ZlibPool} instead of being created for every entity. Every response of a compressible
+ * media type carries a {@code Vary: Accept-Encoding} header so that shared caches keep the encodings apart. Entities
+ * for which the application has already set the {@code Content-Encoding: gzip} header, such as client requests, are
+ * always compressed.
+ * </p>
  *
  * @author Santiago Pericas-Geertsen
  */
@@ -35,16 +51,83 @@ import javax.annotation.Priority;
 @Priority(Priorities.ENTITY_CODER)
 public class GzipEntityInterceptor implements ReaderInterceptor, WriterInterceptor {
 
+    /**
+     * Default minimal size of a response entity to be compressed.
+     */
+    public static final int DEFAULT_THRESHOLD = 1024;
+
+    private static final String GZIP = "gzip";
+    private static final String X_GZIP = "x-gzip";
+
+    private static final List<MediaType> COMPRESSED_MEDIA_TYPES = Collections.unmodifiableList(Arrays.asList(
+            new MediaType("image", MediaType.MEDIA_TYPE_WILDCARD),
+            new MediaType("audio", MediaType.MEDIA_TYPE_WILDCARD),
+            new MediaType("video", MediaType.MEDIA_TYPE_WILDCARD),
+            new MediaType("application", "zip"),
+            new MediaType("application", "gzip"),
+            new MediaType("application", "x-gzip"),
+            new MediaType("application", "x-bzip2"),
+            new MediaType("application", "x-7z-compressed")));
+
+    private final int threshold;
+    private final boolean compressOctetStream;
+    private final ZlibPool pool;
+
+    @Context
+    private HttpHeaders requestHeaders;
+
+    /**
+     * Create an interceptor using the default compression level and {@value #DEFAULT_THRESHOLD} bytes threshold, which
+     * does not compress {@code application/octet-stream} entities.
+     */
+    public GzipEntityInterceptor() {
+        this(Deflater.DEFAULT_COMPRESSION, DEFAULT_THRESHOLD, false);
+    }
+
+    /**
+     * Create a new interceptor.
+     *
+     * @param level compression level, {@code 0-9} or {@link Deflater#DEFAULT_COMPRESSION}.
+     * @param threshold minimal size of a response entity in bytes to be compressed.
+     * @param compressOctetStream {@code true} if {@code application/octet-stream} entities should be compressed.
+     */
+    public GzipEntityInterceptor(int level, int threshold, boolean compressOctetStream) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative: " + threshold);
+        }
+        this.threshold = threshold;
+        this.compressOctetStream = compressOctetStream;
+        this.pool = new ZlibPool(level, 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Get the minimal size of a response entity to be compressed.
+     *
+     * @return threshold in bytes.
+     */
+    public int getThreshold() {
+        return threshold;
+    }
+
     @Override
     public Object aroundReadFrom(ReaderInterceptorContext ctx) throws IOException {
         if (!gzipEncoded(ctx)) {
             return ctx.proceed();
         } else {
             InputStream old = ctx.getInputStream();
-            ctx.setInputStream(new GZIPInputStream(old));
+            GzipStreams.Input gzipInputStream = new GzipStreams.Input(old, pool);
+            ctx.setInputStream(gzipInputStream);
+            boolean lazy = false;
             try {
-                return ctx.proceed();
+                final Object entity = ctx.proceed();
+                // streams and readers handed to the application are read after this method returns; their inflater is
+                // released once the application reaches the end of the entity or closes it
+                lazy = entity instanceof Closeable;
+                return entity;
             } finally {
+                if (!lazy) {
+                    gzipInputStream.release();
+                }
                 ctx.setInputStream(old);
             }
         }
@@ -52,28 +135,230 @@ public class GzipEntityInterceptor implements ReaderInterceptor, WriterIntercept
 
     @Override
     public void aroundWriteTo(WriterInterceptorContext ctx) throws IOException {
-        if (!acceptsGzip(ctx)) {
+        final Object encoding = ctx.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (encoding != null) {
+            if (isGzip(encoding.toString())) {
+                // the application has explicitly asked for a gzip encoded entity
+                writeGzipped(ctx, 0);
+            } else {
+                ctx.proceed();
+            }
+            return;
+        }
+        if (!compressible(ctx)) {
+            ctx.proceed();
+            return;
+        }
+
+        addVary(ctx.getHeaders());
+        if (!acceptsGzip() || knownLength(ctx.getHeaders()) < threshold) {
             ctx.proceed();
         } else {
-            OutputStream old = ctx.getOutputStream();
-            GZIPOutputStream gzipOutputStream = new GZIPOutputStream(old);
-            ctx.setOutputStream(gzipOutputStream);
+            writeGzipped(ctx, threshold);
+        }
+    }
+
+    private void writeGzipped(WriterInterceptorContext ctx, int minLength) throws IOException {
+        OutputStream old = ctx.getOutputStream();
+        ThresholdGzipOutputStream gzipOutputStream = new ThresholdGzipOutputStream(old, ctx.getHeaders(), minLength);
+        ctx.setOutputStream(gzipOutputStream);
+        try {
+            ctx.proceed();
+            gzipOutputStream.finish();
+        } finally {
+            gzipOutputStream.release();
+            ctx.setOutputStream(old);
+        }
+    }
+
+    private boolean compressible(WriterInterceptorContext ctx) {
+        final MediaType mediaType = ctx.getMediaType();
+        if (mediaType == null) {
+            return true;
+        }
+        if (mediaType.getSubtype().endsWith("+xml") || mediaType.getSubtype().endsWith("+json")) {
+            // e.g. image/svg+xml
+            return true;
+        }
+        if (!compressOctetStream && MediaType.APPLICATION_OCTET_STREAM_TYPE.isCompatible(mediaType)
+                && !mediaType.isWildcardSubtype()) {
+            return false;
+        }
+        for (MediaType compressed : COMPRESSED_MEDIA_TYPES) {
+            if (compressed.isCompatible(mediaType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean acceptsGzip() {
+        if (requestHeaders == null) {
+            return false;
+        }
+        final List<String> acceptEncoding = requestHeaders.getRequestHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        float gzipQuality = -1;
+        float wildcardQuality = -1;
+        for (String header : acceptEncoding) {
+            for (String coding : header.split(",")) {
+                final int parametersStart = coding.indexOf(';');
+                final String name = (parametersStart < 0 ? coding : coding.substring(0, parametersStart)).trim();
+                final float quality = parametersStart < 0 ? 1 : quality(coding.substring(parametersStart + 1));
+                if (GZIP.equalsIgnoreCase(name) || X_GZIP.equalsIgnoreCase(name)) {
+                    gzipQuality = Math.max(gzipQuality, quality);
+                } else if ("*".equals(name)) {
+                    wildcardQuality = quality;
+                }
+            }
+        }
+        // an explicitly listed coding takes precedence over the wildcard
+        return gzipQuality >= 0 ? gzipQuality > 0 : wildcardQuality > 0;
+    }
+
+    private static float quality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            final int eq = parameter.indexOf('=');
+            if (eq > 0 && "q".equalsIgnoreCase(parameter.substring(0, eq).trim())) {
+                try {
+                    final float q = Float.parseFloat(parameter.substring(eq + 1).trim());
+                    return q >= 0 && q <= 1 ? q : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static long knownLength(MultivaluedMap<String, Object> headers) {
+        final Object length = headers.getFirst(HttpHeaders.CONTENT_LENGTH);
+        if (length instanceof Number) {
+            return ((Number) length).longValue();
+        }
+        if (length != null) {
             try {
-                ctx.proceed();
-            } finally {
-                gzipOutputStream.finish();
-                ctx.setOutputStream(old);
+                return Long.parseLong(length.toString().trim());
+            } catch (NumberFormatException e) {
+                return Long.MAX_VALUE;
             }
         }
+        return Long.MAX_VALUE;
     }
 
-    private boolean acceptsGzip(WriterInterceptorContext ctx) {
-        // implementation goes here
-        return true;
+    private static void addVary(MultivaluedMap<String, Object> headers) {
+        final List<Object> vary = headers.get(HttpHeaders.VARY);
+        if (vary != null) {
+            for (Object value : vary) {
+                for (String field : value.toString().split(",")) {
+                    if (HttpHeaders.ACCEPT_ENCODING.equalsIgnoreCase(field.trim()) || "*".equals(field.trim())) {
+                        return;
+                    }
+                }
+            }
+        }
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
     }
 
     private boolean gzipEncoded(ReaderInterceptorContext ctx) {
-        // implementation goes here
-        return true;
+        final String encoding = ctx.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        return encoding != null && isGzip(encoding);
+    }
+
+    private static boolean isGzip(String encoding) {
+        final String coding = encoding.trim();
+        return GZIP.equalsIgnoreCase(coding) || X_GZIP.equalsIgnoreCase(coding);
+    }
+
+    /**
+     * Entity stream holding back the first {@code minLength} bytes to decide whether the entity is worth compressing.
+     * The message headers are only modified before the first byte reaches the underlying entity stream.
+     */
+    private final class ThresholdGzipOutputStream extends OutputStream {
+
+        private final OutputStream entityStream;
+        private final MultivaluedMap<String, Object> headers;
+        private final int minLength;
+        private final byte[] pending;
+        private final byte[] single = new byte[1];
+        private int count;
+        private OutputStream target;
+        private GzipStreams.Output gzip;
+
+        private ThresholdGzipOutputStream(OutputStream entityStream, MultivaluedMap<String, Object> headers, int minLength)
+                throws IOException {
+            this.entityStream = entityStream;
+            this.headers = headers;
+            this.minLength = minLength;
+            this.pending = new byte[minLength];
+            if (minLength == 0) {
+                startCompression();
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            single[0] = (byte) b;
+            write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (target == null) {
+                if (count + len < minLength) {
+                    System.arraycopy(b, off, pending, count, len);
+                    count += len;
+                    return;
+                }
+                startCompression();
+            }
+            target.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (target == null) {
+                // an explicit flush of a small entity signals streaming; send what we have as it is
+                passThrough();
+            }
+            target.flush();
+        }
+
+        void finish() throws IOException {
+            if (target == null) {
+                passThrough();
+            } else if (gzip != null) {
+                gzip.finish();
+            }
+        }
+
+        void release() {
+            if (gzip != null) {
+                gzip.release();
+            }
+        }
+
+        private void startCompression() throws IOException {
+            headers.putSingle(HttpHeaders.CONTENT_ENCODING, GZIP);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            gzip = new GzipStreams.Output(entityStream, pool);
+            target = gzip;
+            drainPending();
+        }
+
+        private void passThrough() throws IOException {
+            target = entityStream;
+            drainPending();
+        }
+
+        private void drainPending() throws IOException {
+            if (count > 0) {
+                target.write(pending, 0, count);
+                count = 0;
+            }
+        }
     }
 }
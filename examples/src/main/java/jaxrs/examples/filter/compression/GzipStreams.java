@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * GZIP (RFC 1952) streams backed by pooled {@link java.util.zip.Deflater} and {@link java.util.zip.Inflater} instances.
+ * <p>
+ * The JDK {@link java.util.zip.GZIPOutputStream} and {@link java.util.zip.GZIPInputStream} always create their own
+ * zlib state; the streams provided here take it from a {@link ZlibPool} instead and return it to the pool once
+ * {@link Output#release() released}. The {@link Input} stream also releases its inflater as soon as the end of the
+ * compressed data is reached. Neither stream closes the wrapped stream unless it is explicitly closed itself.
+ * </p>
+ */
+final class GzipStreams {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int DEFLATE = 8;
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private static final byte[] HEADER = {
+            (byte) GZIP_MAGIC, (byte) (GZIP_MAGIC >> 8), DEFLATE, 0, 0, 0, 0, 0, 0, 0
+    };
+
+    private GzipStreams() {
+    }
+
+    /**
+     * Compressing stream writing a single GZIP member.
+     */
+    static final class Output extends DeflaterOutputStream {
+
+        private final ZlibPool pool;
+        private final CRC32 crc = new CRC32();
+        private boolean finished;
+        private boolean released;
+
+        Output(OutputStream out, ZlibPool pool) throws IOException {
+            super(out, pool.acquireDeflater(), BUFFER_SIZE);
+            this.pool = pool;
+            out.write(HEADER);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            super.write(b, off, len);
+            crc.update(b, off, len);
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            super.finish();
+            writeInt((int) crc.getValue());
+            writeInt((int) def.getBytesRead());
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                finish();
+                out.close();
+            } finally {
+                release();
+            }
+        }
+
+        /**
+         * Return the deflater to the pool without closing the wrapped stream. The stream must not be used afterwards.
+         */
+        void release() {
+            if (!released) {
+                released = true;
+                pool.releaseDeflater(def);
+            }
+        }
+
+        private void writeInt(int value) throws IOException {
+            out.write(value & 0xff);
+            out.write((value >> 8) & 0xff);
+            out.write((value >> 16) & 0xff);
+            out.write((value >> 24) & 0xff);
+        }
+    }
+
+    /**
+     * Decompressing stream reading one or more concatenated GZIP members.
+     */
+    static final class Input extends InflaterInputStream {
+
+        private final ZlibPool pool;
+        private final CRC32 crc = new CRC32();
+        private boolean eos;
+        private boolean closed;
+        private boolean released;
+
+        Input(InputStream in, ZlibPool pool) throws IOException {
+            super(in, pool.acquireInflater(), BUFFER_SIZE);
+            this.pool = pool;
+            try {
+                readHeader(in);
+            } catch (IOException e) {
+                release();
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            while (!eos) {
+                final int n = super.read(b, off, len);
+                if (n >= 0) {
+                    crc.update(b, off, n);
+                    return n;
+                }
+                if (readTrailer()) {
+                    // nothing more to inflate, the stream keeps answering end of stream without the inflater
+                    release();
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            return eos ? 0 : super.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                release();
+            }
+        }
+
+        /**
+         * Return the inflater to the pool without closing the wrapped stream. Subsequent reads report the end of the
+         * stream.
+         */
+        void release() {
+            if (!released) {
+                released = true;
+                eos = true;
+                pool.releaseInflater(inf);
+            }
+        }
+
+        private int readHeader(InputStream source) throws IOException {
+            final CheckedInputStream in = new CheckedInputStream(source, crc);
+            crc.reset();
+            if (readUShort(in) != GZIP_MAGIC) {
+                throw new ZipException("Not in GZIP format");
+            }
+            if (readUByte(in) != DEFLATE) {
+                throw new ZipException("Unsupported compression method");
+            }
+            final int flags = readUByte(in);
+            // modification time, extra flags and operating system
+            skipBytes(in, 6);
+            int n = 10;
+            if ((flags & FEXTRA) == FEXTRA) {
+                final int length = readUShort(in);
+                skipBytes(in, length);
+                n += length + 2;
+            }
+            if ((flags & FNAME) == FNAME) {
+                do {
+                    n++;
+                } while (readUByte(in) != 0);
+            }
+            if ((flags & FCOMMENT) == FCOMMENT) {
+                do {
+                    n++;
+                } while (readUByte(in) != 0);
+            }
+            if ((flags & FHCRC) == FHCRC) {
+                final int headerCrc = (int) crc.getValue() & 0xffff;
+                if (readUShort(in) != headerCrc) {
+                    throw new ZipException("Corrupt GZIP header");
+                }
+                n += 2;
+            }
+            crc.reset();
+            return n;
+        }
+
+        /**
+         * Verify the trailer of the current member and start reading the next member, if any.
+         *
+         * @return {@code true} if the end of the stream was reached.
+         */
+        private boolean readTrailer() throws IOException {
+            InputStream source = this.in;
+            final int remaining = inf.getRemaining();
+            if (remaining > 0) {
+                source = new SequenceInputStream(
+                        new ByteArrayInputStream(buf, len - remaining, remaining),
+                        new FilterInputStream(source) {
+                            @Override
+                            public void close() {
+                                // keep the entity stream open
+                            }
+                        });
+            }
+            if (readUInt(source) != crc.getValue() || readUInt(source) != (inf.getBytesWritten() & 0xffffffffL)) {
+                throw new ZipException("Corrupt GZIP trailer");
+            }
+
+            if (this.in.available() > 0 || remaining > 26) {
+                int consumed = 8;
+                try {
+                    consumed += readHeader(source);
+                } catch (IOException e) {
+                    // trailing garbage after the last member is ignored
+                    return true;
+                }
+                inf.reset();
+                if (remaining > consumed) {
+                    inf.setInput(buf, len - remaining + consumed, remaining - consumed);
+                }
+                return false;
+            }
+            return true;
+        }
+
+        private static long readUInt(InputStream in) throws IOException {
+            final long low = readUShort(in);
+            return ((long) readUShort(in) << 16) | low;
+        }
+
+        private static int readUShort(InputStream in) throws IOException {
+            final int low = readUByte(in);
+            return (readUByte(in) << 8) | low;
+        }
+
+        private static int readUByte(InputStream in) throws IOException {
+            final int b = in.read();
+            if (b == -1) {
+                throw new EOFException("Unexpected end of GZIP input stream");
+            }
+            return b;
+        }
+
+        private static void skipBytes(InputStream in, int n) throws IOException {
+            while (n > 0) {
+                readUByte(in);
+                n--;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.compression;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Bounded pool of raw ({@code nowrap}) {@link Deflater} and {@link Inflater} instances.
+ * <p>
+ * Creating a new deflater or inflater allocates native zlib state that is only reclaimed once the instance is
+ * {@link Deflater#end() ended} or finalized. The pool keeps up to a fixed number of reset instances around for reuse and
+ * ends the ones that do not fit into the pool.
+ * </p>
+ */
+public final class ZlibPool {
+
+    private final int level;
+    private final BlockingQueue<Deflater> deflaters;
+    private final BlockingQueue<Inflater> inflaters;
+
+    /**
+     * Create a new pool.
+     *
+     * @param level compression level of the pooled deflaters, {@code 0-9} or {@link Deflater#DEFAULT_COMPRESSION}.
+     * @param capacity maximum number of idle deflaters and inflaters (each) kept in the pool.
+     */
+    public ZlibPool(int level, int capacity) {
+        if ((level < 0 || level > 9) && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        this.level = level;
+        this.deflaters = new ArrayBlockingQueue<Deflater>(capacity);
+        this.inflaters = new ArrayBlockingQueue<Inflater>(capacity);
+    }
+
+    /**
+     * Get the compression level of the pooled deflaters.
+     *
+     * @return compression level.
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * Take a deflater from the pool or create a new one if the pool is empty.
+     *
+     * @return deflater producing raw deflate data.
+     */
+    public Deflater acquireDeflater() {
+        final Deflater deflater = deflaters.poll();
+        return deflater != null ? deflater : new Deflater(level, true);
+    }
+
+    /**
+     * Reset the deflater and return it to the pool.
+     *
+     * @param deflater deflater acquired from this pool.
+     */
+    public void releaseDeflater(Deflater deflater) {
+        deflater.reset();
+        if (!deflaters.offer(deflater)) {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Take an inflater from the pool or create a new one if the pool is empty.
+     *
+     * @return inflater consuming raw deflate data.
+     */
+    public Inflater acquireInflater() {
+        final Inflater inflater = inflaters.poll();
+        return inflater != null ? inflater : new Inflater(true);
+    }
+
+    /**
+     * Reset the inflater and return it to the pool.
+     *
+     * @param inflater inflater acquired from this pool.
+     */
+    public void releaseInflater(Inflater inflater) {
+        inflater.reset();
+        if (!inflaters.offer(inflater)) {
+            inflater.end();
+        }
+    }
+}
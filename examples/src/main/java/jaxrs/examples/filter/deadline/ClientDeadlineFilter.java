@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.deadline;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.client.ClientRequestContext;
+import jakarta.ws.rs.client.ClientRequestFilter;
+import jakarta.ws.rs.core.Deadline;
+import jakarta.ws.rs.core.Response;
+
+import javax.annotation.Priority;
+
+/**
+ * Client filter sending the remaining time budget of an invocation in the {@value Deadline#HEADER} header.
+ * <p>
+ * The deadline of an invocation is the earliest of the {@value Deadline#PROPERTY} property of the invocation, the
+ * deadline of the server request processed by the invoking thread, so the budget shrinks along a chain of calls, and
+ * the read timeout of the client. An invocation whose deadline has already expired is not sent but aborted with
+ * {@code 504 Gateway Timeout}.
+ * </p>
+ * <pre>
+ * client.target(uri).request()
+ *         .property(Deadline.PROPERTY, Deadline.after(200, TimeUnit.MILLISECONDS))
+ *         .get();
+ * </pre>
+ */
+@Priority(Priorities.HEADER_DECORATOR)
+public class ClientDeadlineFilter implements ClientRequestFilter {
+
+    private final long readTimeoutNanos;
+
+    /**
+     * Create a new filter.
+     *
+     * @param readTimeout read timeout of the client, {@code 0} if the client has none.
+     * @param unit unit of the read timeout.
+     */
+    public ClientDeadlineFilter(long readTimeout, TimeUnit unit) {
+        if (readTimeout < 0) {
+            throw new IllegalArgumentException("Negative read timeout: " + readTimeout);
+        }
+        this.readTimeoutNanos = unit.toNanos(readTimeout);
+    }
+
+    @Override
+    public void filter(ClientRequestContext requestContext) throws IOException {
+        Deadline deadline = earliest((Deadline) requestContext.getProperty(Deadline.PROPERTY),
+                ServerDeadlineFilter.current());
+        if (readTimeoutNanos > 0) {
+            deadline = Deadline.after(readTimeoutNanos, TimeUnit.NANOSECONDS).minimum(deadline);
+        }
+        if (deadline == null) {
+            return;
+        }
+        if (deadline.isExpired()) {
+            requestContext.abortWith(Response.status(Response.Status.GATEWAY_TIMEOUT).build());
+            return;
+        }
+        requestContext.getHeaders().putSingle(Deadline.HEADER, deadline.toHeaderValue());
+    }
+
+    private static Deadline earliest(Deadline a, Deadline b) {
+        return a == null ? b : a.minimum(b);
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.deadline;
+
+import java.util.concurrent.TimeUnit;
+
+import jakarta.ws.rs.RuntimeType;
+import jakarta.ws.rs.core.Feature;
+import jakarta.ws.rs.core.FeatureContext;
+
+/**
+ * Feature propagating request deadlines. Registered with a server, it enables the {@link ServerDeadlineFilter},
+ * registered with a client, the {@link ClientDeadlineFilter}.
+ * <pre>
+ * Client client = ClientBuilder.newBuilder()
+ *         .readTimeout(2, TimeUnit.SECONDS)
+ *         .register(new DeadlineFeature(2, TimeUnit.SECONDS))
+ *         .build();
+ * </pre>
+ */
+public class DeadlineFeature implements Feature {
+
+    private final long readTimeout;
+    private final TimeUnit unit;
+
+    /**
+     * Create a feature for a server or a client without a read timeout.
+     */
+    public DeadlineFeature() {
+        this(0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Create a feature for a client.
+     *
+     * @param readTimeout read timeout of the client, it is not available from the client configuration.
+     * @param unit unit of the read timeout.
+     */
+    public DeadlineFeature(long readTimeout, TimeUnit unit) {
+        this.readTimeout = readTimeout;
+        this.unit = unit;
+    }
+
+    @Override
+    public boolean configure(FeatureContext context) {
+        if (context.getConfiguration().getRuntimeType() == RuntimeType.CLIENT) {
+            context.register(new ClientDeadlineFilter(readTimeout, unit));
+        } else {
+            context.register(new ServerDeadlineFilter());
+        }
+        return true;
+    }
+}
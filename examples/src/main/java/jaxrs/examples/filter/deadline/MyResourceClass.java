@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.deadline;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.client.Client;
+import jakarta.ws.rs.client.ClientBuilder;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Deadline;
+
+/**
+ * Example of a resource working within the deadline of its caller. The application registers the
+ * {@link DeadlineFeature}.
+ */
+@Path("quote")
+public class MyResourceClass {
+
+    private static final Client CLIENT = ClientBuilder.newClient().register(new DeadlineFeature());
+
+    @GET
+    public void quote(@Context Deadline deadline, @Suspended AsyncResponse ar) {
+        ServerDeadlineFilter.setTimeout(ar, deadline);
+        // the downstream call is sent with the remaining budget of this request
+        ar.resume(CLIENT.target("http://pricing.example.com/price").request().get(String.class));
+    }
+}
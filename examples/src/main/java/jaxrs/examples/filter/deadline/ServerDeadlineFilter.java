@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.deadline;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.PreMatching;
+import jakarta.ws.rs.core.Deadline;
+import jakarta.ws.rs.core.Response;
+
+import javax.annotation.Priority;
+
+/**
+ * Pre-matching filter reading the {@link Deadline} of a request from the {@value Deadline#HEADER} header.
+ * <p>
+ * A request arriving with an expired deadline is aborted with {@code 504 Gateway Timeout} before it is matched or
+ * admitted, since its caller has already given up on it. Otherwise the deadline is stored as the
+ * {@value Deadline#PROPERTY} request property and bound to the thread processing the request, so that client calls
+ * made by the resource inherit it, see {@link ClientDeadlineFilter}. A malformed header is ignored.
+ * </p>
+ * <p>
+ * Only synchronous propagation is supported: the deadline is bound to the thread running the request filters and the
+ * resource method. Client calls made from other threads, e.g. by a task resuming a suspended request, have to pass the
+ * deadline in the {@value Deadline#PROPERTY} invocation property. Filters offer no hook running on that thread when
+ * the request is over, and the response filter of a suspended request runs on the thread resuming it, so the binding
+ * is not removed but ended: the response filter marks it as ended on whichever thread it runs, and an ended binding is
+ * ignored and removed by the next lookup or request on its thread.
+ * </p>
+ */
+@PreMatching
+@Priority(Priorities.AUTHENTICATION - 200)
+public class ServerDeadlineFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String BINDING_PROPERTY = ServerDeadlineFilter.class.getName() + ".binding";
+
+    private static final ThreadLocal<Binding> CURRENT = new ThreadLocal<Binding>();
+
+    /**
+     * Get the deadline of the request processed by the current thread.
+     *
+     * @return deadline or {@code null} if the request has none or the thread does not process a request.
+     */
+    public static Deadline current() {
+        final Binding binding = CURRENT.get();
+        if (binding == null) {
+            return null;
+        }
+        if (binding.ended) {
+            // left behind by a request completed on another thread
+            CURRENT.remove();
+            return null;
+        }
+        return binding.deadline;
+    }
+
+    /**
+     * Limit the time a request stays suspended to the remaining time of its deadline. An already expired deadline
+     * resumes the response with the timeout handling immediately.
+     *
+     * @param asyncResponse suspended response.
+     * @param deadline deadline of the request, may be {@code null}.
+     * @return {@code true} if the timeout has been set or there is no deadline, {@code false} if the response is not
+     *         suspended any more.
+     */
+    public static boolean setTimeout(AsyncResponse asyncResponse, Deadline deadline) {
+        if (deadline == null) {
+            return true;
+        }
+        // a zero timeout means no timeout, use the shortest one instead
+        return asyncResponse.setTimeout(Math.max(1, deadline.timeRemaining(TimeUnit.MILLISECONDS)),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) throws IOException {
+        final Deadline deadline = parse(requestContext.getHeaderString(Deadline.HEADER));
+        if (deadline == null) {
+            // do not leak the deadline of a previous request processed by this thread
+            CURRENT.remove();
+            return;
+        }
+        if (deadline.isExpired()) {
+            CURRENT.remove();
+            requestContext.abortWith(Response.status(Response.Status.GATEWAY_TIMEOUT).build());
+            return;
+        }
+        final Binding binding = new Binding(deadline);
+        requestContext.setProperty(Deadline.PROPERTY, deadline);
+        requestContext.setProperty(BINDING_PROPERTY, binding);
+        CURRENT.set(binding);
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext)
+            throws IOException {
+        final Binding binding = (Binding) requestContext.getProperty(BINDING_PROPERTY);
+        if (binding != null) {
+            binding.ended = true;
+        }
+        if (CURRENT.get() == binding) {
+            CURRENT.remove();
+        }
+    }
+
+    private static Deadline parse(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Deadline.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Deadline bound to a thread for the processing of one request.
+     */
+    private static final class Binding {
+
+        private final Deadline deadline;
+        private volatile boolean ended;
+
+        private Binding(Deadline deadline) {
+            this.deadline = deadline;
+        }
+    }
+}
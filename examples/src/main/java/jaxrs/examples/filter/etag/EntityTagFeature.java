@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.etag;
+
+import jakarta.ws.rs.core.Feature;
+import jakarta.ws.rs.core.FeatureContext;
+
+/**
+ * Feature enabling automatic entity tags and {@code 304 Not Modified} responses, see {@link EntityTagFilter}.
+ */
+public class EntityTagFeature implements Feature {
+
+    @Override
+    public boolean configure(FeatureContext context) {
+        context.register(EntityTagFilter.class);
+        return true;
+    }
+}
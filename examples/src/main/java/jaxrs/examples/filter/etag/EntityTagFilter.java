@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.etag;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.BufferPool;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Providers;
+
+import javax.annotation.Priority;
+
+import jaxrs.examples.buffer.BufferChain;
+import jaxrs.examples.buffer.PooledBufferPool;
+
+/**
+ * Response filter computing an entity tag from the serialized entity of {@code GET} and {@code HEAD} responses.
+ * <p>
+ * An entity tag has to be sent before the entity, so the filter serializes the entity into buffers of the
+ * {@link BufferPool} in effect using the {@link MessageBodyWriter} the runtime would use, hashing the bytes with
+ * {@link XxHash64} as they are written. The entity of a {@code GET} response is replaced by the buffered bytes, so the
+ * entity is serialized once. A {@code HEAD} response keeps its entity, which is not going to be written, and the
+ * buffers are released immediately, as they are if the {@code If-None-Match} header of the request matches the tag and
+ * the response is turned into a {@code 304 Not Modified} response without entity.
+ * </p>
+ * <p>
+ * Response filters which identify a response by its entity instance, such as the
+ * {@link jaxrs.examples.filter.coalescing.CoalescingFilter}, have to run before this filter, i.e. with a higher
+ * priority value, and record their decision in a request property.
+ * </p>
+ * <p>
+ * Responses which already carry an {@code ETag} header, e.g. one computed from a cheap version key using
+ * {@link EntityTags#fromVersion(Object...)}, are left alone, as are responses with streamed entities such as
+ * {@link InputStream}, {@link StreamingOutput} or files, which should not be buffered.
+ * </p>
+ * <p>
+ * The tag identifies the entity before any content coding, while a strong tag has to identify the bytes that are
+ * sent. The tag is therefore only strong if no content coding can be applied after the filter, i.e. if the request
+ * does not accept any coding other than {@code identity} and the response does not already declare a
+ * {@code Content-Encoding}. Otherwise, e.g. if the {@link jaxrs.examples.filter.compression.GzipEntityInterceptor} may
+ * compress the entity, the tag is weak: the encoded and the identity representations are equivalent and share it,
+ * which keeps conditional {@code GET} requests working, but it is not used for range requests.
+ * </p>
+ */
+@Priority(Priorities.HEADER_DECORATOR)
+public class EntityTagFilter implements ContainerResponseFilter {
+
+    private static final String IDENTITY = "identity";
+
+    @Context
+    private Providers providers;
+
+    @Context
+    private BufferPool bufferPool;
+
+    @Override
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext)
+            throws IOException {
+        final String method = requestContext.getMethod();
+        if ((!HttpMethod.GET.equals(method) && !HttpMethod.HEAD.equals(method)) || responseContext.getStatus() != 200
+                || !responseContext.hasEntity() || responseContext.getHeaders().containsKey(HttpHeaders.ETAG)
+                || streamed(responseContext.getEntity())) {
+            return;
+        }
+        final MediaType mediaType = responseContext.getMediaType();
+        final MessageBodyWriter writer = providers.getMessageBodyWriter(responseContext.getEntityClass(),
+                responseContext.getEntityType(), responseContext.getEntityAnnotations(), mediaType);
+        if (writer == null) {
+            // let the runtime report the missing writer
+            return;
+        }
+
+        final XxHash64 hash = new XxHash64();
+        if (mediaType != null) {
+            final byte[] type = (mediaType.getType() + '/' + mediaType.getSubtype()).getBytes(StandardCharsets.US_ASCII);
+            hash.update(type, 0, type.length);
+        }
+        final BufferChain buffer = new BufferChain(bufferPool != null ? bufferPool : PooledBufferPool.getDefault());
+        try {
+            writer.writeTo(responseContext.getEntity(), responseContext.getEntityClass(), responseContext.getEntityType(),
+                    responseContext.getEntityAnnotations(), mediaType, responseContext.getHeaders(),
+                    new HashingOutputStream(buffer, hash));
+        } catch (IOException | RuntimeException e) {
+            buffer.close();
+            throw e;
+        }
+
+        final EntityTag tag = new EntityTag(EntityTags.toHex(hash.getValue()),
+                mayBeEncoded(requestContext, responseContext));
+        final Response.ResponseBuilder notModified = requestContext.getRequest().evaluatePreconditions(tag);
+        if (notModified != null) {
+            buffer.close();
+            final Response response = notModified.build();
+            responseContext.setStatus(response.getStatus());
+            responseContext.setEntity(null);
+            responseContext.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+            responseContext.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+        } else if (HttpMethod.HEAD.equals(method)) {
+            // the entity is not going to be written, nothing would release the buffers
+            buffer.close();
+        } else {
+            responseContext.setEntity(new BufferedEntity(buffer), responseContext.getEntityAnnotations(), mediaType);
+        }
+        responseContext.getHeaders().putSingle(HttpHeaders.ETAG, tag);
+    }
+
+    /**
+     * Check whether a content coding may be applied to the entity after the filter has serialized it.
+     */
+    private static boolean mayBeEncoded(ContainerRequestContext requestContext,
+            ContainerResponseContext responseContext) {
+        final Object encoding = responseContext.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (encoding != null) {
+            return !IDENTITY.equalsIgnoreCase(encoding.toString().trim());
+        }
+        final List<String> acceptEncoding = requestContext.getHeaders().get(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String header : acceptEncoding) {
+            for (String coding : header.split(",")) {
+                final int parametersStart = coding.indexOf(';');
+                final String name = (parametersStart < 0 ? coding : coding.substring(0, parametersStart)).trim();
+                if (!name.isEmpty() && !IDENTITY.equalsIgnoreCase(name)
+                        && (parametersStart < 0 || quality(coding.substring(parametersStart + 1)) > 0)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static float quality(String parameters) {
+        for (String parameter : parameters.split(";")) {
+            final int eq = parameter.indexOf('=');
+            if (eq > 0 && "q".equalsIgnoreCase(parameter.substring(0, eq).trim())) {
+                try {
+                    final float q = Float.parseFloat(parameter.substring(eq + 1).trim());
+                    return q >= 0 && q <= 1 ? q : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static boolean streamed(Object entity) {
+        return entity instanceof InputStream || entity instanceof Reader || entity instanceof StreamingOutput
+                || entity instanceof File || entity instanceof Path;
+    }
+
+    /**
+     * Stream appending to a buffer chain while hashing the bytes.
+     */
+    private static final class HashingOutputStream extends OutputStream {
+
+        private final BufferChain buffer;
+        private final XxHash64 hash;
+
+        private HashingOutputStream(BufferChain buffer, XxHash64 hash) {
+            this.buffer = buffer;
+            this.hash = hash;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer.write(b);
+            hash.update(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            buffer.write(b, off, len);
+            hash.update(b, off, len);
+        }
+    }
+
+    /**
+     * Serialized entity writing the buffered bytes and releasing the buffers.
+     */
+    private static final class BufferedEntity implements StreamingOutput {
+
+        private final BufferChain buffer;
+
+        private BufferedEntity(BufferChain buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(OutputStream output) throws IOException, WebApplicationException {
+            try {
+                buffer.writeTo(output);
+            } finally {
+                buffer.close();
+            }
+        }
+    }
+}
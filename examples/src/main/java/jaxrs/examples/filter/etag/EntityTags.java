@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.etag;
+
+import java.nio.charset.StandardCharsets;
+
+import jakarta.ws.rs.core.EntityTag;
+
+/**
+ * Entity tags computed from a version key instead of the serialized entity.
+ * <p>
+ * A resource that can cheaply tell the version of its state, e.g. from a version column, a modification counter or the
+ * last event id, evaluates the preconditions before loading and serializing the entity at all:
+ * </p>
+ * <pre>
+ * &#64;GET
+ * public Response get(&#64;PathParam("id") long id, &#64;Context Request request) {
+ *     EntityTag tag = EntityTags.fromVersion(id, orders.version(id));
+ *     ResponseBuilder notModified = request.evaluatePreconditions(tag);
+ *     if (notModified != null) {
+ *         return notModified.build();
+ *     }
+ *     return Response.ok(orders.load(id)).tag(tag).build();
+ * }
+ * </pre>
+ * <p>
+ * The {@link EntityTagFilter} does not hash responses which already carry an entity tag.
+ * </p>
+ */
+public final class EntityTags {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private EntityTags() {
+    }
+
+    /**
+     * Compute a strong entity tag from a version key.
+     *
+     * @param versionKey parts of the version key, e.g. the resource id and its version. The parts are converted to
+     *        strings.
+     * @return strong entity tag.
+     */
+    public static EntityTag fromVersion(Object... versionKey) {
+        final XxHash64 hash = new XxHash64();
+        for (Object part : versionKey) {
+            final byte[] bytes = String.valueOf(part).getBytes(StandardCharsets.UTF_8);
+            hash.update(bytes, 0, bytes.length);
+            // separator keeps ("ab", "c") and ("a", "bc") apart
+            hash.update(0);
+        }
+        return new EntityTag(toHex(hash.getValue()));
+    }
+
+    static String toHex(long value) {
+        final char[] hex = new char[16];
+        for (int i = 15; i >= 0; i--) {
+            hex[i] = HEX[(int) value & 0xF];
+            value >>>= 4;
+        }
+        return new String(hex);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.etag;
+
+/**
+ * Streaming implementation of the 64-bit xxHash (XXH64) non-cryptographic hash function.
+ * <p>
+ * The hash processes 32 bytes per round using four independent accumulators, so hashing an entity costs a small
+ * fraction of serializing it. The result is identical to the reference implementation regardless of how the input is
+ * split into {@link #update(byte[], int, int) updates}. Instances are not thread-safe.
+ * </p>
+ */
+public final class XxHash64 {
+
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+
+    private final long seed;
+    private final byte[] buffer = new byte[32];
+    private int buffered;
+    private long total;
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+
+    /**
+     * Create a new hash with seed {@code 0}.
+     */
+    public XxHash64() {
+        this(0);
+    }
+
+    /**
+     * Create a new hash.
+     *
+     * @param seed hash seed.
+     */
+    public XxHash64(long seed) {
+        this.seed = seed;
+        reset();
+    }
+
+    /**
+     * Compute the hash of a byte array with seed {@code 0}.
+     *
+     * @param bytes input bytes.
+     * @return 64-bit hash.
+     */
+    public static long hash(byte[] bytes) {
+        final XxHash64 hash = new XxHash64();
+        hash.update(bytes, 0, bytes.length);
+        return hash.getValue();
+    }
+
+    /**
+     * Reset the hash to its initial state.
+     */
+    public void reset() {
+        v1 = seed + P1 + P2;
+        v2 = seed + P2;
+        v3 = seed;
+        v4 = seed - P1;
+        buffered = 0;
+        total = 0;
+    }
+
+    /**
+     * Add a single byte to the hashed input.
+     *
+     * @param b input byte.
+     */
+    public void update(int b) {
+        total++;
+        buffer[buffered++] = (byte) b;
+        if (buffered == 32) {
+            process(buffer, 0);
+            buffered = 0;
+        }
+    }
+
+    /**
+     * Add a range of bytes to the hashed input.
+     *
+     * @param b input bytes.
+     * @param off offset of the first byte.
+     * @param len number of bytes.
+     */
+    public void update(byte[] b, int off, int len) {
+        if (off < 0 || len < 0 || len > b.length - off) {
+            throw new IndexOutOfBoundsException();
+        }
+        total += len;
+        if (buffered + len < 32) {
+            System.arraycopy(b, off, buffer, buffered, len);
+            buffered += len;
+            return;
+        }
+        if (buffered > 0) {
+            final int fill = 32 - buffered;
+            System.arraycopy(b, off, buffer, buffered, fill);
+            process(buffer, 0);
+            off += fill;
+            len -= fill;
+            buffered = 0;
+        }
+        while (len >= 32) {
+            process(b, off);
+            off += 32;
+            len -= 32;
+        }
+        System.arraycopy(b, off, buffer, 0, len);
+        buffered = len;
+    }
+
+    /**
+     * Get the hash of the input added so far. The hash can be updated further afterwards.
+     *
+     * @return 64-bit hash.
+     */
+    public long getValue() {
+        long h;
+        if (total >= 32) {
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = merge(h, v1);
+            h = merge(h, v2);
+            h = merge(h, v3);
+            h = merge(h, v4);
+        } else {
+            h = seed + P5;
+        }
+        h += total;
+
+        int i = 0;
+        for (; i + 8 <= buffered; i += 8) {
+            h ^= round(0, getLong(buffer, i));
+            h = Long.rotateLeft(h, 27) * P1 + P4;
+        }
+        if (i + 4 <= buffered) {
+            h ^= (getInt(buffer, i) & 0xFFFFFFFFL) * P1;
+            h = Long.rotateLeft(h, 23) * P2 + P3;
+            i += 4;
+        }
+        for (; i < buffered; i++) {
+            h ^= (buffer[i] & 0xFF) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+        }
+
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private void process(byte[] b, int off) {
+        v1 = round(v1, getLong(b, off));
+        v2 = round(v2, getLong(b, off + 8));
+        v3 = round(v3, getLong(b, off + 16));
+        v4 = round(v4, getLong(b, off + 24));
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+
+    private static long merge(long acc, long v) {
+        acc ^= round(0, v);
+        return acc * P1 + P4;
+    }
+
+    private static long getLong(byte[] b, int off) {
+        return (b[off] & 0xFFL) | (b[off + 1] & 0xFFL) << 8 | (b[off + 2] & 0xFFL) << 16 | (b[off + 3] & 0xFFL) << 24
+                | (b[off + 4] & 0xFFL) << 32 | (b[off + 5] & 0xFFL) << 40 | (b[off + 6] & 0xFFL) << 48
+                | (b[off + 7] & 0xFFL) << 56;
+    }
+
+    private static int getInt(byte[] b, int off) {
+        return (b[off] & 0xFF) | (b[off + 1] & 0xFF) << 8 | (b[off + 2] & 0xFF) << 16 | (b[off + 3] & 0xFF) << 24;
+    }
+}
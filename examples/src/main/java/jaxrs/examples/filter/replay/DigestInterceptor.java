@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.replay;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.ext.ReaderInterceptor;
+import jakarta.ws.rs.ext.ReaderInterceptorContext;
+
+import javax.annotation.Priority;
+
+/**
+ * Example of an interceptor reading the request entity before the message body reader does: it verifies the
+ * {@code Digest: SHA-256=...} header of the request against a separate stream of the {@link ReplayableBody}.
+ */
+@Replayable
+@Priority(Priorities.USER)
+public class DigestInterceptor implements ReaderInterceptor {
+
+    private static final String DIGEST = "Digest";
+    private static final String SHA_256 = "SHA-256=";
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext ctx) throws IOException {
+        final String digest = ctx.getHeaders().getFirst(DIGEST);
+        final ReplayableBody body = ReplayableBody.from(ctx);
+        if (digest != null && digest.startsWith(SHA_256) && body != null) {
+            final byte[] expected;
+            try {
+                expected = Base64.getDecoder().decode(digest.substring(SHA_256.length()).trim());
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Invalid digest: " + digest);
+            }
+            if (!MessageDigest.isEqual(expected, sha256(body))) {
+                throw new BadRequestException("Request entity does not match its digest.");
+            }
+        }
+        return ctx.proceed();
+    }
+
+    private static byte[] sha256(ReplayableBody body) throws IOException {
+        final MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        final byte[] transfer = new byte[8192];
+        try (InputStream in = body.newInputStream()) {
+            int read;
+            while ((read = in.read(transfer)) >= 0) {
+                sha256.update(transfer, 0, read);
+            }
+        }
+        return sha256.digest();
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.replay;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Example of a resource whose request entity is verified by the {@link DigestInterceptor}. The application registers
+ * the {@link ReplayInterceptor} and the {@code DigestInterceptor}.
+ */
+@Path("documents")
+public class MyResourceClass {
+
+    @Replayable
+    @POST
+    @Consumes(MediaType.APPLICATION_OCTET_STREAM)
+    public void store(byte[] document) {
+        // implementation goes here
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.replay;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.BufferPool;
+import jakarta.ws.rs.ext.ReaderInterceptor;
+import jakarta.ws.rs.ext.ReaderInterceptorContext;
+
+import javax.annotation.Priority;
+
+import jaxrs.examples.buffer.PooledBufferPool;
+
+/**
+ * Buffers the request entity of {@link Replayable} resource methods as a {@link ReplayableBody}, replacing the
+ * {@code ByteArrayInputStream} interceptors would otherwise set to read the entity twice.
+ * <p>
+ * The interceptor runs after the {@link Priorities#ENTITY_CODER entity coders}, so the buffered body is the decoded
+ * entity and the size limit also caps decompression. Interceptors with a higher priority value obtain the body with
+ * {@link ReplayableBody#from(jakarta.ws.rs.ext.InterceptorContext)} and read it with their own streams, the message
+ * body reader reads another one. The body is released as soon as the message body reader returns, so entity types
+ * that are read lazily, such as an {@link InputStream}, must not be used with resource methods bound to the
+ * interceptor. Unless a pool is passed to the constructor, memory is acquired from the {@link BufferPool} in effect.
+ * </p>
+ */
+@Replayable
+@Priority(Priorities.ENTITY_CODER + 100)
+public class ReplayInterceptor implements ReaderInterceptor {
+
+    /**
+     * Default maximum number of bytes kept in memory.
+     */
+    public static final long DEFAULT_MEMORY_THRESHOLD = 256 * 1024;
+
+    /**
+     * Default maximum entity size.
+     */
+    public static final long DEFAULT_MAX_BYTES = 4L * 1024 * 1024 * 1024;
+
+    private final BufferPool pool;
+    private final long memoryThreshold;
+    private final long maxBytes;
+    private final Path directory;
+    private final boolean mapped;
+
+    @Context
+    private BufferPool bufferPool;
+
+    /**
+     * Create an interceptor with the default limits, spilling to the default temporary directory.
+     */
+    public ReplayInterceptor() {
+        this(null, DEFAULT_MEMORY_THRESHOLD, DEFAULT_MAX_BYTES, null, false);
+    }
+
+    /**
+     * Create a new interceptor.
+     *
+     * @param pool pool to acquire memory from, {@code null} for the {@link BufferPool} in effect.
+     * @param memoryThreshold maximum number of bytes of an entity kept in memory.
+     * @param maxBytes maximum entity size, larger entities are rejected with {@code 413}.
+     * @param directory directory of temporary files, {@code null} for the default temporary directory.
+     * @param mapped whether temporary files are read through memory-mapped regions.
+     */
+    public ReplayInterceptor(BufferPool pool, long memoryThreshold, long maxBytes, Path directory, boolean mapped) {
+        if (memoryThreshold < 0 || maxBytes < 0) {
+            throw new IllegalArgumentException("Limits must not be negative: " + memoryThreshold + ", " + maxBytes);
+        }
+        this.pool = pool;
+        this.memoryThreshold = memoryThreshold;
+        this.maxBytes = maxBytes;
+        this.directory = directory;
+        this.mapped = mapped;
+    }
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext ctx) throws IOException {
+        if (ReplayableBody.from(ctx) != null) {
+            return ctx.proceed();
+        }
+        final InputStream old = ctx.getInputStream();
+        final ReplayableBody body = ReplayableBody.read(old, pool(), memoryThreshold, maxBytes, directory, mapped);
+        try {
+            ctx.setProperty(ReplayableBody.PROPERTY, body);
+            ctx.setInputStream(body.newInputStream());
+            return ctx.proceed();
+        } finally {
+            ctx.removeProperty(ReplayableBody.PROPERTY);
+            ctx.setInputStream(old);
+            body.close();
+        }
+    }
+
+    private BufferPool pool() {
+        if (pool != null) {
+            return pool;
+        }
+        return bufferPool != null ? bufferPool : PooledBufferPool.getDefault();
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.filter.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.BufferPool;
+import jakarta.ws.rs.ext.InterceptorContext;
+
+import jaxrs.examples.buffer.SpillingBuffer;
+
+/**
+ * Request entity read once and kept so that it can be read any number of times.
+ * <p>
+ * The entity is kept in a {@link SpillingBuffer}: in pooled memory up to the memory threshold and in a temporary file
+ * beyond it, so buffering a large upload does not grow the heap. Entities larger than the size limit are rejected with
+ * {@code 413 Request Entity Too Large} as soon as the limit is exceeded, without reading the rest.
+ * </p>
+ * <p>
+ * The {@link ReplayInterceptor} stores the body of the current request as the {@link #PROPERTY} of the interceptor
+ * context, where other interceptors find it using {@link #from(InterceptorContext)}.
+ * </p>
+ */
+public final class ReplayableBody implements Closeable {
+
+    /**
+     * Name of the interceptor context property holding the body.
+     */
+    public static final String PROPERTY = ReplayableBody.class.getName();
+
+    private final SpillingBuffer buffer;
+
+    private ReplayableBody(SpillingBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Read a stream to its end and keep its content.
+     *
+     * @param in stream to be read, it is not closed.
+     * @param pool pool to acquire memory from.
+     * @param memoryThreshold maximum number of bytes kept in memory.
+     * @param maxBytes maximum number of bytes read.
+     * @param directory directory of the temporary file, {@code null} for the default temporary directory.
+     * @param mapped whether the temporary file is read through memory-mapped regions.
+     * @return buffered body.
+     * @throws IOException in case of an I/O error.
+     * @throws WebApplicationException with status {@code 413} if the stream is longer than {@code maxBytes}.
+     */
+    public static ReplayableBody read(InputStream in, BufferPool pool, long memoryThreshold, long maxBytes,
+            Path directory, boolean mapped) throws IOException {
+        final SpillingBuffer buffer = new SpillingBuffer(pool, memoryThreshold, directory, mapped);
+        try {
+            final byte[] transfer = new byte[8192];
+            int read;
+            while ((read = in.read(transfer)) >= 0) {
+                if (buffer.size() + read > maxBytes) {
+                    throw new WebApplicationException("Request entity larger than " + maxBytes + " bytes.",
+                            Response.Status.REQUEST_ENTITY_TOO_LARGE);
+                }
+                buffer.write(transfer, 0, read);
+            }
+            return new ReplayableBody(buffer);
+        } catch (IOException | RuntimeException e) {
+            buffer.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get the body buffered for the current request.
+     *
+     * @param context interceptor context of the request.
+     * @return body or {@code null} if the request entity has not been buffered.
+     */
+    public static ReplayableBody from(InterceptorContext context) {
+        return (ReplayableBody) context.getProperty(PROPERTY);
+    }
+
+    /**
+     * Get the length of the body.
+     *
+     * @return number of bytes.
+     */
+    public long size() {
+        return buffer.size();
+    }
+
+    /**
+     * Create a new stream reading the body from the beginning, independently of all other streams.
+     *
+     * @return new input stream.
+     * @throws IOException in case of an I/O error.
+     */
+    public InputStream newInputStream() throws IOException {
+        return buffer.newInputStream();
+    }
+
+    /**
+     * Release the memory and delete the temporary file.
+     *
+     * @throws IOException if the file cannot be deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        buffer.close();
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.form;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Form;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Fields of an {@code application/x-www-form-urlencoded} entity, decoded on demand.
+ * <p>
+ * The entity bytes are indexed in a single pass which records the position of every name and value without copying
+ * them. Names are decoded when the fields are indexed, values only when they are requested, so the values of fields a
+ * resource does not use are never decoded. Decoding is lenient: a {@code '%'} not followed by two hexadecimal digits is
+ * kept as is. Instances are not thread-safe, they are meant to be used by the thread processing the request.
+ * </p>
+ */
+public final class FormFields {
+
+    // fields with more entries are looked up through an index built on the first lookup
+    private static final int LINEAR_LOOKUP_LIMIT = 8;
+
+    private final byte[] data;
+    private final Charset charset;
+    private final int size;
+    // name start, name end, value start, value end of every field
+    private final int[] positions;
+    private final String[] names;
+    private final String[] values;
+    private Map<String, List<Integer>> index;
+
+    private FormFields(byte[] data, Charset charset, int size, int[] positions) {
+        this.data = data;
+        this.charset = charset;
+        this.size = size;
+        this.positions = positions;
+        this.names = new String[size];
+        this.values = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = decode(positions[4 * i], positions[4 * i + 1]);
+        }
+    }
+
+    /**
+     * Index the fields of an entity.
+     *
+     * @param data entity bytes, the array must not be modified as long as the fields are used.
+     * @param length number of entity bytes in the array.
+     * @param charset character set of the decoded octets.
+     * @param maxFields maximum number of fields.
+     * @return form fields.
+     * @throws WebApplicationException with status {@code 413} if the entity has more than {@code maxFields} fields.
+     */
+    static FormFields index(byte[] data, int length, Charset charset, int maxFields) {
+        int[] positions = new int[64];
+        int size = 0;
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            int equals = -1;
+            while (end < length && data[end] != '&') {
+                if (equals < 0 && data[end] == '=') {
+                    equals = end;
+                }
+                end++;
+            }
+            // empty fields, e.g. a trailing '&', are skipped
+            if (end > start) {
+                if (size == maxFields) {
+                    throw new WebApplicationException("Form has more than " + maxFields + " fields.",
+                            Response.Status.REQUEST_ENTITY_TOO_LARGE);
+                }
+                if (4 * size + 4 > positions.length) {
+                    final int[] grown = new int[positions.length * 2];
+                    System.arraycopy(positions, 0, grown, 0, positions.length);
+                    positions = grown;
+                }
+                positions[4 * size] = start;
+                positions[4 * size + 1] = equals < 0 ? end : equals;
+                positions[4 * size + 2] = equals < 0 ? end : equals + 1;
+                positions[4 * size + 3] = end;
+                size++;
+            }
+            start = end + 1;
+        }
+        return new FormFields(data, charset, size, positions);
+    }
+
+    /**
+     * Get the number of fields.
+     *
+     * @return number of fields, including repeated names.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the distinct field names.
+     *
+     * @return unmodifiable set of the names, in the order of their first occurrence.
+     */
+    public Set<String> getNames() {
+        final Set<String> set = new LinkedHashSet<String>();
+        Collections.addAll(set, names);
+        return Collections.unmodifiableSet(set);
+    }
+
+    /**
+     * Get the first value of a field.
+     *
+     * @param name field name.
+     * @return decoded value or {@code null} if there is no such field.
+     */
+    public String getFirst(String name) {
+        if (size > LINEAR_LOOKUP_LIMIT) {
+            final List<Integer> fields = index().get(name);
+            return fields == null ? null : value(fields.get(0));
+        }
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                return value(i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get all values of a field.
+     *
+     * @param name field name.
+     * @return decoded values, empty if there is no such field.
+     */
+    public List<String> get(String name) {
+        final List<String> result = new ArrayList<String>(1);
+        if (size > LINEAR_LOOKUP_LIMIT) {
+            final List<Integer> fields = index().get(name);
+            if (fields != null) {
+                for (Integer field : fields) {
+                    result.add(value(field));
+                }
+            }
+            return result;
+        }
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) {
+                result.add(value(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decode all fields into a form.
+     *
+     * @return new form.
+     */
+    public Form toForm() {
+        final MultivaluedMap<String, String> map = new MultivaluedHashMap<String, String>();
+        for (int i = 0; i < size; i++) {
+            map.add(names[i], value(i));
+        }
+        return new Form(map);
+    }
+
+    private String value(int field) {
+        String value = values[field];
+        if (value == null) {
+            value = decode(positions[4 * field + 2], positions[4 * field + 3]);
+            values[field] = value;
+        }
+        return value;
+    }
+
+    private Map<String, List<Integer>> index() {
+        if (index == null) {
+            index = new HashMap<String, List<Integer>>();
+            for (int i = 0; i < size; i++) {
+                List<Integer> fields = index.get(names[i]);
+                if (fields == null) {
+                    fields = new ArrayList<Integer>(1);
+                    index.put(names[i], fields);
+                }
+                fields.add(i);
+            }
+        }
+        return index;
+    }
+
+    private String decode(int start, int end) {
+        int i = start;
+        while (i < end && data[i] != '%' && data[i] != '+') {
+            i++;
+        }
+        if (i == end) {
+            // nothing to decode, the common case
+            return new String(data, start, end - start, charset);
+        }
+        final byte[] decoded = new byte[end - start];
+        final int plain = i - start;
+        System.arraycopy(data, start, decoded, 0, plain);
+        int length = plain;
+        while (i < end) {
+            final byte b = data[i];
+            if (b == '+') {
+                decoded[length++] = ' ';
+                i++;
+            } else if (b == '%' && i + 2 < end && hex(data[i + 1]) >= 0 && hex(data[i + 2]) >= 0) {
+                decoded[length++] = (byte) (hex(data[i + 1]) << 4 | hex(data[i + 2]));
+                i += 3;
+            } else {
+                decoded[length++] = b;
+                i++;
+            }
+        }
+        return new String(decoded, 0, length, charset);
+    }
+
+    private static int hex(byte b) {
+        if (b >= '0' && b <= '9') {
+            return b - '0';
+        }
+        if (b >= 'A' && b <= 'F') {
+            return b - 'A' + 10;
+        }
+        if (b >= 'a' && b <= 'f') {
+            return b - 'a' + 10;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.form;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Form;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.CacheableSelection;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+
+/**
+ * Streaming reader and writer of {@code application/x-www-form-urlencoded} entities.
+ * <p>
+ * The reader reads the entity bytes straight from the entity stream, or takes them from a {@link ByteBuffer}, and
+ * indexes them as {@link FormFields}, which decode the values of the requested fields only. A {@link Form} is decoded
+ * completely from the same index, without an intermediate string of the whole entity. Entities larger than the size
+ * limit or with more fields than the field limit are rejected with {@code 413 Request Entity Too Large}; a
+ * {@code Content-Length} above the size limit is rejected before anything is read.
+ * </p>
+ * <p>
+ * The writer encodes the fields of a {@link Form} directly into a small output buffer using a table of the bytes that
+ * need no escaping, spaces are written as {@code '+'}. {@link jakarta.ws.rs.core.UriComponent} is not used since the
+ * form serialization escapes a different set of characters than URI query parameters.
+ * </p>
+ */
+@CacheableSelection
+@Consumes(MediaType.APPLICATION_FORM_URLENCODED)
+@Produces(MediaType.APPLICATION_FORM_URLENCODED)
+public class FormProvider implements MessageBodyReader<Object>, MessageBodyWriter<Form> {
+
+    /**
+     * Default maximum entity size in bytes.
+     */
+    public static final int DEFAULT_MAX_BYTES = 2 * 1024 * 1024;
+
+    /**
+     * Default maximum number of fields.
+     */
+    public static final int DEFAULT_MAX_FIELDS = 1000;
+
+    // bytes written unescaped: ALPHA / DIGIT / "*" / "-" / "." / "_"
+    private static final boolean[] UNESCAPED = new boolean[128];
+
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    static {
+        for (int c = 'a'; c <= 'z'; c++) {
+            UNESCAPED[c] = true;
+            UNESCAPED[c - 'a' + 'A'] = true;
+        }
+        for (int c = '0'; c <= '9'; c++) {
+            UNESCAPED[c] = true;
+        }
+        UNESCAPED['*'] = true;
+        UNESCAPED['-'] = true;
+        UNESCAPED['.'] = true;
+        UNESCAPED['_'] = true;
+    }
+
+    private final int maxBytes;
+    private final int maxFields;
+
+    /**
+     * Create a provider with the default limits.
+     */
+    public FormProvider() {
+        this(DEFAULT_MAX_BYTES, DEFAULT_MAX_FIELDS);
+    }
+
+    /**
+     * Create a new provider.
+     *
+     * @param maxBytes maximum entity size in bytes.
+     * @param maxFields maximum number of fields.
+     */
+    public FormProvider(int maxBytes, int maxFields) {
+        if (maxBytes <= 0 || maxFields <= 0) {
+            throw new IllegalArgumentException("Form limits must be positive: " + maxBytes + ", " + maxFields);
+        }
+        this.maxBytes = maxBytes;
+        this.maxFields = maxFields;
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == FormFields.class || type == Form.class;
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+            MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        final FormFields fields = read(entityStream, contentLength(httpHeaders), charset(mediaType));
+        return (Class<?>) type == Form.class ? fields.toForm() : fields;
+    }
+
+    /**
+     * Read and index the fields of an entity.
+     *
+     * @param in entity stream, it is read to its end but not closed.
+     * @param contentLength length of the entity if known, {@code -1} otherwise.
+     * @param charset character set of the decoded octets.
+     * @return form fields.
+     * @throws IOException in case of an I/O error.
+     * @throws WebApplicationException with status {@code 413} if a limit is exceeded.
+     */
+    public FormFields read(InputStream in, long contentLength, Charset charset) throws IOException {
+        if (contentLength > maxBytes) {
+            throw tooLarge();
+        }
+        byte[] data = new byte[contentLength >= 0 ? (int) contentLength : Math.min(4096, maxBytes)];
+        int length = 0;
+        while (true) {
+            if (length == data.length) {
+                if (length == maxBytes) {
+                    // the entity is too large unless the stream ends here
+                    if (in.read() < 0) {
+                        break;
+                    }
+                    throw tooLarge();
+                }
+                final byte[] grown = new byte[(int) Math.min((long) data.length * 2 + 1, maxBytes)];
+                System.arraycopy(data, 0, grown, 0, length);
+                data = grown;
+            }
+            final int read = in.read(data, length, data.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return FormFields.index(data, length, charset, maxFields);
+    }
+
+    /**
+     * Index the fields of an entity held in a buffer. The remaining bytes of a heap buffer are indexed in place, so the
+     * buffer content must not change as long as the fields are used.
+     *
+     * @param buffer entity bytes, the position of the buffer is moved to its limit.
+     * @param charset character set of the decoded octets.
+     * @return form fields.
+     * @throws WebApplicationException with status {@code 413} if a limit is exceeded.
+     */
+    public FormFields read(ByteBuffer buffer, Charset charset) {
+        final int length = buffer.remaining();
+        if (length > maxBytes) {
+            throw tooLarge();
+        }
+        if (buffer.hasArray() && buffer.arrayOffset() + buffer.position() == 0) {
+            ((Buffer) buffer).position(buffer.limit());
+            return FormFields.index(buffer.array(), length, charset, maxFields);
+        }
+        final byte[] data = new byte[length];
+        buffer.get(data);
+        return FormFields.index(data, length, charset, maxFields);
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return Form.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeTo(Form form, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+            MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        write(form.asMap(), charset(mediaType), entityStream);
+    }
+
+    /**
+     * Encode form fields to a stream.
+     *
+     * @param fields fields to write.
+     * @param charset character set of the encoded octets.
+     * @param out stream to write to, it is not closed.
+     * @throws IOException in case of an I/O error.
+     */
+    public static void write(MultivaluedMap<String, String> fields, Charset charset, OutputStream out)
+            throws IOException {
+        final Encoder encoder = new Encoder(out, charset);
+        for (Map.Entry<String, List<String>> field : fields.entrySet()) {
+            for (String value : field.getValue()) {
+                encoder.separator();
+                encoder.encode(field.getKey());
+                if (value != null) {
+                    encoder.raw('=');
+                    encoder.encode(value);
+                }
+            }
+        }
+        encoder.flush();
+    }
+
+    private static long contentLength(MultivaluedMap<String, String> httpHeaders) {
+        final String value = httpHeaders == null ? null : httpHeaders.getFirst(HttpHeaders.CONTENT_LENGTH);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static Charset charset(MediaType mediaType) {
+        final String charset = mediaType == null ? null : mediaType.getParameters().get(MediaType.CHARSET_PARAMETER);
+        return charset == null ? StandardCharsets.UTF_8 : Charset.forName(charset);
+    }
+
+    private WebApplicationException tooLarge() {
+        return new WebApplicationException("Form larger than " + maxBytes + " bytes.",
+                Response.Status.REQUEST_ENTITY_TOO_LARGE);
+    }
+
+    /**
+     * Buffered form encoder.
+     */
+    private static final class Encoder {
+
+        private final OutputStream out;
+        private final Charset charset;
+        private final boolean utf8;
+        private final byte[] buffer = new byte[8192];
+        private int count;
+        private boolean first = true;
+
+        private Encoder(OutputStream out, Charset charset) {
+            this.out = out;
+            this.charset = charset;
+            this.utf8 = StandardCharsets.UTF_8.equals(charset);
+        }
+
+        void separator() throws IOException {
+            if (first) {
+                first = false;
+            } else {
+                raw('&');
+            }
+        }
+
+        void encode(String s) throws IOException {
+            if (!utf8) {
+                for (byte b : s.getBytes(charset)) {
+                    octet(b & 0xff);
+                }
+                return;
+            }
+            for (int i = 0; i < s.length(); i++) {
+                final char c = s.charAt(i);
+                if (c < 0x80) {
+                    octet(c);
+                } else if (c < 0x800) {
+                    escape(0xc0 | c >> 6);
+                    escape(0x80 | c & 0x3f);
+                } else if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                    escape(0xf0 | codePoint >> 18);
+                    escape(0x80 | codePoint >> 12 & 0x3f);
+                    escape(0x80 | codePoint >> 6 & 0x3f);
+                    escape(0x80 | codePoint & 0x3f);
+                } else if (Character.isSurrogate(c)) {
+                    // unpaired surrogate, encoded as '?' like String.getBytes does
+                    escape('?');
+                } else {
+                    escape(0xe0 | c >> 12);
+                    escape(0x80 | c >> 6 & 0x3f);
+                    escape(0x80 | c & 0x3f);
+                }
+            }
+        }
+
+        private void octet(int b) throws IOException {
+            if (b < 0x80 && UNESCAPED[b]) {
+                raw(b);
+            } else if (b == ' ') {
+                raw('+');
+            } else {
+                escape(b);
+            }
+        }
+
+        private void escape(int b) throws IOException {
+            if (count + 3 > buffer.length) {
+                flushBuffer();
+            }
+            buffer[count++] = '%';
+            buffer[count++] = HEX[b >> 4 & 0xf];
+            buffer[count++] = HEX[b & 0xf];
+        }
+
+        void raw(int b) throws IOException {
+            if (count == buffer.length) {
+                flushBuffer();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        void flush() throws IOException {
+            flushBuffer();
+        }
+
+        private void flushBuffer() throws IOException {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,598 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * Resource model index generated at build time by the {@link ResourceIndexProcessor}.
+ * <p>
+ * The index lists the root resource and provider classes of an application together with their paths, media types,
+ * name bindings and {@code @Priority} values, and the resource methods with their HTTP methods, path templates and
+ * parameter bindings. A runtime bootstrapping an application, e.g. through {@link jakarta.ws.rs.JAXRS#start}, can
+ * {@link #load(ClassLoader) load} the index and build its resource model without reflectively scanning the classes and
+ * their annotations; only the indexed classes and methods are looked up, see {@link IndexedMethod#resolve(ClassLoader)}.
+ * </p>
+ * <p>
+ * The index is stored in the {@value #LOCATION} resource as UTF-8 text with one tab-separated record per line. Every
+ * {@code type} record is followed by its {@code method} records, every {@code method} record by its {@code param}
+ * records. Missing values are written as {@code -}.
+ * </p>
+ */
+public final class ResourceIndex {
+
+    /**
+     * Class path location of the index.
+     */
+    public static final String LOCATION = "META-INF/jakarta.ws.rs/resource-index";
+
+    private static final String HEADER = "# jakarta.ws.rs resource index 1";
+    private static final String NULL = "-";
+
+    private final List<IndexedType> types;
+
+    /**
+     * Create an index of the supplied types.
+     *
+     * @param types indexed root resource and provider classes.
+     */
+    public ResourceIndex(List<IndexedType> types) {
+        this.types = Collections.unmodifiableList(new ArrayList<IndexedType>(types));
+    }
+
+    /**
+     * Get the indexed root resource and provider classes.
+     *
+     * @return read-only list of indexed types.
+     */
+    public List<IndexedType> getTypes() {
+        return types;
+    }
+
+    /**
+     * Load and merge all indexes visible to a class loader.
+     *
+     * @param loader class loader to load the indexes with.
+     * @return merged index, empty if there is no index.
+     * @throws IOException in case an index cannot be read or is malformed.
+     */
+    public static ResourceIndex load(ClassLoader loader) throws IOException {
+        final List<IndexedType> types = new ArrayList<IndexedType>();
+        final Enumeration<URL> urls = loader.getResources(LOCATION);
+        while (urls.hasMoreElements()) {
+            final URL url = urls.nextElement();
+            try (InputStream in = url.openStream()) {
+                types.addAll(read(new InputStreamReader(in, StandardCharsets.UTF_8)).getTypes());
+            }
+        }
+        return new ResourceIndex(types);
+    }
+
+    /**
+     * Read an index.
+     *
+     * @param reader reader to read the index from.
+     * @return index.
+     * @throws IOException in case the index cannot be read or is malformed.
+     */
+    public static ResourceIndex read(Reader reader) throws IOException {
+        final BufferedReader in = new BufferedReader(reader);
+        final List<IndexedType> types = new ArrayList<IndexedType>();
+        IndexedType type = null;
+        IndexedMethod method = null;
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            final String[] fields = line.split("\t", -1);
+            for (int i = 0; i < fields.length; i++) {
+                fields[i] = unescape(fields[i]);
+            }
+            if ("type".equals(fields[0]) && fields.length == 8) {
+                type = new IndexedType(fields[1], "provider".equals(fields[2]), fields[3], list(fields[4]), list(fields[5]),
+                        list(fields[6]), fields[7] == null ? null : Integer.valueOf(fields[7]),
+                        new ArrayList<IndexedMethod>());
+                types.add(type);
+                method = null;
+            } else if ("method".equals(fields[0]) && fields.length == 9 && type != null) {
+                method = new IndexedMethod(fields[1], fields[2], list(fields[3]), fields[4], fields[5], list(fields[6]),
+                        list(fields[7]), list(fields[8]), new ArrayList<IndexedParameter>());
+                type.methods.add(method);
+            } else if ("param".equals(fields[0]) && fields.length == 6 && method != null) {
+                method.parameters.add(new IndexedParameter(fields[1], fields[2], fields[3], Boolean.parseBoolean(fields[4]),
+                        fields[5]));
+            } else {
+                throw new IOException("Malformed resource index record at line " + lineNumber + ": " + line);
+            }
+        }
+        return new ResourceIndex(types);
+    }
+
+    /**
+     * Write the index.
+     *
+     * @param writer writer to write the index to.
+     * @throws IOException in case the index cannot be written.
+     */
+    public void write(Writer writer) throws IOException {
+        writer.write(HEADER);
+        writer.write('\n');
+        for (IndexedType type : types) {
+            record(writer, "type", type.className, type.provider ? "provider" : "resource", type.path, join(type.consumes),
+                    join(type.produces), join(type.nameBindings), type.priority == null ? null : type.priority.toString());
+            for (IndexedMethod method : type.methods) {
+                record(writer, "method", method.declaringClassName, method.name, join(method.parameterTypes),
+                        method.httpMethod, method.path, join(method.consumes), join(method.produces),
+                        join(method.nameBindings));
+                for (IndexedParameter parameter : method.parameters) {
+                    record(writer, "param", parameter.source, parameter.name, parameter.defaultValue,
+                            Boolean.toString(parameter.encoded), parameter.typeName);
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private static void record(Writer writer, String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writer.write('\t');
+            }
+            writer.write(escape(fields[i]));
+        }
+        writer.write('\n');
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        if (value.equals(NULL)) {
+            return "\\" + NULL;
+        }
+        final StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+            case '\\':
+                sb.append("\\\\");
+                break;
+            case '\t':
+                sb.append("\\t");
+                break;
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            default:
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String unescape(String value) {
+        if (value.equals(NULL)) {
+            return null;
+        }
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        final StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                sb.append(c);
+                continue;
+            }
+            final char escaped = value.charAt(++i);
+            sb.append(escaped == 't' ? '\t' : escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+        }
+        return sb.toString();
+    }
+
+    private static String join(List<String> values) {
+        if (values == null) {
+            return null;
+        }
+        final StringBuilder sb = new StringBuilder();
+        for (String value : values) {
+            sb.append(sb.length() > 0 ? "," : "").append(value);
+        }
+        return sb.toString();
+    }
+
+    private static List<String> list(String value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(Arrays.asList(value.split(",")));
+    }
+
+    /**
+     * Indexed root resource or provider class.
+     */
+    public static final class IndexedType {
+
+        private final String className;
+        private final boolean provider;
+        private final String path;
+        private final List<String> consumes;
+        private final List<String> produces;
+        private final List<String> nameBindings;
+        private final Integer priority;
+        private final List<IndexedMethod> methods;
+
+        /**
+         * Create an indexed type.
+         *
+         * @param className binary class name.
+         * @param provider {@code true} for a provider, {@code false} for a root resource class.
+         * @param path class {@code @Path} value or {@code null}.
+         * @param consumes class {@code @Consumes} media types or {@code null}.
+         * @param produces class {@code @Produces} media types or {@code null}.
+         * @param nameBindings class names of the {@code @NameBinding} annotations of the class.
+         * @param priority {@code @Priority} value or {@code null}.
+         * @param methods resource methods and sub-resource locators.
+         */
+        public IndexedType(String className, boolean provider, String path, List<String> consumes, List<String> produces,
+                List<String> nameBindings, Integer priority, List<IndexedMethod> methods) {
+            this.className = className;
+            this.provider = provider;
+            this.path = path;
+            this.consumes = consumes;
+            this.produces = produces;
+            this.nameBindings = nameBindings == null ? Collections.<String>emptyList() : nameBindings;
+            this.priority = priority;
+            this.methods = methods;
+        }
+
+        /**
+         * Get the binary class name.
+         *
+         * @return class name suitable for {@link ClassLoader#loadClass(String)}.
+         */
+        public String getClassName() {
+            return className;
+        }
+
+        /**
+         * Check whether the class is a provider.
+         *
+         * @return {@code true} for a provider, {@code false} for a root resource class.
+         */
+        public boolean isProvider() {
+            return provider;
+        }
+
+        /**
+         * Get the class {@code @Path} value.
+         *
+         * @return path template or {@code null}.
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Get the class {@code @Consumes} media types.
+         *
+         * @return media types or {@code null} if the class is not annotated.
+         */
+        public List<String> getConsumes() {
+            return consumes;
+        }
+
+        /**
+         * Get the class {@code @Produces} media types.
+         *
+         * @return media types or {@code null} if the class is not annotated.
+         */
+        public List<String> getProduces() {
+            return produces;
+        }
+
+        /**
+         * Get the name binding annotations of the class.
+         *
+         * @return annotation class names, possibly empty.
+         */
+        public List<String> getNameBindings() {
+            return nameBindings;
+        }
+
+        /**
+         * Get the {@code @Priority} value of the class.
+         *
+         * @return priority or {@code null} if the class is not annotated.
+         */
+        public Integer getPriority() {
+            return priority;
+        }
+
+        /**
+         * Get the resource methods and sub-resource locators of a root resource class.
+         *
+         * @return read-only list of methods, empty for providers.
+         */
+        public List<IndexedMethod> getMethods() {
+            return Collections.unmodifiableList(methods);
+        }
+    }
+
+    /**
+     * Indexed resource method or sub-resource locator.
+     */
+    public static final class IndexedMethod {
+
+        private final String declaringClassName;
+        private final String name;
+        private final List<String> parameterTypes;
+        private final String httpMethod;
+        private final String path;
+        private final List<String> consumes;
+        private final List<String> produces;
+        private final List<String> nameBindings;
+        private final List<IndexedParameter> parameters;
+
+        /**
+         * Create an indexed method.
+         *
+         * @param declaringClassName binary name of the class declaring the method.
+         * @param name method name.
+         * @param parameterTypes binary names of the erased parameter types.
+         * @param httpMethod HTTP method or {@code null} for a sub-resource locator.
+         * @param path method {@code @Path} value or {@code null}.
+         * @param consumes method {@code @Consumes} media types or {@code null}.
+         * @param produces method {@code @Produces} media types or {@code null}.
+         * @param nameBindings class names of the {@code @NameBinding} annotations of the method.
+         * @param parameters parameter bindings in the order of the method parameters.
+         */
+        public IndexedMethod(String declaringClassName, String name, List<String> parameterTypes, String httpMethod,
+                String path, List<String> consumes, List<String> produces, List<String> nameBindings,
+                List<IndexedParameter> parameters) {
+            this.declaringClassName = declaringClassName;
+            this.name = name;
+            this.parameterTypes = parameterTypes == null ? Collections.<String>emptyList() : parameterTypes;
+            this.httpMethod = httpMethod;
+            this.path = path;
+            this.consumes = consumes;
+            this.produces = produces;
+            this.nameBindings = nameBindings == null ? Collections.<String>emptyList() : nameBindings;
+            this.parameters = parameters;
+        }
+
+        /**
+         * Get the binary name of the class declaring the method.
+         *
+         * @return declaring class name.
+         */
+        public String getDeclaringClassName() {
+            return declaringClassName;
+        }
+
+        /**
+         * Get the method name.
+         *
+         * @return method name.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the erased parameter types.
+         *
+         * @return binary names of the parameter types, array types use the {@code []} suffix.
+         */
+        public List<String> getParameterTypes() {
+            return parameterTypes;
+        }
+
+        /**
+         * Get the HTTP method.
+         *
+         * @return HTTP method or {@code null} for a sub-resource locator.
+         */
+        public String getHttpMethod() {
+            return httpMethod;
+        }
+
+        /**
+         * Get the method {@code @Path} value.
+         *
+         * @return path template or {@code null}.
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Get the method {@code @Consumes} media types.
+         *
+         * @return media types or {@code null} if the method is not annotated.
+         */
+        public List<String> getConsumes() {
+            return consumes;
+        }
+
+        /**
+         * Get the method {@code @Produces} media types.
+         *
+         * @return media types or {@code null} if the method is not annotated.
+         */
+        public List<String> getProduces() {
+            return produces;
+        }
+
+        /**
+         * Get the name binding annotations of the method.
+         *
+         * @return annotation class names, possibly empty.
+         */
+        public List<String> getNameBindings() {
+            return nameBindings;
+        }
+
+        /**
+         * Get the parameter bindings.
+         *
+         * @return read-only list of parameter bindings in the order of the method parameters.
+         */
+        public List<IndexedParameter> getParameters() {
+            return Collections.unmodifiableList(parameters);
+        }
+
+        /**
+         * Look up the Java method. Only the declaring class and the parameter types are loaded, no annotations are read.
+         *
+         * @param loader class loader to load the classes with.
+         * @return Java method.
+         * @throws ClassNotFoundException if the declaring class or a parameter type cannot be loaded.
+         * @throws NoSuchMethodException if the method does not exist anymore.
+         */
+        public Method resolve(ClassLoader loader) throws ClassNotFoundException, NoSuchMethodException {
+            final Class<?>[] types = new Class<?>[parameterTypes.size()];
+            for (int i = 0; i < types.length; i++) {
+                types[i] = loadClass(parameterTypes.get(i), loader);
+            }
+            return Class.forName(declaringClassName, false, loader).getDeclaredMethod(name, types);
+        }
+
+        private static Class<?> loadClass(String name, ClassLoader loader) throws ClassNotFoundException {
+            if (name.endsWith("[]")) {
+                final Class<?> component = loadClass(name.substring(0, name.length() - 2), loader);
+                return java.lang.reflect.Array.newInstance(component, 0).getClass();
+            }
+            switch (name) {
+            case "boolean":
+                return boolean.class;
+            case "byte":
+                return byte.class;
+            case "char":
+                return char.class;
+            case "short":
+                return short.class;
+            case "int":
+                return int.class;
+            case "long":
+                return long.class;
+            case "float":
+                return float.class;
+            case "double":
+                return double.class;
+            default:
+                return Class.forName(name, false, loader);
+            }
+        }
+    }
+
+    /**
+     * Indexed resource method parameter binding.
+     */
+    public static final class IndexedParameter {
+
+        /**
+         * Source of an entity parameter, i.e. a parameter without a binding annotation.
+         */
+        public static final String ENTITY = "Entity";
+
+        private final String source;
+        private final String name;
+        private final String defaultValue;
+        private final boolean encoded;
+        private final String typeName;
+
+        /**
+         * Create an indexed parameter.
+         *
+         * @param source simple name of the binding annotation, e.g. {@code PathParam} or {@code Context}, or
+         * {@link #ENTITY}.
+         * @param name parameter name from the binding annotation or {@code null}.
+         * @param defaultValue {@code @DefaultValue} value or {@code null}.
+         * @param encoded {@code true} if the parameter is annotated with {@code @Encoded}.
+         * @param typeName parameter type including type arguments.
+         */
+        public IndexedParameter(String source, String name, String defaultValue, boolean encoded, String typeName) {
+            this.source = source;
+            this.name = name;
+            this.defaultValue = defaultValue;
+            this.encoded = encoded;
+            this.typeName = typeName;
+        }
+
+        /**
+         * Get the source of the parameter value.
+         *
+         * @return simple name of the binding annotation or {@link #ENTITY}.
+         */
+        public String getSource() {
+            return source;
+        }
+
+        /**
+         * Get the parameter name.
+         *
+         * @return name from the binding annotation or {@code null}.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the default value.
+         *
+         * @return {@code @DefaultValue} value or {@code null}.
+         */
+        public String getDefaultValue() {
+            return defaultValue;
+        }
+
+        /**
+         * Check whether automatic decoding of the parameter value is disabled.
+         *
+         * @return {@code true} if the parameter is annotated with {@code @Encoded}.
+         */
+        public boolean isEncoded() {
+            return encoded;
+        }
+
+        /**
+         * Get the parameter type.
+         *
+         * @return parameter type including type arguments, e.g. {@code java.util.List<java.lang.String>}.
+         */
+        public String getTypeName() {
+            return typeName;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.index;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+/**
+ * Annotation processor generating the {@link ResourceIndex} of the root resource classes ({@code @Path}) and providers
+ * ({@code @Provider}) of a compilation unit set.
+ * <p>
+ * The processor is enabled by putting it on the annotation processor path of the application build, e.g. with the
+ * {@code javac -processor jaxrs.examples.index.ResourceIndexProcessor} option. The index is written to
+ * {@value ResourceIndex#LOCATION} in the class output directory once all rounds are processed. Resource methods are
+ * collected from the class and its super classes; annotations declared only on implemented interface methods are not
+ * indexed.
+ * </p>
+ */
+@SupportedAnnotationTypes({"jakarta.ws.rs.Path", "jakarta.ws.rs.ext.Provider"})
+public class ResourceIndexProcessor extends AbstractProcessor {
+
+    private static final String PACKAGE = "jakarta.ws.rs.";
+    private static final String PATH = PACKAGE + "Path";
+    private static final String PROVIDER = PACKAGE + "ext.Provider";
+    private static final String CONSUMES = PACKAGE + "Consumes";
+    private static final String PRODUCES = PACKAGE + "Produces";
+    private static final String HTTP_METHOD = PACKAGE + "HttpMethod";
+    private static final String NAME_BINDING = PACKAGE + "NameBinding";
+    private static final String DEFAULT_VALUE = PACKAGE + "DefaultValue";
+    private static final String ENCODED = PACKAGE + "Encoded";
+    private static final String CONTEXT = PACKAGE + "core.Context";
+    private static final List<String> PRIORITY = Arrays.asList("javax.annotation.Priority", "jakarta.annotation.Priority");
+    private static final List<String> PARAMETER_SOURCES = Arrays.asList(PACKAGE + "PathParam", PACKAGE + "QueryParam",
+            PACKAGE + "MatrixParam", PACKAGE + "HeaderParam", PACKAGE + "CookieParam", PACKAGE + "FormParam",
+            PACKAGE + "BeanParam", CONTEXT);
+
+    // keyed by binary name so that a class seen in several rounds is indexed once
+    private final Map<String, ResourceIndex.IndexedType> types = new LinkedHashMap<String, ResourceIndex.IndexedType>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS && !element.getModifiers().contains(Modifier.ABSTRACT)) {
+                    index((TypeElement) element);
+                }
+            }
+        }
+        if (roundEnv.processingOver() && !types.isEmpty()) {
+            write();
+        }
+        return false;
+    }
+
+    private void index(TypeElement type) {
+        final String className = processingEnv.getElementUtils().getBinaryName(type).toString();
+        final AnnotationMirror path = annotation(type, PATH);
+        final boolean provider = path == null && annotation(type, PROVIDER) != null;
+        if (path == null && !provider) {
+            return;
+        }
+        final List<ResourceIndex.IndexedMethod> methods = new ArrayList<ResourceIndex.IndexedMethod>();
+        if (!provider) {
+            for (Element member : processingEnv.getElementUtils().getAllMembers(type)) {
+                if (member.getKind() == ElementKind.METHOD && member.getModifiers().contains(Modifier.PUBLIC)
+                        && !member.getModifiers().contains(Modifier.STATIC)) {
+                    final ResourceIndex.IndexedMethod method = method((ExecutableElement) member);
+                    if (method != null) {
+                        methods.add(method);
+                    }
+                }
+            }
+        }
+        final AnnotationMirror priority = annotation(type, PRIORITY);
+        types.put(className, new ResourceIndex.IndexedType(className, provider, string(path), strings(annotation(type, CONSUMES)),
+                strings(annotation(type, PRODUCES)), nameBindings(type),
+                priority == null ? null : (Integer) value(priority).getValue(), methods));
+    }
+
+    private ResourceIndex.IndexedMethod method(ExecutableElement method) {
+        final AnnotationMirror path = annotation(method, PATH);
+        final String httpMethod = httpMethod(method);
+        if (path == null && httpMethod == null) {
+            return null;
+        }
+        final List<String> parameterTypes = new ArrayList<String>();
+        final List<ResourceIndex.IndexedParameter> parameters = new ArrayList<ResourceIndex.IndexedParameter>();
+        for (VariableElement parameter : method.getParameters()) {
+            parameterTypes.add(erasedName(parameter.asType()));
+            parameters.add(parameter(parameter));
+        }
+        final TypeElement declaringClass = (TypeElement) method.getEnclosingElement();
+        return new ResourceIndex.IndexedMethod(processingEnv.getElementUtils().getBinaryName(declaringClass).toString(),
+                method.getSimpleName().toString(), parameterTypes, httpMethod, string(path),
+                strings(annotation(method, CONSUMES)), strings(annotation(method, PRODUCES)), nameBindings(method),
+                parameters);
+    }
+
+    private ResourceIndex.IndexedParameter parameter(VariableElement parameter) {
+        String source = ResourceIndex.IndexedParameter.ENTITY;
+        String name = null;
+        for (String candidate : PARAMETER_SOURCES) {
+            final AnnotationMirror binding = annotation(parameter, candidate);
+            if (binding != null) {
+                source = candidate.substring(candidate.lastIndexOf('.') + 1);
+                name = string(binding);
+                break;
+            }
+        }
+        return new ResourceIndex.IndexedParameter(source, name, string(annotation(parameter, DEFAULT_VALUE)),
+                annotation(parameter, ENCODED) != null, parameter.asType().toString());
+    }
+
+    private static String httpMethod(Element element) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            final AnnotationMirror httpMethod = annotation(mirror.getAnnotationType().asElement(), HTTP_METHOD);
+            if (httpMethod != null) {
+                return string(httpMethod);
+            }
+        }
+        return null;
+    }
+
+    private List<String> nameBindings(Element element) {
+        final List<String> bindings = new ArrayList<String>();
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            final TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotation(annotationType, NAME_BINDING) != null) {
+                bindings.add(processingEnv.getElementUtils().getBinaryName(annotationType).toString());
+            }
+        }
+        return bindings;
+    }
+
+    private String erasedName(TypeMirror type) {
+        final TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+        if (erased.getKind() == TypeKind.ARRAY) {
+            return erasedName(((ArrayType) erased).getComponentType()) + "[]";
+        }
+        if (erased.getKind() == TypeKind.DECLARED) {
+            final TypeElement element = (TypeElement) ((DeclaredType) erased).asElement();
+            return processingEnv.getElementUtils().getBinaryName(element).toString();
+        }
+        return erased.toString();
+    }
+
+    private static AnnotationMirror annotation(Element element, String name) {
+        return annotation(element, Arrays.asList(name));
+    }
+
+    private static AnnotationMirror annotation(Element element, List<String> names) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            if (names.contains(((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString())) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private static AnnotationValue value(AnnotationMirror mirror) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals("value")) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String string(AnnotationMirror mirror) {
+        if (mirror == null) {
+            return null;
+        }
+        final AnnotationValue value = value(mirror);
+        return value == null ? null : value.getValue().toString();
+    }
+
+    private static List<String> strings(AnnotationMirror mirror) {
+        if (mirror == null) {
+            return null;
+        }
+        final List<String> strings = new ArrayList<String>();
+        final AnnotationValue value = value(mirror);
+        if (value == null) {
+            // annotation default, i.e. */*
+            strings.add("*/*");
+        } else if (value.getValue() instanceof List) {
+            for (Object element : (List<?>) value.getValue()) {
+                strings.add(((AnnotationValue) element).getValue().toString());
+            }
+        } else {
+            strings.add(value.getValue().toString());
+        }
+        return strings;
+    }
+
+    private void write() {
+        try {
+            final FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+                    ResourceIndex.LOCATION);
+            try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+                new ResourceIndex(new ArrayList<ResourceIndex.IndexedType>(types.values())).write(writer);
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write " + ResourceIndex.LOCATION + ": " + e.getMessage());
+        }
+    }
+}
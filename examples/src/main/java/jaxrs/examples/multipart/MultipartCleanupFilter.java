@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.multipart;
+
+import java.io.IOException;
+
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.ext.ReaderInterceptor;
+import jakarta.ws.rs.ext.ReaderInterceptorContext;
+
+import javax.annotation.Priority;
+
+/**
+ * Closes the {@link MultipartInput} of a request once the request has been processed, so the application does not
+ * have to.
+ * <p>
+ * The reader interceptor records the input read by the {@link MultipartProvider} in a request property and the
+ * response filter closes it, which releases the parse buffer and deletes the temporary files of buffered parts. The
+ * response filter runs once the resource method has returned or, for asynchronous requests, once the response has
+ * been resumed; parts must not be read after that, e.g. by an entity written from them. Closing is idempotent, so
+ * applications may still close the input earlier.
+ * </p>
+ */
+@Priority(Priorities.USER)
+public class MultipartCleanupFilter implements ReaderInterceptor, ContainerResponseFilter {
+
+    private static final String INPUT_PROPERTY = MultipartCleanupFilter.class.getName() + ".input";
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+        final Object entity = context.proceed();
+        if (entity instanceof MultipartInput) {
+            context.setProperty(INPUT_PROPERTY, entity);
+        }
+        return entity;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext)
+            throws IOException {
+        final MultipartInput input = (MultipartInput) requestContext.getProperty(INPUT_PROPERTY);
+        if (input != null) {
+            requestContext.removeProperty(INPUT_PROPERTY);
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.multipart;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.AbstractMultivaluedMap;
+import jakarta.ws.rs.core.EntityPart;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.BufferPool;
+
+import jaxrs.examples.buffer.SpillingBuffer;
+
+/**
+ * Streaming parser of a {@code multipart/form-data} entity, iterating over its {@link EntityPart parts}.
+ * <p>
+ * The entity is read into a single buffer acquired from a {@link BufferPool} and searched for the delimiter
+ * {@code CRLF "--" boundary} with the Boyer-Moore-Horspool algorithm, which typically inspects only one byte in every
+ * delimiter length. Bytes before the earliest position at which the delimiter could still start are passed on to the
+ * content stream of the current part without further inspection, so a part of any size is streamed through the one
+ * buffer.
+ * </p>
+ * <p>
+ * If the iterator is advanced before the content of the current part has been requested, the content is kept in a
+ * {@link SpillingBuffer}, in pooled memory up to the spill threshold and in a temporary file beyond it, and remains
+ * readable any number of times. If the content stream has been requested, the unread rest of the content is skipped.
+ * The buffer is released as soon as the closing delimiter has been read. The parser must be {@link #close() closed}
+ * once the parts have been processed, which also deletes the temporary files; {@link MultipartCleanupFilter} does so
+ * when the request has been processed.
+ * </p>
+ */
+public final class MultipartInput implements Iterator<EntityPart>, Closeable {
+
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+
+    private final InputStream in;
+    private final BufferPool pool;
+    private final long spillThreshold;
+    private final int maxParts;
+    private final Path spillDirectory;
+    private final byte[] delimiter;
+    private final int[] shift = new int[256];
+    private final ByteBuffer pooled;
+    private final byte[] buf;
+    private final List<SpillingBuffer> spilled = new ArrayList<SpillingBuffer>();
+
+    // buf[start, end) holds the unread bytes, buf[start, limit) the bytes known to belong to the current content
+    private int start;
+    private int end;
+    private int limit;
+    private boolean atDelimiter;
+    private boolean eof;
+
+    private int parts;
+    private ReceivedPart current;
+    private ReceivedPart next;
+    private boolean finished;
+    private boolean released;
+    private boolean closed;
+
+    /**
+     * Create a new parser. The preamble of the entity is read when the first part is requested.
+     *
+     * @param in entity stream, it is not closed.
+     * @param boundary value of the {@code boundary} parameter of the entity media type.
+     * @param pool pool to acquire the parse buffer and the memory of buffered parts from.
+     * @param spillThreshold maximum number of bytes of a buffered part kept in memory.
+     * @param maxParts maximum number of parts.
+     * @param spillDirectory directory of temporary files, {@code null} for the default temporary directory.
+     * @throws IllegalArgumentException if the boundary is not between 1 and 70 characters long.
+     */
+    public MultipartInput(InputStream in, String boundary, BufferPool pool, long spillThreshold, int maxParts,
+            Path spillDirectory) {
+        if (boundary == null || boundary.isEmpty() || boundary.length() > 70) {
+            throw new IllegalArgumentException("Invalid multipart boundary: " + boundary);
+        }
+        this.in = in;
+        this.pool = pool;
+        this.spillThreshold = spillThreshold;
+        this.maxParts = maxParts;
+        this.spillDirectory = spillDirectory;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+
+        final int m = delimiter.length;
+        for (int i = 0; i < shift.length; i++) {
+            shift[i] = m;
+        }
+        for (int i = 0; i < m - 1; i++) {
+            shift[delimiter[i] & 0xFF] = m - 1 - i;
+        }
+
+        final ByteBuffer acquired = pool.acquire();
+        if (acquired.hasArray() && acquired.capacity() >= 4 * m) {
+            pooled = acquired;
+            buf = acquired.array();
+            start = acquired.arrayOffset();
+        } else {
+            pool.release(acquired);
+            pooled = null;
+            buf = new byte[Math.max(8192, 4 * m)];
+        }
+        // the first delimiter is not preceded by a line break, prepend one so that it is found like the others
+        buf[start] = '\r';
+        buf[start + 1] = '\n';
+        end = start + 2;
+        limit = start;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = advance();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public EntityPart next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        current = next;
+        next = null;
+        return current;
+    }
+
+    /**
+     * Release the parse buffer, delete the temporary files of the buffered parts and invalidate all parts. The entity
+     * stream is not closed. Subsequent invocations have no effect.
+     *
+     * @throws IOException if a temporary file cannot be deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        finished = true;
+        release();
+        IOException failure = null;
+        for (SpillingBuffer buffer : spilled) {
+            try {
+                buffer.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        spilled.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private ReceivedPart advance() throws IOException {
+        checkOpen();
+        if (current != null) {
+            if (current.isStreamed()) {
+                skipContent();
+            } else {
+                final SpillingBuffer buffer = new SpillingBuffer(pool, spillThreshold, spillDirectory);
+                spilled.add(buffer);
+                buffer.readFrom(new ContentStream());
+                current.buffered(buffer);
+            }
+            current = null;
+        } else if (parts == 0) {
+            // preamble
+            skipContent();
+        }
+
+        // delimiter followed by either "--" or transport padding and a line break
+        start += delimiter.length;
+        atDelimiter = false;
+        if (!ensure(2)) {
+            throw malformed("Unexpected end of multipart entity.");
+        }
+        if (buf[start] == '-' && buf[start + 1] == '-') {
+            finished = true;
+            release();
+            return null;
+        }
+        while (ensure(1) && (buf[start] == ' ' || buf[start] == '\t')) {
+            start++;
+        }
+        if (!ensure(2) || buf[start] != '\r' || buf[start + 1] != '\n') {
+            throw malformed("Invalid multipart delimiter line.");
+        }
+        start += 2;
+
+        if (++parts > maxParts) {
+            throw new WebApplicationException("Multipart entity has more than " + maxParts + " parts.",
+                    Response.Status.REQUEST_ENTITY_TOO_LARGE);
+        }
+        final ReceivedPart part = new ReceivedPart(readHeaders(), new ContentStream());
+        limit = start;
+        return part;
+    }
+
+    private MultivaluedMap<String, String> readHeaders() throws IOException {
+        final MultivaluedMap<String, String> headers = new AbstractMultivaluedMap<String, String>(
+                new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER)) {
+        };
+        int total = 0;
+        while (true) {
+            int lineEnd = start;
+            while (true) {
+                if (lineEnd + 1 >= end) {
+                    final int scanned = lineEnd - start;
+                    if (!fill()) {
+                        throw malformed("Unexpected end of multipart headers.");
+                    }
+                    lineEnd = start + scanned;
+                } else if (buf[lineEnd] == '\r' && buf[lineEnd + 1] == '\n') {
+                    break;
+                } else {
+                    lineEnd++;
+                }
+            }
+            total += lineEnd - start + 2;
+            if (total > MAX_HEADER_BYTES) {
+                throw new WebApplicationException("Multipart headers larger than " + MAX_HEADER_BYTES + " bytes.",
+                        Response.Status.REQUEST_HEADER_FIELDS_TOO_LARGE);
+            }
+            if (lineEnd == start) {
+                start += 2;
+                return headers;
+            }
+            final String line = new String(buf, start, lineEnd - start, StandardCharsets.UTF_8);
+            start = lineEnd + 2;
+            final int colon = line.indexOf(':');
+            if (colon <= 0) {
+                throw malformed("Invalid multipart header: " + line);
+            }
+            headers.add(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+        }
+    }
+
+    /**
+     * Get the number of bytes at {@code buf[start]} that certainly belong to the current content, reading more of the
+     * entity if needed.
+     *
+     * @return number of content bytes, {@code 0} once the delimiter has been reached.
+     */
+    private int readable() throws IOException {
+        while (true) {
+            if (start < limit) {
+                return limit - start;
+            }
+            if (atDelimiter) {
+                return 0;
+            }
+            final int found = search(start);
+            if (found >= 0) {
+                limit = found;
+                atDelimiter = true;
+            } else if (end - delimiter.length + 1 > start) {
+                limit = end - delimiter.length + 1;
+            } else if (!fill()) {
+                throw malformed("Unexpected end of multipart entity.");
+            }
+        }
+    }
+
+    /**
+     * Boyer-Moore-Horspool search for the delimiter in {@code buf[from, end)}.
+     *
+     * @return index of the delimiter or {@code -1} if the buffer does not contain it.
+     */
+    private int search(int from) {
+        final int last = delimiter.length - 1;
+        int i = from;
+        while (i + last < end) {
+            int j = last;
+            while (buf[i + j] == delimiter[j]) {
+                if (j == 0) {
+                    return i;
+                }
+                j--;
+            }
+            i += shift[buf[i + last] & 0xFF];
+        }
+        return -1;
+    }
+
+    private void skipContent() throws IOException {
+        int n;
+        while ((n = readable()) > 0) {
+            start += n;
+        }
+    }
+
+    private boolean ensure(int n) throws IOException {
+        while (end - start < n) {
+            if (!fill()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Move the unread bytes to the beginning of the buffer and read more of the entity after them.
+     *
+     * @return {@code false} if the end of the entity has been reached.
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        final int base = pooled != null ? pooled.arrayOffset() : 0;
+        final int capacity = pooled != null ? pooled.capacity() : buf.length;
+        if (start > base) {
+            System.arraycopy(buf, start, buf, base, end - start);
+            limit -= start - base;
+            end -= start - base;
+            start = base;
+        }
+        if (end == base + capacity) {
+            throw new WebApplicationException("Multipart header line too long.",
+                    Response.Status.REQUEST_HEADER_FIELDS_TOO_LARGE);
+        }
+        final int read = in.read(buf, end, base + capacity - end);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        end += read;
+        return true;
+    }
+
+    /**
+     * Release the parse buffer, the epilogue of the entity is not read.
+     */
+    private void release() {
+        if (pooled != null && !released) {
+            released = true;
+            pool.release(pooled);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Multipart input has been closed.");
+        }
+    }
+
+    private static BadRequestException malformed(String message) {
+        return new BadRequestException(message, false);
+    }
+
+    /**
+     * Stream reading the content of the part that is current when the stream is created.
+     */
+    private final class ContentStream extends InputStream {
+
+        private final int part = parts;
+
+        @Override
+        public int read() throws IOException {
+            if (part != parts || finished || readable() == 0) {
+                return -1;
+            }
+            return buf[start++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (part != parts || finished) {
+                // the parser has moved on to the next part or the end of the entity
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            final int n = Math.min(len, readable());
+            if (n == 0) {
+                return -1;
+            }
+            System.arraycopy(buf, start, b, off, n);
+            start += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return part == parts && !finished ? Math.max(0, limit - start) : 0;
+        }
+    }
+}
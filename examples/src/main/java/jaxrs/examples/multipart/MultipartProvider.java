@@ -0,0 +1,290 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.multipart;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityPart;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.BufferPool;
+import jakarta.ws.rs.ext.CacheableSelection;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+
+import jaxrs.examples.buffer.PooledBufferPool;
+import jaxrs.examples.streaming.ChannelMessageBodyWriter;
+
+/**
+ * Streaming reader and writer of {@code multipart/form-data} entities.
+ * <p>
+ * The reader returns a {@link MultipartInput} for a {@code MultipartInput} or {@code Iterator<EntityPart>} entity
+ * type; the parts are parsed while the application iterates over them. The input has to be closed once the parts
+ * have been processed, which the {@link MultipartCleanupFilter} registered along with the provider does when the
+ * request has been processed. Unless a pool is passed to the constructor, buffers are acquired from the
+ * {@link BufferPool} in effect.
+ * </p>
+ * <p>
+ * The writer writes a {@code List<EntityPart>} with a random boundary, which it adds to the {@code Content-Type}
+ * header of the message. The content of {@link OutgoingPart#file(String, Path, MediaType) file parts} is transferred
+ * with {@link ChannelMessageBodyWriter#transfer(FileChannel, long, long, WritableByteChannel)}, i.e. without copying
+ * it to the heap if the entity stream is a channel.
+ * </p>
+ */
+@CacheableSelection
+@Consumes(MediaType.MULTIPART_FORM_DATA)
+@Produces(MediaType.MULTIPART_FORM_DATA)
+public class MultipartProvider implements MessageBodyReader<Object>, MessageBodyWriter<List<EntityPart>> {
+
+    /**
+     * Default maximum number of bytes of a buffered part kept in memory.
+     */
+    public static final long DEFAULT_SPILL_THRESHOLD = 64 * 1024;
+
+    /**
+     * Default maximum number of parts.
+     */
+    public static final int DEFAULT_MAX_PARTS = 1000;
+
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final char[] BOUNDARY_CHARS = "0123456789abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ"
+            .toCharArray();
+
+    private final BufferPool pool;
+    private final long spillThreshold;
+    private final int maxParts;
+    private final Path spillDirectory;
+
+    @Context
+    private BufferPool bufferPool;
+
+    /**
+     * Create a provider with the default limits, buffering parts in the default temporary directory.
+     */
+    public MultipartProvider() {
+        this(null, DEFAULT_SPILL_THRESHOLD, DEFAULT_MAX_PARTS, null);
+    }
+
+    /**
+     * Create a new provider.
+     *
+     * @param pool pool to acquire parse buffers and the memory of buffered parts from, {@code null} for the
+     * {@link BufferPool} in effect.
+     * @param spillThreshold maximum number of bytes of a buffered part kept in memory.
+     * @param maxParts maximum number of parts.
+     * @param spillDirectory directory of temporary files, {@code null} for the default temporary directory.
+     */
+    public MultipartProvider(BufferPool pool, long spillThreshold, int maxParts, Path spillDirectory) {
+        if (spillThreshold < 0 || maxParts <= 0) {
+            throw new IllegalArgumentException("Invalid multipart limits: " + spillThreshold + ", " + maxParts);
+        }
+        this.pool = pool;
+        this.spillThreshold = spillThreshold;
+        this.maxParts = maxParts;
+        this.spillDirectory = spillDirectory;
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == MultipartInput.class || type == Iterator.class && partType(genericType) == EntityPart.class;
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+            MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        final String boundary = mediaType.getParameters().get("boundary");
+        if (boundary == null || boundary.isEmpty() || boundary.length() > 70) {
+            throw new BadRequestException("Missing or invalid multipart boundary.");
+        }
+        return new MultipartInput(entityStream, boundary, pool(), spillThreshold, maxParts, spillDirectory);
+    }
+
+    private BufferPool pool() {
+        if (pool != null) {
+            return pool;
+        }
+        return bufferPool != null ? bufferPool : PooledBufferPool.getDefault();
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return List.class.isAssignableFrom(type) && partType(genericType) != null;
+    }
+
+    @Override
+    public long getSize(List<EntityPart> parts, Class<?> type, Type genericType, Annotation[] annotations,
+            MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(List<EntityPart> parts, Class<?> type, Type genericType, Annotation[] annotations,
+            MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+            throws IOException {
+        String boundary = mediaType.getParameters().get("boundary");
+        if (boundary == null) {
+            boundary = newBoundary();
+            httpHeaders.putSingle(HttpHeaders.CONTENT_TYPE, format(new MediaType(mediaType.getType(),
+                    mediaType.getSubtype())) + "; boundary=" + boundary);
+        }
+        // the channel view of the entity stream must not be closed, it would close the entity stream
+        WritableByteChannel target = null;
+        for (EntityPart part : parts) {
+            entityStream.write(partHeader(boundary, part).getBytes(StandardCharsets.UTF_8));
+            final Path file = part instanceof OutgoingPart ? ((OutgoingPart) part).getFile() : null;
+            if (file != null) {
+                if (target == null) {
+                    target = entityStream instanceof WritableByteChannel
+                            ? (WritableByteChannel) entityStream : Channels.newChannel(entityStream);
+                }
+                try (FileChannel channel = FileChannel.open(file)) {
+                    ChannelMessageBodyWriter.transfer(channel, 0, channel.size(), target);
+                }
+            } else {
+                try (InputStream content = part.getContent()) {
+                    final byte[] transfer = new byte[8192];
+                    int read;
+                    while ((read = content.read(transfer)) >= 0) {
+                        entityStream.write(transfer, 0, read);
+                    }
+                }
+            }
+            entityStream.write(CRLF);
+        }
+        entityStream.write(("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        entityStream.flush();
+    }
+
+    private static String partHeader(String boundary, EntityPart part) {
+        final StringBuilder header = new StringBuilder(128);
+        header.append("--").append(boundary).append("\r\n");
+        header.append("Content-Disposition: form-data; name=\"");
+        escape(part.getName(), header);
+        header.append('"');
+        if (part.getFileName() != null) {
+            header.append("; filename=\"");
+            escape(part.getFileName(), header);
+            header.append('"');
+        }
+        header.append("\r\n");
+        final MediaType mediaType = part.getMediaType();
+        if (mediaType != null && (part.getFileName() != null || !isPlainText(mediaType))) {
+            header.append(HttpHeaders.CONTENT_TYPE).append(": ").append(format(mediaType)).append("\r\n");
+        }
+        for (Map.Entry<String, List<String>> entry : part.getHeaders().entrySet()) {
+            final String name = entry.getKey();
+            if ("Content-Disposition".equalsIgnoreCase(name) || HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                continue;
+            }
+            if (name.isEmpty() || name.indexOf(':') >= 0 || hasLineBreak(name)) {
+                throw new IllegalArgumentException("Invalid multipart header name: " + name);
+            }
+            for (String value : entry.getValue()) {
+                // a line break would end the header and let the value inject headers or content
+                if (hasLineBreak(value)) {
+                    throw new IllegalArgumentException("Line break in value of multipart header " + name);
+                }
+                header.append(name).append(": ").append(value).append("\r\n");
+            }
+        }
+        return header.append("\r\n").toString();
+    }
+
+    /**
+     * Escape a quoted parameter value the way browsers do: quotes and line breaks are percent-encoded.
+     */
+    private static void escape(String value, StringBuilder out) {
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("%22");
+                    break;
+                case '\r':
+                    out.append("%0D");
+                    break;
+                case '\n':
+                    out.append("%0A");
+                    break;
+                default:
+                    out.append(c);
+            }
+        }
+    }
+
+    private static boolean hasLineBreak(String value) {
+        return value.indexOf('\r') >= 0 || value.indexOf('\n') >= 0;
+    }
+
+    private static boolean isPlainText(MediaType mediaType) {
+        if (!"text".equalsIgnoreCase(mediaType.getType()) || !"plain".equalsIgnoreCase(mediaType.getSubtype())) {
+            return false;
+        }
+        final Map<String, String> parameters = mediaType.getParameters();
+        return parameters.isEmpty() || parameters.size() == 1
+                && "UTF-8".equalsIgnoreCase(parameters.get(MediaType.CHARSET_PARAMETER));
+    }
+
+    /**
+     * Format a media type without the {@link jakarta.ws.rs.ext.RuntimeDelegate}.
+     */
+    private static String format(MediaType mediaType) {
+        final StringBuilder value = new StringBuilder(mediaType.getType()).append('/').append(mediaType.getSubtype());
+        for (Map.Entry<String, String> parameter : mediaType.getParameters().entrySet()) {
+            value.append("; ").append(parameter.getKey()).append("=\"");
+            escape(parameter.getValue(), value);
+            value.append('"');
+        }
+        return value.toString();
+    }
+
+    private static String newBoundary() {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final char[] boundary = new char[32];
+        for (int i = 0; i < boundary.length; i++) {
+            boundary[i] = BOUNDARY_CHARS[random.nextInt(BOUNDARY_CHARS.length)];
+        }
+        return new String(boundary);
+    }
+
+    /**
+     * Get the element type of a parameterized container of parts.
+     *
+     * @return element type or {@code null} if it is not a subtype of {@link EntityPart}.
+     */
+    private static Class<?> partType(Type genericType) {
+        if (!(genericType instanceof ParameterizedType)) {
+            return null;
+        }
+        final Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+        return arguments.length == 1 && arguments[0] instanceof Class
+                && EntityPart.class.isAssignableFrom((Class<?>) arguments[0]) ? (Class<?>) arguments[0] : null;
+    }
+}
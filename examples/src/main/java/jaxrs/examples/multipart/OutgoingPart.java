@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.multipart;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import jakarta.ws.rs.core.EntityPart;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/**
+ * Part of a {@code multipart/form-data} entity to be written by the {@link MultipartProvider}.
+ * <p>
+ * The {@code Content-Disposition} and {@code Content-Type} headers are generated from the name, the file name and the
+ * media type of the part; any other headers added to the {@link #getHeaders() header map} are written as they are.
+ * The content of a part created {@link #file(String, Path, MediaType) from a file} is transferred without copying it
+ * to the heap whenever the entity stream is a {@link java.nio.channels.WritableByteChannel channel}.
+ * </p>
+ */
+public final class OutgoingPart implements EntityPart {
+
+    private static final MediaType TEXT_PLAIN_UTF_8 = new MediaType("text", "plain", "UTF-8");
+
+    private final String name;
+    private final String fileName;
+    private final MediaType mediaType;
+    private final byte[] bytes;
+    private final Path file;
+    private final MultivaluedMap<String, String> headers = new MultivaluedHashMap<String, String>();
+
+    private OutgoingPart(String name, String fileName, MediaType mediaType, byte[] bytes, Path file) {
+        if (name == null) {
+            throw new IllegalArgumentException("Part name must not be null.");
+        }
+        this.name = name;
+        this.fileName = fileName;
+        this.mediaType = mediaType;
+        this.bytes = bytes;
+        this.file = file;
+    }
+
+    /**
+     * Create a text field.
+     *
+     * @param name field name.
+     * @param value field value, written in {@code UTF-8}.
+     * @return new part.
+     */
+    public static OutgoingPart field(String name, String value) {
+        return new OutgoingPart(name, null, TEXT_PLAIN_UTF_8, value.getBytes(StandardCharsets.UTF_8), null);
+    }
+
+    /**
+     * Create a file part from an array. The array is not copied.
+     *
+     * @param name field name.
+     * @param fileName file name sent to the recipient.
+     * @param mediaType media type of the content.
+     * @param content part content.
+     * @return new part.
+     */
+    public static OutgoingPart file(String name, String fileName, MediaType mediaType, byte[] content) {
+        return new OutgoingPart(name, fileName, mediaType, content, null);
+    }
+
+    /**
+     * Create a file part from a file. The file is read when the part is written.
+     *
+     * @param name field name.
+     * @param file file to send, its name is sent to the recipient.
+     * @param mediaType media type of the content.
+     * @return new part.
+     */
+    public static OutgoingPart file(String name, Path file, MediaType mediaType) {
+        return new OutgoingPart(name, file.getFileName().toString(), mediaType, null, file);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Get the additional headers of the part. The map is mutable.
+     *
+     * @return additional part headers.
+     */
+    @Override
+    public MultivaluedMap<String, String> getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        return file != null ? Files.newInputStream(file) : new ByteArrayInputStream(bytes);
+    }
+
+    /**
+     * Get the file holding the content.
+     *
+     * @return file or {@code null} if the content is kept in memory.
+     */
+    Path getFile() {
+        return file;
+    }
+
+    @Override
+    public String toString() {
+        return "OutgoingPart[" + name + (fileName != null ? ", " + fileName : "") + "]";
+    }
+}
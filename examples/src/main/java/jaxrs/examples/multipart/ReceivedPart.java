@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.multipart;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import jakarta.ws.rs.core.AbstractMultivaluedMap;
+import jakarta.ws.rs.core.EntityPart;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+import jaxrs.examples.buffer.SpillingBuffer;
+
+/**
+ * Part read by {@link MultipartInput}. The content is either streamed from the entity or, once the parser has moved
+ * on, read from a {@link SpillingBuffer}.
+ */
+final class ReceivedPart implements EntityPart {
+
+    private final MultivaluedMap<String, String> headers;
+    private final Map<String, String> disposition;
+    private final InputStream stream;
+    private boolean streamed;
+    private SpillingBuffer buffer;
+    private MediaType mediaType;
+
+    ReceivedPart(MultivaluedMap<String, String> headers, InputStream stream) {
+        this.headers = readOnly(headers);
+        this.disposition = parameters(headers.getFirst("Content-Disposition"));
+        this.stream = stream;
+    }
+
+    @Override
+    public String getName() {
+        return disposition.get("name");
+    }
+
+    @Override
+    public String getFileName() {
+        return disposition.get("filename");
+    }
+
+    @Override
+    public MultivaluedMap<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Create a read-only view of the parsed headers, which keeps their case-insensitive lookup.
+     */
+    private static MultivaluedMap<String, String> readOnly(MultivaluedMap<String, String> headers) {
+        final Map<String, List<String>> store = new TreeMap<String, List<String>>(String.CASE_INSENSITIVE_ORDER);
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            store.put(header.getKey(), Collections.unmodifiableList(header.getValue()));
+        }
+        return new AbstractMultivaluedMap<String, String>(Collections.unmodifiableMap(store)) {
+        };
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        if (mediaType == null) {
+            final String value = headers.getFirst(HttpHeaders.CONTENT_TYPE);
+            mediaType = value == null ? MediaType.TEXT_PLAIN_TYPE : parseMediaType(value);
+        }
+        return mediaType;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        if (buffer != null) {
+            return buffer.newInputStream();
+        }
+        if (streamed) {
+            throw new IllegalStateException("Content of part " + getName() + " has already been obtained.");
+        }
+        streamed = true;
+        return stream;
+    }
+
+    @Override
+    public String toString() {
+        return "ReceivedPart[" + getName() + (getFileName() != null ? ", " + getFileName() : "") + "]";
+    }
+
+    boolean isStreamed() {
+        return streamed;
+    }
+
+    void buffered(SpillingBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Parse the parameters of a header value such as {@code form-data; name="field"; filename="a.txt"}. Parameter
+     * names are converted to lower case, quoted values are unquoted.
+     */
+    static Map<String, String> parameters(String value) {
+        if (value == null) {
+            return Collections.emptyMap();
+        }
+        final Map<String, String> parameters = new HashMap<String, String>();
+        int i = value.indexOf(';');
+        while (i >= 0 && i < value.length()) {
+            i++;
+            while (i < value.length() && value.charAt(i) == ' ') {
+                i++;
+            }
+            final int eq = value.indexOf('=', i);
+            if (eq < 0) {
+                break;
+            }
+            final String name = value.substring(i, eq).trim().toLowerCase(Locale.ROOT);
+            i = eq + 1;
+            if (i < value.length() && value.charAt(i) == '"') {
+                final StringBuilder quoted = new StringBuilder();
+                i++;
+                while (i < value.length() && value.charAt(i) != '"') {
+                    char c = value.charAt(i++);
+                    if (c == '\\' && i < value.length()) {
+                        c = value.charAt(i++);
+                    }
+                    quoted.append(c);
+                }
+                parameters.put(name, quoted.toString());
+                i = value.indexOf(';', i);
+            } else {
+                final int semicolon = value.indexOf(';', i);
+                parameters.put(name, value.substring(i, semicolon < 0 ? value.length() : semicolon).trim());
+                i = semicolon;
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Parse a media type without the {@link jakarta.ws.rs.ext.RuntimeDelegate}, which the parser does not require.
+     */
+    static MediaType parseMediaType(String value) {
+        final int semicolon = value.indexOf(';');
+        final String type = (semicolon < 0 ? value : value.substring(0, semicolon)).trim();
+        final int slash = type.indexOf('/');
+        if (slash <= 0) {
+            return MediaType.APPLICATION_OCTET_STREAM_TYPE;
+        }
+        return new MediaType(type.substring(0, slash), type.substring(slash + 1), parameters(value));
+    }
+}
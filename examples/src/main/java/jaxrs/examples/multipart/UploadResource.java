@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.multipart;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.EntityPart;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Example of a resource receiving and sending {@code multipart/form-data} entities. The application registers the
+ * {@link MultipartProvider} and the {@link MultipartCleanupFilter}, which closes the parts once the request has been
+ * processed.
+ */
+@jakarta.ws.rs.Path("uploads")
+public class UploadResource {
+
+    private static final Path UPLOADS = Paths.get(System.getProperty("java.io.tmpdir"), "uploads");
+
+    /**
+     * Store the uploaded files. Each file is streamed from the request to its destination as the parts arrive.
+     *
+     * @param parts parts of the request entity.
+     * @return number of files stored.
+     * @throws IOException if a file cannot be stored.
+     * @throws BadRequestException if a file name does not name a file.
+     */
+    @POST
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Produces(MediaType.TEXT_PLAIN)
+    public String upload(Iterator<EntityPart> parts) throws IOException {
+        Files.createDirectories(UPLOADS);
+        int stored = 0;
+        while (parts.hasNext()) {
+            final EntityPart part = parts.next();
+            if (part.getFileName() == null) {
+                continue;
+            }
+            final Path target = UPLOADS.resolve(fileName(part.getFileName()));
+            try (InputStream content = part.getContent()) {
+                Files.copy(content, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            stored++;
+        }
+        return Integer.toString(stored);
+    }
+
+    /**
+     * Get the last element of a submitted file name, which browsers may send with a path.
+     */
+    private static Path fileName(String submitted) {
+        final Path name;
+        try {
+            name = Paths.get(submitted).getFileName();
+        } catch (InvalidPathException e) {
+            throw new BadRequestException("Invalid file name: " + submitted, e);
+        }
+        // an empty name would resolve to the upload directory itself, "." and ".." to it or its parent
+        if (name == null || name.toString().isEmpty() || name.toString().equals(".") || name.toString().equals("..")) {
+            throw new BadRequestException("Invalid file name: " + submitted);
+        }
+        return name;
+    }
+
+    /**
+     * Send all stored files in a single entity.
+     *
+     * @return one part per stored file.
+     * @throws IOException if the stored files cannot be listed.
+     */
+    @GET
+    @Produces(MediaType.MULTIPART_FORM_DATA)
+    public List<EntityPart> download() throws IOException {
+        final List<EntityPart> parts = new ArrayList<EntityPart>();
+        if (Files.isDirectory(UPLOADS)) {
+            try (Stream<Path> files = Files.list(UPLOADS)) {
+                files.forEach(file -> parts.add(OutgoingPart.file("file", file,
+                        MediaType.APPLICATION_OCTET_STREAM_TYPE)));
+            }
+        }
+        return parts;
+    }
+}
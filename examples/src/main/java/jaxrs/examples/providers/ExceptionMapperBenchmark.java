@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.providers;
+
+import java.io.IOException;
+
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+
+/**
+ * Compares cached and uncached exception mapper resolution.
+ * <p>
+ * Mappers are registered for a handful of common exception types and resolved for exceptions a few levels below them
+ * in the class hierarchy, e.g. a {@link java.nio.file.NoSuchFileException} mapped by the {@link IOException} mapper.
+ * </p>
+ * <pre>
+ * java -cp ... jaxrs.examples.providers.ExceptionMapperBenchmark 5000000
+ * </pre>
+ */
+public final class ExceptionMapperBenchmark {
+
+    private ExceptionMapperBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        final int n = args.length > 0 ? Integer.parseInt(args[0]) : 5000000;
+        final MessageBodyProviders providers = new MessageBodyProviders(null);
+        providers.register(new Mapper<Throwable>() {
+        });
+        providers.register(new Mapper<RuntimeException>() {
+        });
+        providers.register(new Mapper<IllegalArgumentException>() {
+        });
+        providers.register(new Mapper<IOException>() {
+        });
+        providers.register(new Mapper<WebApplicationException>() {
+        });
+        providers.register(new Mapper<NotFoundException>() {
+        });
+        final Class<?>[] exceptions = {java.nio.file.NoSuchFileException.class, NotFoundException.class,
+            jakarta.ws.rs.NotAllowedException.class, NumberFormatException.class,
+            java.util.ConcurrentModificationException.class, StackOverflowError.class};
+
+        for (int round = 0; round < 3; round++) {
+            long blackhole = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                final Class<? extends Throwable> type = exceptions[i % exceptions.length].asSubclass(Throwable.class);
+                blackhole += System.identityHashCode(providers.selectExceptionMapperUncached(type));
+            }
+            final long uncached = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                final Class<? extends Throwable> type = exceptions[i % exceptions.length].asSubclass(Throwable.class);
+                blackhole += System.identityHashCode(providers.getExceptionMapper(type));
+            }
+            final long cached = System.nanoTime() - start;
+            System.out.printf("round %d: uncached %6.1f ns/op, cached %6.1f ns/op (%d)%n", round,
+                    (double) uncached / n, (double) cached / n, blackhole & 1);
+        }
+    }
+
+    private abstract static class Mapper<E extends Throwable> implements ExceptionMapper<E> {
+
+        @Override
+        public Response toResponse(E exception) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,468 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.providers;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.ext.CacheableSelection;
+import jakarta.ws.rs.ext.ContextResolver;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Providers;
+
+/**
+ * {@link Providers} implementation selecting message body readers and writers as specified by {@link Providers} and
+ * caching the outcome of selections that only consulted {@link CacheableSelection cacheable} providers.
+ * <p>
+ * A selection walks all readers or writers, filters them by media type and entity type, sorts the candidates and asks
+ * them in turn. The outcome, including the absence of a provider, is then remembered per class, generic type and the
+ * type and subtype of the media type, so that a repeated selection is a single hash lookup. Media type parameters, such
+ * as a charset or a multipart boundary that is unique for every message, are not part of the key, so they cannot flood
+ * the cache. The cache size is bounded; once it is full, an arbitrary selection is evicted for every new one.
+ * Registering a provider replaces the immutable snapshot of the providers together with its caches, so lookups never
+ * observe a cache built for a different set of providers.
+ * </p>
+ * <p>
+ * The exception mapper for an exception class is resolved by walking the class hierarchy of the exception once. The
+ * outcome is kept in a {@link ClassValue} of the snapshot, so mapping a thrown exception costs a single lookup in the
+ * exception class, and a snapshot replaced by a registration releases all its resolutions at once. Exception mappers
+ * that are not registered with the registry and context resolvers are looked up by the delegate passed to the
+ * constructor.
+ * </p>
+ */
+public final class MessageBodyProviders implements Providers {
+
+    /**
+     * Maximum number of cached selections per kind of provider. Once it is reached, an arbitrary cached selection is
+     * evicted for every new one.
+     */
+    public static final int MAX_CACHE_SIZE = 4096;
+
+    private static final Object NONE = new Object();
+
+    private final Providers delegate;
+    private volatile Snapshot snapshot = new Snapshot(Collections.<Candidate>emptyList(),
+            Collections.<Candidate>emptyList(), Collections.<Class<?>, ExceptionMapper<?>>emptyMap());
+
+    /**
+     * Create a new provider registry.
+     *
+     * @param delegate providers to look up exception mappers and context resolvers, may be {@code null}.
+     */
+    public MessageBodyProviders(Providers delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Register a message body reader, writer, exception mapper or a provider implementing several of these contracts.
+     * The selection caches are discarded. An exception mapper replaces a previously registered mapper of the same
+     * exception type.
+     *
+     * @param provider provider instance.
+     * @return this registry.
+     * @throws IllegalArgumentException if the provider is neither a reader, a writer nor an exception mapper or declares
+     *         an invalid media type.
+     */
+    public synchronized MessageBodyProviders register(Object provider) {
+        final Snapshot current = snapshot;
+        final List<Candidate> readers = new ArrayList<Candidate>(current.readers);
+        final List<Candidate> writers = new ArrayList<Candidate>(current.writers);
+        final Map<Class<?>, ExceptionMapper<?>> mappers = new HashMap<Class<?>, ExceptionMapper<?>>(current.mappers);
+        final int order = readers.size() + writers.size();
+        boolean registered = false;
+        if (provider instanceof MessageBodyReader) {
+            final Consumes consumes = provider.getClass().getAnnotation(Consumes.class);
+            readers.add(new Candidate(provider, MessageBodyReader.class, consumes == null ? null : consumes.value(),
+                    order));
+            registered = true;
+        }
+        if (provider instanceof MessageBodyWriter) {
+            final Produces produces = provider.getClass().getAnnotation(Produces.class);
+            writers.add(new Candidate(provider, MessageBodyWriter.class, produces == null ? null : produces.value(),
+                    order));
+            registered = true;
+        }
+        if (provider instanceof ExceptionMapper) {
+            final Class<?> type = Candidate.providedType(provider.getClass(), ExceptionMapper.class);
+            mappers.put(type == Object.class ? Throwable.class : type, (ExceptionMapper<?>) provider);
+            registered = true;
+        }
+        if (!registered) {
+            throw new IllegalArgumentException("Not a message body provider or exception mapper: " + provider);
+        }
+        snapshot = new Snapshot(readers, writers, mappers);
+        return this;
+    }
+
+    /**
+     * Get the number of cached selections.
+     *
+     * @return number of cached reader and writer selections.
+     */
+    public int getCacheSize() {
+        final Snapshot current = snapshot;
+        return current.readerCache.size() + current.writerCache.size();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> MessageBodyReader<T> getMessageBodyReader(Class<T> type, Type genericType, Annotation[] annotations,
+            MediaType mediaType) {
+        final Snapshot current = snapshot;
+        final Key key = new Key(type, genericType, mediaType);
+        Object selected = current.readerCache.get(key);
+        if (selected == null) {
+            selected = current.select(current.readers, current.readerCache, key, annotations, true);
+        }
+        return selected == NONE ? null : (MessageBodyReader<T>) selected;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> MessageBodyWriter<T> getMessageBodyWriter(Class<T> type, Type genericType, Annotation[] annotations,
+            MediaType mediaType) {
+        final Snapshot current = snapshot;
+        final Key key = new Key(type, genericType, mediaType);
+        Object selected = current.writerCache.get(key);
+        if (selected == null) {
+            selected = current.select(current.writers, current.writerCache, key, annotations, false);
+        }
+        return selected == NONE ? null : (MessageBodyWriter<T>) selected;
+    }
+
+    /**
+     * Select a writer without consulting the cache.
+     */
+    <T> Object selectWriterUncached(Class<T> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        final Snapshot current = snapshot;
+        return current.select(current.writers, null, new Key(type, genericType, mediaType), annotations, false);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T extends Throwable> ExceptionMapper<T> getExceptionMapper(Class<T> type) {
+        final Object mapper = snapshot.mapperCache.get(type);
+        if (mapper != NONE) {
+            return (ExceptionMapper<T>) mapper;
+        }
+        return delegate == null ? null : delegate.getExceptionMapper(type);
+    }
+
+    /**
+     * Resolve an exception mapper without consulting the cache.
+     */
+    Object selectExceptionMapperUncached(Class<? extends Throwable> type) {
+        return snapshot.selectMapper(type);
+    }
+
+    @Override
+    public <T> ContextResolver<T> getContextResolver(Class<T> contextType, MediaType mediaType) {
+        return delegate == null ? null : delegate.getContextResolver(contextType, mediaType);
+    }
+
+    /**
+     * Immutable set of providers with the caches of selections among them.
+     */
+    private static final class Snapshot {
+
+        private final List<Candidate> readers;
+        private final List<Candidate> writers;
+        private final Map<Key, Object> readerCache = new ConcurrentHashMap<Key, Object>();
+        private final Map<Key, Object> writerCache = new ConcurrentHashMap<Key, Object>();
+        private final Map<Class<?>, ExceptionMapper<?>> mappers;
+        private final ClassValue<Object> mapperCache = new ClassValue<Object>() {
+            @Override
+            protected Object computeValue(Class<?> type) {
+                return selectMapper(type);
+            }
+        };
+
+        private Snapshot(List<Candidate> readers, List<Candidate> writers, Map<Class<?>, ExceptionMapper<?>> mappers) {
+            this.readers = readers;
+            this.writers = writers;
+            this.mappers = mappers;
+        }
+
+        /**
+         * Find the mapper of the nearest superclass of an exception class.
+         *
+         * @return exception mapper or {@code NONE}.
+         */
+        private Object selectMapper(Class<?> type) {
+            if (!mappers.isEmpty()) {
+                for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                    final ExceptionMapper<?> mapper = mappers.get(c);
+                    if (mapper != null) {
+                        return mapper;
+                    }
+                }
+            }
+            return NONE;
+        }
+
+        /**
+         * Select a provider and cache the outcome if all consulted providers are cacheable.
+         *
+         * @return selected provider or {@code NONE}.
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Object select(List<Candidate> candidates, Map<Key, Object> cache, Key key, Annotation[] annotations,
+                boolean reader) {
+            final MediaType mediaType = key.mediaType == null ? MediaType.WILDCARD_TYPE : key.mediaType;
+            final List<Match> matches = new ArrayList<Match>();
+            for (Candidate candidate : candidates) {
+                if (!candidate.type.isAssignableFrom(key.type)) {
+                    continue;
+                }
+                final int mediaDistance = candidate.mediaDistance(mediaType);
+                if (mediaDistance >= 0) {
+                    matches.add(new Match(candidate, mediaDistance, typeDistance(key.type, candidate.type)));
+                }
+            }
+            Collections.sort(matches, Match.ORDER);
+
+            boolean cacheable = true;
+            Object selected = NONE;
+            for (Match match : matches) {
+                final Object provider = match.candidate.provider;
+                cacheable &= match.candidate.cacheable;
+                final boolean accepted = reader
+                        ? ((MessageBodyReader) provider).isReadable(key.type, key.genericType, annotations, mediaType)
+                        : ((MessageBodyWriter) provider).isWriteable(key.type, key.genericType, annotations, mediaType);
+                if (accepted) {
+                    selected = provider;
+                    break;
+                }
+            }
+            if (cache != null && cacheable) {
+                if (cache.size() >= MAX_CACHE_SIZE) {
+                    evictOne(cache);
+                }
+                cache.put(key, selected);
+            }
+            return selected;
+        }
+
+        private static void evictOne(Map<Key, Object> cache) {
+            final Iterator<Key> keys = cache.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+
+        private static int typeDistance(Class<?> type, Class<?> providedType) {
+            int distance = 0;
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                if (c == providedType) {
+                    return distance;
+                }
+                distance++;
+            }
+            // provided type is an interface
+            return Integer.MAX_VALUE / 2;
+        }
+    }
+
+    /**
+     * Registered reader or writer.
+     */
+    private static final class Candidate {
+
+        private final Object provider;
+        private final Class<?> type;
+        private final MediaType[] mediaTypes;
+        private final boolean cacheable;
+        private final int order;
+
+        private Candidate(Object provider, Class<?> contract, String[] mediaTypes, int order) {
+            this.provider = provider;
+            this.type = providedType(provider.getClass(), contract);
+            this.mediaTypes = parseMediaTypes(mediaTypes);
+            this.cacheable = provider.getClass().isAnnotationPresent(CacheableSelection.class);
+            this.order = order;
+        }
+
+        /**
+         * Get the distance between a media type and the closest compatible declared media type.
+         *
+         * @return {@code 0} for x/y, {@code 1} for x/*, {@code 2} for *&#47;*, {@code -1} if no declared media type is
+         *         compatible.
+         */
+        private int mediaDistance(MediaType mediaType) {
+            int distance = -1;
+            for (MediaType declared : mediaTypes) {
+                if (declared.isCompatible(mediaType)) {
+                    final int d = declared.isWildcardType() ? 2 : declared.isWildcardSubtype() ? 1 : 0;
+                    if (distance < 0 || d < distance) {
+                        distance = d;
+                    }
+                }
+            }
+            return distance;
+        }
+
+        private static MediaType[] parseMediaTypes(String[] values) {
+            if (values == null) {
+                return new MediaType[] {MediaType.WILDCARD_TYPE};
+            }
+            final List<MediaType> mediaTypes = new ArrayList<MediaType>();
+            for (String value : values) {
+                for (String item : value.split(",")) {
+                    final int semicolon = item.indexOf(';');
+                    final String name = (semicolon < 0 ? item : item.substring(0, semicolon)).trim();
+                    final int slash = name.indexOf('/');
+                    if (slash <= 0 || slash == name.length() - 1) {
+                        throw new IllegalArgumentException("Invalid media type: " + value);
+                    }
+                    mediaTypes.add(new MediaType(name.substring(0, slash), name.substring(slash + 1)));
+                }
+            }
+            return mediaTypes.toArray(new MediaType[mediaTypes.size()]);
+        }
+
+        /**
+         * Resolve the type argument of the reader or writer interface implemented by a provider class or one of its
+         * superclasses.
+         *
+         * @return provided type, {@code Object} if it cannot be resolved.
+         */
+        private static Class<?> providedType(Class<?> providerClass, Class<?> contract) {
+            final Map<TypeVariable<?>, Type> bindings = new HashMap<TypeVariable<?>, Type>();
+            for (Class<?> c = providerClass; c != null; c = c.getSuperclass()) {
+                for (Type iface : c.getGenericInterfaces()) {
+                    if (iface instanceof ParameterizedType && ((ParameterizedType) iface).getRawType() == contract) {
+                        final Type argument = resolve(((ParameterizedType) iface).getActualTypeArguments()[0], bindings);
+                        if (argument instanceof Class) {
+                            return (Class<?>) argument;
+                        }
+                        if (argument instanceof ParameterizedType) {
+                            return (Class<?>) ((ParameterizedType) argument).getRawType();
+                        }
+                        return Object.class;
+                    }
+                }
+                // bind the type parameters of the superclass to the arguments given by this class
+                final Type superclass = c.getGenericSuperclass();
+                if (superclass instanceof ParameterizedType) {
+                    final ParameterizedType parameterized = (ParameterizedType) superclass;
+                    final TypeVariable<?>[] variables = ((Class<?>) parameterized.getRawType()).getTypeParameters();
+                    final Type[] arguments = parameterized.getActualTypeArguments();
+                    for (int i = 0; i < variables.length; i++) {
+                        bindings.put(variables[i], resolve(arguments[i], bindings));
+                    }
+                }
+            }
+            return Object.class;
+        }
+
+        private static Type resolve(Type type, Map<TypeVariable<?>, Type> bindings) {
+            final Type bound = type instanceof TypeVariable ? bindings.get(type) : null;
+            return bound != null ? bound : type;
+        }
+    }
+
+    private static final class Match {
+
+        private static final Comparator<Match> ORDER = new Comparator<Match>() {
+            @Override
+            public int compare(Match a, Match b) {
+                if (a.mediaDistance != b.mediaDistance) {
+                    return Integer.compare(a.mediaDistance, b.mediaDistance);
+                }
+                if (a.typeDistance != b.typeDistance) {
+                    return Integer.compare(a.typeDistance, b.typeDistance);
+                }
+                // later registrations take precedence, as user providers are registered after the built-in ones
+                return Integer.compare(b.candidate.order, a.candidate.order);
+            }
+        };
+
+        private final Candidate candidate;
+        private final int mediaDistance;
+        private final int typeDistance;
+
+        private Match(Candidate candidate, int mediaDistance, int typeDistance) {
+            this.candidate = candidate;
+            this.mediaDistance = mediaDistance;
+            this.typeDistance = typeDistance;
+        }
+    }
+
+    /**
+     * Selection cache key. The media type is kept to be passed to the providers, but only its type and subtype take
+     * part in the comparison.
+     */
+    private static final class Key {
+
+        private final Class<?> type;
+        private final Type genericType;
+        private final MediaType mediaType;
+        private final int hash;
+
+        private Key(Class<?> type, Type genericType, MediaType mediaType) {
+            this.type = type;
+            this.genericType = genericType == null ? type : genericType;
+            this.mediaType = mediaType;
+            int mediaTypeHash = 0;
+            if (mediaType != null) {
+                mediaTypeHash = 31 * lowerCaseHash(mediaType.getType()) + lowerCaseHash(mediaType.getSubtype());
+            }
+            this.hash = 31 * Objects.hash(type, this.genericType) + mediaTypeHash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return hash == other.hash && type == other.type && genericType.equals(other.genericType)
+                    && sameTypeAndSubtype(mediaType, other.mediaType);
+        }
+
+        private static boolean sameTypeAndSubtype(MediaType a, MediaType b) {
+            if (a == null || b == null) {
+                return a == b;
+            }
+            return a.getType().equalsIgnoreCase(b.getType()) && a.getSubtype().equalsIgnoreCase(b.getSubtype());
+        }
+
+        private static int lowerCaseHash(String value) {
+            int hash = 0;
+            for (int i = 0; i < value.length(); i++) {
+                hash = 31 * hash + Character.toLowerCase(value.charAt(i));
+            }
+            return hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
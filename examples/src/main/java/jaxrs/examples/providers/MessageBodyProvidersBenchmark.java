@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.providers;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.CacheableSelection;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+
+/**
+ * Compares cached and uncached message body writer selection with 50 registered writers.
+ * <p>
+ * 48 writers accept one entity type each, like the writers of a typical application with many entity types, the other
+ * two are catch-all JSON and {@code text/plain} writers. The benchmark selects writers for a mix of entity types and
+ * reports the cost of a selection.
+ * </p>
+ * <pre>
+ * java -cp ... jaxrs.examples.providers.MessageBodyProvidersBenchmark 2000000
+ * </pre>
+ */
+public final class MessageBodyProvidersBenchmark {
+
+    private static final Class<?>[] TYPES = {
+        Boolean.class, Byte.class, Character.class, Short.class, Integer.class, Long.class, Float.class, Double.class,
+        java.math.BigInteger.class, java.math.BigDecimal.class, java.util.Date.class, java.util.UUID.class,
+        java.util.Locale.class, java.util.Currency.class, java.util.ArrayList.class, java.util.LinkedList.class,
+        java.util.HashMap.class, java.util.TreeMap.class, java.util.HashSet.class, java.util.TreeSet.class,
+        java.util.ArrayDeque.class, java.util.BitSet.class, java.util.Optional.class, java.util.OptionalInt.class,
+        java.net.URI.class, java.net.URL.class, java.io.File.class, java.time.Instant.class,
+        java.time.Duration.class, java.time.LocalDate.class, java.time.LocalTime.class, java.time.LocalDateTime.class,
+        java.time.ZonedDateTime.class, java.time.OffsetDateTime.class, java.time.Period.class, java.time.Year.class,
+        java.time.YearMonth.class, java.time.MonthDay.class, java.time.ZoneOffset.class, StringBuilder.class,
+        StringBuffer.class, Thread.class, Exception.class, RuntimeException.class, Error.class, Number.class,
+        Enum.class, Character.UnicodeBlock.class};
+
+    private MessageBodyProvidersBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        final int n = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+        final MessageBodyProviders providers = new MessageBodyProviders(null);
+        providers.register(new JsonWriter());
+        providers.register(new TextWriter());
+        for (Class<?> type : TYPES) {
+            providers.register(new TypedWriter(type));
+        }
+        final Class<?>[] entities = {Integer.class, java.util.UUID.class, java.time.Instant.class,
+            java.util.ArrayList.class, String.class, Thread.class, Object.class};
+        final Annotation[] annotations = new Annotation[0];
+        final MediaType json = new MediaType("application", "json");
+
+        for (int round = 0; round < 3; round++) {
+            long blackhole = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                final Class<?> type = entities[i % entities.length];
+                blackhole += System.identityHashCode(providers.selectWriterUncached(type, type, annotations, json));
+            }
+            final long uncached = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                final Class<?> type = entities[i % entities.length];
+                blackhole += System.identityHashCode(providers.getMessageBodyWriter(type, type, annotations, json));
+            }
+            final long cached = System.nanoTime() - start;
+            System.out.printf("round %d: uncached %6.1f ns/op, cached %6.1f ns/op (%d)%n", round,
+                    (double) uncached / n, (double) cached / n, blackhole & 1);
+        }
+    }
+
+    @CacheableSelection
+    @Produces("application/json")
+    private static final class TypedWriter extends NoopWriter<Object> {
+
+        private final Class<?> type;
+
+        private TypedWriter(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+            return this.type == type;
+        }
+    }
+
+    @CacheableSelection
+    @Produces({"application/json", "application/*+json"})
+    private static final class JsonWriter extends NoopWriter<Object> {
+
+        @Override
+        public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+            return !type.isPrimitive();
+        }
+    }
+
+    @CacheableSelection
+    @Produces("text/plain")
+    private static final class TextWriter extends NoopWriter<String> {
+
+        @Override
+        public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+            return true;
+        }
+    }
+
+    private abstract static class NoopWriter<T> implements MessageBodyWriter<T> {
+
+        @Override
+        public void writeTo(T t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        }
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.response;
+
+import java.lang.annotation.Annotation;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.ws.rs.core.AbstractMultivaluedMap;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.GenericType;
+import jakarta.ws.rs.core.Link;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.NewCookie;
+import jakarta.ws.rs.core.Response;
+
+/**
+ * Immutable response without an entity and without headers, shared by all requests answered with its status.
+ * <p>
+ * Building a response such as {@code Response.noContent().build()} allocates a builder, a header map and the response
+ * for every request, although all these responses are equal. A resource method or filter can instead return one of the
+ * shared instances, e.g. {@link #NO_CONTENT} or {@code StatusResponse.of(Response.Status.NOT_MODIFIED)}, which are
+ * created without the {@link jakarta.ws.rs.ext.RuntimeDelegate}. The header maps of a shared response are unmodifiable;
+ * a JAX-RS runtime copies the status and headers of a response it has not built itself into its own response context,
+ * so response filters can still add headers, e.g. the {@code Allow} header of a {@link #METHOD_NOT_ALLOWED} response.
+ * </p>
+ */
+public final class StatusResponse extends Response {
+
+    private static final StatusResponse[] BY_CODE = new StatusResponse[600];
+
+    static {
+        for (Status status : Status.values()) {
+            BY_CODE[status.getStatusCode()] = new StatusResponse(status);
+        }
+    }
+
+    /**
+     * Shared {@code 204 No Content} response.
+     */
+    public static final Response NO_CONTENT = of(Status.NO_CONTENT);
+
+    /**
+     * Shared {@code 304 Not Modified} response.
+     */
+    public static final Response NOT_MODIFIED = of(Status.NOT_MODIFIED);
+
+    /**
+     * Shared {@code 404 Not Found} response.
+     */
+    public static final Response NOT_FOUND = of(Status.NOT_FOUND);
+
+    /**
+     * Shared {@code 405 Method Not Allowed} response.
+     */
+    public static final Response METHOD_NOT_ALLOWED = of(Status.METHOD_NOT_ALLOWED);
+
+    /**
+     * Shared {@code 503 Service Unavailable} response.
+     */
+    public static final Response SERVICE_UNAVAILABLE = of(Status.SERVICE_UNAVAILABLE);
+
+    private static final MultivaluedMap<String, Object> NO_HEADERS = new AbstractMultivaluedMap<String, Object>(
+            Collections.<String, List<Object>>emptyMap()) {
+    };
+
+    private static final MultivaluedMap<String, String> NO_STRING_HEADERS = new AbstractMultivaluedMap<String, String>(
+            Collections.<String, List<String>>emptyMap()) {
+    };
+
+    private final StatusType status;
+
+    private StatusResponse(StatusType status) {
+        this.status = status;
+    }
+
+    /**
+     * Get the response with a status. Responses with a {@link Status} are shared.
+     *
+     * @param status response status.
+     * @return response without entity and headers.
+     * @throws IllegalArgumentException if the status is {@code null}.
+     */
+    public static Response of(StatusType status) {
+        if (status == null) {
+            throw new IllegalArgumentException("Status must not be null.");
+        }
+        if (status instanceof Status) {
+            return BY_CODE[status.getStatusCode()];
+        }
+        return new StatusResponse(status);
+    }
+
+    @Override
+    public int getStatus() {
+        return status.getStatusCode();
+    }
+
+    @Override
+    public StatusType getStatusInfo() {
+        return status;
+    }
+
+    @Override
+    public Object getEntity() {
+        return null;
+    }
+
+    @Override
+    public <T> T readEntity(Class<T> entityType) {
+        throw noEntity();
+    }
+
+    @Override
+    public <T> T readEntity(GenericType<T> entityType) {
+        throw noEntity();
+    }
+
+    @Override
+    public <T> T readEntity(Class<T> entityType, Annotation[] annotations) {
+        throw noEntity();
+    }
+
+    @Override
+    public <T> T readEntity(GenericType<T> entityType, Annotation[] annotations) {
+        throw noEntity();
+    }
+
+    @Override
+    public boolean hasEntity() {
+        return false;
+    }
+
+    @Override
+    public boolean bufferEntity() {
+        return false;
+    }
+
+    /**
+     * Does nothing, a shared response cannot be closed.
+     */
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public MediaType getMediaType() {
+        return null;
+    }
+
+    @Override
+    public Locale getLanguage() {
+        return null;
+    }
+
+    @Override
+    public int getLength() {
+        return -1;
+    }
+
+    @Override
+    public Set<String> getAllowedMethods() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public Map<String, NewCookie> getCookies() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public EntityTag getEntityTag() {
+        return null;
+    }
+
+    @Override
+    public Date getDate() {
+        return null;
+    }
+
+    @Override
+    public Date getLastModified() {
+        return null;
+    }
+
+    @Override
+    public URI getLocation() {
+        return null;
+    }
+
+    @Override
+    public Set<Link> getLinks() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public boolean hasLink(String relation) {
+        return false;
+    }
+
+    @Override
+    public Link getLink(String relation) {
+        return null;
+    }
+
+    @Override
+    public Link.Builder getLinkBuilder(String relation) {
+        return null;
+    }
+
+    @Override
+    public MultivaluedMap<String, Object> getMetadata() {
+        return NO_HEADERS;
+    }
+
+    @Override
+    public MultivaluedMap<String, String> getStringHeaders() {
+        return NO_STRING_HEADERS;
+    }
+
+    @Override
+    public String getHeaderString(String name) {
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return "StatusResponse[" + status.getStatusCode() + ' ' + status.getReasonPhrase() + ']';
+    }
+
+    private static IllegalStateException noEntity() {
+        return new IllegalStateException("Response has no entity.");
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.routing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import jakarta.ws.rs.core.UriComponent;
+
+/**
+ * {@link jakarta.ws.rs.Path} template split into segments that can be matched one at a time.
+ * <p>
+ * A segment without template parameters is a literal, a segment consisting of a single template parameter without a
+ * regular expression is a variable matching any segment. Other segments are matched with a per-segment regular
+ * expression, as long as none of their template parameter expressions can match a {@code '/'}. From the first segment
+ * with such an expression on, the rest of the template is matched with a single regular expression, the tail.
+ * </p>
+ */
+final class PathTemplate {
+
+    static final int LITERAL = 0;
+    static final int VARIABLE = 1;
+    static final int PATTERN = 2;
+
+    private static final String DEFAULT_REGEX = "[^/]+";
+
+    /**
+     * Template segment matched against a single request path segment.
+     */
+    static final class Segment {
+
+        final int kind;
+        // encoded literal, variable name or segment regular expression
+        final String key;
+        final Pattern pattern;
+        final String[] names;
+        final int[] groups;
+        final int literalChars;
+        // literal prefix and suffix of a pattern segment, checked before the pattern is applied
+        final String prefix;
+        final String suffix;
+
+        private Segment(int kind, String key, Pattern pattern, String[] names, int[] groups, int literalChars,
+                String prefix, String suffix) {
+            this.kind = kind;
+            this.key = key;
+            this.pattern = pattern;
+            this.names = names;
+            this.groups = groups;
+            this.literalChars = literalChars;
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+    }
+
+    /**
+     * Rest of the template matched against the rest of the request path.
+     */
+    static final class Tail {
+
+        final String key;
+        final Pattern pattern;
+        // matches the tail followed by an arbitrary remaining path captured in the last group
+        final Pattern locatorPattern;
+        final String[] names;
+        final int[] groups;
+
+        private Tail(String key, String[] names, int[] groups) {
+            this.key = key;
+            this.pattern = Pattern.compile(key);
+            this.locatorPattern = Pattern.compile(key + "(/.*)?");
+            this.names = names;
+            this.groups = groups;
+        }
+    }
+
+    final List<Segment> segments;
+    final Tail tail;
+
+    private PathTemplate(List<Segment> segments, Tail tail) {
+        this.segments = Collections.unmodifiableList(segments);
+        this.tail = tail;
+    }
+
+    /**
+     * Join the class and method path templates and remove the leading, trailing and duplicate slashes.
+     */
+    static String normalize(String classPath, String methodPath) {
+        final String path = methodPath == null ? classPath : classPath + '/' + methodPath;
+        final StringBuilder sb = new StringBuilder(path.length());
+        int depth = 0;
+        for (int i = 0; i < path.length(); i++) {
+            final char c = path.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            } else if (c == '/' && depth == 0 && (sb.length() == 0 || sb.charAt(sb.length() - 1) == '/')) {
+                continue;
+            }
+            sb.append(c);
+        }
+        if (sb.length() > 0 && sb.charAt(sb.length() - 1) == '/') {
+            sb.setLength(sb.length() - 1);
+        }
+        return sb.toString();
+    }
+
+    static PathTemplate parse(String normalizedTemplate) {
+        final List<String> rawSegments = split(normalizedTemplate);
+        final List<Segment> segments = new ArrayList<Segment>(rawSegments.size());
+        for (int i = 0; i < rawSegments.size(); i++) {
+            final String raw = rawSegments.get(i);
+            final List<String> parts = parts(raw);
+            if (parts.size() == 1) {
+                final String literal = UriComponent.contextualEncode(parts.get(0), UriComponent.Type.PATH_SEGMENT);
+                segments.add(new Segment(LITERAL, literal, null, null, null, literal.length(), null, null));
+                continue;
+            }
+            if (parts.size() == 3 && parts.get(0).isEmpty() && parts.get(2).isEmpty() && regex(parts.get(1)) == null) {
+                segments.add(new Segment(VARIABLE, name(parts.get(1)), null, null, null, 0, null, null));
+                continue;
+            }
+            if (!segmentLocal(parts)) {
+                final StringBuilder rest = new StringBuilder();
+                for (int j = i; j < rawSegments.size(); j++) {
+                    rest.append(j > i ? "/" : "").append(rawSegments.get(j));
+                }
+                return new PathTemplate(segments, tail(parts(rest.toString())));
+            }
+            final List<String> names = new ArrayList<String>();
+            final List<Integer> groups = new ArrayList<Integer>();
+            final StringBuilder regex = new StringBuilder();
+            final int literalChars = appendRegex(parts, regex, names, groups);
+            final String key = regex.toString();
+            segments.add(new Segment(PATTERN, key, Pattern.compile(key), names.toArray(new String[names.size()]),
+                    toArray(groups), literalChars, encode(parts.get(0)), encode(parts.get(parts.size() - 1))));
+        }
+        return new PathTemplate(segments, null);
+    }
+
+    private static String encode(String literal) {
+        return UriComponent.contextualEncode(literal, UriComponent.Type.PATH);
+    }
+
+    private static Tail tail(List<String> parts) {
+        final List<String> names = new ArrayList<String>();
+        final List<Integer> groups = new ArrayList<Integer>();
+        final StringBuilder regex = new StringBuilder();
+        appendRegex(parts, regex, names, groups);
+        return new Tail(regex.toString(), names.toArray(new String[names.size()]), toArray(groups));
+    }
+
+    /**
+     * Append the regular expression matching the alternating literal and template parameter parts.
+     *
+     * @return number of literal characters.
+     */
+    private static int appendRegex(List<String> parts, StringBuilder regex, List<String> names, List<Integer> groups) {
+        int literalChars = 0;
+        int group = 1;
+        for (int i = 0; i < parts.size(); i++) {
+            final String part = parts.get(i);
+            if (i % 2 == 0) {
+                if (!part.isEmpty()) {
+                    final String literal = encode(part);
+                    regex.append(Pattern.quote(literal));
+                    literalChars += literal.length();
+                }
+            } else {
+                final String parameterRegex = regex(part);
+                names.add(name(part));
+                groups.add(group);
+                if (parameterRegex == null) {
+                    regex.append('(').append(DEFAULT_REGEX).append(')');
+                    group++;
+                } else {
+                    regex.append('(').append(parameterRegex).append(')');
+                    group += 1 + Pattern.compile(parameterRegex).matcher("").groupCount();
+                }
+            }
+        }
+        return literalChars;
+    }
+
+    /**
+     * Split a template into literal parts and template parameter declarations; literals are at even indexes.
+     */
+    private static List<String> parts(String raw) {
+        final List<String> parts = new ArrayList<String>();
+        int start = 0;
+        int depth = 0;
+        for (int i = 0; i < raw.length(); i++) {
+            final char c = raw.charAt(i);
+            if (c == '{') {
+                if (depth++ == 0) {
+                    parts.add(raw.substring(start, i));
+                    start = i + 1;
+                }
+            } else if (c == '}' && --depth == 0) {
+                parts.add(raw.substring(start, i));
+                start = i + 1;
+            }
+        }
+        if (depth != 0) {
+            throw new IllegalArgumentException("Unmatched '{' in path template " + raw);
+        }
+        parts.add(raw.substring(start));
+        return parts;
+    }
+
+    private static List<String> split(String template) {
+        final List<String> segments = new ArrayList<String>();
+        if (template.isEmpty()) {
+            return segments;
+        }
+        int start = 0;
+        int depth = 0;
+        for (int i = 0; i < template.length(); i++) {
+            final char c = template.charAt(i);
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+            } else if (c == '/' && depth == 0) {
+                segments.add(template.substring(start, i));
+                start = i + 1;
+            }
+        }
+        segments.add(template.substring(start));
+        return segments;
+    }
+
+    private static String name(String parameter) {
+        final int colon = parameter.indexOf(':');
+        return (colon < 0 ? parameter : parameter.substring(0, colon)).trim();
+    }
+
+    private static String regex(String parameter) {
+        final int colon = parameter.indexOf(':');
+        if (colon < 0) {
+            return null;
+        }
+        final String regex = parameter.substring(colon + 1).trim();
+        return regex.isEmpty() ? null : regex;
+    }
+
+    private static boolean segmentLocal(List<String> parts) {
+        for (int i = 1; i < parts.size(); i += 2) {
+            final String regex = regex(parts.get(i));
+            if (regex != null && !segmentLocal(regex)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Conservatively check that a regular expression cannot match a {@code '/'}: it must not contain a slash, a dot, a
+     * negated character class or a predefined class (such as {@code \S} or {@code \D}) that includes the slash.
+     */
+    static boolean segmentLocal(String regex) {
+        for (int i = 0; i < regex.length(); i++) {
+            final char c = regex.charAt(i);
+            if (c == '\\') {
+                if (++i < regex.length() && "SWDHVpPXRNQ".indexOf(regex.charAt(i)) >= 0) {
+                    return false;
+                }
+            } else if (c == '.' || c == '/' || (c == '[' && i + 1 < regex.length() && regex.charAt(i + 1) == '^')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        final int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,648 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.routing;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.NotAcceptableException;
+import jakarta.ws.rs.NotAllowedException;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.NotSupportedException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Application;
+import jakarta.ws.rs.core.MediaType;
+
+import jaxrs.examples.index.ResourceIndex;
+
+/**
+ * Request router compiled from the {@link Path}, {@link HttpMethod HTTP method}, {@link Consumes} and {@link Produces}
+ * annotations of the root resource classes of an application.
+ * <p>
+ * The path templates of all resource methods and sub-resource locators are compiled into a trie keyed by path
+ * segments. Literal segments are looked up in a hash map per trie node, segments consisting of a single template
+ * parameter match any segment without a regular expression, and only segments whose template parameters declare a
+ * regular expression are matched with a per-segment {@link java.util.regex.Pattern}. Template parameter expressions
+ * that may match a {@code '/'}, e.g. {@code {path: .*}}, are matched with a single expression against the rest of the
+ * path. Matching a request therefore costs roughly one hash lookup per path segment, independently of the number of
+ * resources:
+ * </p>
+ * <pre>
+ * ResourceRouter router = ResourceRouter.compile(application);
+ * RouteMatch match = router.route("GET", "/orders/42", null, Collections.singletonList(MediaType.APPLICATION_JSON_TYPE));
+ * Method method = match.getRoute().getMethod();
+ * String id = match.getPathParameters().get("id");
+ * </pre>
+ * <p>
+ * At every trie node literal segments take precedence over template segments with more literal characters, which in
+ * turn take precedence over plain template parameters and the rest-of-path expressions, following the ordering rules of
+ * the JAX-RS request matching algorithm. Sub-resource locators are only selected if no resource method matches the
+ * whole path. Matrix parameters are ignored when matching. A compiled router is immutable and thread-safe.
+ * </p>
+ */
+public final class ResourceRouter {
+
+    private static final List<MediaType> WILDCARD = Collections.singletonList(MediaType.WILDCARD_TYPE);
+
+    private final Node root;
+    private final List<Route> routes;
+
+    private ResourceRouter(Node root, List<Route> routes) {
+        this.root = root;
+        this.routes = Collections.unmodifiableList(routes);
+    }
+
+    /**
+     * Compile a router from the root resource classes of an application. Classes and singletons that are not annotated
+     * with {@link Path}, e.g. providers, are ignored.
+     *
+     * @param application JAX-RS application.
+     * @return compiled router.
+     * @throws IllegalArgumentException if a path template is not valid.
+     */
+    public static ResourceRouter compile(Application application) {
+        final Set<Class<?>> classes = new LinkedHashSet<Class<?>>(application.getClasses());
+        for (Object singleton : application.getSingletons()) {
+            classes.add(singleton.getClass());
+        }
+        return compile(classes);
+    }
+
+    /**
+     * Compile a router from root resource classes. Classes not annotated with {@link Path} are ignored.
+     *
+     * @param classes root resource classes.
+     * @return compiled router.
+     * @throws IllegalArgumentException if a path template is not valid.
+     */
+    public static ResourceRouter compile(Collection<? extends Class<?>> classes) {
+        final Node root = new Node();
+        final List<Route> routes = new ArrayList<Route>();
+        for (Class<?> resourceClass : classes) {
+            final Path classPath = resourceClass.getAnnotation(Path.class);
+            if (classPath == null) {
+                continue;
+            }
+            for (Method method : resourceClass.getMethods()) {
+                final Method annotated = annotatedMethod(method);
+                if (annotated == null) {
+                    continue;
+                }
+                final Path methodPath = annotated.getAnnotation(Path.class);
+                final String template = PathTemplate.normalize(classPath.value(),
+                        methodPath == null ? null : methodPath.value());
+                final Route route = new Route(resourceClass, method, httpMethod(annotated), template,
+                        mediaTypes(annotated.getAnnotation(Consumes.class), resourceClass.getAnnotation(Consumes.class)),
+                        mediaTypes(annotated.getAnnotation(Produces.class), resourceClass.getAnnotation(Produces.class)));
+                root.add(PathTemplate.parse(template), route);
+                routes.add(route);
+            }
+        }
+        root.sort();
+        return new ResourceRouter(root, routes);
+    }
+
+    /**
+     * Compile a router from a build-time {@link ResourceIndex}, without reading the annotations of the resource classes.
+     * Providers in the index are ignored.
+     *
+     * @param index resource index, e.g. {@link ResourceIndex#load(ClassLoader) loaded} from the class path.
+     * @param loader class loader to load the indexed resource classes with.
+     * @return compiled router.
+     * @throws IllegalArgumentException if a path template is not valid or an indexed class or method cannot be found.
+     */
+    public static ResourceRouter compile(ResourceIndex index, ClassLoader loader) {
+        final Node root = new Node();
+        final List<Route> routes = new ArrayList<Route>();
+        for (ResourceIndex.IndexedType type : index.getTypes()) {
+            if (type.isProvider()) {
+                continue;
+            }
+            try {
+                final Class<?> resourceClass = Class.forName(type.getClassName(), false, loader);
+                for (ResourceIndex.IndexedMethod method : type.getMethods()) {
+                    final String template = PathTemplate.normalize(type.getPath(), method.getPath());
+                    final Route route = new Route(resourceClass, method.resolve(loader), method.getHttpMethod(), template,
+                            mediaTypes(method.getConsumes() != null ? method.getConsumes() : type.getConsumes()),
+                            mediaTypes(method.getProduces() != null ? method.getProduces() : type.getProduces()));
+                    root.add(PathTemplate.parse(template), route);
+                    routes.add(route);
+                }
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                throw new IllegalArgumentException("Stale resource index entry for " + type.getClassName(), e);
+            }
+        }
+        root.sort();
+        return new ResourceRouter(root, routes);
+    }
+
+    /**
+     * Get all resource methods and sub-resource locators known to the router.
+     *
+     * @return read-only list of routes.
+     */
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    /**
+     * Select the resource method or sub-resource locator for a request.
+     * <p>
+     * Requests that do not match are reported with lightweight exceptions, which neither fill in a stack trace nor
+     * build a response unless an exception mapper asks for it, since clients probing random paths make them common.
+     * </p>
+     *
+     * @param httpMethod request method; {@code HEAD} requests are routed to {@code GET} resource methods unless there is
+     * a {@code HEAD} resource method.
+     * @param path encoded request path relative to the application path.
+     * @param contentType media type of the request entity or {@code null} if the request has no entity.
+     * @param acceptableMediaTypes acceptable response media types in the order of preference, {@code null} or empty if
+     * any media type is acceptable.
+     * @return matched route.
+     * @throws NotFoundException if no route matches the request path.
+     * @throws NotAllowedException if there is no resource method for the request method.
+     * @throws NotSupportedException if no resource method consumes the request media type.
+     * @throws NotAcceptableException if no resource method produces an acceptable media type.
+     */
+    public RouteMatch route(String httpMethod, String path, MediaType contentType, List<MediaType> acceptableMediaTypes) {
+        final Search search = new Search(path);
+        if (!root.find(search, 0)) {
+            if (search.locator == null) {
+                throw new NotFoundException(null, false);
+            }
+            return new RouteMatch(search.locator, search.locatorParameters, search.locatorRemaining, MediaType.WILDCARD_TYPE);
+        }
+        return select(search.routes, httpMethod, contentType,
+                acceptableMediaTypes == null || acceptableMediaTypes.isEmpty() ? WILDCARD : acceptableMediaTypes,
+                search.parameters(search.size));
+    }
+
+    private static RouteMatch select(List<Route> routes, String httpMethod, MediaType contentType,
+            List<MediaType> acceptable, Map<String, String> parameters) {
+        List<Route> candidates = byMethod(routes, httpMethod);
+        if (candidates.isEmpty() && HttpMethod.HEAD.equals(httpMethod)) {
+            candidates = byMethod(routes, HttpMethod.GET);
+        }
+        if (candidates.isEmpty()) {
+            final Set<String> allowed = new LinkedHashSet<String>();
+            for (Route route : routes) {
+                allowed.add(route.getHttpMethod());
+                if (HttpMethod.GET.equals(route.getHttpMethod())) {
+                    allowed.add(HttpMethod.HEAD);
+                }
+            }
+            final String[] methods = allowed.toArray(new String[allowed.size()]);
+            throw new NotAllowedException(null, false, methods[0], Arrays.copyOfRange(methods, 1, methods.length));
+        }
+
+        if (contentType != null) {
+            final List<Route> consuming = new ArrayList<Route>(candidates.size());
+            for (Route route : candidates) {
+                if (bestCompatible(route.getConsumes(), contentType) != null) {
+                    consuming.add(route);
+                }
+            }
+            if (consuming.isEmpty()) {
+                throw new NotSupportedException(null, false);
+            }
+            candidates = consuming;
+        }
+
+        for (MediaType accepted : acceptable) {
+            Route best = null;
+            MediaType bestProduced = null;
+            int bestScore = -1;
+            for (Route route : candidates) {
+                final MediaType produced = bestCompatible(route.getProduces(), accepted);
+                if (produced == null) {
+                    continue;
+                }
+                final MediaType consumed = contentType == null ? null : bestCompatible(route.getConsumes(), contentType);
+                final int score = specificity(produced) * 4 + (consumed == null ? 0 : specificity(consumed));
+                if (score > bestScore) {
+                    best = route;
+                    bestProduced = produced;
+                    bestScore = score;
+                }
+            }
+            if (best != null) {
+                return new RouteMatch(best, parameters, "", specificity(bestProduced) >= specificity(accepted)
+                        ? bestProduced : accepted);
+            }
+        }
+        throw new NotAcceptableException(null, false);
+    }
+
+    private static List<Route> byMethod(List<Route> routes, String httpMethod) {
+        final List<Route> result = new ArrayList<Route>(routes.size());
+        for (Route route : routes) {
+            if (route.getHttpMethod().equals(httpMethod)) {
+                result.add(route);
+            }
+        }
+        return result;
+    }
+
+    private static MediaType bestCompatible(List<MediaType> mediaTypes, MediaType other) {
+        MediaType best = null;
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.isCompatible(other) && (best == null || specificity(mediaType) > specificity(best))) {
+                best = mediaType;
+            }
+        }
+        return best;
+    }
+
+    private static int specificity(MediaType mediaType) {
+        return (mediaType.isWildcardType() ? 0 : 2) + (mediaType.isWildcardSubtype() ? 0 : 1);
+    }
+
+    /**
+     * Find the method carrying the JAX-RS annotations, which may be declared by a super class or an interface.
+     */
+    private static Method annotatedMethod(Method method) {
+        if (method.isBridge() || method.isSynthetic() || method.getDeclaringClass() == Object.class
+                || Modifier.isStatic(method.getModifiers())) {
+            return null;
+        }
+        for (Class<?> c = method.getDeclaringClass(); c != null && c != Object.class; c = c.getSuperclass()) {
+            final Method annotated = annotatedMethod(c, method);
+            if (annotated != null) {
+                return annotated;
+            }
+            for (Class<?> i : c.getInterfaces()) {
+                final Method inherited = annotatedMethod(i, method);
+                if (inherited != null) {
+                    return inherited;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Method annotatedMethod(Class<?> c, Method method) {
+        try {
+            final Method candidate = c.getDeclaredMethod(method.getName(), method.getParameterTypes());
+            return candidate.isAnnotationPresent(Path.class) || httpMethod(candidate) != null ? candidate : null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static String httpMethod(Method method) {
+        for (Annotation annotation : method.getAnnotations()) {
+            final HttpMethod httpMethod = annotation.annotationType().getAnnotation(HttpMethod.class);
+            if (httpMethod != null) {
+                return httpMethod.value();
+            }
+        }
+        return null;
+    }
+
+    private static List<MediaType> mediaTypes(Consumes method, Consumes type) {
+        return mediaTypes(method != null ? method.value() : type != null ? type.value() : null);
+    }
+
+    private static List<MediaType> mediaTypes(Produces method, Produces type) {
+        return mediaTypes(method != null ? method.value() : type != null ? type.value() : null);
+    }
+
+    private static List<MediaType> mediaTypes(List<String> values) {
+        return mediaTypes(values == null ? null : values.toArray(new String[values.size()]));
+    }
+
+    private static List<MediaType> mediaTypes(String[] values) {
+        if (values == null) {
+            return WILDCARD;
+        }
+        final List<MediaType> mediaTypes = new ArrayList<MediaType>();
+        for (String value : values) {
+            for (String mediaType : value.split(",")) {
+                final int parameters = mediaType.indexOf(';');
+                final String name = (parameters < 0 ? mediaType : mediaType.substring(0, parameters)).trim();
+                final int slash = name.indexOf('/');
+                if (slash < 0) {
+                    throw new IllegalArgumentException("Invalid media type: " + mediaType);
+                }
+                mediaTypes.add(new MediaType(name.substring(0, slash).trim(), name.substring(slash + 1).trim()));
+            }
+        }
+        return mediaTypes.isEmpty() ? WILDCARD : Collections.unmodifiableList(mediaTypes);
+    }
+
+    /**
+     * State of a single request routing: the request path split into segments and the captured template parameters.
+     */
+    private static final class Search {
+
+        private final String[] segments;
+        private String[] names = new String[8];
+        private String[] values = new String[8];
+        private int size;
+
+        private List<Route> routes;
+
+        private Route locator;
+        private int locatorConsumed = -1;
+        private Map<String, String> locatorParameters;
+        private String locatorRemaining;
+
+        private Search(String requestPath) {
+            // split into segments, dropping matrix parameters and empty segments
+            String[] segmentArray = new String[8];
+            int count = 0;
+            int start = 0;
+            final int length = requestPath.length();
+            while (start <= length) {
+                int end = start;
+                int segmentEnd = -1;
+                while (end < length && requestPath.charAt(end) != '/') {
+                    if (segmentEnd < 0 && requestPath.charAt(end) == ';') {
+                        segmentEnd = end;
+                    }
+                    end++;
+                }
+                if (segmentEnd < 0) {
+                    segmentEnd = end;
+                }
+                if (segmentEnd > start) {
+                    if (count == segmentArray.length) {
+                        segmentArray = Arrays.copyOf(segmentArray, count * 2);
+                    }
+                    segmentArray[count++] = requestPath.substring(start, segmentEnd);
+                }
+                start = end + 1;
+            }
+            this.segments = count == segmentArray.length ? segmentArray : Arrays.copyOf(segmentArray, count);
+        }
+
+        private void capture(String name, String value) {
+            if (size == names.length) {
+                names = Arrays.copyOf(names, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            names[size] = name;
+            values[size++] = value;
+        }
+
+        private int capture(String[] groupNames, int[] groups, Matcher matcher) {
+            final int mark = size;
+            for (int i = 0; i < groupNames.length; i++) {
+                capture(groupNames[i], matcher.group(groups[i]));
+            }
+            return mark;
+        }
+
+        private Map<String, String> parameters(int count) {
+            if (count == 0) {
+                return Collections.emptyMap();
+            }
+            final Map<String, String> parameters = new LinkedHashMap<String, String>();
+            for (int i = 0; i < count; i++) {
+                if (!parameters.containsKey(names[i])) {
+                    parameters.put(names[i], values[i]);
+                }
+            }
+            return Collections.unmodifiableMap(parameters);
+        }
+
+        /**
+         * Get the path segments starting at the given index joined with slashes.
+         */
+        private String remaining(int index) {
+            if (index == segments.length) {
+                return "";
+            }
+            if (index == segments.length - 1) {
+                return segments[index];
+            }
+            final StringBuilder sb = new StringBuilder();
+            for (int i = index; i < segments.length; i++) {
+                sb.append(i > index ? "/" : "").append(segments[i]);
+            }
+            return sb.toString();
+        }
+
+        private int consumed(int index) {
+            int consumed = 0;
+            for (int i = 0; i < index; i++) {
+                consumed += segments[i].length() + 1;
+            }
+            return consumed;
+        }
+
+        private void locator(Route route, int consumed, String remaining) {
+            // consumed is the number of matched characters of the path without the leading slash
+            if (consumed > locatorConsumed) {
+                locator = route;
+                locatorConsumed = consumed;
+                locatorParameters = parameters(size);
+                locatorRemaining = remaining;
+            }
+        }
+    }
+
+    /**
+     * Trie node reached by matching a sequence of path segments.
+     */
+    private static final class Node {
+
+        private final Map<String, Node> literals = new HashMap<String, Node>();
+        private final List<PatternEdge> patterns = new ArrayList<PatternEdge>();
+        private final Map<String, Node> variables = new LinkedHashMap<String, Node>();
+        private final List<TailEdge> tails = new ArrayList<TailEdge>();
+        private final List<Route> routes = new ArrayList<Route>();
+        private final List<Route> locators = new ArrayList<Route>();
+
+        private void add(PathTemplate template, Route route) {
+            Node node = this;
+            for (PathTemplate.Segment segment : template.segments) {
+                node = node.child(segment);
+            }
+            if (template.tail == null) {
+                (route.isLocator() ? node.locators : node.routes).add(route);
+                return;
+            }
+            TailEdge edge = null;
+            for (TailEdge tail : node.tails) {
+                if (tail.tail.key.equals(template.tail.key)) {
+                    edge = tail;
+                }
+            }
+            if (edge == null) {
+                edge = new TailEdge(template.tail);
+                node.tails.add(edge);
+            }
+            (route.isLocator() ? edge.locators : edge.routes).add(route);
+        }
+
+        private Node child(PathTemplate.Segment segment) {
+            switch (segment.kind) {
+            case PathTemplate.LITERAL:
+                return child(literals, segment.key);
+            case PathTemplate.VARIABLE:
+                return child(variables, segment.key);
+            default:
+                for (PatternEdge edge : patterns) {
+                    if (edge.segment.key.equals(segment.key) && Arrays.equals(edge.segment.names, segment.names)) {
+                        return edge.child;
+                    }
+                }
+                final PatternEdge edge = new PatternEdge(segment);
+                patterns.add(edge);
+                return edge.child;
+            }
+        }
+
+        private static Node child(Map<String, Node> children, String key) {
+            Node child = children.get(key);
+            if (child == null) {
+                child = new Node();
+                children.put(key, child);
+            }
+            return child;
+        }
+
+        private void sort() {
+            Collections.sort(patterns, new Comparator<PatternEdge>() {
+                @Override
+                public int compare(PatternEdge a, PatternEdge b) {
+                    if (a.segment.literalChars != b.segment.literalChars) {
+                        return b.segment.literalChars - a.segment.literalChars;
+                    }
+                    return b.segment.names.length - a.segment.names.length;
+                }
+            });
+            for (Node child : literals.values()) {
+                child.sort();
+            }
+            for (PatternEdge edge : patterns) {
+                edge.child.sort();
+            }
+            for (Node child : variables.values()) {
+                child.sort();
+            }
+        }
+
+        /**
+         * Depth-first search for a node with resource methods matching the whole path, recording the most specific
+         * sub-resource locator on the way.
+         */
+        private boolean find(Search search, int index) {
+            final String[] segments = search.segments;
+            if (index == segments.length) {
+                if (!routes.isEmpty()) {
+                    search.routes = routes;
+                    return true;
+                }
+            } else {
+                final String segment = segments[index];
+                final Node literal = literals.get(segment);
+                if (literal != null && literal.find(search, index + 1)) {
+                    return true;
+                }
+                for (PatternEdge edge : patterns) {
+                    if (!segment.startsWith(edge.segment.prefix) || !segment.endsWith(edge.segment.suffix)) {
+                        continue;
+                    }
+                    final Matcher matcher = edge.segment.pattern.matcher(segment);
+                    if (matcher.matches()) {
+                        final int mark = search.capture(edge.segment.names, edge.segment.groups, matcher);
+                        if (edge.child.find(search, index + 1)) {
+                            return true;
+                        }
+                        search.size = mark;
+                    }
+                }
+                for (Map.Entry<String, Node> variable : variables.entrySet()) {
+                    final int mark = search.size;
+                    search.capture(variable.getKey(), segment);
+                    if (variable.getValue().find(search, index + 1)) {
+                        return true;
+                    }
+                    search.size = mark;
+                }
+                if (!tails.isEmpty() && findTail(search, index)) {
+                    return true;
+                }
+            }
+            if (!locators.isEmpty()) {
+                final String remaining = search.remaining(index);
+                search.locator(locators.get(0), search.consumed(index), remaining.isEmpty() ? "" : "/" + remaining);
+            }
+            return false;
+        }
+
+        private boolean findTail(Search search, int index) {
+            final String remaining = search.remaining(index);
+            for (TailEdge edge : tails) {
+                final PathTemplate.Tail tail = edge.tail;
+                if (!edge.routes.isEmpty()) {
+                    final Matcher matcher = tail.pattern.matcher(remaining);
+                    if (matcher.matches()) {
+                        search.capture(tail.names, tail.groups, matcher);
+                        search.routes = edge.routes;
+                        return true;
+                    }
+                }
+                if (!edge.locators.isEmpty()) {
+                    final Matcher matcher = tail.locatorPattern.matcher(remaining);
+                    if (matcher.matches()) {
+                        final int mark = search.capture(tail.names, tail.groups, matcher);
+                        final String rest = matcher.group(matcher.groupCount());
+                        search.locator(edge.locators.get(0),
+                                search.consumed(index) + remaining.length() - (rest == null ? 0 : rest.length()),
+                                rest == null ? "" : rest);
+                        search.size = mark;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class PatternEdge {
+
+        private final PathTemplate.Segment segment;
+        private final Node child = new Node();
+
+        private PatternEdge(PathTemplate.Segment segment) {
+            this.segment = segment;
+        }
+    }
+
+    private static final class TailEdge {
+
+        private final PathTemplate.Tail tail;
+        private final List<Route> routes = new ArrayList<Route>();
+        private final List<Route> locators = new ArrayList<Route>();
+
+        private TailEdge(PathTemplate.Tail tail) {
+            this.tail = tail;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.routing;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Resource method or sub-resource locator known to a {@link ResourceRouter}.
+ */
+public final class Route {
+
+    private final Class<?> resourceClass;
+    private final Method method;
+    private final String httpMethod;
+    private final String pathTemplate;
+    private final List<MediaType> consumes;
+    private final List<MediaType> produces;
+
+    Route(Class<?> resourceClass, Method method, String httpMethod, String pathTemplate, List<MediaType> consumes,
+            List<MediaType> produces) {
+        this.resourceClass = resourceClass;
+        this.method = method;
+        this.httpMethod = httpMethod;
+        this.pathTemplate = pathTemplate;
+        this.consumes = consumes;
+        this.produces = produces;
+    }
+
+    /**
+     * Get the root resource class declaring the route.
+     *
+     * @return root resource class.
+     */
+    public Class<?> getResourceClass() {
+        return resourceClass;
+    }
+
+    /**
+     * Get the Java method to invoke.
+     *
+     * @return resource method or sub-resource locator.
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Get the HTTP method of a resource method.
+     *
+     * @return HTTP method, {@code null} for a sub-resource locator.
+     */
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    /**
+     * Check whether the route is a sub-resource locator.
+     *
+     * @return {@code true} for a sub-resource locator, {@code false} for a resource method.
+     */
+    public boolean isLocator() {
+        return httpMethod == null;
+    }
+
+    /**
+     * Get the complete path template, i.e. the class and method {@link jakarta.ws.rs.Path} values joined.
+     *
+     * @return normalized path template without leading and trailing slashes.
+     */
+    public String getPathTemplate() {
+        return pathTemplate;
+    }
+
+    /**
+     * Get the media types the route consumes.
+     *
+     * @return read-only list of consumed media types, never empty.
+     */
+    public List<MediaType> getConsumes() {
+        return consumes;
+    }
+
+    /**
+     * Get the media types the route produces.
+     *
+     * @return read-only list of produced media types, never empty.
+     */
+    public List<MediaType> getProduces() {
+        return produces;
+    }
+
+    @Override
+    public String toString() {
+        return (httpMethod == null ? "LOCATOR" : httpMethod) + " /" + pathTemplate + " -> " + resourceClass.getName()
+                + "#" + method.getName();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.routing;
+
+import java.util.Map;
+
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Result of a successful {@link ResourceRouter#route routing} of a request.
+ */
+public final class RouteMatch {
+
+    private final Route route;
+    private final Map<String, String> pathParameters;
+    private final String remainingPath;
+    private final MediaType producedType;
+
+    RouteMatch(Route route, Map<String, String> pathParameters, String remainingPath, MediaType producedType) {
+        this.route = route;
+        this.pathParameters = pathParameters;
+        this.remainingPath = remainingPath;
+        this.producedType = producedType;
+    }
+
+    /**
+     * Get the matched route.
+     *
+     * @return matched resource method or sub-resource locator.
+     */
+    public Route getRoute() {
+        return route;
+    }
+
+    /**
+     * Get the values of the path template parameters. The values are not decoded, use
+     * {@link jakarta.ws.rs.core.UriComponent#decode(CharSequence)} to decode them.
+     *
+     * @return read-only map of path parameter names and encoded values.
+     */
+    public Map<String, String> getPathParameters() {
+        return pathParameters;
+    }
+
+    /**
+     * Get the part of the request path not consumed by a matched sub-resource locator.
+     *
+     * @return remaining path starting with {@code '/'}, or an empty string if the whole path has been matched.
+     */
+    public String getRemainingPath() {
+        return remainingPath;
+    }
+
+    /**
+     * Get the response media type selected from the route {@code @Produces} and the acceptable media types of the
+     * request.
+     *
+     * @return selected media type, possibly a wildcard type if neither side is concrete.
+     */
+    public MediaType getProducedType() {
+        return producedType;
+    }
+
+    @Override
+    public String toString() {
+        return route + " " + pathParameters + (remainingPath.isEmpty() ? "" : " remaining=" + remainingPath);
+    }
+}
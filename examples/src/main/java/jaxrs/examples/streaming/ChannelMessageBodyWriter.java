@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.streaming;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.StreamingChannelOutput;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Message body writer for {@link Path files}, {@link FileRegion file regions} and {@link StreamingChannelOutput}.
+ * <p>
+ * Files are transferred with {@link FileChannel#transferTo(long, long, WritableByteChannel)}. If the entity stream
+ * passed by the runtime is a {@link WritableByteChannel}, e.g. a {@link ChannelOutputStream} over the socket channel of
+ * the connection, the operating system copies the file content to the socket without it ever entering the JVM heap
+ * ({@code sendfile}). Otherwise the writer falls back to writing through the stream. The {@code Content-Length} header
+ * of a file response is set to the length of the file or region.
+ * </p>
+ */
+@Provider
+public class ChannelMessageBodyWriter implements MessageBodyWriter<Object> {
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return Path.class.isAssignableFrom(type) || FileRegion.class == type
+                || StreamingChannelOutput.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public void writeTo(Object t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+            MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        // the channel view of the entity stream must not be closed, it would close the entity stream
+        final WritableByteChannel target = entityStream instanceof WritableByteChannel
+                ? (WritableByteChannel) entityStream : Channels.newChannel(entityStream);
+        if (t instanceof StreamingChannelOutput) {
+            ((StreamingChannelOutput) t).write(target);
+            return;
+        }
+        final FileRegion region = t instanceof FileRegion ? (FileRegion) t : new FileRegion((Path) t);
+        try (FileChannel file = region.open()) {
+            if (!httpHeaders.containsKey(HttpHeaders.CONTENT_LENGTH)) {
+                httpHeaders.putSingle(HttpHeaders.CONTENT_LENGTH, region.getCount());
+            }
+            transfer(file, region.getPosition(), region.getCount(), target);
+        }
+        entityStream.flush();
+    }
+
+    /**
+     * Transfer a region of a file to a blocking channel.
+     *
+     * @param file file to transfer from.
+     * @param position offset of the region in the file.
+     * @param count length of the region.
+     * @param target channel to transfer to.
+     * @throws IOException in case of an I/O error or if the file is shorter than the region.
+     */
+    public static void transfer(FileChannel file, long position, long count, WritableByteChannel target) throws IOException {
+        long offset = position;
+        long remaining = count;
+        while (remaining > 0) {
+            final long transferred = file.transferTo(offset, remaining, target);
+            if (transferred <= 0 && offset >= file.size()) {
+                // the file has been truncated since the response length was announced
+                throw new EOFException("File region ends " + remaining + " bytes after the end of the file.");
+            }
+            offset += transferred;
+            remaining -= transferred;
+        }
+    }
+
+    @Override
+    public long getSize(Object t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return -1;
+    }
+}
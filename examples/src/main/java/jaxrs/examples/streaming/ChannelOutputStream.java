@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.streaming;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Entity output stream which is also a {@link WritableByteChannel}, as passed by a container to message body writers
+ * when the response can be written directly to the connection.
+ * <p>
+ * Stream writes wrap the array without copying it, channel writes pass the buffers, including direct buffers and file
+ * channel transfers, to the underlying channel. The underlying channel must be blocking.
+ * </p>
+ */
+public final class ChannelOutputStream extends OutputStream implements WritableByteChannel {
+
+    private final WritableByteChannel channel;
+    private final byte[] single = new byte[1];
+    private boolean closed;
+
+    /**
+     * Create a new stream.
+     *
+     * @param channel blocking channel to write to.
+     */
+    public ChannelOutputStream(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        single[0] = (byte) b;
+        write(single, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        write(ByteBuffer.wrap(b, off, len));
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        if (closed) {
+            throw new ClosedChannelException();
+        }
+        final int len = src.remaining();
+        while (src.hasRemaining()) {
+            channel.write(src);
+        }
+        return len;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            channel.close();
+        }
+    }
+}
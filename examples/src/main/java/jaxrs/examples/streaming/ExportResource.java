@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.streaming;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.StreamingChannelOutput;
+
+/**
+ * Example of a resource serving large exports without copying them through the heap. The application registers the
+ * {@link ChannelMessageBodyWriter}.
+ */
+@jakarta.ws.rs.Path("exports")
+public class ExportResource {
+
+    private static final Path EXPORTS = Paths.get("/var/exports");
+
+    private static final ByteBuffer CSV_HEADER = ByteBuffer
+            .allocateDirect(64).put("id,name,amount\n".getBytes(StandardCharsets.US_ASCII));
+
+    static {
+        CSV_HEADER.flip();
+    }
+
+    @GET
+    @jakarta.ws.rs.Path("{name}")
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    public Path export(@PathParam("name") String name) {
+        final Path file = EXPORTS.resolve(name).normalize();
+        if (!file.startsWith(EXPORTS) || !Files.isRegularFile(file)) {
+            throw new NotFoundException();
+        }
+        return file;
+    }
+
+    @GET
+    @jakarta.ws.rs.Path("{name}/head")
+    @Produces(MediaType.APPLICATION_OCTET_STREAM)
+    public FileRegion head(@PathParam("name") String name) throws IOException {
+        final Path file = export(name);
+        return new FileRegion(file, 0, Math.min(Files.size(file), 64 * 1024));
+    }
+
+    @GET
+    @jakarta.ws.rs.Path("header.csv")
+    @Produces("text/csv")
+    public StreamingChannelOutput header() {
+        // the shared direct buffer is written through a duplicate, so concurrent responses do not interfere
+        return channel -> channel.write(CSV_HEADER.duplicate());
+    }
+}
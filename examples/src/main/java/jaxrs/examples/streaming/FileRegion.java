@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.streaming;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Response entity consisting of a region of a file.
+ * <p>
+ * The region is written by the {@link ChannelMessageBodyWriter} using
+ * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel) file channel transfers}. A region
+ * created for an open channel passes the ownership of the channel to the response, i.e. the channel is closed once the
+ * region has been written.
+ * </p>
+ */
+public final class FileRegion {
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long position;
+    private final long count;
+
+    /**
+     * Create a region covering a whole file.
+     *
+     * @param path path of the file.
+     * @throws IOException if the size of the file cannot be determined.
+     */
+    public FileRegion(Path path) throws IOException {
+        this(path, null, 0, Files.size(path));
+    }
+
+    /**
+     * Create a region of a file.
+     *
+     * @param path path of the file.
+     * @param position offset of the region in the file.
+     * @param count length of the region in bytes.
+     */
+    public FileRegion(Path path, long position, long count) {
+        this(path, null, position, count);
+    }
+
+    /**
+     * Create a region of an open file.
+     *
+     * @param channel channel of the file, it is closed once the region has been written.
+     * @param position offset of the region in the file.
+     * @param count length of the region in bytes.
+     */
+    public FileRegion(FileChannel channel, long position, long count) {
+        this(null, channel, position, count);
+    }
+
+    private FileRegion(Path path, FileChannel channel, long position, long count) {
+        if (position < 0 || count < 0) {
+            throw new IllegalArgumentException("Invalid file region: " + position + "+" + count);
+        }
+        this.path = path;
+        this.channel = channel;
+        this.position = position;
+        this.count = count;
+    }
+
+    /**
+     * Get the offset of the region in the file.
+     *
+     * @return offset in bytes.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Get the length of the region.
+     *
+     * @return length in bytes.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Open the file of the region for reading.
+     *
+     * @return channel of the file, to be closed by the caller.
+     * @throws IOException if the file cannot be opened.
+     */
+    FileChannel open() throws IOException {
+        return channel != null ? channel : FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    @Override
+    public String toString() {
+        return "FileRegion[" + (path != null ? path : channel) + ", " + position + "+" + count + "]";
+    }
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Distribution License v. 1.0, which is available at
+ * http://www.eclipse.org/org/documents/edl-v10.php.
+ *
+ * SPDX-License-Identifier: BSD-3-Clause
+ */
+
+package jaxrs.examples.streaming;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.core.ByteRange;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingChannelOutput;
+
+/**
+ * Builds full, partial ({@code 206 Partial Content}) and {@code 416 Range Not Satisfiable} responses for
+ * {@link Path files}, byte arrays and {@link SeekableByteChannel seekable channels} according to the
+ * {@value HttpHeaders#RANGE} and {@value HttpHeaders#IF_RANGE} request headers.
+ * <p>
+ * A single range is sent as the response entity with a {@value HttpHeaders#CONTENT_RANGE} header, several ranges as a
+ * {@code multipart/byteranges} entity. Overlapping and adjacent ranges are merged first. A request for more than
+ * {@value #MAX_RANGES} distinct ranges, which costs the server more than sending the whole representation, is answered
+ * with the full representation, as is a request whose {@code If-Range} validator does not match the current
+ * representation. Files are written using {@link FileChannel#transferTo(long, long, WritableByteChannel) file channel
+ * transfers}, so the {@link ChannelMessageBodyWriter} must be registered.
+ * </p>
+ * <pre>
+ * &#64;GET
+ * public Response download(&#64;Context Request request, &#64;Context HttpHeaders headers) {
+ *     Response.ResponseBuilder res = request.evaluatePreconditions(lastModified, tag);
+ *     return res != null ? res.build()
+ *             : RangeResponses.of(request, headers, file, MediaType.APPLICATION_OCTET_STREAM_TYPE, tag, lastModified)
+ *                     .build();
+ * }
+ * </pre>
+ */
+public final class RangeResponses {
+
+    /**
+     * Maximum number of distinct ranges served in a multipart response.
+     */
+    public static final int MAX_RANGES = 16;
+
+    private RangeResponses() {
+    }
+
+    /**
+     * Build the response for a file.
+     *
+     * @param request current request.
+     * @param headers headers of the current request.
+     * @param file file to send.
+     * @param type media type of the file.
+     * @param tag entity tag of the file or {@code null}.
+     * @param lastModified last modification date of the file or {@code null}.
+     * @return response builder with status, headers and entity set.
+     * @throws IOException if the size of the file cannot be determined.
+     */
+    public static Response.ResponseBuilder of(Request request, HttpHeaders headers, Path file, MediaType type,
+            EntityTag tag, Date lastModified) throws IOException {
+        return build(request, headers, new FileContent(file), type, tag, lastModified);
+    }
+
+    /**
+     * Build the response for a byte array.
+     *
+     * @param request current request.
+     * @param headers headers of the current request.
+     * @param bytes bytes to send, the array must not be modified while the response is written.
+     * @param type media type of the bytes.
+     * @param tag entity tag of the bytes or {@code null}.
+     * @param lastModified last modification date of the bytes or {@code null}.
+     * @return response builder with status, headers and entity set.
+     */
+    public static Response.ResponseBuilder of(Request request, HttpHeaders headers, byte[] bytes, MediaType type,
+            EntityTag tag, Date lastModified) {
+        return build(request, headers, new ArrayContent(bytes), type, tag, lastModified);
+    }
+
+    /**
+     * Build the response for a seekable channel. The channel is closed once the response has been written or, if it
+     * is not needed for the response, immediately.
+     *
+     * @param request current request.
+     * @param headers headers of the current request.
+     * @param channel channel to send.
+     * @param type media type of the channel content.
+     * @param tag entity tag of the channel content or {@code null}.
+     * @param lastModified last modification date of the channel content or {@code null}.
+     * @return response builder with status, headers and entity set.
+     * @throws IOException if the size of the channel cannot be determined.
+     */
+    public static Response.ResponseBuilder of(Request request, HttpHeaders headers, SeekableByteChannel channel,
+            MediaType type, EntityTag tag, Date lastModified) throws IOException {
+        return build(request, headers, new ChannelContent(channel), type, tag, lastModified);
+    }
+
+    private static Response.ResponseBuilder build(Request request, HttpHeaders headers, Content content,
+            MediaType type, EntityTag tag, Date lastModified) {
+        final long length = content.length;
+        final List<ByteRange> ranges = requestedRanges(request, headers, tag, lastModified);
+        final Response.ResponseBuilder res;
+        final List<long[]> merged = ranges == null ? null : merge(ranges, length);
+        if (merged == null || merged.size() > MAX_RANGES) {
+            res = Response.ok(content.entity(0, length), type)
+                    .header(HttpHeaders.CONTENT_LENGTH, length);
+        } else if (merged.isEmpty()) {
+            content.close();
+            res = Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header(HttpHeaders.CONTENT_RANGE, ByteRange.toUnsatisfiedContentRange(length));
+        } else if (merged.size() == 1) {
+            final long[] range = merged.get(0);
+            res = Response.status(Response.Status.PARTIAL_CONTENT)
+                    .entity(content.entity(range[0], range[1] - range[0]))
+                    .type(type)
+                    .header(HttpHeaders.CONTENT_RANGE, contentRange(range, length))
+                    .header(HttpHeaders.CONTENT_LENGTH, range[1] - range[0]);
+        } else {
+            final Multipart multipart = new Multipart(content, merged, type);
+            res = Response.status(Response.Status.PARTIAL_CONTENT)
+                    .entity(multipart)
+                    .type("multipart/byteranges; boundary=" + multipart.boundary)
+                    .header(HttpHeaders.CONTENT_LENGTH, multipart.length());
+        }
+        res.header(HttpHeaders.ACCEPT_RANGES, ByteRange.BYTES);
+        if (tag != null) {
+            res.tag(tag);
+        }
+        if (lastModified != null) {
+            res.lastModified(lastModified);
+        }
+        return res;
+    }
+
+    /**
+     * Get the ranges to be served.
+     *
+     * @return requested ranges or {@code null} if the full representation is to be sent.
+     */
+    private static List<ByteRange> requestedRanges(Request request, HttpHeaders headers, EntityTag tag,
+            Date lastModified) {
+        final String range = headers.getHeaderString(HttpHeaders.RANGE);
+        if (range == null || !HttpMethod.GET.equals(request.getMethod())) {
+            return null;
+        }
+        final String ifRange = headers.getHeaderString(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !isCurrent(ifRange.trim(), tag, lastModified)) {
+            return null;
+        }
+        try {
+            return ByteRange.parse(range);
+        } catch (IllegalArgumentException e) {
+            // an invalid range header is ignored
+            return null;
+        }
+    }
+
+    /**
+     * Check whether the validator of an {@code If-Range} header matches the current representation. Entity tags are
+     * compared using the strong comparison, dates must be equal to the last modification date.
+     */
+    static boolean isCurrent(String validator, EntityTag tag, Date lastModified) {
+        if (validator.startsWith("W/")) {
+            // weak entity tags never match strongly
+            return false;
+        }
+        if (validator.startsWith("\"")) {
+            return tag != null && !tag.isWeak() && validator.length() >= 2 && validator.endsWith("\"")
+                    && validator.regionMatches(1, tag.getValue(), 0, validator.length() - 2)
+                    && tag.getValue().length() == validator.length() - 2;
+        }
+        if (lastModified == null) {
+            return false;
+        }
+        try {
+            final long date = ZonedDateTime.parse(validator, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return date == lastModified.getTime() / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Resolve, sort and merge overlapping or adjacent ranges.
+     *
+     * @return list of {@code [start, end)} pairs.
+     */
+    static List<long[]> merge(List<ByteRange> ranges, long length) {
+        final List<long[]> resolved = new ArrayList<long[]>(ranges.size());
+        for (ByteRange range : ranges) {
+            if (range.isSatisfiable(length)) {
+                final long offset = range.getOffset(length);
+                resolved.add(new long[] {offset, offset + range.getLength(length)});
+            }
+        }
+        Collections.sort(resolved, new Comparator<long[]>() {
+            @Override
+            public int compare(long[] a, long[] b) {
+                return Long.compare(a[0], b[0]);
+            }
+        });
+        final List<long[]> merged = new ArrayList<long[]>(resolved.size());
+        for (long[] range : resolved) {
+            final long[] previous = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (previous != null && range[0] <= previous[1]) {
+                previous[1] = Math.max(previous[1], range[1]);
+            } else {
+                merged.add(range);
+            }
+        }
+        return merged;
+    }
+
+    private static String contentRange(long[] range, long length) {
+        return ByteRange.BYTES + ' ' + range[0] + '-' + (range[1] - 1) + '/' + length;
+    }
+
+    /**
+     * Representation served in ranges.
+     */
+    private abstract static class Content {
+
+        final long length;
+
+        Content(long length) {
+            this.length = length;
+        }
+
+        /**
+         * Get the response entity for a single range.
+         */
+        abstract Object entity(long offset, long count);
+
+        /**
+         * Write a range to a channel.
+         */
+        abstract void write(long offset, long count, WritableByteChannel target) throws IOException;
+
+        void close() {
+        }
+    }
+
+    private static final class FileContent extends Content {
+
+        private final Path file;
+
+        FileContent(Path file) throws IOException {
+            super(Files.size(file));
+            this.file = file;
+        }
+
+        @Override
+        Object entity(long offset, long count) {
+            return new FileRegion(file, offset, count);
+        }
+
+        @Override
+        void write(long offset, long count, WritableByteChannel target) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                ChannelMessageBodyWriter.transfer(channel, offset, count, target);
+            }
+        }
+    }
+
+    private static final class ArrayContent extends Content {
+
+        private final byte[] bytes;
+
+        ArrayContent(byte[] bytes) {
+            super(bytes.length);
+            this.bytes = bytes;
+        }
+
+        @Override
+        Object entity(final long offset, final long count) {
+            return new StreamingChannelOutput() {
+                @Override
+                public void write(WritableByteChannel channel) throws IOException {
+                    ArrayContent.this.write(offset, count, channel);
+                }
+            };
+        }
+
+        @Override
+        void write(long offset, long count, WritableByteChannel target) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes, (int) offset, (int) count);
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+        }
+    }
+
+    private static final class ChannelContent extends Content {
+
+        private final SeekableByteChannel channel;
+
+        ChannelContent(SeekableByteChannel channel) throws IOException {
+            super(channel.size());
+            this.channel = channel;
+        }
+
+        @Override
+        Object entity(final long offset, final long count) {
+            return new StreamingChannelOutput() {
+                @Override
+                public void write(WritableByteChannel target) throws IOException {
+                    try {
+                        ChannelContent.this.write(offset, count, target);
+                    } finally {
+                        close();
+                    }
+                }
+            };
+        }
+
+        @Override
+        void write(long offset, long count, WritableByteChannel target) throws IOException {
+            if (channel instanceof FileChannel) {
+                ChannelMessageBodyWriter.transfer((FileChannel) channel, offset, count, target);
+                return;
+            }
+            channel.position(offset);
+            final ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(count, 64 * 1024));
+            long remaining = count;
+            while (remaining > 0) {
+                buffer.clear();
+                if (buffer.remaining() > remaining) {
+                    buffer.limit((int) remaining);
+                }
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Channel ends " + remaining + " bytes before the end of the range.");
+                }
+                buffer.flip();
+                remaining -= buffer.remaining();
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+            }
+        }
+
+        @Override
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // nothing left to be read from the channel
+            }
+        }
+    }
+
+    /**
+     * Entity of a {@code multipart/byteranges} response.
+     */
+    private static final class Multipart implements StreamingChannelOutput {
+
+        private final Content content;
+        private final List<long[]> ranges;
+        private final String boundary;
+        private final byte[][] partHeaders;
+
+        Multipart(Content content, List<long[]> ranges, MediaType type) {
+            this.content = content;
+            this.ranges = ranges;
+            this.boundary = Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE)
+                    + Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+            this.partHeaders = new byte[ranges.size()][];
+            for (int i = 0; i < partHeaders.length; i++) {
+                partHeaders[i] = ("\r\n--" + boundary + "\r\n" + HttpHeaders.CONTENT_TYPE + ": " + type + "\r\n"
+                        + HttpHeaders.CONTENT_RANGE + ": " + contentRange(ranges.get(i), content.length) + "\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII);
+            }
+        }
+
+        long length() {
+            long length = trailer().length;
+            for (int i = 0; i < partHeaders.length; i++) {
+                length += partHeaders[i].length + ranges.get(i)[1] - ranges.get(i)[0];
+            }
+            return length;
+        }
+
+        @Override
+        public void write(WritableByteChannel channel) throws IOException {
+            try {
+                for (int i = 0; i < partHeaders.length; i++) {
+                    writeFully(channel, partHeaders[i]);
+                    final long[] range = ranges.get(i);
+                    content.write(range[0], range[1] - range[0], channel);
+                }
+                writeFully(channel, trailer());
+            } finally {
+                content.close();
+            }
+        }
+
+        private byte[] trailer() {
+            return ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        }
+
+        private static void writeFully(WritableByteChannel channel, byte[] bytes) throws IOException {
+            final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
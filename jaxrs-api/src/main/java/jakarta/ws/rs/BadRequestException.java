@@ -45,6 +45,20 @@ public class BadRequestException extends ClientErrorException {
         super(message, Response.Status.BAD_REQUEST);
     }
 
+    /**
+     * Construct a new lightweight bad client request exception. The exception does not build its response until it is
+     * {@link #getResponse() requested}.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method). A
+     * value of {@code null} is replaced with a default message generated from the status.
+     * @param writableStackTrace whether the stack trace is filled in, {@code false} for an exception used for control
+     * flow.
+     * @since 2.2
+     */
+    public BadRequestException(final String message, final boolean writableStackTrace) {
+        super(message, Response.Status.BAD_REQUEST, writableStackTrace);
+    }
+
     /**
      * Construct a new bad client request exception.
      *
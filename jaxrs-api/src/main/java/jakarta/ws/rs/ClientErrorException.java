@@ -74,6 +74,24 @@ public class ClientErrorException extends WebApplicationException {
         super(message, null, validate(Response.status(status).build(), Response.Status.Family.CLIENT_ERROR));
     }
 
+    /**
+     * Construct a new lightweight client error exception. The exception does not build its response until it is
+     * {@link #getResponse() requested}.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method). A
+     * value of {@code null} is replaced with a default message generated from the status.
+     * @param status client error status. Must be a {@code 4xx} status code.
+     * @param writableStackTrace whether the stack trace is filled in, {@code false} for an exception used for control
+     * flow.
+     * @throws IllegalArgumentException in case the status is {@code null} or is not from the
+     * {@link jakarta.ws.rs.core.Response.Status.Family#CLIENT_ERROR} status code family.
+     * @since 2.2
+     */
+    public ClientErrorException(final String message, final Response.StatusType status,
+            final boolean writableStackTrace) {
+        super(message, null, validate(status, Response.Status.Family.CLIENT_ERROR), writableStackTrace);
+    }
+
     /**
      * Construct a new client error exception.
      *
@@ -45,6 +45,20 @@ public class ForbiddenException extends ClientErrorException {
         super(message, Response.Status.FORBIDDEN);
     }
 
+    /**
+     * Construct a new lightweight "forbidden" exception. The exception does not build its response until it is
+     * {@link #getResponse() requested}.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method). A
+     * value of {@code null} is replaced with a default message generated from the status.
+     * @param writableStackTrace whether the stack trace is filled in, {@code false} for an exception used for control
+     * flow.
+     * @since 2.2
+     */
+    public ForbiddenException(final String message, final boolean writableStackTrace) {
+        super(message, Response.Status.FORBIDDEN, writableStackTrace);
+    }
+
     /**
      * Construct a new "forbidden" exception.
      *
@@ -46,6 +46,20 @@ public class InternalServerErrorException extends ServerErrorException {
         super(message, Response.Status.INTERNAL_SERVER_ERROR);
     }
 
+    /**
+     * Construct a new lightweight internal server error exception. The exception does not build its response until it
+     * is {@link #getResponse() requested}.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method). A
+     * value of {@code null} is replaced with a default message generated from the status.
+     * @param writableStackTrace whether the stack trace is filled in, {@code false} for an exception used for control
+     * flow.
+     * @since 2.2
+     */
+    public InternalServerErrorException(final String message, final boolean writableStackTrace) {
+        super(message, Response.Status.INTERNAL_SERVER_ERROR, writableStackTrace);
+    }
+
     /**
      * Construct a new internal server error exception.
      *
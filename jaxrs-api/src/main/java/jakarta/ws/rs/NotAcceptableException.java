@@ -46,6 +46,20 @@ public class NotAcceptableException extends ClientErrorException {
         super(message, Response.Status.NOT_ACCEPTABLE);
     }
 
+    /**
+     * Construct a new lightweight "request not acceptable" exception. The exception does not build its response until
+     * it is {@link #getResponse() requested}.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method). A
+     * value of {@code null} is replaced with a default message generated from the status.
+     * @param writableStackTrace whether the stack trace is filled in, {@code false} for an exception used for control
+     * flow.
+     * @since 2.2
+     */
+    public NotAcceptableException(final String message, final boolean writableStackTrace) {
+        super(message, Response.Status.NOT_ACCEPTABLE, writableStackTrace);
+    }
+
     /**
      * Construct a new "request not acceptable" exception.
      *
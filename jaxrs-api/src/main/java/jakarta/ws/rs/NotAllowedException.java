@@ -34,6 +34,9 @@ public class NotAllowedException extends ClientErrorException {
 
     private static final long serialVersionUID = -586776054369626119L;
 
+    private transient String allowed;
+    private transient String[] moreAllowed;
+
     /**
      * Construct a new method not allowed exception.
      *
@@ -57,6 +60,37 @@ public class NotAllowedException extends ClientErrorException {
         super(message, validateAllow(createNotAllowedResponse(allowed, moreAllowed)));
     }
 
+    /**
+     * Construct a new lightweight method not allowed exception. The exception does not build its response until it is
+     * {@link #getResponse() requested}.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method). A
+     * value of {@code null} is replaced with a default message generated from the status.
+     * @param writableStackTrace whether the stack trace is filled in, {@code false} for an exception used for control
+     * flow.
+     * @param allowed allowed request method.
+     * @param moreAllowed more allowed request methods.
+     * @throws NullPointerException in case the allowed method is {@code null}.
+     * @since 2.2
+     */
+    public NotAllowedException(final String message, final boolean writableStackTrace, final String allowed,
+            final String... moreAllowed) {
+        super(message, Response.Status.METHOD_NOT_ALLOWED, writableStackTrace);
+        if (allowed == null) {
+            throw new NullPointerException("No allowed method specified.");
+        }
+        this.allowed = allowed;
+        this.moreAllowed = moreAllowed;
+    }
+
+    @Override
+    Response createResponse(final Response.StatusType status) {
+        if (allowed == null) {
+            return super.createResponse(status);
+        }
+        return createNotAllowedResponse(allowed, moreAllowed);
+    }
+
     private static Response createNotAllowedResponse(final String allowed, final String... moreAllowed) {
         if (allowed == null) {
             throw new NullPointerException("No allowed method specified.");
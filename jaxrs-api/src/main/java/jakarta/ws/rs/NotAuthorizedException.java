@@ -69,6 +69,28 @@ public class NotAuthorizedException extends ClientErrorException {
         this.challenges = cacheChallenges(challenge, moreChallenges);
     }
 
+    /**
+     * Construct a new lightweight "not authorized" exception. The exception does not build its response until it is
+     * {@link #getResponse() requested}.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method). A
+     * value of {@code null} is replaced with a default message generated from the status.
+     * @param writableStackTrace whether the stack trace is filled in, {@code false} for an exception used for control
+     * flow.
+     * @param challenge authorization challenge applicable to the resource requested by the client.
+     * @param moreChallenges additional authorization challenge applicable to the requested resource.
+     * @throws NullPointerException in case the {@code challenge} parameter is {@code null}.
+     * @since 2.2
+     */
+    public NotAuthorizedException(final String message, final boolean writableStackTrace, final Object challenge,
+            final Object... moreChallenges) {
+        super(message, UNAUTHORIZED, writableStackTrace);
+        if (challenge == null) {
+            throw new NullPointerException("Primary challenge parameter must not be null.");
+        }
+        this.challenges = cacheChallenges(challenge, moreChallenges);
+    }
+
     /**
      * Construct a new "not authorized" exception.
      *
@@ -151,6 +173,14 @@ public class NotAuthorizedException extends ClientErrorException {
         return challenges;
     }
 
+    @Override
+    Response createResponse(final Response.StatusType status) {
+        if (challenges == null) {
+            return super.createResponse(status);
+        }
+        return createUnauthorizedResponse(challenges.get(0), challenges.subList(1, challenges.size()).toArray());
+    }
+
     private static Response createUnauthorizedResponse(final Object challenge, final Object[] otherChallenges) {
         if (challenge == null) {
             throw new NullPointerException("Primary challenge parameter must not be null.");
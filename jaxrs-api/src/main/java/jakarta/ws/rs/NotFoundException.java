@@ -46,6 +46,20 @@ public class NotFoundException extends ClientErrorException {
         super(message, Response.Status.NOT_FOUND);
     }
 
+    /**
+     * Construct a new lightweight "not found" exception. The exception does not build its response until it is
+     * {@link #getResponse() requested}.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method). A
+     * value of {@code null} is replaced with a default message generated from the status.
+     * @param writableStackTrace whether the stack trace is filled in, {@code false} for an exception used for control
+     * flow.
+     * @since 2.2
+     */
+    public NotFoundException(final String message, final boolean writableStackTrace) {
+        super(message, Response.Status.NOT_FOUND, writableStackTrace);
+    }
+
     /**
      * Construct a new "not found" exception.
      *
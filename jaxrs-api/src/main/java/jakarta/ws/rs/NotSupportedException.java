@@ -46,6 +46,20 @@ public class NotSupportedException extends ClientErrorException {
         super(message, Response.Status.UNSUPPORTED_MEDIA_TYPE);
     }
 
+    /**
+     * Construct a new lightweight unsupported media type exception. The exception does not build its response until it
+     * is {@link #getResponse() requested}.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method). A
+     * value of {@code null} is replaced with a default message generated from the status.
+     * @param writableStackTrace whether the stack trace is filled in, {@code false} for an exception used for control
+     * flow.
+     * @since 2.2
+     */
+    public NotSupportedException(final String message, final boolean writableStackTrace) {
+        super(message, Response.Status.UNSUPPORTED_MEDIA_TYPE, writableStackTrace);
+    }
+
     /**
      * Construct a new unsupported media type exception.
      *
@@ -74,6 +74,24 @@ public class ServerErrorException extends WebApplicationException {
         super(message, null, validate(Response.status(status).build(), Response.Status.Family.SERVER_ERROR));
     }
 
+    /**
+     * Construct a new lightweight server error exception. The exception does not build its response until it is
+     * {@link #getResponse() requested}.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method). A
+     * value of {@code null} is replaced with a default message generated from the status.
+     * @param status server error status. Must be a {@code 5xx} status code.
+     * @param writableStackTrace whether the stack trace is filled in, {@code false} for an exception used for control
+     * flow.
+     * @throws IllegalArgumentException in case the status is {@code null} or is not from the
+     * {@link jakarta.ws.rs.core.Response.Status.Family#SERVER_ERROR} status code family.
+     * @since 2.2
+     */
+    public ServerErrorException(final String message, final Response.StatusType status,
+            final boolean writableStackTrace) {
+        super(message, null, validate(status, Response.Status.Family.SERVER_ERROR), writableStackTrace);
+    }
+
     /**
      * Construct a new server error exception.
      *
@@ -54,6 +54,20 @@ public class ServiceUnavailableException extends ServerErrorException {
         super(message, Response.status(SERVICE_UNAVAILABLE).build());
     }
 
+    /**
+     * Construct a new lightweight "service unavailable" exception without any "Retry-After" information. The exception
+     * does not build its response until it is {@link #getResponse() requested}.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method). A
+     * value of {@code null} is replaced with a default message generated from the status.
+     * @param writableStackTrace whether the stack trace is filled in, {@code false} for an exception used for control
+     * flow.
+     * @since 2.2
+     */
+    public ServiceUnavailableException(final String message, final boolean writableStackTrace) {
+        super(message, SERVICE_UNAVAILABLE, writableStackTrace);
+    }
+
     /**
      * Construct a new "service unavailable" exception with an interval specifying the "Retry-After" information for the
      * failed request.
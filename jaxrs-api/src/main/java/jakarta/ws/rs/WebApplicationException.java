@@ -24,6 +24,14 @@ import jakarta.ws.rs.core.Response;
  * This exception may be thrown by a resource method, provider or {@link jakarta.ws.rs.core.StreamingOutput}
  * implementation if a specific HTTP error response needs to be produced. Only effective if thrown prior to the response
  * being committed.
+ * <p>
+ * Exceptions thrown for regular control flow, e.g. a {@link NotFoundException} for every unknown resource requested by
+ * a client probing URLs, can be created in a lightweight mode using the constructors with a {@code writableStackTrace}
+ * parameter. Such an exception does not {@link #fillInStackTrace() fill in} its stack trace and does not build its
+ * response through the {@link jakarta.ws.rs.ext.RuntimeDelegate} until {@link #getResponse()} is called, which an
+ * exception mapper may never do. A lightweight exception should still be created for every request, since the JAX-RS
+ * runtime may modify its response.
+ * </p>
  *
  * @author Paul Sandoz
  * @author Marek Potociar
@@ -32,7 +40,8 @@ import jakarta.ws.rs.core.Response;
 public class WebApplicationException extends RuntimeException {
 
     private static final long serialVersionUID = 8273970399584007146L;
-    private final Response response;
+    private final Response.StatusType status;
+    private volatile Response response;
 
     /**
      * Construct a new instance with a default HTTP status code of 500 and a default message generated from the HTTP status
@@ -168,15 +177,42 @@ public class WebApplicationException extends RuntimeException {
         } else {
             this.response = response;
         }
+        this.status = this.response.getStatusInfo();
     }
 
-    private static String computeExceptionMessage(final Response response) {
-        final Response.StatusType statusInfo;
-        if (response != null) {
-            statusInfo = response.getStatusInfo();
-        } else {
-            statusInfo = Response.Status.INTERNAL_SERVER_ERROR;
+    /**
+     * Construct a new lightweight instance with the supplied message, root cause and HTTP status. The response is built
+     * when it is first {@link #getResponse() requested}.
+     *
+     * @param message the detail message (which is saved for later retrieval by the {@link #getMessage()} method). A
+     * value of {@code null} is replaced with a default message generated from the HTTP status code and reason phrase.
+     * @param cause the underlying cause of the exception.
+     * @param status the HTTP status that will be returned to the client.
+     * @param writableStackTrace whether the stack trace is filled in and suppressed exceptions are recorded,
+     * {@code false} for an exception used for control flow.
+     * @throws IllegalArgumentException if status is {@code null}.
+     * @since 2.2
+     */
+    protected WebApplicationException(final String message, final Throwable cause, final Response.StatusType status,
+            final boolean writableStackTrace) {
+        super(message == null ? computeExceptionMessage(checkStatus(status)) : message, cause, writableStackTrace,
+                writableStackTrace);
+        this.status = checkStatus(status);
+    }
+
+    private static Response.StatusType checkStatus(final Response.StatusType status) {
+        if (status == null) {
+            throw new IllegalArgumentException("Status must not be null.");
         }
+        return status;
+    }
+
+    private static String computeExceptionMessage(final Response response) {
+        return computeExceptionMessage(
+                response != null ? response.getStatusInfo() : Response.Status.INTERNAL_SERVER_ERROR);
+    }
+
+    private static String computeExceptionMessage(final Response.StatusType statusInfo) {
         return "HTTP " + statusInfo.getStatusCode() + ' ' + statusInfo.getReasonPhrase();
     }
 
@@ -231,11 +267,34 @@ public class WebApplicationException extends RuntimeException {
 
     /**
      * Get the HTTP response.
+     * <p>
+     * The response of a lightweight instance is built on the first invocation.
+     * </p>
      *
      * @return the HTTP response.
      */
     public Response getResponse() {
-        return response;
+        Response result = response;
+        if (result == null) {
+            synchronized (this) {
+                result = response;
+                if (result == null) {
+                    result = createResponse(status);
+                    response = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Build the response of a lightweight instance. Subclasses whose response carries headers override the method.
+     *
+     * @param status HTTP status of the exception.
+     * @return the HTTP response.
+     */
+    Response createResponse(final Response.StatusType status) {
+        return Response.status(status).build();
     }
 
     /**
@@ -272,4 +331,23 @@ public class WebApplicationException extends RuntimeException {
         }
         return response;
     }
+
+    /**
+     * Validate that a status is from an expected HTTP response status code family.
+     *
+     * @param status response status.
+     * @param expectedStatusFamily expected response status code family.
+     * @return validated status.
+     * @throws IllegalArgumentException if the status validation failed.
+     * @since 2.2
+     */
+    static Response.StatusType validate(final Response.StatusType status,
+            final Response.Status.Family expectedStatusFamily) {
+        if (status == null || status.getFamily() != expectedStatusFamily) {
+            throw new IllegalArgumentException(String.format(
+                    "Status code [%s] is not from the required status code family \"%s\".",
+                    status == null ? null : status.getStatusCode(), expectedStatusFamily));
+        }
+        return status;
+    }
 }
@@ -24,6 +24,7 @@ import javax.net.ssl.SSLContext;
 import jakarta.ws.rs.core.Configurable;
 import jakarta.ws.rs.core.Link;
 import jakarta.ws.rs.core.UriBuilder;
+import jakarta.ws.rs.core.UriTemplate;
 
 /**
  * <p>
@@ -91,6 +92,23 @@ public interface Client extends Configurable<Client>, AutoCloseable {
      */
     public WebTarget target(Link link);
 
+    /**
+     * Build a new web resource target from a pre-compiled URI template.
+     * <p>
+     * The template parameters of the returned target can be resolved using the {@code resolveTemplate} methods of
+     * {@link WebTarget}. The default implementation is equivalent to {@code target(template.getTemplate())};
+     * implementations are encouraged to override it to reuse the parsed form of the template.
+     * </p>
+     *
+     * @param template compiled web resource URI template. Must not be {@code null}.
+     * @return web resource target bound to the provided URI template.
+     * @throws NullPointerException in case the supplied argument is {@code null}.
+     * @since 2.2
+     */
+    public default WebTarget target(final UriTemplate template) {
+        return target(template.getTemplate());
+    }
+
     /**
      * <p>
      * Build an invocation builder from a link. It uses the URI and the type of the link to initialize the invocation
@@ -255,7 +255,8 @@ public abstract class ClientBuilder implements Configurable<ClientBuilder> {
      * Set the read timeout.
      * <p>
      * The value is the timeout to read a response. If the server doesn't respond within the defined timeframe,
-     * {@link ProcessingException} is thrown with {@link TimeoutException} as a cause.
+     * {@link ProcessingException} is thrown with {@link TimeoutException} as a cause. The read timeout also bounds the
+     * {@link jakarta.ws.rs.core.Deadline deadline} propagated to the server.
      * <p>
      * Value {@code 0} represents infinity. Negative values are not allowed.
      *
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.container;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * An injectable, container-managed executor for the asynchronous processing of {@link Suspended suspended} requests.
+ * <p>
+ * Creating a thread or an executor for every suspended request does not survive load: threads are leaked or pile up
+ * until the process runs out of memory. Resources should instead hand their asynchronous work to the executor injected
+ * using {@link jakarta.ws.rs.core.Context}:
+ * </p>
+ * <pre>
+ * &#64;Path("/reports")
+ * &#64;Bulkhead(maxConcurrency = 8, maxQueueLength = 32)
+ * public class ReportResource {
+ *     &#64;Context
+ *     private AsyncExecutor executor;
+ *
+ *     &#64;GET
+ *     public void report(&#64;Suspended AsyncResponse ar) {
+ *         executor.execute(() -&gt; ar.resume(computeReport()));
+ *     }
+ * }
+ * </pre>
+ * <p>
+ * The executor is bounded. At most {@link #getMaxConcurrency()} tasks run at the same time and at most
+ * {@link #getMaxQueueLength()} further tasks wait for execution, any other task is rejected with a
+ * {@link RejectedExecutionException}, which a resource typically turns into a {@code 503 Service Unavailable}
+ * response. The bounds are taken from the {@link Bulkhead} annotation of the matched resource method or, if the method
+ * is not annotated, of the resource class, so that a slow resource cannot exhaust the capacity shared by the other
+ * resources. Resources without a {@code Bulkhead} annotation share an executor configured by the implementation.
+ * </p>
+ * <p>
+ * The threads running the tasks are managed by the JAX-RS implementation, which may run them on virtual threads where
+ * the Java platform supports them. Implementations of this interface are required to be thread-safe.
+ * </p>
+ *
+ * @see Bulkhead
+ * @see AsyncResponse
+ * @since 2.2
+ */
+public interface AsyncExecutor extends Executor {
+
+    /**
+     * Execute a task asynchronously.
+     *
+     * @param command task to be executed.
+     * @throws RejectedExecutionException if the maximum number of running and waiting tasks has been reached.
+     */
+    @Override
+    public void execute(Runnable command);
+
+    /**
+     * Compute a value asynchronously.
+     *
+     * @param <T> type of the computed value.
+     * @param supplier computation of the value.
+     * @return completion stage completed with the computed value or the exception thrown by the computation.
+     * @throws RejectedExecutionException if the maximum number of running and waiting tasks has been reached.
+     */
+    public default <T> CompletionStage<T> supply(final Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, this);
+    }
+
+    /**
+     * Get the maximum number of tasks running at the same time.
+     *
+     * @return maximum concurrency.
+     */
+    public int getMaxConcurrency();
+
+    /**
+     * Get the maximum number of tasks waiting for execution.
+     *
+     * @return maximum queue length.
+     */
+    public int getMaxQueueLength();
+
+    /**
+     * Get the number of tasks currently running.
+     *
+     * @return number of running tasks.
+     */
+    public int getActiveCount();
+
+    /**
+     * Get the number of tasks currently waiting for execution.
+     *
+     * @return queue length.
+     */
+    public int getQueueLength();
+
+    /**
+     * Get the number of tasks rejected so far.
+     *
+     * @return number of rejected tasks.
+     */
+    public long getRejectedCount();
+}
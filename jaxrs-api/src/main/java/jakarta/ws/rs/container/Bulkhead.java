@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.container;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Sizes the {@link AsyncExecutor} injected into a resource class or used by a resource method.
+ * <p>
+ * Every annotated resource class and resource method gets an executor of its own, which isolates the asynchronous work
+ * of the resource from the work of other resources. An annotation on a resource method takes precedence over the
+ * annotation of its resource class.
+ * </p>
+ *
+ * @see AsyncExecutor
+ * @since 2.2
+ */
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Bulkhead {
+
+    /**
+     * Maximum number of tasks running at the same time.
+     *
+     * @return maximum concurrency, must be positive.
+     */
+    int maxConcurrency();
+
+    /**
+     * Maximum number of tasks waiting for execution once {@link #maxConcurrency()} tasks are running. Defaults to
+     * {@code 0}, i.e. further tasks are rejected immediately.
+     *
+     * @return maximum queue length, must not be negative.
+     */
+    int maxQueueLength() default 0;
+}
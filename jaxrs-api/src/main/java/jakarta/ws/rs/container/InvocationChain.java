@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.container;
+
+import java.util.List;
+
+import jakarta.ws.rs.ext.ReaderInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptor;
+
+/**
+ * An injectable, immutable view of the filters and interceptors bound to the resource method matched by the current
+ * request.
+ * <p>
+ * The set and the order of the post-matching filters and the entity interceptors of a resource method only depend on
+ * the deployed application: on the global providers, the providers bound by {@link jakarta.ws.rs.NameBinding name
+ * binding} and the providers registered for the method by {@link DynamicFeature dynamic features}, ordered by their
+ * {@code javax.annotation.Priority}. An implementation is therefore expected to compute the chain once per resource
+ * method when the application is deployed and to reuse it for every request matched to the method, rather than
+ * sorting and matching the providers for each request. The lists returned by this interface reflect that chain and can
+ * be used to audit what runs on a particular endpoint.
+ * </p>
+ * <p>
+ * An instance may be injected using {@link jakarta.ws.rs.core.Context} into the same components as
+ * {@link ResourceInfo}. Pre-matching filters, which run before a resource method is matched, are not part of the chain.
+ * Methods in this interface MAY return empty lists if a resource method has not been matched.
+ * </p>
+ *
+ * @see ResourceInfo
+ * @see jakarta.ws.rs.Priorities
+ * @since 2.2
+ */
+public interface InvocationChain {
+
+    /**
+     * Get the resource class and method the chain is bound to.
+     *
+     * @return information about the matched resource method.
+     */
+    public ResourceInfo getResourceInfo();
+
+    /**
+     * Get the post-matching request filters in the order in which they are invoked, i.e. in ascending priority order.
+     *
+     * @return read-only list of request filters.
+     */
+    public List<ContainerRequestFilter> getRequestFilters();
+
+    /**
+     * Get the entity reader interceptors in the order in which they are invoked, i.e. in ascending priority order.
+     *
+     * @return read-only list of reader interceptors.
+     */
+    public List<ReaderInterceptor> getReaderInterceptors();
+
+    /**
+     * Get the entity writer interceptors in the order in which they are invoked, i.e. in ascending priority order.
+     *
+     * @return read-only list of writer interceptors.
+     */
+    public List<WriterInterceptor> getWriterInterceptors();
+
+    /**
+     * Get the response filters in the order in which they are invoked, i.e. in descending priority order.
+     *
+     * @return read-only list of response filters.
+     */
+    public List<ContainerResponseFilter> getResponseFilters();
+}
@@ -24,6 +24,7 @@ import java.lang.reflect.Method;
  * pre-matching {@link ContainerRequestFilter} that was not provided by a post-matching {@link PreMatching}.
  *
  * @author Santiago Pericas-Geertsen
+ * @see InvocationChain
  * @since 2.0
  */
 public interface ResourceInfo {
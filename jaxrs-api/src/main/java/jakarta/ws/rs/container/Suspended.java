@@ -75,6 +75,7 @@ import java.util.concurrent.TimeUnit;
  * </pre>
  *
  * @author Marek Potociar
+ * @see AsyncExecutor
  * @since 2.0
  */
 @Target({ ElementType.PARAMETER })
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A byte range of a representation, as requested by the {@value HttpHeaders#RANGE} request header.
+ * <p>
+ * A range is either a range of byte positions, {@code first-last} with an inclusive last position, an open-ended range,
+ * {@code first-}, or a suffix range, {@code -length}, selecting the final bytes of the representation. Since the length
+ * of the representation is not known when the range is requested, the actual {@link #getOffset(long) offset} and
+ * {@link #getLength(long) length} of a range are determined for a given representation length. A range starting beyond
+ * the end of a representation is not {@link #isSatisfiable(long) satisfiable}.
+ * </p>
+ * <p>
+ * Instances are immutable and thread-safe.
+ * </p>
+ *
+ * @see <a href="https://tools.ietf.org/html/rfc7233">IETF RFC 7233</a>
+ * @since 2.2
+ */
+public final class ByteRange {
+
+    /**
+     * The range unit of byte ranges.
+     */
+    public static final String BYTES = "bytes";
+
+    private final long first;
+    private final long last;
+
+    /**
+     * Create a range of byte positions.
+     *
+     * @param first position of the first byte of the range.
+     * @param last position of the last byte of the range, inclusive, or {@code -1} for an open-ended range.
+     * @throws IllegalArgumentException if a position is negative or the last position is less than the first one.
+     */
+    public ByteRange(final long first, final long last) {
+        if (first < 0 || last < -1 || last != -1 && last < first) {
+            throw new IllegalArgumentException("Invalid byte range: " + first + "-" + last);
+        }
+        this.first = first;
+        this.last = last;
+    }
+
+    private ByteRange(final long suffixLength) {
+        this.first = -1;
+        this.last = suffixLength;
+    }
+
+    /**
+     * Create a range selecting the final bytes of a representation.
+     *
+     * @param length number of bytes at the end of the representation.
+     * @return new suffix range.
+     * @throws IllegalArgumentException if the length is negative.
+     */
+    public static ByteRange suffix(final long length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Invalid suffix length: " + length);
+        }
+        return new ByteRange(length);
+    }
+
+    /**
+     * Parse the value of a {@value HttpHeaders#RANGE} header.
+     *
+     * @param value header value, e.g. {@code bytes=0-499, -500}.
+     * @return unmodifiable list of the requested ranges, in the requested order, never empty.
+     * @throws IllegalArgumentException if the value is {@code null}, syntactically invalid or specifies a range unit
+     * other than {@value #BYTES}. A server ignores such a header.
+     */
+    public static List<ByteRange> parse(final String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Range value must not be null.");
+        }
+        final int eq = value.indexOf('=');
+        if (eq < 0 || !BYTES.equalsIgnoreCase(value.substring(0, eq).trim())) {
+            throw new IllegalArgumentException("Unsupported range: " + value);
+        }
+        final List<ByteRange> ranges = new ArrayList<ByteRange>();
+        int start = eq + 1;
+        while (start <= value.length()) {
+            int end = value.indexOf(',', start);
+            if (end < 0) {
+                end = value.length();
+            }
+            final String spec = value.substring(start, end).trim();
+            // empty list elements are allowed
+            if (!spec.isEmpty()) {
+                ranges.add(parseSpec(spec, value));
+            }
+            start = end + 1;
+        }
+        if (ranges.isEmpty()) {
+            throw new IllegalArgumentException("No range specified: " + value);
+        }
+        return Collections.unmodifiableList(ranges);
+    }
+
+    private static ByteRange parseSpec(final String spec, final String value) {
+        final int dash = spec.indexOf('-');
+        if (dash < 0) {
+            throw new IllegalArgumentException("Invalid range: " + value);
+        }
+        if (dash == 0) {
+            return new ByteRange(parsePosition(spec.substring(1), value));
+        }
+        final long first = parsePosition(spec.substring(0, dash), value);
+        if (dash == spec.length() - 1) {
+            return new ByteRange(first, -1);
+        }
+        final long last = parsePosition(spec.substring(dash + 1), value);
+        if (last < first) {
+            throw new IllegalArgumentException("Invalid range: " + value);
+        }
+        return new ByteRange(first, last);
+    }
+
+    private static long parsePosition(final String digits, final String value) {
+        if (digits.isEmpty() || digits.length() > 18) {
+            throw new IllegalArgumentException("Invalid range: " + value);
+        }
+        long position = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            final char c = digits.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new IllegalArgumentException("Invalid range: " + value);
+            }
+            position = position * 10 + (c - '0');
+        }
+        return position;
+    }
+
+    /**
+     * Check whether this is a suffix range.
+     *
+     * @return {@code true} if the range selects the final bytes of a representation.
+     */
+    public boolean isSuffix() {
+        return first < 0;
+    }
+
+    /**
+     * Check whether the range selects at least one byte of a representation.
+     *
+     * @param length length of the representation.
+     * @return {@code true} if the range is satisfiable.
+     */
+    public boolean isSatisfiable(final long length) {
+        return isSuffix() ? last > 0 && length > 0 : first < length;
+    }
+
+    /**
+     * Get the position of the first byte selected by the range.
+     *
+     * @param length length of the representation.
+     * @return offset of the range in the representation.
+     */
+    public long getOffset(final long length) {
+        return isSuffix() ? Math.max(0, length - last) : first;
+    }
+
+    /**
+     * Get the number of bytes selected by the range.
+     *
+     * @param length length of the representation.
+     * @return length of the range, {@code 0} if the range is not satisfiable.
+     */
+    public long getLength(final long length) {
+        if (!isSatisfiable(length)) {
+            return 0;
+        }
+        if (isSuffix()) {
+            return Math.min(last, length);
+        }
+        return (last < 0 ? length - 1 : Math.min(last, length - 1)) - first + 1;
+    }
+
+    /**
+     * Get the value of the {@value HttpHeaders#CONTENT_RANGE} header of a partial response carrying this range.
+     *
+     * @param length length of the representation.
+     * @return content range, e.g. {@code bytes 0-499/1234}.
+     * @throws IllegalStateException if the range is not satisfiable.
+     */
+    public String toContentRange(final long length) {
+        if (!isSatisfiable(length)) {
+            throw new IllegalStateException("Range " + this + " not satisfiable for length " + length);
+        }
+        final long offset = getOffset(length);
+        return BYTES + ' ' + offset + '-' + (offset + getLength(length) - 1) + '/' + length;
+    }
+
+    /**
+     * Get the value of the {@value HttpHeaders#CONTENT_RANGE} header of a
+     * {@link Response.Status#REQUESTED_RANGE_NOT_SATISFIABLE 416 Requested Range Not Satisfiable} response.
+     *
+     * @param length length of the representation.
+     * @return unsatisfied content range, e.g. {@code bytes *}{@code /1234}.
+     */
+    public static String toUnsatisfiedContentRange(final long length) {
+        return BYTES + " */" + length;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof ByteRange)) {
+            return false;
+        }
+        final ByteRange other = (ByteRange) obj;
+        return first == other.first && last == other.last;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(first) + Long.hashCode(last);
+    }
+
+    /**
+     * Get the range in the syntax of the {@value HttpHeaders#RANGE} header, without the range unit.
+     *
+     * @return range, e.g. {@code 0-499}, {@code 500-} or {@code -500}.
+     */
+    @Override
+    public String toString() {
+        if (isSuffix()) {
+            return "-" + last;
+        }
+        return last < 0 ? first + "-" : first + "-" + last;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.core;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The point in time by which the caller of a request expects the response, after which any further work on the request
+ * is wasted.
+ * <p>
+ * Deadlines are propagated between clients and servers as the remaining time budget in milliseconds carried by the
+ * {@value #HEADER} request header, so that no synchronized clocks are required. A client runtime sends the header if
+ * the invocation has a deadline, given as the {@value #PROPERTY} property of the invocation, implied by the
+ * {@link jakarta.ws.rs.client.ClientBuilder#readTimeout(long, TimeUnit) read timeout} of the client, or inherited from
+ * the server request being processed by the invoking thread, whichever is the earliest.
+ * </p>
+ * <p>
+ * A server runtime rejects a request which arrives with an already expired deadline with a
+ * {@link Response.Status#GATEWAY_TIMEOUT 504 Gateway Timeout} response before matching it to a resource method. The
+ * deadline of the current request can be injected using {@link Context}; {@code null} is injected if the request has
+ * no deadline. The timeout of an {@link jakarta.ws.rs.container.AsyncResponse} suspended by a request with a deadline is
+ * set to the remaining time of the deadline, unless the application sets an earlier timeout.
+ * </p>
+ * <p>
+ * Deadlines are based on {@link System#nanoTime()} and are therefore only meaningful within one JVM. Instances are
+ * immutable and thread-safe.
+ * </p>
+ *
+ * @since 2.2
+ */
+public final class Deadline implements Comparable<Deadline> {
+
+    /**
+     * Name of the request header carrying the remaining time budget of a request in milliseconds.
+     */
+    public static final String HEADER = "Request-Timeout";
+
+    /**
+     * Name of the client request property holding the {@code Deadline} of an invocation.
+     */
+    public static final String PROPERTY = "jakarta.ws.rs.core.Deadline";
+
+    private final long deadlineNanos;
+
+    private Deadline(final long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Create a deadline expiring after a duration from now.
+     *
+     * @param duration duration until the deadline, a negative duration creates an expired deadline.
+     * @param unit unit of the duration.
+     * @return new deadline.
+     */
+    public static Deadline after(final long duration, final TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    /**
+     * Create a deadline from the value of the {@value #HEADER} header.
+     *
+     * @param value remaining time budget in milliseconds.
+     * @return new deadline.
+     * @throws IllegalArgumentException if the value is {@code null} or not a decimal number.
+     */
+    public static Deadline valueOf(final String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Deadline value must not be null.");
+        }
+        try {
+            return after(Long.parseLong(value.trim()), TimeUnit.MILLISECONDS);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid deadline: " + value, e);
+        }
+    }
+
+    /**
+     * Get the time remaining until the deadline.
+     *
+     * @param unit unit of the returned time.
+     * @return remaining time, rounded down, {@code 0} if the deadline has expired.
+     */
+    public long timeRemaining(final TimeUnit unit) {
+        return unit.convert(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Check whether the deadline has expired.
+     *
+     * @return {@code true} if there is no time left.
+     */
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Get the earlier of this deadline and another deadline.
+     *
+     * @param other other deadline, may be {@code null}.
+     * @return the earlier deadline, this deadline if {@code other} is {@code null}.
+     */
+    public Deadline minimum(final Deadline other) {
+        return other == null || compareTo(other) <= 0 ? this : other;
+    }
+
+    /**
+     * Get the value of the {@value #HEADER} header propagating this deadline.
+     *
+     * @return remaining time budget in milliseconds.
+     */
+    public String toHeaderValue() {
+        return Long.toString(timeRemaining(TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public int compareTo(final Deadline other) {
+        return Long.signum(deadlineNanos - other.deadlineNanos);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        return obj instanceof Deadline && ((Deadline) obj).deadlineNanos == deadlineNanos;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(deadlineNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline[" + timeRemaining(TimeUnit.MILLISECONDS) + " ms remaining]";
+    }
+}
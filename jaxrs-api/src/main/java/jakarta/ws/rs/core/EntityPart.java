@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A single part of a {@code multipart/form-data} entity.
+ * <p>
+ * A resource method may declare a parameter of type {@code Iterator<EntityPart>} to receive the parts of a
+ * {@link MediaType#MULTIPART_FORM_DATA multipart/form-data} request entity as they arrive. Parts are parsed lazily:
+ * the next part is only read once the iterator is advanced, and the content of a part is exposed as a stream that
+ * reads directly from the request entity. If the iterator is advanced before the content of the current part has been
+ * read, the JAX-RS runtime keeps the content, in memory up to an implementation-specific threshold and in a temporary
+ * file beyond it, so that it remains readable until the request has been processed. The runtime then releases the
+ * parts and their temporary files; the application does not have to close anything.
+ * </p>
+ * <p>
+ * A {@code List<EntityPart>} may be returned from a resource method or used as a client request entity to produce a
+ * {@code multipart/form-data} entity. The runtime generates the boundary and should write file based parts without
+ * copying the file content to the heap.
+ * </p>
+ *
+ * @see MediaType#MULTIPART_FORM_DATA_TYPE
+ * @since 2.2
+ */
+public interface EntityPart {
+
+    /**
+     * Get the name of the part, i.e. the {@code name} parameter of its {@code Content-Disposition} header.
+     *
+     * @return the name of the part.
+     */
+    public String getName();
+
+    /**
+     * Get the file name of the part, i.e. the {@code filename} parameter of its {@code Content-Disposition} header.
+     *
+     * @return the file name or {@code null} if the part is not a file.
+     */
+    public String getFileName();
+
+    /**
+     * Get the headers of the part.
+     *
+     * @return read-only map of the part headers.
+     */
+    public MultivaluedMap<String, String> getHeaders();
+
+    /**
+     * Get the media type of the part content.
+     *
+     * @return the value of the {@code Content-Type} header of the part or {@code text/plain} if the part does not have
+     * one.
+     */
+    public MediaType getMediaType();
+
+    /**
+     * Get the content of the part.
+     * <p>
+     * For a received part, the stream may only be obtained once unless the content has already been buffered, and it
+     * becomes invalid once the entity has been processed.
+     * </p>
+     *
+     * @return stream reading the part content.
+     * @throws IOException if the content cannot be read.
+     * @throws IllegalStateException if the content stream of a received part that has not been buffered has already
+     * been obtained.
+     */
+    public InputStream getContent() throws IOException;
+}
@@ -264,4 +264,28 @@ public interface HttpHeaders {
      * @since 2.1
      */
     public static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    /**
+     * See <a href="https://tools.ietf.org/html/rfc7233#section-2.3">IETF RFC 7233</a>.
+     *
+     * @since 2.2
+     */
+    public static final String ACCEPT_RANGES = "Accept-Ranges";
+    /**
+     * See <a href="https://tools.ietf.org/html/rfc7233#section-4.2">IETF RFC 7233</a>.
+     *
+     * @since 2.2
+     */
+    public static final String CONTENT_RANGE = "Content-Range";
+    /**
+     * See <a href="https://tools.ietf.org/html/rfc7233#section-3.2">IETF RFC 7233</a>.
+     *
+     * @since 2.2
+     */
+    public static final String IF_RANGE = "If-Range";
+    /**
+     * See <a href="https://tools.ietf.org/html/rfc7233#section-3.1">IETF RFC 7233</a>.
+     *
+     * @since 2.2
+     */
+    public static final String RANGE = "Range";
 }
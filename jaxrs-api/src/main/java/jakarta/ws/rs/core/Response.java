@@ -254,6 +254,11 @@ public abstract class Response implements AutoCloseable {
      * expected to release the buffered message entity data too. Therefore any subsequent attempts to read a message entity
      * stream on such closed response will result in an {@link IllegalStateException} being thrown.
      * </p>
+     * <p>
+     * In case a {@link jakarta.ws.rs.ext.BufferPool buffer pool} is registered in the runtime configuration, the entity
+     * data are buffered in a chain of buffers acquired from the pool rather than in a single, repeatedly grown array. The
+     * buffers are returned to the pool when the response is {@link #close() closed}.
+     * </p>
      *
      * @return {@code true} if the message entity input stream was available and was buffered successfully, returns
      * {@code false} if the entity stream was not available.
@@ -265,7 +270,8 @@ public abstract class Response implements AutoCloseable {
 
     /**
      * Close the underlying message entity input stream (if available and open) as well as releases any other resources
-     * associated with the response (e.g. {@link #bufferEntity() buffered message entity data}).
+     * associated with the response (e.g. {@link #bufferEntity() buffered message entity data}, including returning any
+     * pooled buffers to the {@link jakarta.ws.rs.ext.BufferPool buffer pool} they were acquired from).
      * <p>
      * This operation is idempotent, i.e. it can be invoked multiple times with the same effect which also means that
      * calling the {@code close()} method on an already closed message instance is legal and has no further effect.
@@ -1438,6 +1444,17 @@ public abstract class Response implements AutoCloseable {
             }
         }
 
+        private static final int MIN_CODE = 100;
+
+        // statuses indexed by code - MIN_CODE, avoids the copy of the constants made by values() on every lookup
+        private static final Status[] BY_CODE = new Status[600 - MIN_CODE];
+
+        static {
+            for (Status status : values()) {
+                BY_CODE[status.code - MIN_CODE] = status;
+            }
+        }
+
         Status(final int statusCode, final String reasonPhrase) {
             this.code = statusCode;
             this.reason = reasonPhrase;
@@ -1491,12 +1508,8 @@ public abstract class Response implements AutoCloseable {
          * @return the matching Status or null is no matching Status is defined.
          */
         public static Status fromStatusCode(final int statusCode) {
-            for (Status s : Status.values()) {
-                if (s.code == statusCode) {
-                    return s;
-                }
-            }
-            return null;
+            final int index = statusCode - MIN_CODE;
+            return index >= 0 && index < BY_CODE.length ? BY_CODE[index] : null;
         }
     }
 }
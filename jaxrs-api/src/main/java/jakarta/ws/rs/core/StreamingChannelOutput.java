@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.core;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+import jakarta.ws.rs.WebApplicationException;
+
+/**
+ * A type that may be used as a resource method return value or as the entity in a {@link Response} when the application
+ * wishes to stream the output to a channel rather than to an {@link java.io.OutputStream}.
+ * <p>
+ * Unlike {@link StreamingOutput}, the application writes {@link java.nio.ByteBuffer byte buffers}, which may be direct
+ * or read-only buffers that the JAX-RS runtime does not have to copy to the heap, and a
+ * {@link java.nio.channels.FileChannel#transferTo(long, long, WritableByteChannel) file channel transfer} to the channel
+ * can be performed without copying the file content at all. If the underlying container connection is a channel and
+ * no {@link jakarta.ws.rs.ext.WriterInterceptor writer interceptor} or content coding has to see the entity bytes, the
+ * JAX-RS runtime should pass a channel writing directly to the connection; otherwise the channel writes to the entity
+ * output stream of the response.
+ * </p>
+ * <p>
+ * A JAX-RS runtime should apply the same rule to the entity output stream passed to
+ * {@link jakarta.ws.rs.ext.MessageBodyWriter message body writers}: if the stream can be written to without copying,
+ * the runtime should pass an output stream that also implements {@link WritableByteChannel}, so that writers of file
+ * based entities are able to transfer the file content directly.
+ * </p>
+ *
+ * @see StreamingOutput
+ * @see jakarta.ws.rs.ext.MessageBodyWriter
+ * @since 2.2
+ */
+public interface StreamingChannelOutput {
+
+    /**
+     * Called to write the message body.
+     * <p>
+     * The channel must not be closed by the application, it is closed by the JAX-RS runtime once the method returns.
+     * The channel is blocking, i.e. every call to {@link WritableByteChannel#write(java.nio.ByteBuffer)} writes all
+     * remaining bytes of the buffer.
+     * </p>
+     *
+     * @param channel the channel to write to.
+     * @throws java.io.IOException if an IO error is encountered.
+     * @throws jakarta.ws.rs.WebApplicationException if a specific HTTP error response needs to be produced. Only effective
+     * if thrown prior to any bytes being written to the channel.
+     */
+    public void write(WritableByteChannel channel) throws IOException, WebApplicationException;
+}
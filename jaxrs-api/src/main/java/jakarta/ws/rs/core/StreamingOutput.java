@@ -29,6 +29,7 @@ import jakarta.ws.rs.WebApplicationException;
  * @author Marc Hadley
  * @see jakarta.ws.rs.ext.MessageBodyWriter
  * @see jakarta.ws.rs.core.Response
+ * @see StreamingChannelOutput
  * @since 1.0
  */
 public interface StreamingOutput {
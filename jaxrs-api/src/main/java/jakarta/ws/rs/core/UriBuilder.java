@@ -91,6 +91,22 @@ public abstract class UriBuilder {
         return newInstance().uri(uriTemplate);
     }
 
+    /**
+     * Create a new instance initialized from a pre-compiled URI template.
+     * <p>
+     * By default this method is equivalent to {@code fromUri(template.getTemplate())}. An implementation may override
+     * {@link #uri(UriTemplate)} to reuse the already parsed form of the template.
+     * </p>
+     *
+     * @param template a compiled URI template that will be used to initialize the UriBuilder.
+     * @return a new UriBuilder.
+     * @throws IllegalArgumentException if {@code template} is {@code null}.
+     * @since 2.2
+     */
+    public static UriBuilder fromTemplate(final UriTemplate template) {
+        return newInstance().uri(template);
+    }
+
     /**
      * Create a new instance initialized from a Link.
      *
@@ -177,6 +193,26 @@ public abstract class UriBuilder {
      */
     public abstract UriBuilder uri(String uriTemplate);
 
+    /**
+     * Parses the URI template of a pre-compiled {@link UriTemplate} and uses any components found to replace the existing
+     * ones, exactly like {@link #uri(String)}.
+     * <p>
+     * The default implementation delegates to {@code uri(template.getTemplate())}. Implementations are encouraged to
+     * override this method to reuse the parsed form of the template instead of parsing the template string again.
+     * </p>
+     *
+     * @param template compiled URI template.
+     * @return the updated UriBuilder.
+     * @throws IllegalArgumentException if {@code template} is {@code null}.
+     * @since 2.2
+     */
+    public UriBuilder uri(final UriTemplate template) {
+        if (template == null) {
+            throw new IllegalArgumentException("The provider 'template' parameter value is 'null'.");
+        }
+        return uri(template.getTemplate());
+    }
+
     /**
      * Set the URI scheme.
      *
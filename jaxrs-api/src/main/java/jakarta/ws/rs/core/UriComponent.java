@@ -0,0 +1,408 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.core;
+
+/**
+ * Percent-encoding and decoding of URI components as defined by
+ * <a href="https://tools.ietf.org/html/rfc3986">RFC 3986</a>.
+ * <p>
+ * Every {@link Type URI component type} has a table of the US-ASCII characters that may appear unencoded in the
+ * component; all other characters are encoded as the percent-encoded octets of their UTF-8 representation. The encoding
+ * methods return the supplied string instance itself if it contains no character that needs to be encoded, and the
+ * decoding methods return an equal string if it contains no percent-encoded octet, so that the common case of plain
+ * values does not allocate. Decoding works directly on a {@link CharSequence} without an intermediate byte array.
+ * </p>
+ * <p>
+ * The encoding rules match those of {@link UriBuilder}: e.g. {@code '&'}, {@code '='} and {@code '+'} are encoded in
+ * query parameter names and values, {@code ';'} and {@code '='} in matrix parameters and {@code '/'} in path segments.
+ * </p>
+ *
+ * @see UriTemplate
+ * @since 2.2
+ */
+public final class UriComponent {
+
+    /**
+     * URI component type.
+     *
+     * @since 2.2
+     */
+    public enum Type {
+
+        /**
+         * User information component of the URI authority.
+         */
+        USER_INFO(allowed(":")),
+        /**
+         * Host component of the URI authority, including IP literals.
+         */
+        HOST(allowed("[]:")),
+        /**
+         * URI authority, i.e. the user information, host and port.
+         */
+        AUTHORITY(allowed(":@[]")),
+        /**
+         * URI path, possibly containing multiple {@code '/'} separated segments.
+         */
+        PATH(allowed(":@/")),
+        /**
+         * Single URI path segment, {@code '/'} is encoded.
+         */
+        PATH_SEGMENT(allowed(":@")),
+        /**
+         * Name or value of a matrix parameter of a path segment, {@code ';'} and {@code '='} are encoded.
+         */
+        MATRIX_PARAM(except(allowed(":@"), ";=")),
+        /**
+         * URI query.
+         */
+        QUERY(allowed(":@/?")),
+        /**
+         * Name or value of a query parameter, {@code '&'}, {@code '='} and {@code '+'} are encoded. When decoding, a
+         * {@code '+'} character is decoded as a space.
+         */
+        QUERY_PARAM(except(allowed(":@/?"), "&=+")),
+        /**
+         * URI fragment.
+         */
+        FRAGMENT(allowed(":@/?"));
+
+        private final boolean[] allowed;
+
+        Type(final boolean[] allowed) {
+            this.allowed = allowed;
+        }
+
+        /**
+         * Check whether a character may appear unencoded in the URI component.
+         *
+         * @param c character to check.
+         * @return {@code true} if the character is allowed unencoded, {@code false} otherwise.
+         */
+        public boolean isAllowed(final char c) {
+            return c < 0x80 && allowed[c];
+        }
+    }
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    // hexadecimal digit values of ASCII characters, -1 for non-digits
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    static {
+        for (int i = 0; i < HEX_VALUES.length; i++) {
+            HEX_VALUES[i] = -1;
+        }
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private UriComponent() {
+    }
+
+    /**
+     * Encode a string for use in a URI component. All characters not allowed in the component, including all
+     * {@code '%'} characters, are percent-encoded.
+     *
+     * @param s string to encode.
+     * @param type URI component type.
+     * @return encoded string, the same instance as {@code s} if it does not contain any character to encode.
+     * @throws IllegalArgumentException if any of the arguments is {@code null}.
+     */
+    public static String encode(final String s, final Type type) {
+        return encode(s, type, false);
+    }
+
+    /**
+     * Encode a string for use in a URI component, keeping the percent-encoded octets already present in the string. A
+     * {@code '%'} character is encoded only if it is not followed by two hexadecimal digits.
+     *
+     * @param s string to encode.
+     * @param type URI component type.
+     * @return encoded string, the same instance as {@code s} if it does not contain any character to encode.
+     * @throws IllegalArgumentException if any of the arguments is {@code null}.
+     */
+    public static String contextualEncode(final String s, final Type type) {
+        return encode(s, type, true);
+    }
+
+    private static String encode(final String s, final Type type, final boolean contextual) {
+        checkArguments(s, type);
+        final int first = firstToEncode(s, type.allowed, contextual);
+        if (first < 0) {
+            return s;
+        }
+        final StringBuilder sb = new StringBuilder(s.length() + 16);
+        sb.append(s, 0, first);
+        appendEncoded(sb, s, first, type.allowed, contextual);
+        return sb.toString();
+    }
+
+    /**
+     * Append a character sequence encoded for use in a URI component to a string builder.
+     *
+     * @param sb string builder to append to.
+     * @param s character sequence to encode.
+     * @param type URI component type.
+     * @param contextual if {@code true}, percent-encoded octets already present in {@code s} are kept, otherwise all
+     * {@code '%'} characters are encoded.
+     * @return the supplied string builder.
+     * @throws IllegalArgumentException if {@code s} or {@code type} is {@code null}.
+     */
+    public static StringBuilder appendEncoded(final StringBuilder sb, final CharSequence s, final Type type,
+            final boolean contextual) {
+        checkArguments(s, type);
+        appendEncoded(sb, s, 0, type.allowed, contextual);
+        return sb;
+    }
+
+    private static int firstToEncode(final CharSequence s, final boolean[] allowed, final boolean contextual) {
+        final int length = s.length();
+        for (int i = 0; i < length; i++) {
+            final char c = s.charAt(i);
+            if ((c >= 0x80 || !allowed[c]) && !(contextual && c == '%' && isEncodedOctet(s, i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void appendEncoded(final StringBuilder sb, final CharSequence s, final int from,
+            final boolean[] allowed, final boolean contextual) {
+        final int length = s.length();
+        int start = from;
+        for (int i = from; i < length; i++) {
+            final char c = s.charAt(i);
+            if (c < 0x80) {
+                if (allowed[c] || (contextual && c == '%' && isEncodedOctet(s, i))) {
+                    continue;
+                }
+                sb.append(s, start, i);
+                appendOctet(sb, c);
+            } else {
+                sb.append(s, start, i);
+                int codePoint = c;
+                if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    codePoint = Character.toCodePoint(c, s.charAt(++i));
+                } else if (Character.isSurrogate(c)) {
+                    // unpaired surrogate, encoded as the replacement character like String.getBytes(UTF_8) does
+                    codePoint = '?';
+                }
+                appendUtf8(sb, codePoint);
+            }
+            start = i + 1;
+        }
+        sb.append(s, start, length);
+    }
+
+    private static void appendUtf8(final StringBuilder sb, final int codePoint) {
+        if (codePoint < 0x80) {
+            appendOctet(sb, codePoint);
+        } else if (codePoint < 0x800) {
+            appendOctet(sb, 0xc0 | (codePoint >> 6));
+            appendOctet(sb, 0x80 | (codePoint & 0x3f));
+        } else if (codePoint < 0x10000) {
+            appendOctet(sb, 0xe0 | (codePoint >> 12));
+            appendOctet(sb, 0x80 | ((codePoint >> 6) & 0x3f));
+            appendOctet(sb, 0x80 | (codePoint & 0x3f));
+        } else {
+            appendOctet(sb, 0xf0 | (codePoint >> 18));
+            appendOctet(sb, 0x80 | ((codePoint >> 12) & 0x3f));
+            appendOctet(sb, 0x80 | ((codePoint >> 6) & 0x3f));
+            appendOctet(sb, 0x80 | (codePoint & 0x3f));
+        }
+    }
+
+    private static void appendOctet(final StringBuilder sb, final int octet) {
+        sb.append('%').append(HEX_DIGITS[octet >> 4]).append(HEX_DIGITS[octet & 0x0f]);
+    }
+
+    /**
+     * Decode the percent-encoded octets of a URI component. The octets are interpreted as UTF-8 encoded characters.
+     * Characters that are not percent-encoded are kept as they are, in particular {@code '+'} is not decoded.
+     *
+     * @param s character sequence to decode.
+     * @return decoded string, equal to {@code s.toString()} if {@code s} contains no percent-encoded octet.
+     * @throws IllegalArgumentException if {@code s} is {@code null}, contains a malformed percent-encoded octet or the
+     * octets are not a valid UTF-8 sequence.
+     */
+    public static String decode(final CharSequence s) {
+        return decode(s, false);
+    }
+
+    /**
+     * Decode a URI component of the given type. Same as {@link #decode(CharSequence)}, except that a {@code '+'}
+     * character is decoded as a space in {@link Type#QUERY_PARAM query parameters}.
+     *
+     * @param s character sequence to decode.
+     * @param type URI component type.
+     * @return decoded string, equal to {@code s.toString()} if {@code s} contains nothing to decode.
+     * @throws IllegalArgumentException if {@code s} or {@code type} is {@code null}, {@code s} contains a malformed
+     * percent-encoded octet or the octets are not a valid UTF-8 sequence.
+     */
+    public static String decode(final CharSequence s, final Type type) {
+        checkArguments(s, type);
+        return decode(s, type == Type.QUERY_PARAM);
+    }
+
+    private static String decode(final CharSequence s, final boolean plusAsSpace) {
+        if (s == null) {
+            throw new IllegalArgumentException("Value to decode must not be null.");
+        }
+        final int length = s.length();
+        int first = 0;
+        while (first < length) {
+            final char c = s.charAt(first);
+            if (c == '%' || (plusAsSpace && c == '+')) {
+                break;
+            }
+            first++;
+        }
+        if (first == length) {
+            return s.toString();
+        }
+
+        final StringBuilder sb = new StringBuilder(length);
+        sb.append(s, 0, first);
+        int i = first;
+        while (i < length) {
+            final char c = s.charAt(i);
+            if (c == '+' && plusAsSpace) {
+                sb.append(' ');
+                i++;
+            } else if (c != '%') {
+                sb.append(c);
+                i++;
+            } else {
+                i = decodeUtf8(s, i, sb);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Decode one UTF-8 encoded character starting with the percent-encoded octet at the given index.
+     *
+     * @return index following the last decoded octet.
+     */
+    private static int decodeUtf8(final CharSequence s, final int index, final StringBuilder sb) {
+        final int lead = octetAt(s, index);
+        final int count;
+        int codePoint;
+        int min;
+        if (lead < 0x80) {
+            sb.append((char) lead);
+            return index + 3;
+        } else if ((lead & 0xe0) == 0xc0) {
+            count = 1;
+            codePoint = lead & 0x1f;
+            min = 0x80;
+        } else if ((lead & 0xf0) == 0xe0) {
+            count = 2;
+            codePoint = lead & 0x0f;
+            min = 0x800;
+        } else if ((lead & 0xf8) == 0xf0) {
+            count = 3;
+            codePoint = lead & 0x07;
+            min = 0x10000;
+        } else {
+            throw malformedUtf8(s, index);
+        }
+
+        int i = index + 3;
+        for (int n = 0; n < count; n++, i += 3) {
+            if (i >= s.length() || s.charAt(i) != '%') {
+                throw malformedUtf8(s, index);
+            }
+            final int octet = octetAt(s, i);
+            if ((octet & 0xc0) != 0x80) {
+                throw malformedUtf8(s, index);
+            }
+            codePoint = (codePoint << 6) | (octet & 0x3f);
+        }
+        if (codePoint < min || codePoint > Character.MAX_CODE_POINT
+                || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+            throw malformedUtf8(s, index);
+        }
+        sb.appendCodePoint(codePoint);
+        return i;
+    }
+
+    private static int octetAt(final CharSequence s, final int i) {
+        if (!isEncodedOctet(s, i)) {
+            throw new IllegalArgumentException("Malformed percent-encoded octet at index " + i + " of " + s);
+        }
+        return (HEX_VALUES[s.charAt(i + 1)] << 4) | HEX_VALUES[s.charAt(i + 2)];
+    }
+
+    private static IllegalArgumentException malformedUtf8(final CharSequence s, final int i) {
+        return new IllegalArgumentException("Malformed UTF-8 sequence at index " + i + " of " + s);
+    }
+
+    /**
+     * Check whether the {@code '%'} character at the given index is followed by two hexadecimal digits.
+     */
+    static boolean isEncodedOctet(final CharSequence s, final int i) {
+        return i + 2 < s.length() && isHexDigit(s.charAt(i + 1)) && isHexDigit(s.charAt(i + 2));
+    }
+
+    private static boolean isHexDigit(final char c) {
+        return c < 0x80 && HEX_VALUES[c] >= 0;
+    }
+
+    private static void checkArguments(final CharSequence s, final Type type) {
+        if (s == null) {
+            throw new IllegalArgumentException("Value to encode or decode must not be null.");
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("URI component type must not be null.");
+        }
+    }
+
+    private static boolean[] allowed(final String extra) {
+        final boolean[] table = new boolean[128];
+        for (char c = 'a'; c <= 'z'; c++) {
+            table[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; c++) {
+            table[c] = true;
+        }
+        for (char c = '0'; c <= '9'; c++) {
+            table[c] = true;
+        }
+        // unreserved and sub-delims
+        for (char c : "-._~!$&'()*+,;=".toCharArray()) {
+            table[c] = true;
+        }
+        for (char c : extra.toCharArray()) {
+            table[c] = true;
+        }
+        return table;
+    }
+
+    private static boolean[] except(final boolean[] table, final String excluded) {
+        for (char c : excluded.toCharArray()) {
+            table[c] = false;
+        }
+        return table;
+    }
+}
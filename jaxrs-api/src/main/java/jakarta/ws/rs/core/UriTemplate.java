@@ -0,0 +1,456 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.core;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, pre-compiled URI template. See {@link jakarta.ws.rs.Path#value} for an explanation of URI templates.
+ * <p>
+ * A URI template is parsed only once, when {@link #compile(String) compiled}, into a sequence of literal and template
+ * parameter segments. Each template parameter segment remembers the URI component (authority, path, query or fragment)
+ * it appears in, so that the values substituted into the template are encoded following the rules of that component
+ * (see {@link UriComponent}), consistently with {@link UriBuilder}. Literal segments are contextually encoded once at
+ * compile time. Expanding a compiled template is a single pass over its segments appending into one
+ * {@link StringBuilder}, so a template that is used to produce many URIs should be compiled once and reused:
+ * </p>
+ *
+ * <pre>
+ * private static final UriTemplate ORDER = UriTemplate.compile("http://example.com/customers/{cid}/orders/{oid}");
+ * ...
+ * URI uri = ORDER.build(customerId, orderId);
+ * </pre>
+ * <p>
+ * Template parameter regular expressions are retained (see {@link #getRegex(String)}) but are ignored when a URI is
+ * built, i.e. no validation of the substituted values is performed.
+ * </p>
+ *
+ * @see UriBuilder#fromTemplate(UriTemplate)
+ * @see jakarta.ws.rs.client.Client#target(UriTemplate)
+ * @since 2.2
+ */
+public final class UriTemplate {
+
+    private static final int AUTHORITY = 0;
+    private static final int PATH = 1;
+    private static final int QUERY = 2;
+    private static final int FRAGMENT = 3;
+
+    private final String template;
+    // literals[i] precedes the i-th template parameter occurrence; the last literal follows the last occurrence
+    private final String[] literals;
+    // index into names for every template parameter occurrence
+    private final int[] occurrences;
+    private final int[] components;
+    private final List<String> names;
+    private final String[] regexes;
+    private final int literalLength;
+
+    private UriTemplate(final String template, final List<String> literals, final List<Integer> occurrences,
+            final List<Integer> components, final List<String> names, final List<String> regexes) {
+        this.template = template;
+        this.literals = literals.toArray(new String[literals.size()]);
+        this.occurrences = new int[occurrences.size()];
+        this.components = new int[components.size()];
+        for (int i = 0; i < this.occurrences.length; i++) {
+            this.occurrences[i] = occurrences.get(i);
+            this.components[i] = components.get(i);
+        }
+        this.names = Collections.unmodifiableList(new ArrayList<String>(names));
+        this.regexes = regexes.toArray(new String[regexes.size()]);
+        int length = 0;
+        for (String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compile a URI template.
+     *
+     * @param template URI template, may contain template parameters of the form {@code {name}} or
+     * {@code {name: regex}}.
+     * @return compiled URI template.
+     * @throws IllegalArgumentException if {@code template} is {@code null} or is not a valid URI template.
+     */
+    public static UriTemplate compile(final String template) {
+        if (template == null) {
+            throw new IllegalArgumentException("URI template must not be null.");
+        }
+        return new Parser(template).parse();
+    }
+
+    /**
+     * Get the original URI template string.
+     *
+     * @return URI template string.
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * Get the names of the template parameters in the order of their first occurrence in the template. This is the order
+     * in which values are expected by the positional {@link #expand(Object...)} and {@link #build(Object...)} methods.
+     *
+     * @return read-only list of distinct template parameter names.
+     */
+    public List<String> getTemplateNames() {
+        return names;
+    }
+
+    /**
+     * Get the regular expression declared for a template parameter.
+     *
+     * @param name template parameter name.
+     * @return the declared regular expression or {@code null} if the parameter does not declare one or is not present in
+     * the template.
+     */
+    public String getRegex(final String name) {
+        final int index = names.indexOf(name);
+        return index < 0 ? null : regexes[index];
+    }
+
+    /**
+     * Expand the template using the supplied values in order. Values are converted to {@code String} using their
+     * {@code toString()} method and are encoded to match the rules of the URI component to which they pertain; all
+     * {@code '%'} characters in the values are encoded, and so are {@code '/'} characters in values placed in the
+     * authority or the path. Query and fragment values keep their {@code '/'} characters, which are permitted there.
+     * All occurrences of the same template parameter are replaced by the value that corresponds to the position of the
+     * first occurrence.
+     *
+     * @param values template parameter values.
+     * @return expanded URI string.
+     * @throws IllegalArgumentException if there are fewer values than template parameters or a value is {@code null}.
+     */
+    public String expand(final Object... values) {
+        return expand(values, true, false);
+    }
+
+    /**
+     * Expand the template using the supplied values in order.
+     *
+     * @param values template parameter values.
+     * @param encodeSlashInPath if {@code true}, the slash ({@code '/'}) characters in parameter values will be encoded if
+     * the template is placed in the URI path component, otherwise the slash characters will not be encoded in path
+     * templates.
+     * @return expanded URI string.
+     * @throws IllegalArgumentException if there are fewer values than template parameters or a value is {@code null}.
+     * @see #expand(Object...)
+     */
+    public String expand(final Object[] values, final boolean encodeSlashInPath) {
+        return expand(values, encodeSlashInPath, false);
+    }
+
+    /**
+     * Expand the template using the values from the supplied map. Values are converted to {@code String} using their
+     * {@code toString()} method and are encoded to match the rules of the URI component to which they pertain; all
+     * {@code '%'} characters in the values are encoded, and so are {@code '/'} characters in values placed in the
+     * authority or the path. Query and fragment values keep their {@code '/'} characters, which are permitted there.
+     *
+     * @param values map of template parameter names and values.
+     * @return expanded URI string.
+     * @throws IllegalArgumentException if there is a template parameter without a supplied value or a value is
+     * {@code null}.
+     */
+    public String expand(final Map<String, ?> values) {
+        return expand(toArray(values), true, false);
+    }
+
+    /**
+     * Expand the template using the values from the supplied map.
+     *
+     * @param values map of template parameter names and values.
+     * @param encodeSlashInPath if {@code true}, the slash ({@code '/'}) characters in parameter values will be encoded if
+     * the template is placed in the URI path component, otherwise the slash characters will not be encoded in path
+     * templates.
+     * @return expanded URI string.
+     * @throws IllegalArgumentException if there is a template parameter without a supplied value or a value is
+     * {@code null}.
+     * @see #expand(Map)
+     */
+    public String expand(final Map<String, ?> values, final boolean encodeSlashInPath) {
+        return expand(toArray(values), encodeSlashInPath, false);
+    }
+
+    /**
+     * Expand the template using the values from the supplied map, which may already be percent-encoded. All {@code '%'}
+     * characters in the values that are not followed by two hexadecimal digits are encoded, other characters not
+     * permitted in the URI component of the template parameter are encoded as well.
+     *
+     * @param values map of template parameter names and values.
+     * @return expanded URI string.
+     * @throws IllegalArgumentException if there is a template parameter without a supplied value or a value is
+     * {@code null}.
+     */
+    public String expandFromEncoded(final Map<String, ?> values) {
+        return expand(toArray(values), false, true);
+    }
+
+    /**
+     * Build a URI from the template using the supplied values in order.
+     *
+     * @param values template parameter values.
+     * @return URI built from the template.
+     * @throws IllegalArgumentException if there are fewer values than template parameters, a value is {@code null} or the
+     * expanded template is not a valid URI.
+     * @see #expand(Object...)
+     */
+    public URI build(final Object... values) {
+        return URI.create(expand(values, true, false));
+    }
+
+    /**
+     * Build a URI from the template using the values from the supplied map.
+     *
+     * @param values map of template parameter names and values.
+     * @return URI built from the template.
+     * @throws IllegalArgumentException if there is a template parameter without a supplied value, a value is {@code null}
+     * or the expanded template is not a valid URI.
+     * @see #expand(Map)
+     */
+    public URI buildFromMap(final Map<String, ?> values) {
+        return URI.create(expand(toArray(values), true, false));
+    }
+
+    private Object[] toArray(final Map<String, ?> values) {
+        if (values == null) {
+            throw new IllegalArgumentException("Template values must not be null.");
+        }
+        final Object[] array = new Object[names.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(names.get(i));
+        }
+        return array;
+    }
+
+    private String expand(final Object[] values, final boolean encodeSlashInPath, final boolean encoded) {
+        if (values == null || values.length < names.size()) {
+            throw new IllegalArgumentException("Template " + template + " requires " + names.size() + " values.");
+        }
+        final String[] strings = new String[names.size()];
+        int length = literalLength;
+        for (int i = 0; i < strings.length; i++) {
+            if (values[i] == null) {
+                throw new IllegalArgumentException("Value of template parameter '" + names.get(i) + "' is null.");
+            }
+            strings[i] = values[i].toString();
+            length += strings[i].length();
+        }
+
+        final StringBuilder sb = new StringBuilder(length + 16);
+        for (int i = 0; i < occurrences.length; i++) {
+            sb.append(literals[i]);
+            UriComponent.appendEncoded(sb, strings[occurrences[i]], componentType(components[i], encodeSlashInPath), encoded);
+        }
+        sb.append(literals[occurrences.length]);
+        return sb.toString();
+    }
+
+    private static UriComponent.Type componentType(final int component, final boolean encodeSlashInPath) {
+        switch (component) {
+        case AUTHORITY:
+            return UriComponent.Type.AUTHORITY;
+        case PATH:
+            return encodeSlashInPath ? UriComponent.Type.PATH_SEGMENT : UriComponent.Type.PATH;
+        case QUERY:
+            return UriComponent.Type.QUERY_PARAM;
+        default:
+            return UriComponent.Type.FRAGMENT;
+        }
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return this == o || (o instanceof UriTemplate && template.equals(((UriTemplate) o).template));
+    }
+
+    @Override
+    public int hashCode() {
+        return template.hashCode();
+    }
+
+    /**
+     * Get the original URI template string.
+     *
+     * @return URI template string.
+     */
+    @Override
+    public String toString() {
+        return template;
+    }
+
+    /**
+     * Single-use URI template parser.
+     */
+    private static final class Parser {
+
+        private final String template;
+        private final List<String> literals = new ArrayList<String>();
+        private final List<Integer> occurrences = new ArrayList<Integer>();
+        private final List<Integer> components = new ArrayList<Integer>();
+        private final List<String> names = new ArrayList<String>();
+        private final List<String> regexes = new ArrayList<String>();
+        private final StringBuilder literal = new StringBuilder();
+        private int component;
+        private int position;
+
+        private Parser(final String template) {
+            this.template = template;
+        }
+
+        private UriTemplate parse() {
+            component = startComponent();
+            while (position < template.length()) {
+                final char c = template.charAt(position);
+                if (c == '{') {
+                    parseTemplateParameter();
+                } else if (c == '}') {
+                    throw new IllegalArgumentException("Unmatched '}' at index " + position + " in URI template " + template);
+                } else {
+                    parseLiteral(c);
+                }
+            }
+            literals.add(literal.toString());
+            return new UriTemplate(template, literals, occurrences, components, names, regexes);
+        }
+
+        /**
+         * Detect a literal scheme and an authority at the beginning of the template; otherwise the template starts with
+         * the path component.
+         */
+        private int startComponent() {
+            int i = 0;
+            while (i < template.length()) {
+                final char c = template.charAt(i);
+                if (c == ':' && i > 0) {
+                    literal.append(template, 0, i + 1);
+                    position = i + 1;
+                    return startHierarchicalPart();
+                }
+                final boolean schemeChar = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                        || (i > 0 && ((c >= '0' && c <= '9') || c == '+' || c == '-' || c == '.'));
+                if (!schemeChar) {
+                    break;
+                }
+                i++;
+            }
+            return startHierarchicalPart();
+        }
+
+        private int startHierarchicalPart() {
+            if (template.startsWith("//", position)) {
+                literal.append("//");
+                position += 2;
+                return AUTHORITY;
+            }
+            return PATH;
+        }
+
+        private void parseLiteral(final char c) {
+            position++;
+            if (c == '#' && component != FRAGMENT) {
+                component = FRAGMENT;
+                literal.append(c);
+                return;
+            }
+            if (c == '?' && (component == AUTHORITY || component == PATH)) {
+                component = QUERY;
+                literal.append(c);
+                return;
+            }
+            if (c == '/' && component == AUTHORITY) {
+                component = PATH;
+                literal.append(c);
+                return;
+            }
+            if (c == '%' && UriComponent.isEncodedOctet(template, position - 1)) {
+                literal.append(c);
+                return;
+            }
+            final UriComponent.Type type;
+            switch (component) {
+            case AUTHORITY:
+                type = UriComponent.Type.AUTHORITY;
+                break;
+            case PATH:
+                type = UriComponent.Type.PATH;
+                break;
+            case QUERY:
+                type = UriComponent.Type.QUERY;
+                break;
+            default:
+                type = UriComponent.Type.FRAGMENT;
+                break;
+            }
+            if (type.isAllowed(c)) {
+                literal.append(c);
+            } else if (Character.isHighSurrogate(c) && position < template.length()) {
+                UriComponent.appendEncoded(literal, template.substring(position - 1, position + 1), type, false);
+                position++;
+            } else {
+                UriComponent.appendEncoded(literal, String.valueOf(c), type, false);
+            }
+        }
+
+        private void parseTemplateParameter() {
+            final int start = position;
+            int depth = 0;
+            int end = -1;
+            for (int i = start + 1; i < template.length(); i++) {
+                final char c = template.charAt(i);
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}') {
+                    if (depth == 0) {
+                        end = i;
+                        break;
+                    }
+                    depth--;
+                }
+            }
+            if (end < 0) {
+                throw new IllegalArgumentException("Unmatched '{' at index " + start + " in URI template " + template);
+            }
+
+            final String body = template.substring(start + 1, end);
+            final int colon = body.indexOf(':');
+            final String name = (colon < 0 ? body : body.substring(0, colon)).trim();
+            final String regex = colon < 0 ? null : body.substring(colon + 1).trim();
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty template parameter name at index " + start + " in URI template "
+                        + template);
+            }
+
+            int index = names.indexOf(name);
+            if (index < 0) {
+                index = names.size();
+                names.add(name);
+                regexes.add(regex == null || regex.isEmpty() ? null : regex);
+            }
+            literals.add(literal.toString());
+            literal.setLength(0);
+            occurrences.add(index);
+            components.add(component);
+            position = end + 1;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.ext;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Contract for a provider of reusable, fixed-size byte buffers used by the JAX-RS runtime when it needs to hold message
+ * entity data in memory.
+ * <p>
+ * A JAX-RS runtime uses the buffer pool in effect to {@link jakarta.ws.rs.core.Response#bufferEntity() buffer} message
+ * entities, and entity providers as well as {@link ReaderInterceptor reader} and {@link WriterInterceptor writer}
+ * interceptors are encouraged to draw their temporary buffers from the same pool instead of allocating new arrays for
+ * every message. A buffered entity is expected to be kept as a chain of buffers acquired from the pool; the buffers are
+ * returned to the pool once the response is {@link jakarta.ws.rs.core.Response#close() closed}.
+ * </p>
+ * <p>
+ * Providers implementing {@code BufferPool} contract must be either programmatically registered in a JAX-RS runtime
+ * using one of the {@link jakarta.ws.rs.core.Configurable#register(Object) Configurable.register(...)} methods or must
+ * be annotated with {@link jakarta.ws.rs.ext.Provider &#64;Provider} annotation to be automatically discovered by the
+ * JAX-RS runtime during a provider scanning phase. In case more than one buffer pool is registered in the same
+ * configuration scope, the one with the highest priority (i.e. the lowest {@code javax.annotation.Priority} value) is
+ * used. If no buffer pool is registered, the JAX-RS runtime uses its own default buffer management strategy. The buffer
+ * pool in effect can be injected into other providers and resources using the {@link jakarta.ws.rs.core.Context}
+ * annotation.
+ * </p>
+ * <p>
+ * Implementations of this interface are required to be thread-safe. A buffer may be released by a different thread than
+ * the one that acquired it.
+ * </p>
+ *
+ * @see jakarta.ws.rs.core.Response#bufferEntity()
+ * @since 2.2
+ */
+public interface BufferPool {
+
+    /**
+     * Acquire a buffer from the pool.
+     * <p>
+     * The returned buffer has a {@link ByteBuffer#capacity() capacity} of {@link #getBufferSize()} bytes, its position is
+     * set to zero and its limit is set to its capacity. The content of the returned buffer is undefined. If the pool is
+     * empty, a new buffer is allocated.
+     * </p>
+     *
+     * @return buffer ready to be written to, never {@code null}.
+     */
+    public ByteBuffer acquire();
+
+    /**
+     * Return a previously {@link #acquire() acquired} buffer to the pool.
+     * <p>
+     * A buffer must not be accessed by the caller once it has been released. Buffers that do not match the pool
+     * {@link #getBufferSize() buffer size} or {@link #isDirect() buffer kind} are silently discarded. Releasing a
+     * {@code null} buffer has no effect.
+     * </p>
+     *
+     * @param buffer buffer to be returned to the pool.
+     */
+    public void release(ByteBuffer buffer);
+
+    /**
+     * Get the capacity of the buffers managed by this pool.
+     *
+     * @return capacity of the pooled buffers in bytes.
+     */
+    public int getBufferSize();
+
+    /**
+     * Check whether the pool manages {@link ByteBuffer#allocateDirect(int) direct} or heap buffers.
+     *
+     * @return {@code true} if the pooled buffers are direct buffers, {@code false} if the pooled buffers are backed by a
+     * heap array.
+     */
+    public boolean isDirect();
+}
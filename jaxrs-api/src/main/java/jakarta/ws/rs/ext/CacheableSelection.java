@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.ext;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares that the selection of a {@link MessageBodyReader} or {@link MessageBodyWriter} may be cached.
+ * <p>
+ * By annotating a message body provider, the provider guarantees that the result of its
+ * {@link MessageBodyReader#isReadable(Class, java.lang.reflect.Type, java.lang.annotation.Annotation[],
+ * jakarta.ws.rs.core.MediaType) isReadable} and
+ * {@link MessageBodyWriter#isWriteable(Class, java.lang.reflect.Type, java.lang.annotation.Annotation[],
+ * jakarta.ws.rs.core.MediaType) isWriteable} methods depends only on the class, the generic type and the type and
+ * subtype of the media type passed to them, i.e. neither on the media type parameters, such as a charset or a
+ * multipart boundary, nor on the annotations nor on any state that changes over time. A JAX-RS runtime may then
+ * remember the outcome of a provider selection, see {@link Providers}, instead of consulting the provider again.
+ * </p>
+ * <p>
+ * The annotation is ignored on classes that are neither message body readers nor message body writers.
+ * </p>
+ *
+ * @see Providers
+ * @since 2.2
+ */
+@Target({ ElementType.TYPE })
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CacheableSelection {
+}
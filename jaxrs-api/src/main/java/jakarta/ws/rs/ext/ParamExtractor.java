@@ -0,0 +1,563 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.ext;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.BeanParam;
+import jakarta.ws.rs.CookieParam;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.Encoded;
+import jakarta.ws.rs.FormParam;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.MatrixParam;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/**
+ * Precompiled extractor of the value of a resource method parameter, resource field or bean property annotated with
+ * {@link PathParam &#64;PathParam}, {@link QueryParam &#64;QueryParam}, {@link MatrixParam &#64;MatrixParam},
+ * {@link HeaderParam &#64;HeaderParam}, {@link CookieParam &#64;CookieParam}, {@link FormParam &#64;FormParam} or
+ * {@link BeanParam &#64;BeanParam}.
+ * <p>
+ * An extractor is created once per parameter, typically when the application is deployed. Creating it resolves the
+ * conversion strategy of the parameter type in the order mandated by the specification: a {@link ParamConverter}
+ * supplied by one of the {@link ParamConverterProvider param converter providers}, the primitive types, a public
+ * constructor accepting a single {@code String}, a static {@code valueOf} or {@code fromString} method accepting a
+ * single {@code String} and collections ({@code List}, {@code Set} and {@code SortedSet}) of any of these. Constructors
+ * and methods are bound as {@link MethodHandle method handles}, so no reflective lookup takes place per request. A
+ * {@link DefaultValue &#64;DefaultValue} is converted once, when the extractor is created, unless the converter is
+ * annotated with {@link ParamConverter.Lazy &#64;Lazy}, in which case it is converted once, when it is first needed.
+ * Extracting a value is then a direct call.
+ * </p>
+ * <p>
+ * A {@code @BeanParam} extractor instantiates the bean class using its no-argument constructor and injects the fields
+ * and single-argument setter methods annotated with one of the parameter annotations, each through an extractor of its
+ * own. Members annotated with {@link jakarta.ws.rs.core.Context &#64;Context} are left to the JAX-RS runtime.
+ * </p>
+ * <p>
+ * If a value cannot be converted, a {@link NotFoundException} is thrown for path, query and matrix parameters and a
+ * {@link BadRequestException} for all other parameters, unless the conversion throws a
+ * {@link WebApplicationException} itself. Instances are immutable and thread-safe.
+ * </p>
+ *
+ * @param <T> the type of the extracted value.
+ * @see ParamConverter
+ * @since 2.2
+ */
+public final class ParamExtractor<T> {
+
+    /**
+     * The parameters of the current request.
+     */
+    public interface Source {
+
+        /**
+         * Get the parameters of a kind.
+         * <p>
+         * The extractors of a bean parameter share the source of the bean parameter, but each of them may ask for a
+         * different form of the values, so a source must be able to supply both.
+         * </p>
+         *
+         * @param type parameter annotation identifying the kind of parameters, e.g. {@code QueryParam.class}.
+         * @param encoded {@code true} for the values in their encoded form, as requested by
+         * {@link ParamExtractor#isEncoded() encoded} extractors, {@code false} for decoded values.
+         * @return parameter values by name.
+         */
+        public MultivaluedMap<String, String> getParameters(Class<? extends Annotation> type, boolean encoded);
+    }
+
+    private static final Map<Class<?>, Class<?>> WRAPPERS = new HashMap<Class<?>, Class<?>>();
+
+    static {
+        WRAPPERS.put(boolean.class, Boolean.class);
+        WRAPPERS.put(byte.class, Byte.class);
+        WRAPPERS.put(char.class, Character.class);
+        WRAPPERS.put(short.class, Short.class);
+        WRAPPERS.put(int.class, Integer.class);
+        WRAPPERS.put(long.class, Long.class);
+        WRAPPERS.put(float.class, Float.class);
+        WRAPPERS.put(double.class, Double.class);
+    }
+
+    private static final MethodType CONVERSION = MethodType.methodType(Object.class, String.class);
+
+    private static final MethodHandle TO_CHARACTER;
+
+    static {
+        try {
+            TO_CHARACTER = MethodHandles.lookup().findStatic(ParamExtractor.class, "toCharacter",
+                    MethodType.methodType(Character.class, String.class)).asType(CONVERSION);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Class<? extends Annotation> sourceType;
+    private final String name;
+    private final boolean encoded;
+    private final Extraction extraction;
+
+    private ParamExtractor(final Class<? extends Annotation> sourceType, final String name, final boolean encoded,
+            final Extraction extraction) {
+        this.sourceType = sourceType;
+        this.name = name;
+        this.encoded = encoded;
+        this.extraction = extraction;
+    }
+
+    /**
+     * Create the extractor of a parameter.
+     *
+     * @param <T> the type of the parameter.
+     * @param rawType the class of the parameter.
+     * @param genericType the generic type of the parameter.
+     * @param annotations the annotations of the parameter, including the parameter annotation.
+     * @param providers the param converter providers of the application, in the order of their priority.
+     * @return new extractor.
+     * @throws IllegalArgumentException if the parameter has no parameter annotation, its type cannot be converted from
+     * a {@code String}, or its default value cannot be converted.
+     */
+    public static <T> ParamExtractor<T> of(final Class<T> rawType, final Type genericType,
+            final Annotation[] annotations, final Iterable<? extends ParamConverterProvider> providers) {
+        return of(rawType, genericType, annotations, providers, false);
+    }
+
+    private static <T> ParamExtractor<T> of(final Class<T> rawType, final Type genericType,
+            final Annotation[] annotations, final Iterable<? extends ParamConverterProvider> providers,
+            final boolean encodedByDefault) {
+        Class<? extends Annotation> sourceType = null;
+        String name = null;
+        String defaultValue = null;
+        boolean encoded = encodedByDefault;
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof PathParam) {
+                name = ((PathParam) annotation).value();
+            } else if (annotation instanceof QueryParam) {
+                name = ((QueryParam) annotation).value();
+            } else if (annotation instanceof MatrixParam) {
+                name = ((MatrixParam) annotation).value();
+            } else if (annotation instanceof HeaderParam) {
+                name = ((HeaderParam) annotation).value();
+            } else if (annotation instanceof CookieParam) {
+                name = ((CookieParam) annotation).value();
+            } else if (annotation instanceof FormParam) {
+                name = ((FormParam) annotation).value();
+            } else if (!(annotation instanceof BeanParam)) {
+                if (annotation instanceof DefaultValue) {
+                    defaultValue = ((DefaultValue) annotation).value();
+                } else if (annotation instanceof Encoded) {
+                    encoded = true;
+                }
+                continue;
+            }
+            sourceType = annotation.annotationType();
+        }
+        if (sourceType == null) {
+            throw new IllegalArgumentException("No parameter annotation on parameter of type " + genericType);
+        }
+        final Extraction extraction = sourceType == BeanParam.class
+                ? new Bean(rawType, providers, encoded)
+                : valueExtraction(rawType, genericType == null ? rawType : genericType, annotations, defaultValue,
+                        providers, sourceType);
+        return new ParamExtractor<T>(sourceType, name, encoded, extraction);
+    }
+
+    /**
+     * Extract the value of the parameter from the parameters of the current request.
+     *
+     * @param source parameters of the current request.
+     * @return the parameter value, the default value if the parameter is missing.
+     * @throws WebApplicationException if the value cannot be converted.
+     */
+    @SuppressWarnings("unchecked")
+    public T extract(final Source source) {
+        if (name == null) {
+            return (T) extraction.extract(null, source);
+        }
+        final MultivaluedMap<String, String> parameters = source.getParameters(sourceType, encoded);
+        return (T) extraction.extract(parameters == null ? null : parameters.get(name), source);
+    }
+
+    /**
+     * Get the name of the parameter.
+     *
+     * @return parameter name, {@code null} for a bean parameter.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the kind of the parameter.
+     *
+     * @return the parameter annotation type, e.g. {@code QueryParam.class}.
+     */
+    public Class<? extends Annotation> getSourceType() {
+        return sourceType;
+    }
+
+    /**
+     * Check whether the parameter is annotated with {@link Encoded &#64;Encoded}. The members of a bean parameter are
+     * also encoded if the bean parameter or the bean class is annotated.
+     *
+     * @return {@code true} if the extractor expects the parameter values in their encoded form.
+     */
+    public boolean isEncoded() {
+        return encoded;
+    }
+
+    @Override
+    public String toString() {
+        return "ParamExtractor[" + sourceType.getSimpleName() + (name == null ? "" : " " + name) + "]";
+    }
+
+    private static Extraction valueExtraction(final Class<?> rawType, final Type genericType,
+            final Annotation[] annotations, final String defaultValue,
+            final Iterable<? extends ParamConverterProvider> providers, final Class<? extends Annotation> sourceType) {
+        final Converter direct = converter(rawType, genericType, annotations, providers, false);
+        if (direct != null) {
+            return new Single(direct, defaultValue, zero(rawType), sourceType);
+        }
+        if (rawType == List.class || rawType == Set.class || rawType == SortedSet.class) {
+            Type elementType = String.class;
+            if (genericType instanceof ParameterizedType) {
+                elementType = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+            }
+            final Class<?> elementClass = rawClass(elementType);
+            final Converter element = converter(elementClass, elementType, annotations, providers, true);
+            return new Multi(rawType, new Single(element, defaultValue, null, sourceType));
+        }
+        throw new IllegalArgumentException("No conversion from String to " + genericType);
+    }
+
+    /**
+     * Resolve the conversion from a {@code String} to a type.
+     *
+     * @return converter or {@code null} if the type is not convertible and {@code required} is {@code false}.
+     */
+    private static Converter converter(final Class<?> rawType, final Type genericType, final Annotation[] annotations,
+            final Iterable<? extends ParamConverterProvider> providers, final boolean required) {
+        if (providers != null) {
+            for (ParamConverterProvider provider : providers) {
+                final ParamConverter<?> converter = provider.getConverter(rawType, genericType, annotations);
+                if (converter != null) {
+                    return new Converter(converter);
+                }
+            }
+        }
+        final Class<?> type = rawType.isPrimitive() ? WRAPPERS.get(rawType) : rawType;
+        try {
+            if (type == String.class) {
+                return new Converter(MethodHandles.identity(String.class).asType(CONVERSION));
+            }
+            if (type == Character.class) {
+                return new Converter(TO_CHARACTER);
+            }
+            if (type != null && !Modifier.isAbstract(type.getModifiers()) && !type.isPrimitive()) {
+                for (Constructor<?> constructor : type.getConstructors()) {
+                    if (constructor.getParameterCount() == 1 && constructor.getParameterTypes()[0] == String.class) {
+                        return new Converter(MethodHandles.publicLookup().unreflectConstructor(constructor)
+                                .asType(CONVERSION));
+                    }
+                }
+            }
+            if (type != null) {
+                final Method valueOf = factory(type, "valueOf");
+                final Method fromString = factory(type, "fromString");
+                final Method factory = fromString != null && (valueOf == null || type.isEnum()) ? fromString : valueOf;
+                if (factory != null) {
+                    return new Converter(MethodHandles.publicLookup().unreflect(factory).asType(CONVERSION));
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Conversion from String to " + genericType + " not accessible.", e);
+        }
+        if (required) {
+            throw new IllegalArgumentException("No conversion from String to " + genericType);
+        }
+        return null;
+    }
+
+    private static Method factory(final Class<?> type, final String name) {
+        try {
+            final Method method = type.getMethod(name, String.class);
+            return Modifier.isStatic(method.getModifiers()) && type.isAssignableFrom(method.getReturnType())
+                    ? method : null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static Character toCharacter(final String value) {
+        if (value.length() != 1) {
+            throw new IllegalArgumentException("Not a single character: " + value);
+        }
+        return value.charAt(0);
+    }
+
+    private static Object zero(final Class<?> rawType) {
+        if (!rawType.isPrimitive()) {
+            return null;
+        }
+        return Array.get(Array.newInstance(rawType, 1), 0);
+    }
+
+    private static Class<?> rawClass(final Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        }
+        if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        }
+        throw new IllegalArgumentException("No conversion from String to " + type);
+    }
+
+    /**
+     * Strategy extracting a value from the values of a parameter.
+     */
+    private abstract static class Extraction {
+
+        abstract Object extract(List<String> values, Source source);
+    }
+
+    /**
+     * Conversion from a {@code String}, either by a param converter or a method handle of type
+     * {@code (String)Object}.
+     */
+    private static final class Converter {
+
+        private final ParamConverter<?> converter;
+        private final MethodHandle handle;
+        private final boolean lazy;
+
+        Converter(final ParamConverter<?> converter) {
+            this.converter = converter;
+            this.handle = null;
+            this.lazy = converter.getClass().isAnnotationPresent(ParamConverter.Lazy.class);
+        }
+
+        Converter(final MethodHandle handle) {
+            this.converter = null;
+            this.handle = handle;
+            this.lazy = false;
+        }
+
+        Object convert(final String value) throws Throwable {
+            return converter != null ? converter.fromString(value) : (Object) handle.invokeExact(value);
+        }
+    }
+
+    /**
+     * Extraction of the first value of a parameter.
+     */
+    private static final class Single extends Extraction {
+
+        private static final Object UNCONVERTED = new Object();
+
+        private final Converter converter;
+        private final String defaultString;
+        private final Class<? extends Annotation> sourceType;
+        private volatile Object defaultValue;
+
+        Single(final Converter converter, final String defaultString, final Object missing,
+                final Class<? extends Annotation> sourceType) {
+            this.converter = converter;
+            this.defaultString = defaultString;
+            this.sourceType = sourceType;
+            if (defaultString == null) {
+                this.defaultValue = missing;
+            } else if (converter.lazy) {
+                this.defaultValue = UNCONVERTED;
+            } else {
+                try {
+                    this.defaultValue = converter.convert(defaultString);
+                } catch (Throwable t) {
+                    throw new IllegalArgumentException("Invalid default value: " + defaultString, t);
+                }
+            }
+        }
+
+        @Override
+        Object extract(final List<String> values, final Source source) {
+            return values == null || values.isEmpty() ? defaultValue() : convert(values.get(0));
+        }
+
+        boolean hasDefault() {
+            return defaultString != null;
+        }
+
+        Object defaultValue() {
+            Object value = defaultValue;
+            if (value == UNCONVERTED) {
+                // racing threads convert the same string, any of the results may be kept
+                value = convert(defaultString);
+                defaultValue = value;
+            }
+            return value;
+        }
+
+        Object convert(final String value) {
+            try {
+                return converter.convert(value);
+            } catch (WebApplicationException e) {
+                throw e;
+            } catch (Throwable t) {
+                if (sourceType == PathParam.class || sourceType == QueryParam.class
+                        || sourceType == MatrixParam.class) {
+                    throw new NotFoundException(t);
+                }
+                throw new BadRequestException(t);
+            }
+        }
+    }
+
+    /**
+     * Extraction of all values of a parameter into a new collection.
+     */
+    private static final class Multi extends Extraction {
+
+        private final Class<?> collectionType;
+        private final Single element;
+
+        Multi(final Class<?> collectionType, final Single element) {
+            this.collectionType = collectionType;
+            this.element = element;
+        }
+
+        @Override
+        Object extract(final List<String> values, final Source source) {
+            final Collection<Object> collection = collectionType == List.class ? new ArrayList<Object>()
+                    : collectionType == Set.class ? new HashSet<Object>() : new TreeSet<Object>();
+            if (values == null || values.isEmpty()) {
+                if (element.hasDefault()) {
+                    collection.add(element.defaultValue());
+                }
+            } else {
+                for (String value : values) {
+                    collection.add(element.convert(value));
+                }
+            }
+            return collection;
+        }
+    }
+
+    /**
+     * Extraction of a bean parameter.
+     */
+    private static final class Bean extends Extraction {
+
+        private final Class<?> beanClass;
+        private final MethodHandle constructor;
+        private final List<MethodHandle> setters = new ArrayList<MethodHandle>();
+        private final List<ParamExtractor<?>> extractors = new ArrayList<ParamExtractor<?>>();
+
+        Bean(final Class<?> beanClass, final Iterable<? extends ParamConverterProvider> providers,
+                final boolean encoded) {
+            this.beanClass = beanClass;
+            final boolean encodedMembers = encoded || beanClass.isAnnotationPresent(Encoded.class);
+            try {
+                final Constructor<?> noArgs = beanClass.getDeclaredConstructor();
+                noArgs.setAccessible(true);
+                this.constructor = MethodHandles.lookup().unreflectConstructor(noArgs)
+                        .asType(MethodType.methodType(Object.class));
+                for (Class<?> c = beanClass; c != null && c != Object.class; c = c.getSuperclass()) {
+                    for (Field field : c.getDeclaredFields()) {
+                        if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())
+                                && isParameter(field.getAnnotations())) {
+                            field.setAccessible(true);
+                            add(MethodHandles.lookup().unreflectSetter(field), of(field.getType(),
+                                    field.getGenericType(), field.getAnnotations(), providers, encodedMembers));
+                        }
+                    }
+                    for (Method method : c.getDeclaredMethods()) {
+                        if (!Modifier.isStatic(method.getModifiers()) && method.getParameterCount() == 1
+                                && isParameter(method.getAnnotations())) {
+                            method.setAccessible(true);
+                            add(MethodHandles.lookup().unreflect(method), of(method.getParameterTypes()[0],
+                                    method.getGenericParameterTypes()[0], method.getAnnotations(), providers,
+                                    encodedMembers));
+                        }
+                    }
+                }
+            } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+                throw new IllegalArgumentException("Cannot create bean parameter " + beanClass.getName(), e);
+            }
+        }
+
+        private void add(final MethodHandle setter, final ParamExtractor<?> extractor) {
+            setters.add(setter.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+            extractors.add(extractor);
+        }
+
+        private static boolean isParameter(final Annotation[] annotations) {
+            for (Annotation annotation : annotations) {
+                if (annotation instanceof PathParam || annotation instanceof QueryParam
+                        || annotation instanceof MatrixParam || annotation instanceof HeaderParam
+                        || annotation instanceof CookieParam || annotation instanceof FormParam
+                        || annotation instanceof BeanParam) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        Object extract(final List<String> values, final Source source) {
+            final Object bean;
+            try {
+                bean = (Object) constructor.invokeExact();
+            } catch (Throwable t) {
+                throw new IllegalStateException("Cannot instantiate bean parameter " + beanClass.getName(), t);
+            }
+            for (int i = 0; i < setters.size(); i++) {
+                final Object value = extractors.get(i).extract(source);
+                try {
+                    setters.get(i).invokeExact(bean, value);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new IllegalStateException("Cannot inject bean parameter " + beanClass.getName(), t);
+                }
+            }
+            return bean;
+        }
+    }
+}
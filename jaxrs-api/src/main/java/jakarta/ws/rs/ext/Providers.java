@@ -23,6 +23,16 @@ import jakarta.ws.rs.core.MediaType;
 
 /**
  * An injectable interface providing runtime lookup of provider instances.
+ * <p>
+ * Message body readers and writers are selected for every entity that is read or written. A JAX-RS runtime should
+ * therefore cache the outcome of a {@link #getMessageBodyReader(Class, Type, Annotation[], MediaType) reader} or
+ * {@link #getMessageBodyWriter(Class, Type, Annotation[], MediaType) writer} selection, keyed by the class, the generic
+ * type and the type and subtype of the media type, whenever every provider consulted during the selection is annotated
+ * with {@link CacheableSelection &#64;CacheableSelection}, so that a repeated selection is a single lookup. Media type
+ * parameters must not be part of the key, since some of them, such as a multipart boundary, differ for every message.
+ * Such a cache must be bounded and must be discarded whenever the set of providers changes. If any consulted provider
+ * is not annotated, the outcome may depend on the annotations and must not be cached.
+ * </p>
  *
  * @author Paul Sandoz
  * @author Marc Hadley
@@ -31,6 +41,7 @@ import jakarta.ws.rs.core.MediaType;
  * @see MessageBodyWriter
  * @see ContextResolver
  * @see ExceptionMapper
+ * @see CacheableSelection
  * @since 1.0
  */
 public interface Providers {
@@ -83,6 +94,12 @@ public interface Providers {
     /**
      * Get an exception mapping provider for a particular class of exception. Returns the provider whose generic type is the
      * nearest superclass of {@code type}.
+     * <p>
+     * Exception mappers are looked up for every exception that reaches the JAX-RS runtime, often many times per second
+     * for the same few exception classes. A JAX-RS runtime should therefore cache the provider resolved for an exception
+     * class, e.g. in a {@link ClassValue}, so that a repeated lookup does not walk the class hierarchy again. Such a
+     * cache must be discarded whenever the set of providers changes.
+     * </p>
      *
      * @param <T> type of the exception handled by the exception mapping provider.
      * @param type the class of exception.
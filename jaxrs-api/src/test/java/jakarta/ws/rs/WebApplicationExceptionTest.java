@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.RuntimeDelegate;
+
+/**
+ * {@link WebApplicationException} unit test.
+ */
+public class WebApplicationExceptionTest {
+
+    private RuntimeDelegate delegate;
+    private Response.ResponseBuilder builder;
+    private Response response;
+
+    @Before
+    public void setUp() {
+        delegate = mock(RuntimeDelegate.class);
+        builder = mock(Response.ResponseBuilder.class, RETURNS_SELF);
+        response = mock(Response.class);
+        when(delegate.createResponseBuilder()).thenReturn(builder);
+        when(builder.build()).thenReturn(response);
+        RuntimeDelegate.setInstance(delegate);
+    }
+
+    @After
+    public void tearDown() {
+        RuntimeDelegate.setInstance(null);
+    }
+
+    /**
+     * Test that a lightweight exception has neither a stack trace nor a response until the response is requested.
+     */
+    @Test
+    public void testLightweight() {
+        final NotFoundException exception = new NotFoundException(null, false);
+        assertEquals(0, exception.getStackTrace().length);
+        assertEquals("HTTP 404 Not Found", exception.getMessage());
+        verify(delegate, never()).createResponseBuilder();
+    }
+
+    /**
+     * Test that the response of a lightweight exception is built once.
+     */
+    @Test
+    public void testLazyResponse() {
+        final BadRequestException exception = new BadRequestException("bad", false);
+        assertSame(response, exception.getResponse());
+        assertSame(response, exception.getResponse());
+        verify(delegate, times(1)).createResponseBuilder();
+        verify(builder).status((Response.StatusType) Response.Status.BAD_REQUEST);
+    }
+
+    /**
+     * Test that the lazily built response of a "method not allowed" exception carries the allowed methods.
+     */
+    @Test
+    public void testLazyNotAllowedResponse() {
+        final NotAllowedException exception = new NotAllowedException(null, false, HttpMethod.GET);
+        verify(delegate, never()).createResponseBuilder();
+        assertSame(response, exception.getResponse());
+        verify(builder).allow(Collections.singleton(HttpMethod.GET));
+    }
+
+    /**
+     * Test that a lightweight client error exception rejects a status from another family.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidFamily() {
+        new ClientErrorException(null, Response.Status.SERVICE_UNAVAILABLE, false);
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * {@link ByteRange} unit test.
+ */
+public class ByteRangeTest {
+
+    /**
+     * Test parsing all kinds of ranges.
+     */
+    @Test
+    public void testParse() {
+        assertEquals(Arrays.asList(new ByteRange(0, 499), new ByteRange(500, -1), ByteRange.suffix(100)),
+                ByteRange.parse("bytes=0-499, 500-,-100"));
+        assertEquals(Arrays.asList(new ByteRange(1, 1)), ByteRange.parse("Bytes = ,1-1 ,"));
+    }
+
+    /**
+     * Test that malformed ranges and other range units are rejected.
+     */
+    @Test
+    public void testParseInvalid() {
+        for (String value : new String[] {"bytes=", "bytes=5", "bytes=5-4", "bytes=a-", "bytes=--5", "bytes=+1-2",
+                "items=0-1", "0-1", "bytes=0-99999999999999999999"}) {
+            try {
+                ByteRange.parse(value);
+                throw new AssertionError("IllegalArgumentException expected for " + value);
+            } catch (IllegalArgumentException e) {
+                // passed
+            }
+        }
+    }
+
+    /**
+     * Test resolving ranges against a representation length.
+     */
+    @Test
+    public void testResolve() {
+        final ByteRange closed = new ByteRange(100, 199);
+        assertEquals(100, closed.getOffset(1000));
+        assertEquals(100, closed.getLength(1000));
+        assertEquals(50, closed.getLength(150));
+        assertEquals("bytes 100-149/150", closed.toContentRange(150));
+
+        final ByteRange open = new ByteRange(900, -1);
+        assertEquals(100, open.getLength(1000));
+        assertEquals("bytes 900-999/1000", open.toContentRange(1000));
+
+        final ByteRange suffix = ByteRange.suffix(300);
+        assertEquals(700, suffix.getOffset(1000));
+        assertEquals(300, suffix.getLength(1000));
+        assertEquals(0, suffix.getOffset(200));
+        assertEquals(200, suffix.getLength(200));
+        assertEquals("bytes 0-199/200", suffix.toContentRange(200));
+    }
+
+    /**
+     * Test unsatisfiable ranges.
+     */
+    @Test
+    public void testUnsatisfiable() {
+        assertFalse(new ByteRange(1000, -1).isSatisfiable(1000));
+        assertTrue(new ByteRange(999, -1).isSatisfiable(1000));
+        assertFalse(ByteRange.suffix(0).isSatisfiable(1000));
+        assertFalse(ByteRange.suffix(10).isSatisfiable(0));
+        assertEquals(0, new ByteRange(1000, 2000).getLength(1000));
+        assertEquals("bytes */1000", ByteRange.toUnsatisfiedContentRange(1000));
+    }
+
+    /**
+     * Test that the string form can be parsed again.
+     */
+    @Test
+    public void testToString() {
+        assertEquals("0-499", new ByteRange(0, 499).toString());
+        assertEquals("500-", new ByteRange(500, -1).toString());
+        assertEquals("-500", ByteRange.suffix(500).toString());
+        assertEquals(Arrays.asList(ByteRange.suffix(500)), ByteRange.parse("bytes=" + ByteRange.suffix(500)));
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * {@link Deadline} unit test.
+ */
+public class DeadlineTest {
+
+    /**
+     * Test that a deadline in the future is not expired and has time remaining.
+     */
+    @Test
+    public void testTimeRemaining() {
+        final Deadline deadline = Deadline.after(1, TimeUnit.HOURS);
+        assertFalse(deadline.isExpired());
+        final long remaining = deadline.timeRemaining(TimeUnit.MINUTES);
+        assertTrue(remaining >= 59 && remaining <= 60);
+    }
+
+    /**
+     * Test that an expired deadline has no time remaining.
+     */
+    @Test
+    public void testExpired() {
+        final Deadline deadline = Deadline.after(-1, TimeUnit.SECONDS);
+        assertTrue(deadline.isExpired());
+        assertEquals(0, deadline.timeRemaining(TimeUnit.NANOSECONDS));
+        assertEquals("0", deadline.toHeaderValue());
+    }
+
+    /**
+     * Test parsing the header value.
+     */
+    @Test
+    public void testValueOf() {
+        final long remaining = Deadline.valueOf(" 5000 ").timeRemaining(TimeUnit.MILLISECONDS);
+        assertTrue(remaining > 4000 && remaining <= 5000);
+        assertTrue(Deadline.valueOf("0").isExpired());
+        assertTrue(Deadline.valueOf("-10").isExpired());
+    }
+
+    /**
+     * Test that a malformed header value is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testValueOfMalformed() {
+        Deadline.valueOf("5s");
+    }
+
+    /**
+     * Test that a {@code null} header value is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testValueOfNull() {
+        Deadline.valueOf(null);
+    }
+
+    /**
+     * Test that the earlier deadline is selected.
+     */
+    @Test
+    public void testMinimum() {
+        final Deadline early = Deadline.after(1, TimeUnit.SECONDS);
+        final Deadline late = Deadline.after(1, TimeUnit.HOURS);
+        assertSame(early, early.minimum(late));
+        assertSame(early, late.minimum(early));
+        assertSame(late, late.minimum(null));
+        assertTrue(early.compareTo(late) < 0);
+        assertTrue(late.compareTo(early) > 0);
+        assertEquals(0, early.compareTo(early));
+    }
+}
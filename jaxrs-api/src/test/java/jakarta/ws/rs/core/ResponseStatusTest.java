@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.core;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * {@link Response.Status} unit test.
+ */
+public class ResponseStatusTest {
+
+    /**
+     * Test that every status is found by its code.
+     */
+    @Test
+    public void testFromStatusCode() {
+        for (Response.Status status : Response.Status.values()) {
+            assertSame(status, Response.Status.fromStatusCode(status.getStatusCode()));
+        }
+    }
+
+    /**
+     * Test that codes without a status constant are not found.
+     */
+    @Test
+    public void testUnknownStatusCode() {
+        assertNull(Response.Status.fromStatusCode(-1));
+        assertNull(Response.Status.fromStatusCode(99));
+        assertNull(Response.Status.fromStatusCode(100));
+        assertNull(Response.Status.fromStatusCode(299));
+        assertNull(Response.Status.fromStatusCode(599));
+        assertNull(Response.Status.fromStatusCode(600));
+        assertNull(Response.Status.fromStatusCode(Integer.MIN_VALUE));
+    }
+}
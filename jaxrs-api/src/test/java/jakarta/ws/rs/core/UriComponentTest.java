@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.net.URLDecoder;
+
+import org.junit.Test;
+
+/**
+ * {@link UriComponent} unit test.
+ */
+public class UriComponentTest {
+
+    /**
+     * Test that strings without characters to encode are returned as they are.
+     */
+    @Test
+    public void testEncodeFastPath() {
+        final String plain = "abc-._~!$'()*,;:@";
+        assertSame(plain, UriComponent.encode(plain, UriComponent.Type.PATH_SEGMENT));
+        final String encoded = "a%20b";
+        assertSame(encoded, UriComponent.contextualEncode(encoded, UriComponent.Type.QUERY_PARAM));
+    }
+
+    /**
+     * Test the component specific encoding rules.
+     */
+    @Test
+    public void testComponentEncoding() {
+        assertEquals("a/b%20c", UriComponent.encode("a/b c", UriComponent.Type.PATH));
+        assertEquals("a%2Fb", UriComponent.encode("a/b", UriComponent.Type.PATH_SEGMENT));
+        assertEquals("a%3Bb%3Dc", UriComponent.encode("a;b=c", UriComponent.Type.MATRIX_PARAM));
+        assertEquals("a&b=c+d", UriComponent.encode("a&b=c+d", UriComponent.Type.QUERY));
+        assertEquals("a%26b%3Dc%2Bd/?", UriComponent.encode("a&b=c+d/?", UriComponent.Type.QUERY_PARAM));
+        assertEquals("f/?%23", UriComponent.encode("f/?#", UriComponent.Type.FRAGMENT));
+        assertEquals("[::1]:8080", UriComponent.encode("[::1]:8080", UriComponent.Type.AUTHORITY));
+    }
+
+    /**
+     * Test encoding of percent characters, non-ASCII characters and unpaired surrogates.
+     */
+    @Test
+    public void testEncodePercentAndUnicode() {
+        assertEquals("%2541%25", UriComponent.encode("%41%", UriComponent.Type.PATH));
+        assertEquals("%41%25", UriComponent.contextualEncode("%41%", UriComponent.Type.PATH));
+        assertEquals("%C3%A9%E2%82%AC%F0%9F%98%80", UriComponent.encode("é€😀", UriComponent.Type.PATH));
+        assertEquals("a%3Fb", UriComponent.encode("a\ud800b", UriComponent.Type.PATH_SEGMENT));
+        assertEquals("x=%C3%A9", UriComponent.appendEncoded(new StringBuilder("x="), "é", UriComponent.Type.QUERY_PARAM,
+                false).toString());
+    }
+
+    /**
+     * Test decoding, including round trips of encoded values.
+     */
+    @Test
+    public void testDecode() {
+        assertEquals("plain+value", UriComponent.decode("plain+value"));
+        assertEquals("a b", UriComponent.decode(new StringBuilder("a%20b")));
+        assertEquals("a b c", UriComponent.decode("a+b%20c", UriComponent.Type.QUERY_PARAM));
+        assertEquals("a+b", UriComponent.decode("a+b", UriComponent.Type.PATH));
+
+        final String value = "é€😀 /?&=+%";
+        for (UriComponent.Type type : UriComponent.Type.values()) {
+            assertEquals(type.name(), value, UriComponent.decode(UriComponent.encode(value, type), type));
+        }
+    }
+
+    /**
+     * Test that decoding is consistent with {@link URLDecoder} for form encoded query parameters.
+     */
+    @Test
+    public void testDecodeConsistentWithUrlDecoder() throws Exception {
+        final String encoded = "x%C3%A9+y%2B%26z%F0%9F%98%80";
+        assertEquals(URLDecoder.decode(encoded, "UTF-8"), UriComponent.decode(encoded, UriComponent.Type.QUERY_PARAM));
+    }
+
+    /**
+     * Test that malformed input is rejected.
+     */
+    @Test
+    public void testDecodeMalformed() {
+        assertMalformed("%");
+        assertMalformed("%4");
+        assertMalformed("%zz");
+        // truncated, invalid continuation, overlong and surrogate sequences
+        assertMalformed("%C3");
+        assertMalformed("%C3%41");
+        assertMalformed("%C0%AF");
+        assertMalformed("%ED%A0%80");
+        assertMalformed("%FF");
+    }
+
+    private static void assertMalformed(final String s) {
+        try {
+            UriComponent.decode(s);
+            throw new AssertionError("IllegalArgumentException expected for " + s);
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.core;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * {@link UriTemplate} unit test.
+ */
+public class UriTemplateTest {
+
+    /**
+     * Test parsing of template parameter names and regular expressions.
+     */
+    @Test
+    public void testTemplateNames() {
+        final UriTemplate template = UriTemplate.compile("http://{host}/a/{id: [0-9]{1,3}}/{name}/{id}");
+        assertEquals(Arrays.asList("host", "id", "name"), template.getTemplateNames());
+        assertEquals("[0-9]{1,3}", template.getRegex("id"));
+        assertNull(template.getRegex("name"));
+        assertNull(template.getRegex("unknown"));
+    }
+
+    /**
+     * Test that values are encoded according to the URI component of the template parameter.
+     */
+    @Test
+    public void testComponentEncoding() {
+        final UriTemplate template = UriTemplate.compile("http://{host}/p/{path}?q={query}#{fragment}");
+        final Map<String, Object> values = new HashMap<String, Object>();
+        values.put("host", "example.com:8080");
+        values.put("path", "a b/c?");
+        values.put("query", "x&y=z/?+");
+        values.put("fragment", "f g/?#");
+        assertEquals("http://example.com:8080/p/a%20b%2Fc%3F?q=x%26y%3Dz/?%2B#f%20g/?%23", template.expand(values));
+        assertEquals("http://example.com:8080/p/a%20b/c%3F?q=x%26y%3Dz/?%2B#f%20g/?%23", template.expand(values, false));
+    }
+
+    /**
+     * Test positional expansion where the first occurrence of a name determines its value.
+     */
+    @Test
+    public void testPositionalExpansion() {
+        final UriTemplate template = UriTemplate.compile("/{a}/{b}/{a}");
+        assertEquals("/x/y/x", template.expand("x", "y"));
+        assertEquals(URI.create("/x/y/x"), template.build("x", "y", "ignored"));
+    }
+
+    /**
+     * Test encoding of percent characters and non-ASCII values.
+     */
+    @Test
+    public void testPercentAndUnicode() {
+        final UriTemplate template = UriTemplate.compile("/{v}");
+        final Map<String, Object> values = new HashMap<String, Object>();
+        values.put("v", "%20é😀");
+        assertEquals("/%2520%C3%A9%F0%9F%98%80", template.expand(values));
+        assertEquals("/%20%C3%A9%F0%9F%98%80", template.expandFromEncoded(values));
+    }
+
+    /**
+     * Test that literals are contextually encoded once at compile time.
+     */
+    @Test
+    public void testLiteralEncoding() {
+        assertEquals("/a%20b/%41/c", UriTemplate.compile("/a b/%41/{x}").expand("c"));
+        assertEquals("mailto:x", UriTemplate.compile("mailto:{v}").expand("x"));
+    }
+
+    /**
+     * Test that invalid templates and missing values are rejected.
+     */
+    @Test
+    public void testInvalid() {
+        assertInvalid("/{a");
+        assertInvalid("/a}");
+        assertInvalid("/{}");
+        assertInvalid(null);
+        try {
+            UriTemplate.compile("/{a}/{b}").expand("x");
+            throw new AssertionError("IllegalArgumentException expected.");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+        try {
+            UriTemplate.compile("/{a}").expand(new HashMap<String, Object>());
+            throw new AssertionError("IllegalArgumentException expected.");
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+
+    private static void assertInvalid(final String template) {
+        try {
+            UriTemplate.compile(template);
+            throw new AssertionError("IllegalArgumentException expected for " + template);
+        } catch (IllegalArgumentException expected) {
+            // expected
+        }
+    }
+}
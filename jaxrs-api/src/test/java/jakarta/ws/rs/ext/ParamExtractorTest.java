@@ -0,0 +1,327 @@
+/*
+ * Copyright (c) 2019 Oracle and/or its affiliates. All rights reserved.
+ *
+ * This program and the accompanying materials are made available under the
+ * terms of the Eclipse Public License v. 2.0, which is available at
+ * http://www.eclipse.org/legal/epl-2.0.
+ *
+ * This Source Code may also be made available under the following Secondary
+ * Licenses when the conditions for such availability set forth in the
+ * Eclipse Public License v. 2.0 are satisfied: GNU General Public License,
+ * version 2 with the GNU Classpath Exception, which is available at
+ * https://www.gnu.org/software/classpath/license.html.
+ *
+ * SPDX-License-Identifier: EPL-2.0 OR GPL-2.0 WITH Classpath-exception-2.0
+ */
+
+package jakarta.ws.rs.ext;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import jakarta.ws.rs.BeanParam;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.Encoded;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MultivaluedHashMap;
+import jakarta.ws.rs.core.MultivaluedMap;
+
+/**
+ * {@link ParamExtractor} unit test.
+ */
+public class ParamExtractorTest {
+
+    /**
+     * Resource method declaring the tested parameters.
+     */
+    @SuppressWarnings("unused")
+    private static void resource(@QueryParam("size") @DefaultValue("10") int size,
+            @QueryParam("count") long count,
+            @PathParam("unit") TimeUnit unit,
+            @HeaderParam("X-Id") Id id,
+            @QueryParam("tag") SortedSet<Integer> tags,
+            @QueryParam("sort") @DefaultValue("name") List<String> sort,
+            @QueryParam("lazy") @DefaultValue("x") Counted lazy,
+            @QueryParam("eager") @DefaultValue("y") Counted eager,
+            @BeanParam Page page,
+            @QueryParam("initial") char initial,
+            @QueryParam("initials") @DefaultValue("jk") char initials) {
+    }
+
+    private static final Method RESOURCE = resourceMethod();
+
+    private static final AtomicInteger CONVERSIONS = new AtomicInteger();
+
+    private static Method resourceMethod() {
+        for (Method method : ParamExtractorTest.class.getDeclaredMethods()) {
+            if (method.getName().equals("resource")) {
+                return method;
+            }
+        }
+        throw new AssertionError();
+    }
+
+    private static <T> ParamExtractor<T> extractor(final int index, final Class<T> type,
+            final List<ParamConverterProvider> providers) {
+        return ParamExtractor.of(type, RESOURCE.getGenericParameterTypes()[index],
+                RESOURCE.getParameterAnnotations()[index], providers);
+    }
+
+    /**
+     * Source of the given decoded values, encoding spaces for encoded extractors.
+     */
+    private static ParamExtractor.Source source(final String... keysAndValues) {
+        final MultivaluedMap<String, String> parameters = new MultivaluedHashMap<String, String>();
+        final MultivaluedMap<String, String> encodedParameters = new MultivaluedHashMap<String, String>();
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            parameters.add(keysAndValues[i], keysAndValues[i + 1]);
+            encodedParameters.add(keysAndValues[i], keysAndValues[i + 1].replace(" ", "%20"));
+        }
+        return new ParamExtractor.Source() {
+            @Override
+            public MultivaluedMap<String, String> getParameters(final Class<? extends Annotation> type,
+                    final boolean encoded) {
+                return encoded ? encodedParameters : parameters;
+            }
+        };
+    }
+
+    /**
+     * Test primitive parameters with and without default values.
+     */
+    @Test
+    public void testPrimitive() {
+        final ParamExtractor<Integer> size = extractor(0, int.class, null);
+        assertEquals("size", size.getName());
+        assertEquals(QueryParam.class, size.getSourceType());
+        assertEquals(Integer.valueOf(10), size.extract(source()));
+        assertEquals(Integer.valueOf(25), size.extract(source("size", "25", "size", "30")));
+        assertEquals(Long.valueOf(0), extractor(1, long.class, null).extract(source()));
+    }
+
+    /**
+     * Test {@code char} parameters, which must be given exactly one character.
+     */
+    @Test
+    public void testChar() {
+        final ParamExtractor<Character> initial = extractor(9, char.class, null);
+        assertEquals(Character.valueOf('j'), initial.extract(source("initial", "j")));
+        assertEquals(Character.valueOf('\0'), initial.extract(source()));
+        try {
+            extractor(10, char.class, null);
+            fail("IllegalArgumentException expected.");
+        } catch (IllegalArgumentException e) {
+            // passed
+        }
+    }
+
+    /**
+     * Test {@code valueOf} of enums and single {@code String} argument constructors.
+     */
+    @Test
+    public void testValueOfAndConstructor() {
+        assertEquals(TimeUnit.SECONDS, extractor(2, TimeUnit.class, null).extract(source("unit", "SECONDS")));
+        assertNull(extractor(2, TimeUnit.class, null).extract(source()));
+        assertEquals("abc", extractor(3, Id.class, null).extract(source("X-Id", "abc")).value);
+    }
+
+    /**
+     * Test collections of converted values and default values of collections.
+     */
+    @Test
+    public void testCollections() {
+        assertEquals(Arrays.asList(1, 2, 3),
+                Arrays.asList(extractor(4, SortedSet.class, null).extract(source("tag", "3", "tag", "1", "tag", "2"))
+                        .toArray()));
+        assertTrue(extractor(4, SortedSet.class, null).extract(source()).isEmpty());
+        assertEquals(Collections.singletonList("name"), extractor(5, List.class, null).extract(source()));
+    }
+
+    /**
+     * Test that a param converter takes precedence and its default value is converted eagerly unless it is lazy.
+     */
+    @Test
+    public void testConverterDefaultValue() {
+        CONVERSIONS.set(0);
+        final List<ParamConverterProvider> providers = Collections.<ParamConverterProvider>singletonList(
+                new CountedConverterProvider());
+        final ParamExtractor<Counted> lazy = extractor(6, Counted.class, providers);
+        assertEquals(0, CONVERSIONS.get());
+        final ParamExtractor<Counted> eager = extractor(7, Counted.class, providers);
+        assertEquals(1, CONVERSIONS.get());
+
+        assertEquals("lazy:x", lazy.extract(source()).value);
+        assertEquals("lazy:x", lazy.extract(source()).value);
+        assertEquals(2, CONVERSIONS.get());
+        assertEquals("eager:y", eager.extract(source()).value);
+        assertEquals(2, CONVERSIONS.get());
+        assertEquals("eager:z", eager.extract(source("eager", "z")).value);
+    }
+
+    /**
+     * Test that a default value which cannot be converted is reported when the extractor is created.
+     */
+    @Test
+    public void testInvalidDefaultValue() {
+        try {
+            ParamExtractor.of(int.class, int.class,
+                    new Annotation[] {RESOURCE.getParameterAnnotations()[0][0], new DefaultValue() {
+                        @Override
+                        public Class<? extends Annotation> annotationType() {
+                            return DefaultValue.class;
+                        }
+
+                        @Override
+                        public String value() {
+                            return "ten";
+                        }
+                    }}, null);
+            fail("IllegalArgumentException expected.");
+        } catch (IllegalArgumentException e) {
+            // passed
+        }
+    }
+
+    /**
+     * Test that a type without any conversion is rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoConversion() {
+        ParamExtractor.of(Object.class, Object.class, RESOURCE.getParameterAnnotations()[1], null);
+    }
+
+    /**
+     * Test injection of the fields and setters of a bean parameter.
+     */
+    @Test
+    public void testBeanParam() {
+        final ParamExtractor<Page> page = extractor(8, Page.class, null);
+        assertNull(page.getName());
+        final Page value = page.extract(source("offset", "40", "X-Id", "abc"));
+        assertEquals(40, value.offset);
+        assertEquals(20, value.limit);
+        assertEquals("abc", value.id.value);
+    }
+
+    /**
+     * Test that the members of a bean parameter ask the shared source for the form of values they expect.
+     */
+    @Test
+    public void testBeanParamEncoded() {
+        final Page value = extractor(8, Page.class, null).extract(source("q", "a b"));
+        assertEquals("a b", value.query);
+        assertEquals("a%20b", value.encodedQuery);
+    }
+
+    /**
+     * Type with a single {@code String} argument constructor.
+     */
+    public static final class Id {
+
+        private final String value;
+
+        public Id(final String value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Type converted by a param converter.
+     */
+    public static final class Counted {
+
+        private final String value;
+
+        private Counted(final String value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * Bean parameter.
+     */
+    public static final class Page {
+
+        @QueryParam("offset")
+        private int offset;
+
+        @QueryParam("limit")
+        @DefaultValue("20")
+        private int limit;
+
+        @QueryParam("q")
+        private String query;
+
+        @QueryParam("q")
+        @Encoded
+        private String encodedQuery;
+
+        private Id id;
+
+        @HeaderParam("X-Id")
+        public void setId(final Id id) {
+            this.id = id;
+        }
+    }
+
+    private static final class CountedConverterProvider implements ParamConverterProvider {
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> ParamConverter<T> getConverter(final Class<T> rawType, final Type genericType,
+                final Annotation[] annotations) {
+            if (rawType != Counted.class) {
+                return null;
+            }
+            for (Annotation annotation : annotations) {
+                if (annotation instanceof QueryParam && ((QueryParam) annotation).value().equals("lazy")) {
+                    return (ParamConverter<T>) new LazyConverter();
+                }
+            }
+            return (ParamConverter<T>) new EagerConverter();
+        }
+    }
+
+    private static class EagerConverter implements ParamConverter<Counted> {
+
+        String prefix() {
+            return "eager:";
+        }
+
+        @Override
+        public Counted fromString(final String value) {
+            CONVERSIONS.incrementAndGet();
+            return new Counted(prefix() + value);
+        }
+
+        @Override
+        public String toString(final Counted value) {
+            return value.value;
+        }
+    }
+
+    @ParamConverter.Lazy
+    private static final class LazyConverter extends EagerConverter {
+
+        @Override
+        String prefix() {
+            return "lazy:";
+        }
+    }
+}